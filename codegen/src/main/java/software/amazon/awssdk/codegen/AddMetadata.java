@@ -78,6 +78,7 @@ final class AddMetadata {
                 .withTransformPackageName(Utils.getTransformPackageName(serviceName, customizationConfig))
                 .withRequestTransformPackageName(Utils.getRequestTransformPackageName(serviceName, customizationConfig))
                 .withPaginatorsPackageName(Utils.getPaginatorsPackageName(serviceName, customizationConfig))
+                .withWaitersPackageName(Utils.getWaitersPackageName(serviceName, customizationConfig))
                 .withSmokeTestsPackageName(Utils.getSmokeTestPackageName(serviceName, customizationConfig))
                 .withServiceAbbreviation(serviceMetadata.getServiceAbbreviation())
                 .withServiceFullName(serviceMetadata.getServiceFullName())
@@ -85,6 +86,8 @@ final class AddMetadata {
                 .withSyncInterface(String.format(Constants.SYNC_CLIENT_INTERFACE_NAME_PATTERN, serviceName))
                 .withSyncBuilder(String.format(Constants.SYNC_BUILDER_CLASS_NAME_PATTERN, serviceName))
                 .withSyncBuilderInterface(String.format(Constants.SYNC_BUILDER_INTERFACE_NAME_PATTERN, serviceName))
+                .withSyncWaiter(String.format(Constants.SYNC_WAITER_CLASS_NAME_PATTERN, serviceName))
+                .withAsyncWaiter(String.format(Constants.ASYNC_WAITER_CLASS_NAME_PATTERN, serviceName))
                 .withBaseExceptionName(String.format(Constants.BASE_EXCEPTION_NAME_PATTERN, serviceName))
                 .withBaseRequestName(String.format(Constants.BASE_REQUEST_NAME_PATTERN, serviceName))
                 .withBaseResponseName(String.format(Constants.BASE_RESPONSE_NAME_PATTERN, serviceName))
@@ -45,6 +45,7 @@ import software.amazon.awssdk.codegen.model.service.AuthType;
 import software.amazon.awssdk.codegen.model.service.Operation;
 import software.amazon.awssdk.codegen.model.service.Paginators;
 import software.amazon.awssdk.codegen.model.service.ServiceModel;
+import software.amazon.awssdk.codegen.model.service.Waiters;
 import software.amazon.awssdk.codegen.naming.DefaultNamingStrategy;
 import software.amazon.awssdk.codegen.naming.NamingStrategy;
 
@@ -63,6 +64,7 @@ public class IntermediateModelBuilder {
     private final TypeUtils typeUtils;
     private final List<IntermediateModelShapeProcessor> shapeProcessors;
     private final Paginators paginators;
+    private final Waiters waiters;
 
     public IntermediateModelBuilder(C2jModels models) {
         this.customConfig = models.customizationConfig();
@@ -73,6 +75,7 @@ public class IntermediateModelBuilder {
         this.typeUtils = new TypeUtils(namingStrategy);
         this.shapeProcessors = createShapeProcessors();
         this.paginators = models.paginatorsModel();
+        this.waiters = models.waitersModel();
     }
 
 
@@ -119,7 +122,7 @@ public class IntermediateModelBuilder {
 
         IntermediateModel fullModel = new IntermediateModel(
             constructMetadata(service, codeGenConfig, customConfig), operations, shapes,
-            customConfig, examples, authorizers, paginators.getPaginators());
+            customConfig, examples, authorizers, paginators.getPaginators(), waiters.getWaiters());
 
         customization.postprocess(fullModel);
 
@@ -135,7 +138,8 @@ public class IntermediateModelBuilder {
                                                                fullModel.getCustomizationConfig(),
                                                                fullModel.getExamples(),
                                                                fullModel.getCustomAuthorizers(),
-                                                               fullModel.getPaginators());
+                                                               fullModel.getPaginators(),
+                                                               fullModel.getWaiters());
 
         linkMembersToShapes(trimmedModel);
         linkOperationsToInputOutputShapes(trimmedModel);
@@ -257,4 +261,8 @@ public class IntermediateModelBuilder {
     public Paginators getPaginators() {
         return paginators;
     }
+
+    public Waiters getWaiters() {
+        return waiters;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.codegen.emitters.tasks;
+
+import static software.amazon.awssdk.utils.FunctionalUtils.safeFunction;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.awssdk.codegen.emitters.GeneratorTask;
+import software.amazon.awssdk.codegen.emitters.GeneratorTaskParams;
+import software.amazon.awssdk.codegen.emitters.PoetGeneratorTask;
+import software.amazon.awssdk.codegen.poet.waiters.WaiterClassSpec;
+
+public class WaitersGeneratorTasks extends BaseGeneratorTasks {
+
+    private final String waitersClassDir;
+
+    public WaitersGeneratorTasks(GeneratorTaskParams dependencies) {
+        super(dependencies);
+        this.waitersClassDir = dependencies.getPathProvider().getWaitersDirectory();
+    }
+
+    @Override
+    protected boolean hasTasks() {
+        return model.hasWaiters();
+    }
+
+    @Override
+    protected List<GeneratorTask> createTasks() throws Exception {
+        info("Emitting waiter classes");
+        return Stream.of(new WaiterClassSpec(model, false), new WaiterClassSpec(model, true))
+                     .filter(WaiterClassSpec::hasWaiters)
+                     .map(safeFunction(this::createTask))
+                     .collect(Collectors.toList());
+    }
+
+    private GeneratorTask createTask(WaiterClassSpec classSpec) throws IOException {
+        return new PoetGeneratorTask(waitersClassDir, model.getFileHeader(), classSpec);
+    }
+}
@@ -31,6 +31,9 @@ public final class Constants {
     public static final String SYNC_BUILDER_INTERFACE_NAME_PATTERN = "%sClientBuilder";
     public static final String SYNC_BUILDER_CLASS_NAME_PATTERN = "Default%sClientBuilder";
 
+    public static final String SYNC_WAITER_CLASS_NAME_PATTERN = "%sWaiter";
+    public static final String ASYNC_WAITER_CLASS_NAME_PATTERN = "%sAsyncWaiter";
+
     public static final String BASE_BUILDER_INTERFACE_NAME_PATTERN = "%sBaseClientBuilder";
     public static final String BASE_BUILDER_CLASS_NAME_PATTERN = "Default%sBaseClientBuilder";
 
@@ -54,6 +57,8 @@ public final class Constants {
 
     public static final String PACKAGE_NAME_PAGINATORS_PATTERN = "%s.paginators";
 
+    public static final String PACKAGE_NAME_WAITERS_PATTERN = "%s.waiters";
+
     public static final String PACKAGE_NAME_SMOKE_TEST_PATTERN = "%s.smoketests";
 
     public static final String PACKAGE_NAME_CUSTOM_AUTH_PATTERN = "%s.auth";
@@ -138,6 +138,10 @@ public final class Utils {
         return getCustomizedPackageName(serviceName, Constants.PACKAGE_NAME_PAGINATORS_PATTERN);
     }
 
+    public static String getWaitersPackageName(String serviceName, CustomizationConfig customizationConfig) {
+        return getCustomizedPackageName(serviceName, Constants.PACKAGE_NAME_WAITERS_PATTERN);
+    }
+
     public static String getSmokeTestPackageName(String serviceName, CustomizationConfig customizationConfig) {
         return getCustomizedPackageName(serviceName,
                                         Constants.PACKAGE_NAME_SMOKE_TEST_PATTERN);
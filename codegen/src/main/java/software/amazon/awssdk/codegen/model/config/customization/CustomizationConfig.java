@@ -123,6 +123,12 @@ public class CustomizationConfig {
 
     private Map<String, String> modelMarshallerDefaultValueSupplier;
 
+    /**
+     * Fully qualified class names of the service's execution interceptors, in execution order. These are instantiated directly
+     * by the generated client builder instead of being discovered from an execution.interceptors file on the classpath.
+     */
+    private List<String> interceptors = new ArrayList<>();
+
     private CustomizationConfig() {
     }
 
@@ -322,4 +328,12 @@ public class CustomizationConfig {
     public void setModelMarshallerDefaultValueSupplier(Map<String, String> modelMarshallerDefaultValueSupplier) {
         this.modelMarshallerDefaultValueSupplier = modelMarshallerDefaultValueSupplier;
     }
+
+    public List<String> getInterceptors() {
+        return interceptors;
+    }
+
+    public void setInterceptors(List<String> interceptors) {
+        this.interceptors = interceptors;
+    }
 }
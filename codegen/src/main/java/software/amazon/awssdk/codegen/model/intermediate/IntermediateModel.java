@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import software.amazon.awssdk.codegen.internal.Utils;
 import software.amazon.awssdk.codegen.model.config.customization.CustomizationConfig;
 import software.amazon.awssdk.codegen.model.service.PaginatorDefinition;
+import software.amazon.awssdk.codegen.model.service.WaiterDefinition;
 import software.amazon.awssdk.core.AwsResponse;
 import software.amazon.awssdk.core.ResponseMetadata;
 import software.amazon.awssdk.utils.IoUtils;
@@ -56,6 +57,9 @@ public final class IntermediateModel {
     @JsonIgnore
     private final Map<String, PaginatorDefinition> paginators;
 
+    @JsonIgnore
+    private final Map<String, WaiterDefinition> waiters;
+
     @JsonCreator
     public IntermediateModel(
         @JsonProperty("metadata") Metadata metadata,
@@ -64,7 +68,8 @@ public final class IntermediateModel {
         @JsonProperty("customizationConfig") CustomizationConfig customizationConfig,
         @JsonProperty("serviceExamples") ServiceExamples examples) {
 
-        this(metadata, operations, shapes, customizationConfig, examples, Collections.emptyMap(), Collections.emptyMap());
+        this(metadata, operations, shapes, customizationConfig, examples, Collections.emptyMap(), Collections.emptyMap(),
+             Collections.emptyMap());
     }
 
     public IntermediateModel(
@@ -74,7 +79,8 @@ public final class IntermediateModel {
         CustomizationConfig customizationConfig,
         ServiceExamples examples,
         Map<String, AuthorizerModel> customAuthorizers,
-        Map<String, PaginatorDefinition> paginators) {
+        Map<String, PaginatorDefinition> paginators,
+        Map<String, WaiterDefinition> waiters) {
         this.metadata = metadata;
         this.operations = operations;
         this.shapes = shapes;
@@ -82,6 +88,7 @@ public final class IntermediateModel {
         this.examples = examples;
         this.customAuthorizers = customAuthorizers;
         this.paginators = paginators;
+        this.waiters = waiters;
     }
 
     public Metadata getMetadata() {
@@ -116,6 +123,10 @@ public final class IntermediateModel {
         return paginators;
     }
 
+    public Map<String, WaiterDefinition> getWaiters() {
+        return waiters;
+    }
+
     /**
      * @return Exception unmarshaller implementation to use. Currently only needed by XML based
      * protocols.
@@ -211,4 +222,8 @@ public final class IntermediateModel {
     public boolean hasPaginators() {
         return paginators.size() > 0;
     }
+
+    public boolean hasWaiters() {
+        return waiters.size() > 0;
+    }
 }
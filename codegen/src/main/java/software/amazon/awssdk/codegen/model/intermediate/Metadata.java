@@ -71,6 +71,12 @@ public class Metadata {
 
     private String paginatorsPackageName;
 
+    private String waitersPackageName;
+
+    private String syncWaiter;
+
+    private String asyncWaiter;
+
     private String authPolicyPackageName;
 
     private String smokeTestsPackageName;
@@ -456,6 +462,49 @@ public class Metadata {
         return this;
     }
 
+    public String getFullWaitersPackageName() {
+        return joinPackageNames(rootPackageName, getWaitersPackageName());
+    }
+
+    public String getWaitersPackageName() {
+        return waitersPackageName;
+    }
+
+    public void setWaitersPackageName(String waitersPackageName) {
+        this.waitersPackageName = waitersPackageName;
+    }
+
+    public Metadata withWaitersPackageName(String waitersPackageName) {
+        setWaitersPackageName(waitersPackageName);
+        return this;
+    }
+
+    public String getSyncWaiter() {
+        return syncWaiter;
+    }
+
+    public void setSyncWaiter(String syncWaiter) {
+        this.syncWaiter = syncWaiter;
+    }
+
+    public Metadata withSyncWaiter(String syncWaiter) {
+        setSyncWaiter(syncWaiter);
+        return this;
+    }
+
+    public String getAsyncWaiter() {
+        return asyncWaiter;
+    }
+
+    public void setAsyncWaiter(String asyncWaiter) {
+        this.asyncWaiter = asyncWaiter;
+    }
+
+    public Metadata withAsyncWaiter(String asyncWaiter) {
+        setAsyncWaiter(asyncWaiter);
+        return this;
+    }
+
     public String getFullAuthPolicyPackageName() {
         return joinPackageNames(rootPackageName, getAuthPolicyPackageName());
     }
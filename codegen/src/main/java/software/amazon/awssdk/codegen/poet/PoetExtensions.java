@@ -74,4 +74,18 @@ public class PoetExtensions {
         return ClassName.get(model.getMetadata().getFullPaginatorsPackageName(), operationName + "Paginator");
     }
 
+    /**
+     * @return A Poet {@link ClassName} for the waiter class of the sync client, in the waiters package.
+     */
+    public ClassName getSyncWaiterClass() {
+        return ClassName.get(model.getMetadata().getFullWaitersPackageName(), model.getMetadata().getSyncWaiter());
+    }
+
+    /**
+     * @return A Poet {@link ClassName} for the waiter class of the async client, in the waiters package.
+     */
+    public ClassName getAsyncWaiterClass() {
+        return ClassName.get(model.getMetadata().getFullWaitersPackageName(), model.getMetadata().getAsyncWaiter());
+    }
+
 }
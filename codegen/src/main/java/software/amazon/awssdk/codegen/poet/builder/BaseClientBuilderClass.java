@@ -103,16 +103,20 @@ public class BaseClientBuilderClass implements ClassSpec {
 
         boolean crc32FromCompressedDataEnabled = model.getCustomizationConfig().isCalculateCrc32FromCompressedData();
 
-        return MethodSpec.methodBuilder("serviceDefaults")
-                         .addAnnotation(Override.class)
-                         .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
-                         .returns(ClientConfigurationDefaults.class)
-                         .addCode("return $T.builder()\n", ServiceBuilderConfigurationDefaults.class)
-                         .addCode("         .defaultSignerProvider(this::defaultSignerProvider)\n")
-                         .addCode("         .addRequestHandlerPath($S)\n", requestHandlerPath)
-                         .addCode("         .crc32FromCompressedDataEnabled($L)\n", crc32FromCompressedDataEnabled)
-                         .addCode("         .build();\n")
-                         .build();
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("serviceDefaults")
+                                               .addAnnotation(Override.class)
+                                               .addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+                                               .returns(ClientConfigurationDefaults.class)
+                                               .addCode("return $T.builder()\n", ServiceBuilderConfigurationDefaults.class)
+                                               .addCode("         .defaultSignerProvider(this::defaultSignerProvider)\n");
+
+        model.getCustomizationConfig().getInterceptors()
+             .forEach(i -> builder.addCode("         .addExecutionInterceptor(new $T())\n", ClassName.bestGuess(i)));
+
+        return builder.addCode("         .addRequestHandlerPath($S)\n", requestHandlerPath)
+                      .addCode("         .crc32FromCompressedDataEnabled($L)\n", crc32FromCompressedDataEnabled)
+                      .addCode("         .build();\n")
+                      .build();
     }
 
     private MethodSpec setAdvancedConfigurationMethod() {
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.codegen.poet.waiters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.lang.model.element.Modifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.codegen.internal.Utils;
+import software.amazon.awssdk.codegen.model.intermediate.IntermediateModel;
+import software.amazon.awssdk.codegen.model.intermediate.MemberModel;
+import software.amazon.awssdk.codegen.model.intermediate.OperationModel;
+import software.amazon.awssdk.codegen.model.intermediate.ShapeModel;
+import software.amazon.awssdk.codegen.model.service.Acceptor;
+import software.amazon.awssdk.codegen.model.service.WaiterDefinition;
+import software.amazon.awssdk.codegen.poet.ClassSpec;
+import software.amazon.awssdk.codegen.poet.PoetExtensions;
+import software.amazon.awssdk.codegen.poet.PoetUtils;
+import software.amazon.awssdk.core.waiters.Waiter;
+import software.amazon.awssdk.core.waiters.WaiterAcceptor;
+import software.amazon.awssdk.core.waiters.WaiterOverrideConfiguration;
+import software.amazon.awssdk.core.waiters.WaiterResponse;
+import software.amazon.awssdk.core.waiters.WaiterState;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Java poet {@link ClassSpec} to generate the waiter class of the sync or async client, with a {@code waitUntil} method
+ * for each waiter definition of the service model.
+ *
+ * <p>The JMESPath expressions of the {@code path}, {@code pathAll} and {@code pathAny} acceptors are translated to streams
+ * over the fluent getters of the response. Only field selections, list projections ({@code Name[]}) and comparisons of
+ * {@code length(...)} with zero are supported; a waiter using any other expression is not generated.</p>
+ */
+public class WaiterClassSpec implements ClassSpec {
+
+    private static final Logger log = LoggerFactory.getLogger(WaiterClassSpec.class);
+
+    private static final Pattern LENGTH_EXPRESSION = Pattern.compile("length\\((.+)\\)\\s*(>|==)\\s*`0`");
+    private static final Pattern PATH_SEGMENT = Pattern.compile("(\\w+)(\\[\\])?");
+
+    private static final String CLIENT_MEMBER = "client";
+    private static final String OVERRIDE_CONFIGURATION_MEMBER = "overrideConfiguration";
+    private static final String EXECUTOR_MEMBER = "scheduledExecutorService";
+    private static final String REQUEST_MEMBER = "request";
+
+    private final IntermediateModel model;
+    private final PoetExtensions poetExtensions;
+    private final boolean async;
+    private final Map<String, CodeBlock> acceptorsByWaiter = new TreeMap<>();
+
+    public WaiterClassSpec(IntermediateModel model, boolean async) {
+        this.model = model;
+        this.poetExtensions = new PoetExtensions(model);
+        this.async = async;
+
+        model.getWaiters().forEach((name, definition) -> {
+            try {
+                acceptorsByWaiter.put(name, acceptors(definition));
+            } catch (IllegalArgumentException e) {
+                log.warn("Waiter {} of {} is not generated: {}", name, model.getMetadata().getServiceName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return Whether any waiter definition of the model could be translated, i.e. whether the class is worth generating.
+     */
+    public boolean hasWaiters() {
+        return !acceptorsByWaiter.isEmpty();
+    }
+
+    @Override
+    public TypeSpec poetSpec() {
+        TypeSpec.Builder builder = TypeSpec.classBuilder(className())
+                                           .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                                           .addAnnotation(PoetUtils.GENERATED)
+                                           .addJavadoc("Waits for the resources of {@link $T} to reach a desired state, by "
+                                                       + "polling the operations named in the waiter definitions of the "
+                                                       + "service model.\n", clientInterface())
+                                           .addField(clientInterface(), CLIENT_MEMBER, Modifier.PRIVATE, Modifier.FINAL);
+
+        acceptorsByWaiter.keySet().forEach(name -> builder.addField(waiterField(name)));
+
+        builder.addMethod(constructor())
+               .addMethods(createMethods());
+
+        acceptorsByWaiter.keySet().forEach(name -> builder.addMethod(waitUntilMethod(name))
+                                                          .addMethod(waitUntilConsumerMethod(name)));
+        acceptorsByWaiter.keySet().forEach(name -> builder.addMethod(waiterBuilderMethod(name)));
+
+        return builder.build();
+    }
+
+    @Override
+    public ClassName className() {
+        return async ? poetExtensions.getAsyncWaiterClass() : poetExtensions.getSyncWaiterClass();
+    }
+
+    private ClassName clientInterface() {
+        return poetExtensions.getClientClass(async ? model.getMetadata().getAsyncInterface()
+                                                   : model.getMetadata().getSyncInterface());
+    }
+
+    private FieldSpec waiterField(String name) {
+        return FieldSpec.builder(waiterType(name), waiterMemberName(name), Modifier.PRIVATE, Modifier.FINAL).build();
+    }
+
+    private MethodSpec constructor() {
+        MethodSpec.Builder builder = MethodSpec.constructorBuilder()
+                                               .addModifiers(Modifier.PRIVATE)
+                                               .addParameter(clientInterface(), CLIENT_MEMBER)
+                                               .addParameter(WaiterOverrideConfiguration.class, OVERRIDE_CONFIGURATION_MEMBER);
+        if (async) {
+            builder.addParameter(ScheduledExecutorService.class, EXECUTOR_MEMBER);
+        }
+
+        builder.addStatement("this.$L = $T.paramNotNull($L, $S)", CLIENT_MEMBER, Validate.class, CLIENT_MEMBER, CLIENT_MEMBER)
+               .addStatement("$T.paramNotNull($L, $S)", Validate.class, OVERRIDE_CONFIGURATION_MEMBER,
+                             OVERRIDE_CONFIGURATION_MEMBER);
+
+        acceptorsByWaiter.keySet().forEach(name -> builder.addStatement("this.$L = $L($L)", waiterMemberName(name),
+                                                                        waiterMemberName(name), waiterBuilderArguments()));
+        return builder.build();
+    }
+
+    private String waiterBuilderArguments() {
+        return async ? OVERRIDE_CONFIGURATION_MEMBER + ", " + EXECUTOR_MEMBER : OVERRIDE_CONFIGURATION_MEMBER;
+    }
+
+    private List<MethodSpec> createMethods() {
+        MethodSpec.Builder withDefaults =
+            MethodSpec.methodBuilder("create")
+                      .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                      .returns(className())
+                      .addParameter(clientInterface(), CLIENT_MEMBER)
+                      .addJavadoc("Create a waiter polling with the given client, with the delays and numbers of attempts of "
+                                  + "the waiter definitions.\n")
+                      .addStatement("return create($L, $T.builder().build())", CLIENT_MEMBER,
+                                    WaiterOverrideConfiguration.class);
+
+        MethodSpec.Builder withOverrides =
+            MethodSpec.methodBuilder("create")
+                      .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                      .returns(className())
+                      .addParameter(clientInterface(), CLIENT_MEMBER)
+                      .addParameter(WaiterOverrideConfiguration.class, OVERRIDE_CONFIGURATION_MEMBER)
+                      .addJavadoc("Create a waiter polling with the given client, overriding the delays, numbers of attempts "
+                                  + "or timeout of the waiter definitions.\n");
+
+        if (!async) {
+            withOverrides.addStatement("return new $T($L, $L)", className(), CLIENT_MEMBER, OVERRIDE_CONFIGURATION_MEMBER);
+            return Stream.of(withDefaults, withOverrides).map(MethodSpec.Builder::build).collect(Collectors.toList());
+        }
+
+        withOverrides.addStatement("return create($L, $L, null)", CLIENT_MEMBER, OVERRIDE_CONFIGURATION_MEMBER);
+
+        MethodSpec.Builder withExecutor =
+            MethodSpec.methodBuilder("create")
+                      .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                      .returns(className())
+                      .addParameter(clientInterface(), CLIENT_MEMBER)
+                      .addParameter(WaiterOverrideConfiguration.class, OVERRIDE_CONFIGURATION_MEMBER)
+                      .addParameter(ScheduledExecutorService.class, EXECUTOR_MEMBER)
+                      .addJavadoc("Create a waiter polling with the given client and scheduling the attempts on the given "
+                                  + "executor, which is not shut down by the waiter. When null, a daemon thread shared by "
+                                  + "all the waiters is used.\n")
+                      .addStatement("return new $T($L, $L, $L)", className(), CLIENT_MEMBER, OVERRIDE_CONFIGURATION_MEMBER,
+                                    EXECUTOR_MEMBER);
+
+        return Stream.of(withDefaults, withOverrides, withExecutor).map(MethodSpec.Builder::build).collect(Collectors.toList());
+    }
+
+    private MethodSpec waitUntilMethod(String name) {
+        OperationModel operation = operation(name);
+        WaiterDefinition definition = model.getWaiters().get(name);
+        return MethodSpec.methodBuilder(waitUntilMethodName(name))
+                         .addModifiers(Modifier.PUBLIC)
+                         .returns(waitUntilReturnType(name))
+                         .addParameter(requestType(operation), REQUEST_MEMBER)
+                         .addJavadoc("Polls {@link $T#$L} until the $L waiter succeeds or fails. By default, the operation is "
+                                     + "polled every $L seconds, up to $L times.\n",
+                                     clientInterface(), operation.getMethodName(), name, definition.getDelay(),
+                                     definition.getMaxAttempts())
+                         .addJavadoc("\n@param $L The request polled.\n", REQUEST_MEMBER)
+                         .addJavadoc("@return $L\n", async ? "A future completed with the response or exception that made "
+                                                             + "the waiter succeed, or completed exceptionally when it "
+                                                             + "failed."
+                                                           : "The response or exception that made the waiter succeed.")
+                         .addStatement("return $L.$L(() -> $L.$L($L))", waiterMemberName(name), async ? "runAsync" : "run",
+                                       CLIENT_MEMBER, operation.getMethodName(), REQUEST_MEMBER)
+                         .build();
+    }
+
+    private MethodSpec waitUntilConsumerMethod(String name) {
+        ClassName requestType = requestType(operation(name));
+        TypeName consumerType = ParameterizedTypeName.get(ClassName.get(Consumer.class), requestType.nestedClass("Builder"));
+        return MethodSpec.methodBuilder(waitUntilMethodName(name))
+                         .addModifiers(Modifier.PUBLIC)
+                         .returns(waitUntilReturnType(name))
+                         .addParameter(consumerType, REQUEST_MEMBER)
+                         .addJavadoc("Polls until the $L waiter succeeds or fails, with a request built by the given "
+                                     + "consumer.\n", name)
+                         .addJavadoc("\n@see #$L($T)\n", waitUntilMethodName(name), requestType)
+                         .addStatement("return $L($T.builder().apply($L).build())", waitUntilMethodName(name), requestType,
+                                       REQUEST_MEMBER)
+                         .build();
+    }
+
+    private MethodSpec waiterBuilderMethod(String name) {
+        WaiterDefinition definition = model.getWaiters().get(name);
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(waiterMemberName(name))
+                                               .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                               .returns(waiterType(name))
+                                               .addParameter(WaiterOverrideConfiguration.class,
+                                                             OVERRIDE_CONFIGURATION_MEMBER);
+        if (async) {
+            builder.addParameter(ScheduledExecutorService.class, EXECUTOR_MEMBER);
+        }
+
+        CodeBlock.Builder body = CodeBlock.builder()
+                                          .add("return $T.builder($T.class)", Waiter.class, responseType(operation(name)))
+                                          .add(acceptorsByWaiter.get(name))
+                                          .add("\n.defaultMaxAttempts($L)", definition.getMaxAttempts())
+                                          .add("\n.defaultDelay($T.ofSeconds($L))", Duration.class, definition.getDelay())
+                                          .add("\n.overrideConfiguration($L)", OVERRIDE_CONFIGURATION_MEMBER);
+        if (async) {
+            body.add("\n.scheduledExecutorService($L)", EXECUTOR_MEMBER);
+        }
+
+        return builder.addStatement("$L", body.add("\n.build()").build()).build();
+    }
+
+    private TypeName waiterType(String name) {
+        return ParameterizedTypeName.get(ClassName.get(Waiter.class), responseType(operation(name)));
+    }
+
+    private TypeName waitUntilReturnType(String name) {
+        TypeName waiterResponse = ParameterizedTypeName.get(ClassName.get(WaiterResponse.class), responseType(operation(name)));
+        return async ? ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), waiterResponse) : waiterResponse;
+    }
+
+    private String waitUntilMethodName(String name) {
+        return "waitUntil" + Utils.capitialize(name);
+    }
+
+    private String waiterMemberName(String name) {
+        return Utils.unCapitialize(name) + "Waiter";
+    }
+
+    private OperationModel operation(String name) {
+        return model.getOperation(model.getWaiters().get(name).getOperation());
+    }
+
+    private ClassName requestType(OperationModel operation) {
+        return poetExtensions.getModelClass(operation.getInput().getVariableType());
+    }
+
+    private ClassName responseType(OperationModel operation) {
+        return poetExtensions.getModelClass(operation.getReturnType().getReturnType());
+    }
+
+    /**
+     * Translates the acceptors of a waiter definition to the {@code addAcceptor} calls of the waiter builder.
+     *
+     * @throws IllegalArgumentException If the operation or an acceptor of the definition cannot be translated.
+     */
+    private CodeBlock acceptors(WaiterDefinition definition) {
+        OperationModel operation = model.getOperation(definition.getOperation());
+        if (operation == null || operation.getInput() == null || operation.isStreaming()) {
+            throw new IllegalArgumentException("operation " + definition.getOperation() + " cannot be polled");
+        }
+        if (definition.getAcceptors() == null || definition.getAcceptors().isEmpty()) {
+            throw new IllegalArgumentException("no acceptors are defined");
+        }
+
+        CodeBlock.Builder code = CodeBlock.builder();
+        definition.getAcceptors().forEach(a -> code.add("\n.addAcceptor($L)", acceptor(a, operation)));
+        return code.build();
+    }
+
+    private CodeBlock acceptor(Acceptor acceptor, OperationModel operation) {
+        ClassName responseType = responseType(operation);
+        CodeBlock state = CodeBlock.of("$T.$L", WaiterState.class, waiterState(acceptor.getState()));
+        JsonNode expected = Validate.paramNotNull(acceptor.getExpected(), "expected");
+        String matcher = String.valueOf(acceptor.getMatcher());
+
+        switch (matcher) {
+            case "status":
+                return CodeBlock.of("$T.<$T>onStatusCode($L, $L)", WaiterAcceptor.class, responseType, state, expected.asInt());
+            case "error":
+                return CodeBlock.of("$T.<$T>onErrorCode($L, $S)", WaiterAcceptor.class, responseType, state, expected.asText());
+            case "path":
+                Matcher length = LENGTH_EXPRESSION.matcher(acceptor.getArgument().trim());
+                if (length.matches()) {
+                    boolean matchesNonEmpty = ">".equals(length.group(2)) == expected.asBoolean();
+                    return CodeBlock.of("$T.<$T>onResponse($L, r -> $L$L.findAny().isPresent())", WaiterAcceptor.class,
+                                        responseType, state, matchesNonEmpty ? "" : "!",
+                                        pathStream(length.group(1), operation, true));
+                }
+                return pathAcceptor("onPathAny", acceptor, operation, state);
+            case "pathAny":
+                return pathAcceptor("onPathAny", acceptor, operation, state);
+            case "pathAll":
+                return pathAcceptor("onPathAll", acceptor, operation, state);
+            default:
+                throw new IllegalArgumentException("matcher " + matcher + " is not supported");
+        }
+    }
+
+    private CodeBlock pathAcceptor(String factory, Acceptor acceptor, OperationModel operation, CodeBlock state) {
+        return CodeBlock.of("$T.<$T>$L($L, r -> $L, $S)", WaiterAcceptor.class, responseType(operation), factory, state,
+                            pathStream(acceptor.getArgument(), operation, false), acceptor.getExpected().asText());
+    }
+
+    private String waiterState(String state) {
+        String upperCase = String.valueOf(state).toUpperCase(Locale.ENGLISH);
+        for (WaiterState waiterState : WaiterState.values()) {
+            if (waiterState.name().equals(upperCase)) {
+                return upperCase;
+            }
+        }
+        throw new IllegalArgumentException("state " + state + " is not supported");
+    }
+
+    /**
+     * Translates a JMESPath expression made of field selections and list projections to a stream of the selected values.
+     * For example {@code Reservations[].Instances[].State.Name} becomes:
+     *
+     * <pre>
+     * Stream.of(r).map(x -> x.reservations()).filter(Objects::nonNull).flatMap(List::stream)
+     *             .map(x -> x.instances()).filter(Objects::nonNull).flatMap(List::stream)
+     *             .map(x -> x.state()).filter(Objects::nonNull)
+     *             .map(x -> x.name()).filter(Objects::nonNull)
+     * </pre>
+     *
+     * @param forLength Whether the stream is the argument of {@code length}, whose emptiness is checked: a selected list is
+     * then flattened and a selected string is filtered out when empty.
+     */
+    private CodeBlock pathStream(String expression, OperationModel operation, boolean forLength) {
+        CodeBlock.Builder code = CodeBlock.builder().add("$T.of(r)", Stream.class);
+        ShapeModel shape = operation.getOutputShape();
+        String[] segments = String.valueOf(expression).trim().split("\\.");
+
+        for (int i = 0; i < segments.length; i++) {
+            Matcher segment = PATH_SEGMENT.matcher(segments[i].trim());
+            if (shape == null || !segment.matches()) {
+                throw new IllegalArgumentException("expression " + expression + " is not supported");
+            }
+            MemberModel member = shape.getMemberByC2jName(segment.group(1));
+            if (member == null) {
+                throw new IllegalArgumentException("expression " + expression + " selects an unknown member");
+            }
+            code.add(".map(x -> x.$L()).filter($T::nonNull)", member.getFluentGetterMethodName(), Objects.class);
+
+            boolean last = i == segments.length - 1;
+            boolean projected = segment.group(2) != null;
+            if (member.isList() && (projected || (last && forLength))) {
+                code.add(".flatMap($T::stream)", List.class);
+                member = member.getListModel().getListMemberModel();
+            } else if (member.isList() || member.isMap() || projected) {
+                throw new IllegalArgumentException("expression " + expression + " is not supported");
+            } else if (last && forLength && "String".equals(member.getVariable().getSimpleType())) {
+                code.add(".filter(x -> !x.isEmpty())");
+            }
+
+            shape = member.isSimple() ? null : Utils.findShapeModelByC2jNameIfExists(model, member.getC2jShape());
+        }
+        return code.build();
+    }
+}
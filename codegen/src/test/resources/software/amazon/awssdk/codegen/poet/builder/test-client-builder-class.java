@@ -8,6 +8,7 @@ import software.amazon.awssdk.core.client.builder.DefaultClientBuilder;
 import software.amazon.awssdk.core.config.defaults.ClientConfigurationDefaults;
 import software.amazon.awssdk.core.config.defaults.ServiceBuilderConfigurationDefaults;
 import software.amazon.awssdk.core.runtime.auth.SignerProvider;
+import software.amazon.awssdk.services.json.internal.JsonServiceInterceptor;
 import software.amazon.awssdk.utils.AttributeMap;
 
 /**
@@ -26,6 +27,7 @@ abstract class DefaultJsonBaseClientBuilder<B extends JsonBaseClientBuilder<B, C
     @Override
     protected final ClientConfigurationDefaults serviceDefaults() {
         return ServiceBuilderConfigurationDefaults.builder().defaultSignerProvider(this::defaultSignerProvider)
+                                                  .addExecutionInterceptor(new JsonServiceInterceptor())
                                                   .addRequestHandlerPath("software/amazon/awssdk/services/json/execution.interceptors")
                                                   .crc32FromCompressedDataEnabled(false).build();
     }
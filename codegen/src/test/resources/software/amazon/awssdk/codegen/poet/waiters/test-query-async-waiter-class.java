@@ -0,0 +1,134 @@
+package software.amazon.awssdk.services.query.waiters;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.annotation.Generated;
+import software.amazon.awssdk.core.waiters.Waiter;
+import software.amazon.awssdk.core.waiters.WaiterAcceptor;
+import software.amazon.awssdk.core.waiters.WaiterOverrideConfiguration;
+import software.amazon.awssdk.core.waiters.WaiterResponse;
+import software.amazon.awssdk.core.waiters.WaiterState;
+import software.amazon.awssdk.services.query.QueryAsyncClient;
+import software.amazon.awssdk.services.query.model.APostOperationRequest;
+import software.amazon.awssdk.services.query.model.APostOperationResponse;
+import software.amazon.awssdk.services.query.model.APostOperationWithOutputRequest;
+import software.amazon.awssdk.services.query.model.APostOperationWithOutputResponse;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Waits for the resources of {@link QueryAsyncClient} to reach a desired state, by polling the operations named in the waiter definitions of the service model.
+ */
+@Generated("software.amazon.awssdk:codegen")
+public final class QueryAsyncWaiter {
+  private final QueryAsyncClient client;
+
+  private final Waiter<APostOperationWithOutputResponse> nestedMemberReadyWaiter;
+
+  private final Waiter<APostOperationResponse> postOperationSuccessWaiter;
+
+  private QueryAsyncWaiter(QueryAsyncClient client,
+      WaiterOverrideConfiguration overrideConfiguration,
+      ScheduledExecutorService scheduledExecutorService) {
+    this.client = Validate.paramNotNull(client, "client");
+    Validate.paramNotNull(overrideConfiguration, "overrideConfiguration");
+    this.nestedMemberReadyWaiter = nestedMemberReadyWaiter(overrideConfiguration, scheduledExecutorService);
+    this.postOperationSuccessWaiter = postOperationSuccessWaiter(overrideConfiguration, scheduledExecutorService);
+  }
+
+  /**
+   * Create a waiter polling with the given client, with the delays and numbers of attempts of the waiter definitions.
+   */
+  public static QueryAsyncWaiter create(QueryAsyncClient client) {
+    return create(client, WaiterOverrideConfiguration.builder().build());
+  }
+
+  /**
+   * Create a waiter polling with the given client, overriding the delays, numbers of attempts or timeout of the waiter definitions.
+   */
+  public static QueryAsyncWaiter create(QueryAsyncClient client,
+      WaiterOverrideConfiguration overrideConfiguration) {
+    return create(client, overrideConfiguration, null);
+  }
+
+  /**
+   * Create a waiter polling with the given client and scheduling the attempts on the given executor, which is not shut down by the waiter. When null, a daemon thread shared by all the waiters is used.
+   */
+  public static QueryAsyncWaiter create(QueryAsyncClient client,
+      WaiterOverrideConfiguration overrideConfiguration,
+      ScheduledExecutorService scheduledExecutorService) {
+    return new QueryAsyncWaiter(client, overrideConfiguration, scheduledExecutorService);
+  }
+
+  /**
+   * Polls {@link QueryAsyncClient#aPostOperationWithOutput} until the NestedMemberReady waiter succeeds or fails. By default, the operation is polled every 5 seconds, up to 10 times.
+   *
+   * @param request The request polled.
+   * @return A future completed with the response or exception that made the waiter succeed, or completed exceptionally when it failed.
+   */
+  public CompletableFuture<WaiterResponse<APostOperationWithOutputResponse>> waitUntilNestedMemberReady(
+      APostOperationWithOutputRequest request) {
+    return nestedMemberReadyWaiter.runAsync(() -> client.aPostOperationWithOutput(request));
+  }
+
+  /**
+   * Polls until the NestedMemberReady waiter succeeds or fails, with a request built by the given consumer.
+   *
+   * @see #waitUntilNestedMemberReady(APostOperationWithOutputRequest)
+   */
+  public CompletableFuture<WaiterResponse<APostOperationWithOutputResponse>> waitUntilNestedMemberReady(
+      Consumer<APostOperationWithOutputRequest.Builder> request) {
+    return waitUntilNestedMemberReady(APostOperationWithOutputRequest.builder().apply(request).build());
+  }
+
+  /**
+   * Polls {@link QueryAsyncClient#aPostOperation} until the PostOperationSuccess waiter succeeds or fails. By default, the operation is polled every 1 seconds, up to 40 times.
+   *
+   * @param request The request polled.
+   * @return A future completed with the response or exception that made the waiter succeed, or completed exceptionally when it failed.
+   */
+  public CompletableFuture<WaiterResponse<APostOperationResponse>> waitUntilPostOperationSuccess(
+      APostOperationRequest request) {
+    return postOperationSuccessWaiter.runAsync(() -> client.aPostOperation(request));
+  }
+
+  /**
+   * Polls until the PostOperationSuccess waiter succeeds or fails, with a request built by the given consumer.
+   *
+   * @see #waitUntilPostOperationSuccess(APostOperationRequest)
+   */
+  public CompletableFuture<WaiterResponse<APostOperationResponse>> waitUntilPostOperationSuccess(
+      Consumer<APostOperationRequest.Builder> request) {
+    return waitUntilPostOperationSuccess(APostOperationRequest.builder().apply(request).build());
+  }
+
+  private static Waiter<APostOperationWithOutputResponse> nestedMemberReadyWaiter(
+      WaiterOverrideConfiguration overrideConfiguration,
+      ScheduledExecutorService scheduledExecutorService) {
+    return Waiter.builder(APostOperationWithOutputResponse.class)
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onPathAny(WaiterState.SUCCESS, r -> Stream.of(r).map(x -> x.nestedMember()).filter(Objects::nonNull).map(x -> x.subMember()).filter(Objects::nonNull), "ready"))
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onResponse(WaiterState.RETRY, r -> !Stream.of(r).map(x -> x.nestedMember()).filter(Objects::nonNull).map(x -> x.subMember()).filter(Objects::nonNull).filter(x -> !x.isEmpty()).findAny().isPresent()))
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onErrorCode(WaiterState.FAILURE, "InvalidInputException"))
+        .defaultMaxAttempts(10)
+        .defaultDelay(Duration.ofSeconds(5))
+        .overrideConfiguration(overrideConfiguration)
+        .scheduledExecutorService(scheduledExecutorService)
+        .build();
+  }
+
+  private static Waiter<APostOperationResponse> postOperationSuccessWaiter(
+      WaiterOverrideConfiguration overrideConfiguration,
+      ScheduledExecutorService scheduledExecutorService) {
+    return Waiter.builder(APostOperationResponse.class)
+        .addAcceptor(WaiterAcceptor.<APostOperationResponse>onStatusCode(WaiterState.SUCCESS, 200))
+        .addAcceptor(WaiterAcceptor.<APostOperationResponse>onStatusCode(WaiterState.RETRY, 404))
+        .defaultMaxAttempts(40)
+        .defaultDelay(Duration.ofSeconds(1))
+        .overrideConfiguration(overrideConfiguration)
+        .scheduledExecutorService(scheduledExecutorService)
+        .build();
+  }
+}
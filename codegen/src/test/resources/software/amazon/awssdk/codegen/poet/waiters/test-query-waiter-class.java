@@ -0,0 +1,117 @@
+package software.amazon.awssdk.services.query.waiters;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.annotation.Generated;
+import software.amazon.awssdk.core.waiters.Waiter;
+import software.amazon.awssdk.core.waiters.WaiterAcceptor;
+import software.amazon.awssdk.core.waiters.WaiterOverrideConfiguration;
+import software.amazon.awssdk.core.waiters.WaiterResponse;
+import software.amazon.awssdk.core.waiters.WaiterState;
+import software.amazon.awssdk.services.query.QueryClient;
+import software.amazon.awssdk.services.query.model.APostOperationRequest;
+import software.amazon.awssdk.services.query.model.APostOperationResponse;
+import software.amazon.awssdk.services.query.model.APostOperationWithOutputRequest;
+import software.amazon.awssdk.services.query.model.APostOperationWithOutputResponse;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Waits for the resources of {@link QueryClient} to reach a desired state, by polling the operations named in the waiter definitions of the service model.
+ */
+@Generated("software.amazon.awssdk:codegen")
+public final class QueryWaiter {
+  private final QueryClient client;
+
+  private final Waiter<APostOperationWithOutputResponse> nestedMemberReadyWaiter;
+
+  private final Waiter<APostOperationResponse> postOperationSuccessWaiter;
+
+  private QueryWaiter(QueryClient client, WaiterOverrideConfiguration overrideConfiguration) {
+    this.client = Validate.paramNotNull(client, "client");
+    Validate.paramNotNull(overrideConfiguration, "overrideConfiguration");
+    this.nestedMemberReadyWaiter = nestedMemberReadyWaiter(overrideConfiguration);
+    this.postOperationSuccessWaiter = postOperationSuccessWaiter(overrideConfiguration);
+  }
+
+  /**
+   * Create a waiter polling with the given client, with the delays and numbers of attempts of the waiter definitions.
+   */
+  public static QueryWaiter create(QueryClient client) {
+    return create(client, WaiterOverrideConfiguration.builder().build());
+  }
+
+  /**
+   * Create a waiter polling with the given client, overriding the delays, numbers of attempts or timeout of the waiter definitions.
+   */
+  public static QueryWaiter create(QueryClient client,
+      WaiterOverrideConfiguration overrideConfiguration) {
+    return new QueryWaiter(client, overrideConfiguration);
+  }
+
+  /**
+   * Polls {@link QueryClient#aPostOperationWithOutput} until the NestedMemberReady waiter succeeds or fails. By default, the operation is polled every 5 seconds, up to 10 times.
+   *
+   * @param request The request polled.
+   * @return The response or exception that made the waiter succeed.
+   */
+  public WaiterResponse<APostOperationWithOutputResponse> waitUntilNestedMemberReady(
+      APostOperationWithOutputRequest request) {
+    return nestedMemberReadyWaiter.run(() -> client.aPostOperationWithOutput(request));
+  }
+
+  /**
+   * Polls until the NestedMemberReady waiter succeeds or fails, with a request built by the given consumer.
+   *
+   * @see #waitUntilNestedMemberReady(APostOperationWithOutputRequest)
+   */
+  public WaiterResponse<APostOperationWithOutputResponse> waitUntilNestedMemberReady(
+      Consumer<APostOperationWithOutputRequest.Builder> request) {
+    return waitUntilNestedMemberReady(APostOperationWithOutputRequest.builder().apply(request).build());
+  }
+
+  /**
+   * Polls {@link QueryClient#aPostOperation} until the PostOperationSuccess waiter succeeds or fails. By default, the operation is polled every 1 seconds, up to 40 times.
+   *
+   * @param request The request polled.
+   * @return The response or exception that made the waiter succeed.
+   */
+  public WaiterResponse<APostOperationResponse> waitUntilPostOperationSuccess(
+      APostOperationRequest request) {
+    return postOperationSuccessWaiter.run(() -> client.aPostOperation(request));
+  }
+
+  /**
+   * Polls until the PostOperationSuccess waiter succeeds or fails, with a request built by the given consumer.
+   *
+   * @see #waitUntilPostOperationSuccess(APostOperationRequest)
+   */
+  public WaiterResponse<APostOperationResponse> waitUntilPostOperationSuccess(
+      Consumer<APostOperationRequest.Builder> request) {
+    return waitUntilPostOperationSuccess(APostOperationRequest.builder().apply(request).build());
+  }
+
+  private static Waiter<APostOperationWithOutputResponse> nestedMemberReadyWaiter(
+      WaiterOverrideConfiguration overrideConfiguration) {
+    return Waiter.builder(APostOperationWithOutputResponse.class)
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onPathAny(WaiterState.SUCCESS, r -> Stream.of(r).map(x -> x.nestedMember()).filter(Objects::nonNull).map(x -> x.subMember()).filter(Objects::nonNull), "ready"))
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onResponse(WaiterState.RETRY, r -> !Stream.of(r).map(x -> x.nestedMember()).filter(Objects::nonNull).map(x -> x.subMember()).filter(Objects::nonNull).filter(x -> !x.isEmpty()).findAny().isPresent()))
+        .addAcceptor(WaiterAcceptor.<APostOperationWithOutputResponse>onErrorCode(WaiterState.FAILURE, "InvalidInputException"))
+        .defaultMaxAttempts(10)
+        .defaultDelay(Duration.ofSeconds(5))
+        .overrideConfiguration(overrideConfiguration)
+        .build();
+  }
+
+  private static Waiter<APostOperationResponse> postOperationSuccessWaiter(
+      WaiterOverrideConfiguration overrideConfiguration) {
+    return Waiter.builder(APostOperationResponse.class)
+        .addAcceptor(WaiterAcceptor.<APostOperationResponse>onStatusCode(WaiterState.SUCCESS, 200))
+        .addAcceptor(WaiterAcceptor.<APostOperationResponse>onStatusCode(WaiterState.RETRY, 404))
+        .defaultMaxAttempts(40)
+        .defaultDelay(Duration.ofSeconds(1))
+        .overrideConfiguration(overrideConfiguration)
+        .build();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.async;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.Checksum;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.checksums.internal.ChecksumCalculatingSubscriber;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * {@link AsyncRequestProvider} that computes a checksum of the content of another provider as it is sent.
+ *
+ * <pre class="brush: java">
+ * ChecksumCalculatingAsyncRequestProvider provider =
+ *         new ChecksumCalculatingAsyncRequestProvider(AsyncRequestProvider.fromFile(path), ChecksumAlgorithm.CRC32C);
+ * s3AsyncClient.putObject(request, provider).join();
+ * String crc32c = provider.checksum().get();
+ * </pre>
+ *
+ * <p>A checksum that has to be sent with the request itself, e.g. in the object metadata, is only known once the content
+ * has been read. Compute it beforehand with {@link #checksumOf(AsyncRequestProvider, ChecksumAlgorithm)}:</p>
+ *
+ * <pre class="brush: java">
+ * AsyncRequestProvider provider = AsyncRequestProvider.fromFile(path);
+ * String crc32c = ChecksumCalculatingAsyncRequestProvider.checksumOf(provider, ChecksumAlgorithm.CRC32C).join();
+ * s3AsyncClient.putObject(request.toBuilder().metadata(singletonMap("sdk-checksum-crc32c", crc32c)).build(), provider);
+ * </pre>
+ */
+@SdkPublicApi
+public final class ChecksumCalculatingAsyncRequestProvider implements AsyncRequestProvider {
+
+    private final AsyncRequestProvider delegate;
+    private final ChecksumAlgorithm algorithm;
+    private volatile String checksum;
+
+    /**
+     * @param delegate The provider of the content.
+     * @param algorithm The algorithm of the checksum to compute.
+     */
+    public ChecksumCalculatingAsyncRequestProvider(AsyncRequestProvider delegate, ChecksumAlgorithm algorithm) {
+        this.delegate = Validate.paramNotNull(delegate, "delegate");
+        this.algorithm = Validate.paramNotNull(algorithm, "algorithm");
+    }
+
+    @Override
+    public long contentLength() {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        // The content is published again when a request is retried, each subscription computes its own checksum
+        Checksum streamChecksum = algorithm.newChecksum();
+        Runnable onComplete = () -> checksum = algorithm.encode(streamChecksum);
+        delegate.subscribe(new ChecksumCalculatingSubscriber(subscriber, streamChecksum, onComplete));
+    }
+
+    /**
+     * Read the whole content of a provider to compute its checksum, before it is sent. The provider must be able to publish
+     * its content again afterwards, as those created from a file or from bytes do.
+     *
+     * @param provider The provider of the content.
+     * @param algorithm The algorithm of the checksum to compute.
+     * @return A future completed with the encoded checksum of the content, or exceptionally if it could not be read.
+     */
+    public static CompletableFuture<String> checksumOf(AsyncRequestProvider provider, ChecksumAlgorithm algorithm) {
+        Validate.paramNotNull(provider, "provider");
+        Validate.paramNotNull(algorithm, "algorithm");
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Checksum checksum = algorithm.newChecksum();
+        Runnable onComplete = () -> result.complete(algorithm.encode(checksum));
+        provider.subscribe(new ChecksumCalculatingSubscriber(new DrainingSubscriber(result), checksum, onComplete));
+        return result;
+    }
+
+    /**
+     * @return The encoded checksum of the content, once it has been entirely published. Empty until then.
+     */
+    public Optional<String> checksum() {
+        return Optional.ofNullable(checksum);
+    }
+
+    /**
+     * Requests the whole content and discards it, failing the result if the content cannot be read.
+     */
+    private static final class DrainingSubscriber implements Subscriber<ByteBuffer> {
+
+        private final CompletableFuture<String> result;
+
+        private DrainingSubscriber(CompletableFuture<String> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ByteBuffer byteBuffer) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.completeExceptionally(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.async;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+import java.util.zip.Checksum;
+import org.reactivestreams.Publisher;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.checksums.internal.ChecksumCalculatingSubscriber;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * {@link AsyncResponseHandler} that computes a checksum of the response content as it is streamed to another handler, and
+ * validates it against the checksum expected for the response before completing.
+ *
+ * <pre class="brush: java">
+ * s3AsyncClient.getObject(request, new ChecksumValidatingAsyncResponseHandler&lt;&gt;(
+ *         AsyncResponseHandler.toFile(path), ChecksumAlgorithm.CRC32C,
+ *         response -&gt; response.metadata().get("sdk-checksum-crc32c")));
+ * </pre>
+ *
+ * @param <ResponseT> Response POJO type.
+ * @param <ReturnT> Type returned by the wrapped handler.
+ */
+@SdkPublicApi
+public final class ChecksumValidatingAsyncResponseHandler<ResponseT, ReturnT>
+        implements AsyncResponseHandler<ResponseT, ReturnT> {
+
+    private final AsyncResponseHandler<ResponseT, ReturnT> delegate;
+    private final ChecksumAlgorithm algorithm;
+    private final Function<ResponseT, String> expectedChecksum;
+    private volatile String expected;
+    private volatile Checksum checksum;
+
+    /**
+     * @param delegate The handler consuming the response content.
+     * @param algorithm The algorithm of the checksum.
+     * @param expectedChecksum Returns the expected encoded checksum of the content of a response, or null if it is not known,
+     * in which case the content is not validated.
+     */
+    public ChecksumValidatingAsyncResponseHandler(AsyncResponseHandler<ResponseT, ReturnT> delegate,
+                                                  ChecksumAlgorithm algorithm,
+                                                  Function<ResponseT, String> expectedChecksum) {
+        this.delegate = Validate.paramNotNull(delegate, "delegate");
+        this.algorithm = Validate.paramNotNull(algorithm, "algorithm");
+        this.expectedChecksum = Validate.paramNotNull(expectedChecksum, "expectedChecksum");
+    }
+
+    @Override
+    public void responseReceived(ResponseT response) {
+        this.expected = expectedChecksum.apply(response);
+        delegate.responseReceived(response);
+    }
+
+    @Override
+    public void onStream(Publisher<ByteBuffer> publisher) {
+        // onStream may be called multiple times, each stream is checked from its start
+        Checksum streamChecksum = algorithm.newChecksum();
+        this.checksum = streamChecksum;
+        delegate.onStream(s -> publisher.subscribe(new ChecksumCalculatingSubscriber(s, streamChecksum, () -> { })));
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable throwable) {
+        delegate.exceptionOccurred(throwable);
+    }
+
+    /**
+     * @throws ChecksumMismatchException If the checksum of the content does not match the expected checksum.
+     */
+    @Override
+    public ReturnT complete() {
+        ReturnT result = delegate.complete();
+        if (expected != null) {
+            String actual = checksum == null ? algorithm.encode(algorithm.newChecksum()) : algorithm.encode(checksum);
+            if (!expected.equals(actual)) {
+                throw new ChecksumMismatchException(String.format("Expected %s as the %s checksum of the response but the actual "
+                                                                  + "calculated checksum was %s",
+                                                                  expected, algorithm.algorithmId(), actual));
+            }
+        }
+        return result;
+    }
+}
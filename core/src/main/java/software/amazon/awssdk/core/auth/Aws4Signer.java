@@ -16,6 +16,8 @@
 package software.amazon.awssdk.core.auth;
 
 import static software.amazon.awssdk.core.interceptor.AwsExecutionAttributes.AWS_CREDENTIALS;
+import static software.amazon.awssdk.core.interceptor.AwsExecutionAttributes.PRECOMPUTED_CONTENT_SHA256;
+import static software.amazon.awssdk.core.interceptor.AwsExecutionAttributes.SIGNING_REGION;
 import static software.amazon.awssdk.core.util.DateUtils.numberOfDaysSinceEpoch;
 import static software.amazon.awssdk.utils.StringUtils.lowerCase;
 
@@ -39,6 +41,7 @@ import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.interceptor.Context;
 import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.internal.collections.FifoCache;
+import software.amazon.awssdk.core.regions.Region;
 import software.amazon.awssdk.core.util.CredentialUtils;
 import software.amazon.awssdk.core.util.StringUtils;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
@@ -148,6 +151,15 @@ public class Aws4Signer extends AbstractAwsSigner
         this.regionName = regionName;
     }
 
+    /**
+     * Returns the region name to sign a request for: the signing region of the execution if one was set, or the region name of
+     * this signer.
+     */
+    private String regionName(ExecutionAttributes executionAttributes) {
+        Region signingRegion = executionAttributes.getAttribute(SIGNING_REGION);
+        return signingRegion != null ? signingRegion.value() : regionName;
+    }
+
     /**
      * Returns the service name that is used when calculating the signature.
      */
@@ -191,7 +203,7 @@ public class Aws4Signer extends AbstractAwsSigner
 
         final Aws4SignerRequestParams signerParams = new Aws4SignerRequestParams(
             execution.request(), mutableRequest, executionAttributes,
-            overriddenDate, regionName, serviceName, SignerConstants.AWS4_SIGNING_ALGORITHM);
+            overriddenDate, regionName(executionAttributes), serviceName, SignerConstants.AWS4_SIGNING_ALGORITHM);
 
         addHostHeader(mutableRequest);
         mutableRequest.header(SignerConstants.X_AMZ_DATE, signerParams.getFormattedSigningDateTime());
@@ -242,7 +254,7 @@ public class Aws4Signer extends AbstractAwsSigner
 
         final Aws4SignerRequestParams signerRequestParams = new Aws4SignerRequestParams(
                 execution.request(), mutableRequest, executionAttributes,
-                overriddenDate, regionName, serviceName, SignerConstants.AWS4_SIGNING_ALGORITHM);
+                overriddenDate, regionName(executionAttributes), serviceName, SignerConstants.AWS4_SIGNING_ALGORITHM);
 
         // Add the important parameters for v4 signing
         final String timeStamp = signerRequestParams.getFormattedSigningDateTime();
@@ -473,9 +485,17 @@ public class Aws4Signer extends AbstractAwsSigner
      * do any other necessary set-ups on the request headers. (e.g. aws-chunked
      * uses a pre-defined header value, and needs to change some headers
      * relating to content-encoding and content-length.)
+     *
+     * <p>When the service already computed the hash while reading the payload for another checksum, as set in
+     * {@link software.amazon.awssdk.core.interceptor.AwsExecutionAttributes#PRECOMPUTED_CONTENT_SHA256}, it is used instead
+     * of reading the payload again.</p>
      */
     protected String calculateContentHash(Aws4SignerRequestParams signerRequestParams,
                                           SdkHttpFullRequest.Builder requestBuilder) {
+        String precomputedSha256 = signerRequestParams.executionAttributes().getAttribute(PRECOMPUTED_CONTENT_SHA256);
+        if (precomputedSha256 != null) {
+            return precomputedSha256;
+        }
         SdkHttpFullRequest.Builder requestToSign = signerRequestParams.httpRequest();
         InputStream payloadStream = getBinaryRequestPayloadStream(requestToSign.content());
         payloadStream.mark(getReadLimit(signerRequestParams));
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.AwsSessionCredentials;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.utils.IoUtils;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * An opt-in cache of the responses of idempotent read operations, such as {@code DescribeTable} or {@code GetParameter},
+ * for the code calling them repeatedly with the same parameters. It is registered on a client as an
+ * {@link ExecutionInterceptor}, and only caches the operations given a time to live with
+ * {@link Builder#cache(Class, Duration)}.
+ *
+ * <p>Responses are keyed on the marshalled HTTP request: its method, endpoint, path, query parameters, headers and body,
+ * ignoring the headers that vary between two executions of the same request, such as the date or the signature. They are
+ * also keyed on the access key id and session token of the credentials the request is sent with, so that a request
+ * overriding the credentials of the client is never served a response cached for another identity. When
+ * several threads miss on the same key at once, a single request is sent and its response is shared. Only successful
+ * responses are cached, for their operation's time to live. The cache holds up to {@link Builder#maxEntries(Integer)}
+ * responses, and evicts the least recently used one when it is full.</p>
+ *
+ * <pre class="brush: java">
+ * ResponseCache cache = ResponseCache.builder()
+ *                                    .cache(DescribeTableRequest.class, Duration.ofSeconds(30))
+ *                                    .build();
+ * DynamoDBClient client = DynamoDBClient.builder()
+ *                                       .overrideConfiguration(c -> c.addLastExecutionInterceptor(cache))
+ *                                       .build();
+ * </pre>
+ *
+ * <p>A cached response is returned as is to every caller hitting it, without running the interceptors after
+ * transmission again. Operations with a streaming input or output are never cached. The cache is meant to be registered
+ * on a single client.</p>
+ */
+@SdkPublicApi
+public final class ResponseCache implements ExecutionInterceptor {
+
+    /**
+     * Set by the cache on the executions of the cached operations, so that the client handlers look up their responses.
+     */
+    @SdkInternalApi
+    public static final ExecutionAttribute<ResponseCache> RESPONSE_CACHE = new ExecutionAttribute<>("ResponseCache");
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final Set<String> IGNORED_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "amz-sdk-invocation-id", "amz-sdk-retry", "authorization", "date", "user-agent", "x-amz-date",
+        "x-amz-security-token", "x-amzn-trace-id")));
+
+    private final Map<Class<?>, Long> timeToLiveNanos;
+    private final Map<List<Object>, Entry> entries;
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private ResponseCache(DefaultBuilder builder) {
+        Validate.isTrue(!builder.timeToLives.isEmpty(), "At least one operation must be cached.");
+        int maxEntries = builder.maxEntries != null ? builder.maxEntries : DEFAULT_MAX_ENTRIES;
+        Validate.isPositive(maxEntries, "maxEntries");
+
+        Map<Class<?>, Long> timeToLives = new HashMap<>();
+        builder.timeToLives.forEach((type, ttl) -> timeToLives.put(type, Validate.isPositive(ttl, "timeToLive").toNanos()));
+        this.timeToLiveNanos = Collections.unmodifiableMap(timeToLives);
+        this.entries = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        if (timeToLiveNanos.containsKey(context.request().getClass())) {
+            executionAttributes.putAttribute(RESPONSE_CACHE, this);
+        }
+    }
+
+    /**
+     * Return the cached response to a request, or send it with the given function and cache its response.
+     *
+     * @param request The request, whose type decides the time to live of the response.
+     * @param executionAttributes The attributes of the execution, holding the credentials the response is also keyed on.
+     * @param httpRequest The marshalled request, on which the response is keyed.
+     * @param invocation Sends the request and returns its response.
+     */
+    @SdkInternalApi
+    public <T> T get(SdkRequest request, ExecutionAttributes executionAttributes, SdkHttpFullRequest httpRequest,
+                     Supplier<T> invocation) {
+        CompletableFuture<T> response = getAsync(request, executionAttributes, httpRequest, () -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                result.complete(invocation.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        });
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #get(SdkRequest, ExecutionAttributes, SdkHttpFullRequest, Supplier)}.
+     */
+    @SdkInternalApi
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(SdkRequest request, ExecutionAttributes executionAttributes,
+                                             SdkHttpFullRequest httpRequest, Supplier<CompletableFuture<T>> invocation) {
+        Long ttlNanos = timeToLiveNanos.get(request.getClass());
+        AwsCredentials credentials = executionAttributes.getAttribute(AwsExecutionAttributes.AWS_CREDENTIALS);
+        Optional<List<Object>> key = ttlNanos == null ? Optional.empty() : cacheKey(httpRequest, credentials);
+        if (!key.isPresent()) {
+            return invocation.get();
+        }
+
+        Entry cached = lookup(key.get());
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return CompletableFuture.completedFuture((T) cached.response);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> pending = loading.putIfAbsent(key.get(), load);
+        if (pending != null) {
+            hitCount.incrementAndGet();
+            return pending.thenApply(r -> (T) r);
+        }
+
+        // The response may have been cached between the lookup and the registration of this load
+        cached = lookup(key.get());
+        if (cached != null) {
+            loading.remove(key.get(), load);
+            load.complete(cached.response);
+            hitCount.incrementAndGet();
+            return CompletableFuture.completedFuture((T) cached.response);
+        }
+
+        missCount.incrementAndGet();
+        CompletableFuture<T> response;
+        try {
+            response = invocation.get();
+        } catch (RuntimeException | Error e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        return response.whenComplete((r, e) -> {
+            if (e == null) {
+                store(key.get(), r, ttlNanos);
+                loading.remove(key.get(), load);
+                load.complete(r);
+            } else {
+                loading.remove(key.get(), load);
+                load.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * @return The number of executions served by a cached response, or by the response of a concurrent identical request.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return The number of executions of the cached operations that sent their request.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return The number of responses in the cache, including the expired ones not evicted yet.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Remove all the responses from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private Entry lookup(List<Object> key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAtNanos >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(List<Object> key, Object response, long ttlNanos) {
+        synchronized (entries) {
+            entries.put(key, new Entry(response, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Key a request on everything that identifies its operation, its parameters and the identity it is sent with. Requests
+     * whose body cannot be read without consuming it are not cached.
+     */
+    private static Optional<List<Object>> cacheKey(SdkHttpFullRequest request, AwsCredentials credentials) {
+        Optional<ByteBuffer> body = request.content().map(ResponseCache::readBody).orElse(Optional.of(ByteBuffer.allocate(0)));
+        if (!body.isPresent()) {
+            return Optional.empty();
+        }
+
+        Map<String, List<String>> headers = new TreeMap<>();
+        request.headers().forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+            if (!IGNORED_HEADERS.contains(lowerCaseName)) {
+                headers.put(lowerCaseName, values);
+            }
+        });
+
+        return Optional.of(Arrays.asList(request.method(), request.protocol(), request.host(), request.port(),
+                                         request.encodedPath(), new TreeMap<>(request.rawQueryParameters()), headers,
+                                         body.get(), identity(credentials)));
+    }
+
+    private static List<String> identity(AwsCredentials credentials) {
+        if (credentials == null) {
+            return Collections.emptyList();
+        }
+        String sessionToken = credentials instanceof AwsSessionCredentials
+                              ? ((AwsSessionCredentials) credentials).sessionToken() : null;
+        return Arrays.asList(credentials.accessKeyId(), sessionToken);
+    }
+
+    private static Optional<ByteBuffer> readBody(InputStream content) {
+        if (!content.markSupported()) {
+            return Optional.empty();
+        }
+        try {
+            content.mark(Integer.MAX_VALUE);
+            byte[] body = IoUtils.toByteArray(content);
+            content.reset();
+            return Optional.of(ByteBuffer.wrap(body));
+        } catch (IOException e) {
+            throw new SdkClientException("Unable to read the request body to look up its cached response", e);
+        }
+    }
+
+    private static final class Entry {
+        private final Object response;
+        private final long expiresAtNanos;
+
+        private Entry(Object response, long expiresAtNanos) {
+            this.response = response;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    public interface Builder extends SdkBuilder<Builder, ResponseCache> {
+
+        /**
+         * Cache the responses of an operation, identified by the type of its requests, for the given time to live.
+         *
+         * @param requestType The type of the requests of the operation, e.g. {@code DescribeTableRequest.class}.
+         * @param timeToLive How long a response is returned in place of sending the same request again.
+         */
+        Builder cache(Class<? extends SdkRequest> requestType, Duration timeToLive);
+
+        /**
+         * The maximum number of responses in the cache, 1000 by default.
+         */
+        Builder maxEntries(Integer maxEntries);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+        private final Map<Class<?>, Duration> timeToLives = new HashMap<>();
+        private Integer maxEntries;
+
+        @Override
+        public Builder cache(Class<? extends SdkRequest> requestType, Duration timeToLive) {
+            timeToLives.put(Validate.paramNotNull(requestType, "requestType"), Validate.paramNotNull(timeToLive, "timeToLive"));
+            return this;
+        }
+
+        @Override
+        public Builder maxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            maxEntries(maxEntries);
+        }
+
+        @Override
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
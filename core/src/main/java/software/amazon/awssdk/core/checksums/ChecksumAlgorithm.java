@@ -0,0 +1,95 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.checksums.internal.Crc32C;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+/**
+ * Checksum algorithms that can be computed on request and response content as it is streamed, without reading the data a
+ * second time.
+ *
+ * <p>Checksums are encoded as the base64 of their big-endian 32-bit value.</p>
+ */
+@SdkPublicApi
+public enum ChecksumAlgorithm {
+
+    /**
+     * CRC32 (ISO-HDLC), hardware accelerated by the JDK.
+     */
+    CRC32("crc32", CRC32::new),
+
+    /**
+     * CRC32C (Castagnoli). Uses the hardware-accelerated {@code java.util.zip.CRC32C} on Java 9 and later, and a table-driven
+     * implementation on Java 8.
+     */
+    CRC32C("crc32c", crc32cFactory());
+
+    private final String algorithmId;
+    private final Supplier<Checksum> checksumFactory;
+
+    ChecksumAlgorithm(String algorithmId, Supplier<Checksum> checksumFactory) {
+        this.algorithmId = algorithmId;
+        this.checksumFactory = checksumFactory;
+    }
+
+    /**
+     * @return The lower case name of the algorithm, i.e. "crc32c".
+     */
+    public String algorithmId() {
+        return algorithmId;
+    }
+
+    /**
+     * @return A new checksum computed with this algorithm.
+     */
+    public Checksum newChecksum() {
+        return checksumFactory.get();
+    }
+
+    /**
+     * @return The encoded value of the given checksum.
+     */
+    public String encode(Checksum checksum) {
+        long value = checksum.getValue();
+        return BinaryUtils.toBase64(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16),
+                                                (byte) (value >>> 8), (byte) value});
+    }
+
+    private static Supplier<Checksum> crc32cFactory() {
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup()
+                                                    .findConstructor(Class.forName("java.util.zip.CRC32C"),
+                                                                     MethodType.methodType(void.class));
+            return () -> {
+                try {
+                    return (Checksum) constructor.invoke();
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to create a CRC32C checksum", t);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            return Crc32C::new;
+        }
+    }
+}
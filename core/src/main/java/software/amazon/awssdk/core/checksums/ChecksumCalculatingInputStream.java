@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Checksum;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.runtime.io.SdkFilterInputStream;
+
+/**
+ * Input stream wrapper that computes a checksum of the wrapped stream's content as it is read.
+ *
+ * <p>Skipped bytes are read and included in the checksum. Resetting the stream also resets the checksum, so the stream may
+ * only be marked at its beginning, which is what the SDK does to retry requests.</p>
+ */
+@SdkPublicApi
+public class ChecksumCalculatingInputStream extends SdkFilterInputStream {
+
+    private final ChecksumAlgorithm algorithm;
+    private final Checksum checksum;
+
+    /**
+     * @param in Input stream to content.
+     * @param algorithm The algorithm of the checksum to compute.
+     */
+    public ChecksumCalculatingInputStream(InputStream in, ChecksumAlgorithm algorithm) {
+        super(in);
+        this.algorithm = algorithm;
+        this.checksum = algorithm.newChecksum();
+    }
+
+    /**
+     * @return The encoded checksum of the content read so far.
+     */
+    public String checksum() {
+        return algorithm.encode(checksum);
+    }
+
+    @Override
+    public int read() throws IOException {
+        abortIfNeeded();
+        int ch = in.read();
+        if (ch != -1) {
+            checksum.update(ch);
+        }
+        return ch;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        abortIfNeeded();
+        int result = in.read(b, off, len);
+        if (result != -1) {
+            checksum.update(b, off, result);
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] skipped = new byte[(int) Math.min(8 * 1024, Math.max(n, 0))];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(skipped, 0, (int) Math.min(skipped.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    /**
+     * Resets the wrapped input stream and the checksum computation.
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        abortIfNeeded();
+        checksum.reset();
+        in.reset();
+    }
+}
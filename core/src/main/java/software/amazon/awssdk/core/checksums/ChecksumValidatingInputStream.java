@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums;
+
+import java.io.IOException;
+import java.io.InputStream;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+
+/**
+ * Input stream wrapper that computes a checksum of the wrapped stream's content as it is read, and validates it against an
+ * expected checksum when the end of the stream is reached. A stream closed before its end is not validated.
+ */
+@SdkPublicApi
+public class ChecksumValidatingInputStream extends ChecksumCalculatingInputStream {
+
+    private final String expectedChecksum;
+    private boolean validated;
+
+    /**
+     * @param in Input stream to content.
+     * @param algorithm The algorithm of the checksum.
+     * @param expectedChecksum The expected encoded checksum of the content.
+     */
+    public ChecksumValidatingInputStream(InputStream in, ChecksumAlgorithm algorithm, String expectedChecksum) {
+        super(in, algorithm);
+        this.expectedChecksum = expectedChecksum;
+    }
+
+    /**
+     * @throws ChecksumMismatchException If the end of the stream is reached and the computed checksum does not match the
+     * expected one.
+     */
+    @Override
+    public int read() throws IOException {
+        int ch = super.read();
+        if (ch == -1) {
+            validateChecksum();
+        }
+        return ch;
+    }
+
+    /**
+     * @throws ChecksumMismatchException If the end of the stream is reached and the computed checksum does not match the
+     * expected one.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int result = super.read(b, off, len);
+        if (result == -1) {
+            validateChecksum();
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        super.reset();
+        validated = false;
+    }
+
+    private void validateChecksum() {
+        if (validated) {
+            return;
+        }
+        validated = true;
+        String actualChecksum = checksum();
+        if (!expectedChecksum.equals(actualChecksum)) {
+            throw new ChecksumMismatchException(String.format("Expected %s as the checksum but the actual calculated checksum "
+                                                              + "was %s", expectedChecksum, actualChecksum));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums.internal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+
+/**
+ * Updates checksums with the content of byte buffers, without copying heap buffers.
+ */
+@SdkInternalApi
+public final class ByteBufferChecksums {
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    private ByteBufferChecksums() {
+    }
+
+    /**
+     * Update a checksum with the remaining bytes of a buffer. The position of the buffer is not changed.
+     */
+    public static void update(Checksum checksum, ByteBuffer buffer) {
+        if (checksum instanceof CRC32) {
+            ((CRC32) checksum).update(buffer.duplicate());
+        } else if (buffer.hasArray()) {
+            checksum.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            byte[] copy = new byte[Math.min(COPY_BUFFER_SIZE, source.remaining())];
+            while (source.hasRemaining()) {
+                int length = Math.min(copy.length, source.remaining());
+                source.get(copy, 0, length);
+                checksum.update(copy, 0, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums.internal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+
+/**
+ * {@link Subscriber} that updates a checksum with every buffer before passing it on to another subscriber.
+ */
+@SdkInternalApi
+public final class ChecksumCalculatingSubscriber implements Subscriber<ByteBuffer> {
+
+    private final Subscriber<? super ByteBuffer> subscriber;
+    private final Checksum checksum;
+    private final Runnable onComplete;
+
+    /**
+     * @param subscriber The subscriber the buffers are passed on to.
+     * @param checksum The checksum to update.
+     * @param onComplete Invoked once the checksum covers the whole content, before the subscriber is completed.
+     */
+    public ChecksumCalculatingSubscriber(Subscriber<? super ByteBuffer> subscriber, Checksum checksum, Runnable onComplete) {
+        this.subscriber = subscriber;
+        this.checksum = checksum;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        subscriber.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(ByteBuffer byteBuffer) {
+        ByteBufferChecksums.update(checksum, byteBuffer);
+        subscriber.onNext(byteBuffer);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        subscriber.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        onComplete.run();
+        subscriber.onComplete();
+    }
+}
@@ -18,6 +18,7 @@ package software.amazon.awssdk.core.client;
 import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import software.amazon.awssdk.annotations.Immutable;
@@ -32,6 +33,7 @@ import software.amazon.awssdk.core.ServiceAdvancedConfiguration;
 import software.amazon.awssdk.core.async.AsyncRequestProvider;
 import software.amazon.awssdk.core.async.AsyncResponseHandler;
 import software.amazon.awssdk.core.auth.AwsCredentialsProvider;
+import software.amazon.awssdk.core.cache.ResponseCache;
 import software.amazon.awssdk.core.config.AsyncClientConfiguration;
 import software.amazon.awssdk.core.config.InternalAdvancedClientOption;
 import software.amazon.awssdk.core.exception.SdkException;
@@ -43,6 +45,7 @@ import software.amazon.awssdk.core.http.SdkHttpFullRequestAdapter;
 import software.amazon.awssdk.core.http.SdkHttpResponseAdapter;
 import software.amazon.awssdk.core.http.async.SyncResponseHandlerAdapter;
 import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.InterceptorContext;
 import software.amazon.awssdk.core.util.Throwables;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
@@ -78,7 +81,7 @@ class AsyncClientHandlerImpl extends AsyncClientHandler {
             responseAdapter -> new SyncResponseHandlerAdapter<>(
                                interceptorCalling(executionParams.getResponseHandler(), executionContext),
                                responseAdapter,
-                               executionContext.executionAttributes()));
+                               executionContext.executionAttributes()), true);
     }
 
     /**
@@ -105,13 +108,14 @@ class AsyncClientHandlerImpl extends AsyncClientHandler {
         ResponseHandlerFactory<ReturnT> sdkHttpResponseHandler = responseAdapter ->
                 new UnmarshallingSdkHttpResponseHandler<>(asyncResponseHandler, context, executionParams.getResponseHandler());
 
-        return execute(executionParams, context, sdkHttpResponseHandler);
+        return execute(executionParams, context, sdkHttpResponseHandler, false);
     }
 
     private <InputT extends SdkRequest, OutputT, ReturnT> CompletableFuture<ReturnT> execute(
             ClientExecutionParams<InputT, OutputT> executionParams,
             ExecutionContext executionContext,
-            ResponseHandlerFactory<ReturnT> sdkHttpResponseHandlerFactory) {
+            ResponseHandlerFactory<ReturnT> sdkHttpResponseHandlerFactory,
+            boolean cacheable) {
         runBeforeExecutionInterceptors(executionContext);
         InputT inputT = runModifyRequestInterceptors(executionContext);
 
@@ -139,14 +143,20 @@ class AsyncClientHandlerImpl extends AsyncClientHandler {
         SdkHttpResponseHandler<? extends SdkException> errorHandler =
                 resolveErrorResponseHandler(executionParams, responseAdapter, executionContext);
 
-        return invoke(marshalled, requestProvider, inputT,
-                      executionContext, successResponseHandler, errorHandler)
-                .handle((resp, err) -> {
-                    if (err != null) {
-                        throw Throwables.failure(err);
-                    }
-                    return resp;
-                });
+        Supplier<CompletableFuture<ReturnT>> invocation = () -> invoke(marshalled, requestProvider, inputT, executionContext,
+                                                                       successResponseHandler, errorHandler);
+
+        ExecutionAttributes executionAttributes = executionContext.executionAttributes();
+        ResponseCache responseCache = executionAttributes.getAttribute(ResponseCache.RESPONSE_CACHE);
+        CompletableFuture<ReturnT> response = cacheable && responseCache != null && requestProvider == null
+                                              ? responseCache.getAsync(inputT, executionAttributes, marshalled, invocation)
+                                              : invocation.get();
+        return response.handle((resp, err) -> {
+            if (err != null) {
+                throw Throwables.failure(err);
+            }
+            return resp;
+        });
     }
 
     private boolean isCalculateCrc32FromCompressedData() {
@@ -15,6 +15,7 @@
 
 package software.amazon.awssdk.core.client;
 
+import java.util.function.Supplier;
 import software.amazon.awssdk.annotations.Immutable;
 import software.amazon.awssdk.annotations.ReviewBeforeRelease;
 import software.amazon.awssdk.annotations.SdkProtectedApi;
@@ -25,6 +26,7 @@ import software.amazon.awssdk.core.SdkRequest;
 import software.amazon.awssdk.core.SdkResponse;
 import software.amazon.awssdk.core.ServiceAdvancedConfiguration;
 import software.amazon.awssdk.core.auth.AwsCredentialsProvider;
+import software.amazon.awssdk.core.cache.ResponseCache;
 import software.amazon.awssdk.core.config.SyncClientConfiguration;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.http.AmazonHttpClient;
@@ -66,7 +68,7 @@ public class SyncClientHandlerImpl extends ClientHandler {
                 interceptorCalling(executionParams.getResponseHandler(), executionContext);
         HttpResponseHandler<ReturnT> httpResponseHandler =
                 new HttpResponseHandlerAdapter<>(interceptorCallingResponseHandler, streamingResponseHandler);
-        return execute(executionParams, executionContext, httpResponseHandler);
+        return execute(executionParams, executionContext, httpResponseHandler, false);
     }
 
     @Override
@@ -74,13 +76,14 @@ public class SyncClientHandlerImpl extends ClientHandler {
             ClientExecutionParams<InputT, OutputT> executionParams) {
         ExecutionContext executionContext = createExecutionContext(executionParams.getInput());
         return execute(executionParams, executionContext, interceptorCalling(executionParams.getResponseHandler(),
-                                                                             executionContext));
+                                                                             executionContext), true);
     }
 
     private <InputT extends SdkRequest, OutputT, ReturnT> ReturnT execute(
             ClientExecutionParams<InputT, OutputT> executionParams,
             ExecutionContext executionContext,
-            HttpResponseHandler<ReturnT> responseHandler) {
+            HttpResponseHandler<ReturnT> responseHandler,
+            boolean cacheable) {
         runBeforeExecutionInterceptors(executionContext);
         InputT inputT = runModifyRequestInterceptors(executionContext);
 
@@ -95,13 +98,19 @@ public class SyncClientHandlerImpl extends ClientHandler {
         SdkHttpFullRequest marshalled = SdkHttpFullRequestAdapter.toHttpFullRequest(request);
         addHttpRequest(executionContext, marshalled);
         runAfterMarshallingInterceptors(executionContext);
-        marshalled = runModifyHttpRequestInterceptors(executionContext);
+        SdkHttpFullRequest finalRequest = runModifyHttpRequestInterceptors(executionContext);
 
-        return invoke(marshalled,
-                      inputT,
-                      executionContext,
-                      responseHandler,
-                      executionParams.getErrorResponseHandler());
+        Supplier<ReturnT> invocation = () -> invoke(finalRequest,
+                                                    inputT,
+                                                    executionContext,
+                                                    responseHandler,
+                                                    executionParams.getErrorResponseHandler());
+
+        ResponseCache responseCache = executionContext.executionAttributes().getAttribute(ResponseCache.RESPONSE_CACHE);
+        if (cacheable && responseCache != null) {
+            return responseCache.get(inputT, executionContext.executionAttributes(), finalRequest, invocation);
+        }
+        return invocation.get();
     }
 
     @Override
@@ -114,6 +114,11 @@ public final class ClientAsyncHttpConfiguration
          * <b>Clients created by the factory are managed by the SDK and will be closed when the service client is closed.</b>
          * </p>
          *
+         * <p>
+         * To share a connection pool between multiple service clients while still having the SDK manage the lifecycle of the
+         * HTTP client, wrap the factory with {@link SharedSdkAsyncHttpClientFactory#create(SdkAsyncHttpClientFactory)}.
+         * </p>
+         *
          * @return This builder for method chaining.
          */
         // This intentionally returns SdkBuilder so that only httpClient or httpClientFactory may be supplied.
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.client.builder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.annotations.SdkTestInternalApi;
+import software.amazon.awssdk.utils.AttributeMap;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Keeps track of HTTP clients that are shared between service clients. Clients are keyed by the service defaults they were
+ * created with, so service clients with identical HTTP configuration use the same connection pool. Uses reference counting to
+ * keep track of how many service clients are using each HTTP client and closes it when that count reaches zero.
+ *
+ * @param <T> Type of HTTP client being shared.
+ */
+@SdkInternalApi
+final class SharedHttpClients<T extends SdkAutoCloseable> {
+
+    private final Map<AttributeMap, SharedHttpClient> clients = new HashMap<>();
+    private final Function<AttributeMap, T> clientCreator;
+
+    SharedHttpClients(Function<AttributeMap, T> clientCreator) {
+        this.clientCreator = clientCreator;
+    }
+
+    /**
+     * Retrieve the HTTP client for the provided service defaults, creating it if it doesn't exist, and increment its reference
+     * count. Every call to this method must be matched with a call to {@link #release(AttributeMap)}.
+     */
+    synchronized T acquire(AttributeMap serviceDefaults) {
+        SharedHttpClient sharedClient =
+            clients.computeIfAbsent(serviceDefaults, d -> new SharedHttpClient(clientCreator.apply(d)));
+        sharedClient.referenceCount++;
+        return sharedClient.client;
+    }
+
+    /**
+     * Decrement the reference count of the HTTP client for the provided service defaults and close it if necessary.
+     */
+    synchronized void release(AttributeMap serviceDefaults) {
+        SharedHttpClient sharedClient = clients.get(serviceDefaults);
+        if (sharedClient != null && --sharedClient.referenceCount == 0) {
+            clients.remove(serviceDefaults);
+            sharedClient.client.close();
+        }
+    }
+
+    @SdkTestInternalApi
+    synchronized int referenceCount(AttributeMap serviceDefaults) {
+        SharedHttpClient sharedClient = clients.get(serviceDefaults);
+        return sharedClient == null ? 0 : sharedClient.referenceCount;
+    }
+
+    private final class SharedHttpClient {
+        private final T client;
+        private int referenceCount = 0;
+
+        private SharedHttpClient(T client) {
+            this.client = client;
+        }
+    }
+}
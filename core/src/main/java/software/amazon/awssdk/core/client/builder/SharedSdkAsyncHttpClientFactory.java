@@ -0,0 +1,105 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.client.builder;
+
+import static software.amazon.awssdk.utils.Validate.paramNotNull;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import software.amazon.awssdk.annotations.SdkTestInternalApi;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkRequestContext;
+import software.amazon.awssdk.http.async.AbortableRunnable;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClientFactory;
+import software.amazon.awssdk.http.async.SdkHttpRequestProvider;
+import software.amazon.awssdk.http.async.SdkHttpResponseHandler;
+import software.amazon.awssdk.utils.AttributeMap;
+
+/**
+ * An {@link SdkAsyncHttpClientFactory} that shares the HTTP clients it creates between all of the service clients it is given
+ * to. Service clients with the same service specific HTTP defaults use a single underlying HTTP client, and with it a single
+ * connection pool, instead of each creating their own. Per-endpoint connection limits of the underlying HTTP client still apply.
+ *
+ * <p>Shared HTTP clients are reference counted. They are created when the first service client using them is built and are
+ * closed when the last service client using them is closed.</p>
+ *
+ * @see SharedSdkHttpClientFactory
+ */
+public final class SharedSdkAsyncHttpClientFactory implements SdkAsyncHttpClientFactory {
+
+    private final SharedHttpClients<SdkAsyncHttpClient> sharedClients;
+
+    private SharedSdkAsyncHttpClientFactory(SdkAsyncHttpClientFactory delegate) {
+        paramNotNull(delegate, "delegate");
+        this.sharedClients = new SharedHttpClients<>(delegate::createHttpClientWithDefaults);
+    }
+
+    /**
+     * Create a shared factory that creates its HTTP clients with the provided factory.
+     *
+     * @param delegate Factory used to create the underlying HTTP clients.
+     */
+    public static SharedSdkAsyncHttpClientFactory create(SdkAsyncHttpClientFactory delegate) {
+        return new SharedSdkAsyncHttpClientFactory(delegate);
+    }
+
+    @Override
+    public SdkAsyncHttpClient createHttpClientWithDefaults(AttributeMap serviceDefaults) {
+        return new ReferenceCountingSdkAsyncHttpClient(serviceDefaults, sharedClients.acquire(serviceDefaults));
+    }
+
+    @SdkTestInternalApi
+    int referenceCount(AttributeMap serviceDefaults) {
+        return sharedClients.referenceCount(serviceDefaults);
+    }
+
+    /**
+     * Handle to a shared HTTP client that releases its reference, rather than closing the client, when closed.
+     */
+    private final class ReferenceCountingSdkAsyncHttpClient implements SdkAsyncHttpClient {
+
+        private final AtomicBoolean hasBeenClosed = new AtomicBoolean(false);
+        private final AttributeMap serviceDefaults;
+        private final SdkAsyncHttpClient delegate;
+
+        private ReferenceCountingSdkAsyncHttpClient(AttributeMap serviceDefaults, SdkAsyncHttpClient delegate) {
+            this.serviceDefaults = serviceDefaults;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public AbortableRunnable prepareRequest(SdkHttpRequest request, SdkRequestContext context,
+                                                SdkHttpRequestProvider requestProvider, SdkHttpResponseHandler handler) {
+            return delegate.prepareRequest(request, context, requestProvider, handler);
+        }
+
+        @Override
+        public <T> Optional<T> getConfigurationValue(SdkHttpConfigurationOption<T> key) {
+            return delegate.getConfigurationValue(key);
+        }
+
+        @Override
+        public void close() {
+            // Only want to release the reference the first time it's closed. Close is idempotent and may be called multiple
+            // times.
+            if (hasBeenClosed.compareAndSet(false, true)) {
+                sharedClients.release(serviceDefaults);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.client.builder;
+
+import static software.amazon.awssdk.utils.Validate.paramNotNull;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import software.amazon.awssdk.annotations.SdkTestInternalApi;
+import software.amazon.awssdk.http.AbortableCallable;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpClientFactory;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.http.SdkRequestContext;
+import software.amazon.awssdk.utils.AttributeMap;
+
+/**
+ * An {@link SdkHttpClientFactory} that shares the HTTP clients it creates between all of the service clients it is given to.
+ * Service clients with the same service specific HTTP defaults use a single underlying HTTP client, and with it a single
+ * connection pool, instead of each creating their own. Per-endpoint connection limits of the underlying HTTP client still apply.
+ *
+ * <p>Shared HTTP clients are reference counted. They are created when the first service client using them is built and are
+ * closed when the last service client using them is closed.</p>
+ *
+ * <pre class="brush: java">
+ * SdkHttpClientFactory sharedFactory = SharedSdkHttpClientFactory.create(ApacheSdkHttpClientFactory.builder()
+ *                                                                                                  .maxConnections(200)
+ *                                                                                                  .build());
+ * ClientHttpConfiguration httpConfiguration = ClientHttpConfiguration.builder().httpClientFactory(sharedFactory).build();
+ *
+ * S3Client s3 = S3Client.builder().httpConfiguration(httpConfiguration).build();
+ * SqsClient sqs = SqsClient.builder().httpConfiguration(httpConfiguration).build();
+ * </pre>
+ */
+public final class SharedSdkHttpClientFactory implements SdkHttpClientFactory {
+
+    private final SharedHttpClients<SdkHttpClient> sharedClients;
+
+    private SharedSdkHttpClientFactory(SdkHttpClientFactory delegate) {
+        paramNotNull(delegate, "delegate");
+        this.sharedClients = new SharedHttpClients<>(delegate::createHttpClientWithDefaults);
+    }
+
+    /**
+     * Create a shared factory that creates its HTTP clients with the provided factory.
+     *
+     * @param delegate Factory used to create the underlying HTTP clients.
+     */
+    public static SharedSdkHttpClientFactory create(SdkHttpClientFactory delegate) {
+        return new SharedSdkHttpClientFactory(delegate);
+    }
+
+    @Override
+    public SdkHttpClient createHttpClientWithDefaults(AttributeMap serviceDefaults) {
+        return new ReferenceCountingSdkHttpClient(serviceDefaults, sharedClients.acquire(serviceDefaults));
+    }
+
+    @SdkTestInternalApi
+    int referenceCount(AttributeMap serviceDefaults) {
+        return sharedClients.referenceCount(serviceDefaults);
+    }
+
+    /**
+     * Handle to a shared HTTP client that releases its reference, rather than closing the client, when closed.
+     */
+    private final class ReferenceCountingSdkHttpClient implements SdkHttpClient {
+
+        private final AtomicBoolean hasBeenClosed = new AtomicBoolean(false);
+        private final AttributeMap serviceDefaults;
+        private final SdkHttpClient delegate;
+
+        private ReferenceCountingSdkHttpClient(AttributeMap serviceDefaults, SdkHttpClient delegate) {
+            this.serviceDefaults = serviceDefaults;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public AbortableCallable<SdkHttpFullResponse> prepareRequest(SdkHttpFullRequest request,
+                                                                     SdkRequestContext requestContext) {
+            return delegate.prepareRequest(request, requestContext);
+        }
+
+        @Override
+        public <T> Optional<T> getConfigurationValue(SdkHttpConfigurationOption<T> key) {
+            return delegate.getConfigurationValue(key);
+        }
+
+        @Override
+        public void close() {
+            // Only want to release the reference the first time it's closed. Close is idempotent and may be called multiple
+            // times.
+            if (hasBeenClosed.compareAndSet(false, true)) {
+                sharedClients.release(serviceDefaults);
+            }
+        }
+    }
+}
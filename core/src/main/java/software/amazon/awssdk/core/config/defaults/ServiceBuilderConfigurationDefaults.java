@@ -36,12 +36,14 @@ public class ServiceBuilderConfigurationDefaults extends ClientConfigurationDefa
 
     private final Supplier<SignerProvider> defaultSignerProvider;
     private final Supplier<URI> defaultEndpoint;
+    private final List<ExecutionInterceptor> executionInterceptors;
     private final List<String> requestHandlerPaths;
     private final Boolean crc32FromCompressedDataEnabled;
 
     private ServiceBuilderConfigurationDefaults(Builder builder) {
         this.defaultSignerProvider = builder.defaultSignerProvider;
         this.defaultEndpoint = builder.defaultEndpoint;
+        this.executionInterceptors = new ArrayList<>(builder.executionInterceptors);
         this.requestHandlerPaths = new ArrayList<>(builder.requestHandlerPaths);
         this.crc32FromCompressedDataEnabled = builder.crc32FromCompressedDataEnabled;
     }
@@ -67,8 +69,9 @@ public class ServiceBuilderConfigurationDefaults extends ClientConfigurationDefa
 
         ClasspathInterceptorChainFactory chainFactory = new ClasspathInterceptorChainFactory();
 
-        // Add service interceptors before the ones currently configured.
-        List<ExecutionInterceptor> serviceInterceptors = new ArrayList<>();
+        // Add service interceptors before the ones currently configured. Interceptors registered directly by the service's
+        // builder come first, followed by any that are listed on the classpath.
+        List<ExecutionInterceptor> serviceInterceptors = new ArrayList<>(executionInterceptors);
         requestHandlerPaths.forEach(p -> serviceInterceptors.addAll(chainFactory.getInterceptors(p)));
         serviceInterceptors.addAll(config.lastExecutionInterceptors());
         builder.lastExecutionInterceptors(serviceInterceptors);
@@ -83,6 +86,7 @@ public class ServiceBuilderConfigurationDefaults extends ClientConfigurationDefa
 
         private Supplier<SignerProvider> defaultSignerProvider;
         private Supplier<URI> defaultEndpoint;
+        private List<ExecutionInterceptor> executionInterceptors = new ArrayList<>();
         private List<String> requestHandlerPaths = new ArrayList<>();
         private Boolean crc32FromCompressedDataEnabled = false;
 
@@ -103,6 +107,15 @@ public class ServiceBuilderConfigurationDefaults extends ClientConfigurationDefa
             return this;
         }
 
+        /**
+         * Register an interceptor that is always added to the service's clients. Unlike interceptors referenced by a
+         * {@link #addRequestHandlerPath(String)} resource, these do not require the classpath to be scanned.
+         */
+        public Builder addExecutionInterceptor(ExecutionInterceptor executionInterceptor) {
+            executionInterceptors.add(executionInterceptor);
+            return this;
+        }
+
         public Builder addRequestHandlerPath(String handlerPath) {
             requestHandlerPaths.add(handlerPath);
             return this;
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.exception;
+
+import software.amazon.awssdk.annotations.SdkPublicApi;
+
+/**
+ * Extension of {@link SdkClientException} that is thrown whenever the checksum computed by the client on streamed content
+ * does not match the expected checksum, such as one stored with an object.
+ *
+ * This exception will not be retried by the SDK but may be retryable by the client, in the same way as a
+ * {@link Crc32MismatchException}.
+ */
+@SdkPublicApi
+public class ChecksumMismatchException extends SdkClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new ChecksumMismatchException with the specified message.
+     *
+     * @param message
+     *            An error message describing why this exception was thrown.
+     */
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.http;
+
+import java.util.Optional;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+
+/**
+ * Decides whether a request that failed with a service error should be sent again to another endpoint, for services that
+ * report the right endpoint of a resource in their error responses. A handler is installed for an execution with the
+ * {@link AwsExecutionAttributes#REDIRECT_HANDLER} attribute, usually by an
+ * {@link software.amazon.awssdk.core.interceptor.ExecutionInterceptor}.
+ *
+ * <p>The handler is consulted before the retry policy. A redirected request is signed and sent again right away; it does not
+ * count as a retry and is not delayed.</p>
+ */
+@SdkProtectedApi
+@FunctionalInterface
+public interface RedirectHandler {
+
+    /**
+     * Invoked when an attempt of a request failed with a service error.
+     *
+     * @param request The marshalled request, before it was signed.
+     * @param exception The error returned by the service.
+     * @param executionAttributes The attributes of the execution, which may be updated for the redirected request, for example
+     * with a new {@link AwsExecutionAttributes#SIGNING_REGION}.
+     * @return The request to send instead, or empty if the request should not be redirected.
+     */
+    Optional<SdkHttpFullRequest> redirect(SdkHttpFullRequest request,
+                                          SdkServiceException exception,
+                                          ExecutionAttributes executionAttributes);
+}
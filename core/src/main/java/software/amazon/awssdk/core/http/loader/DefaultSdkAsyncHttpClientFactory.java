@@ -27,18 +27,22 @@ import software.amazon.awssdk.utils.AttributeMap;
  */
 public final class DefaultSdkAsyncHttpClientFactory implements SdkAsyncHttpClientFactory {
 
-    private static final SdkHttpServiceProvider<SdkAsyncHttpService> DEFAULT_CHAIN = new CachingSdkHttpServiceProvider<>(
-            new SdkHttpServiceProviderChain<>(
-                    SystemPropertyHttpServiceProvider.asyncProvider(),
-                    ClasspathSdkHttpServiceProvider.asyncProvider()
-            ));
+    private static final SdkHttpServiceProvider<SdkAsyncHttpService> DEFAULT_CHAIN = new SdkHttpServiceProviderChain<>(
+            SystemPropertyHttpServiceProvider.asyncProvider(),
+            ClasspathSdkHttpServiceProvider.asyncProvider()
+    );
+
+    /**
+     * The HTTP implementation is resolved once and its factory is reused for every client, so building a
+     * client does not consult the system properties or scan the classpath.
+     */
+    private static final SdkHttpServiceProvider<SdkAsyncHttpClientFactory> DEFAULT_FACTORY = new CachingSdkHttpServiceProvider<>(
+        () -> DEFAULT_CHAIN.loadService().map(SdkAsyncHttpService::createAsyncHttpClientFactory));
 
     @Override
     public SdkAsyncHttpClient createHttpClientWithDefaults(AttributeMap serviceDefaults) {
-        // TODO We create and SdkHttpClientFactory every time. Do we want to cache it instead of the service binding?
-        return DEFAULT_CHAIN
+        return DEFAULT_FACTORY
                 .loadService()
-                .map(SdkAsyncHttpService::createAsyncHttpClientFactory)
                 .map(f -> f.createHttpClientWithDefaults(serviceDefaults))
                 .orElseThrow(
                     () -> new SdkClientException("Unable to load an HTTP implementation from any provider in the chain. " +
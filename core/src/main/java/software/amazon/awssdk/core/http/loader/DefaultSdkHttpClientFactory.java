@@ -26,18 +26,22 @@ import software.amazon.awssdk.utils.AttributeMap;
  */
 public final class DefaultSdkHttpClientFactory implements SdkHttpClientFactory {
 
-    private static final SdkHttpServiceProvider<SdkHttpService> DEFAULT_CHAIN = new CachingSdkHttpServiceProvider<>(
-            new SdkHttpServiceProviderChain<>(
-                    SystemPropertyHttpServiceProvider.syncProvider(),
-                    ClasspathSdkHttpServiceProvider.syncProvider()
-            ));
+    private static final SdkHttpServiceProvider<SdkHttpService> DEFAULT_CHAIN = new SdkHttpServiceProviderChain<>(
+            SystemPropertyHttpServiceProvider.syncProvider(),
+            ClasspathSdkHttpServiceProvider.syncProvider()
+    );
+
+    /**
+     * The HTTP implementation is resolved once and its factory is reused for every client, so building a
+     * client does not consult the system properties or scan the classpath.
+     */
+    private static final SdkHttpServiceProvider<SdkHttpClientFactory> DEFAULT_FACTORY = new CachingSdkHttpServiceProvider<>(
+        () -> DEFAULT_CHAIN.loadService().map(SdkHttpService::createHttpClientFactory));
 
     @Override
     public SdkHttpClient createHttpClientWithDefaults(AttributeMap serviceDefaults) {
-        // TODO We create and SdkHttpClientFactory every time. Do we want to cache it instead of the service binding?
-        return DEFAULT_CHAIN
+        return DEFAULT_FACTORY
                 .loadService()
-                .map(SdkHttpService::createHttpClientFactory)
                 .map(f -> f.createHttpClientWithDefaults(serviceDefaults))
                 .orElseThrow(
                     () -> new SdkClientException("Unable to load an HTTP implementation from any provider in the chain. " +
@@ -18,7 +18,9 @@ package software.amazon.awssdk.core.http.pipeline.stages;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
@@ -31,9 +33,12 @@ import software.amazon.awssdk.core.SdkStandardLoggers;
 import software.amazon.awssdk.core.exception.ResetException;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.http.HttpAsyncClientDependencies;
 import software.amazon.awssdk.core.http.HttpClientDependencies;
+import software.amazon.awssdk.core.http.RedirectHandler;
 import software.amazon.awssdk.core.http.pipeline.RequestPipeline;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.retry.RetryHandler;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.core.retry.RetryUtils;
@@ -48,6 +53,11 @@ public class AsyncRetryableStage<OutputT> implements RequestPipeline<SdkHttpFull
 
     private static final Logger log = LoggerFactory.getLogger(AsyncRetryableStage.class);
 
+    /**
+     * Maximum number of times a single request is redirected to another endpoint by a {@link RedirectHandler}.
+     */
+    private static final int MAX_REDIRECTS = 3;
+
     private final RequestPipeline<SdkHttpFullRequest, CompletableFuture<Response<OutputT>>> requestPipeline;
     private final ScheduledExecutorService retrySubmitter;
     private final HttpClientDependencies dependencies;
@@ -88,11 +98,13 @@ public class AsyncRetryableStage<OutputT> implements RequestPipeline<SdkHttpFull
      */
     private class RetryExecutor {
 
-        private final SdkHttpFullRequest request;
         private final RequestExecutionContext context;
         private final RetryHandler retryHandler;
 
+        private SdkHttpFullRequest request;
         private int requestCount = 0;
+        private int redirectCount = 0;
+        private boolean redirected;
 
         private RetryExecutor(SdkHttpFullRequest request, RequestExecutionContext context) {
             this.request = request;
@@ -118,9 +130,13 @@ public class AsyncRetryableStage<OutputT> implements RequestPipeline<SdkHttpFull
                 if (resp != null && resp.isSuccess()) {
                     retryHandler.releaseRetryCapacity();
                     future.complete(resp);
+                } else if (resp != null && redirect(resp.getException())) {
+                    execute(future);
                 } else if (resp != null) {
                     retryHandler.setLastRetriedException(handleSdkException(resp));
                     executeRetry(future);
+                } else if (redirect(unwrap(err))) {
+                    execute(future);
                 } else {
                     SdkClientException exception = new SdkClientException(err);
                     retryHandler.setLastRetriedException(handleSdkException(Response.fromFailure(exception, null)));
@@ -152,8 +168,9 @@ public class AsyncRetryableStage<OutputT> implements RequestPipeline<SdkHttpFull
         }
 
         private CompletableFuture<Response<OutputT>> doExecute() throws Exception {
-            if (retryHandler.isRetry()) {
+            if (redirected || retryHandler.isRetry()) {
                 request.content().ifPresent(AsyncRetryableStage::resetRequestInputStream);
+                redirected = false;
             }
 
             request.content().ifPresent(this::markInputStream);
@@ -164,6 +181,36 @@ public class AsyncRetryableStage<OutputT> implements RequestPipeline<SdkHttpFull
             return requestPipeline.execute(retryHandler.addRetryInfoHeader(request, requestCount), context);
         }
 
+        /**
+         * Ask the {@link RedirectHandler} of the execution, if there is one, whether the failed request should be sent to
+         * another endpoint. A redirect replaces the request and does not count as an attempt.
+         *
+         * @return True if the request was redirected and should be sent again right away.
+         */
+        private boolean redirect(Throwable exception) {
+            RedirectHandler redirectHandler = context.executionAttributes().getAttribute(AwsExecutionAttributes.REDIRECT_HANDLER);
+            if (redirectHandler == null || redirectCount >= MAX_REDIRECTS || !(exception instanceof SdkServiceException)) {
+                return false;
+            }
+            Optional<SdkHttpFullRequest> redirectedRequest =
+                    redirectHandler.redirect(request, (SdkServiceException) exception, context.executionAttributes());
+            redirectedRequest.ifPresent(r -> {
+                log.debug("Redirecting request to " + r.host());
+                request = r;
+                redirected = true;
+                redirectCount++;
+                requestCount--;
+            });
+            return redirectedRequest.isPresent();
+        }
+
+        /**
+         * Failures of the pipeline future are usually wrapped in a {@link CompletionException}.
+         */
+        private Throwable unwrap(Throwable err) {
+            return err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        }
+
         private SdkException handleSdkException(Response<OutputT> response) {
             SdkException exception = response.getException();
             if (!retryHandler.shouldRetry(response.getHttpResponse(), request, context, exception, requestCount)) {
@@ -18,6 +18,7 @@ package software.amazon.awssdk.core.http.pipeline.stages;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +33,10 @@ import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.http.HttpClientDependencies;
 import software.amazon.awssdk.core.http.InterruptMonitor;
+import software.amazon.awssdk.core.http.RedirectHandler;
 import software.amazon.awssdk.core.http.pipeline.RequestPipeline;
 import software.amazon.awssdk.core.http.pipeline.RequestToResponsePipeline;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.retry.RetryHandler;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.core.retry.RetryUtils;
@@ -48,6 +51,11 @@ public class RetryableStage<OutputT> implements RequestToResponsePipeline<Output
 
     private static final Logger log = LoggerFactory.getLogger(RetryableStage.class);
 
+    /**
+     * Maximum number of times a single request is redirected to another endpoint by a {@link RedirectHandler}.
+     */
+    private static final int MAX_REDIRECTS = 3;
+
     private final RequestPipeline<SdkHttpFullRequest, Response<OutputT>> requestPipeline;
 
     private final HttpClientDependencies dependencies;
@@ -86,11 +94,13 @@ public class RetryableStage<OutputT> implements RequestToResponsePipeline<Output
      */
     private class RetryExecutor {
 
-        private final SdkHttpFullRequest request;
         private final RequestExecutionContext context;
         private final RetryHandler retryHandler;
 
+        private SdkHttpFullRequest request;
         private int requestCount = 0;
+        private int redirectCount = 0;
+        private boolean redirected;
 
         private RetryExecutor(SdkHttpFullRequest request, RequestExecutionContext context) {
             this.request = request;
@@ -106,13 +116,15 @@ public class RetryableStage<OutputT> implements RequestToResponsePipeline<Output
                     if (response.isSuccess()) {
                         retryHandler.releaseRetryCapacity();
                         return response;
-                    } else {
+                    } else if (!redirect(response.getException())) {
                         retryHandler.setLastRetriedException(handleUnmarshalledException(response));
                     }
                 } catch (SdkServiceException e) {
                     // TODO This can be cleaned up a bit if we have separate hierarchies for service and client exceptions
                     // as we can just catch the client exception below.
-                    throw e;
+                    if (!redirect(e)) {
+                        throw e;
+                    }
                 } catch (SdkException | IOException e) {
                     retryHandler.setLastRetriedException(handleThrownException(e));
                 }
@@ -126,7 +138,10 @@ public class RetryableStage<OutputT> implements RequestToResponsePipeline<Output
         }
 
         private Response<OutputT> doExecute() throws Exception {
-            if (retryHandler.isRetry()) {
+            if (redirected) {
+                request.content().ifPresent(RetryableStage::resetRequestInputStream);
+                redirected = false;
+            } else if (retryHandler.isRetry()) {
                 request.content().ifPresent(RetryableStage::resetRequestInputStream);
                 doPauseBeforeRetry();
             }
@@ -139,6 +154,29 @@ public class RetryableStage<OutputT> implements RequestToResponsePipeline<Output
             return requestPipeline.execute(retryHandler.addRetryInfoHeader(request, requestCount), context);
         }
 
+        /**
+         * Ask the {@link RedirectHandler} of the execution, if there is one, whether the failed request should be sent to
+         * another endpoint. A redirect replaces the request and does not count as an attempt.
+         *
+         * @return True if the request was redirected and should be sent again right away.
+         */
+        private boolean redirect(SdkException exception) {
+            RedirectHandler redirectHandler = context.executionAttributes().getAttribute(AwsExecutionAttributes.REDIRECT_HANDLER);
+            if (redirectHandler == null || redirectCount >= MAX_REDIRECTS || !(exception instanceof SdkServiceException)) {
+                return false;
+            }
+            Optional<SdkHttpFullRequest> redirectedRequest =
+                    redirectHandler.redirect(request, (SdkServiceException) exception, context.executionAttributes());
+            redirectedRequest.ifPresent(r -> {
+                log.debug("Redirecting request to " + r.host());
+                request = r;
+                redirected = true;
+                redirectCount++;
+                requestCount--;
+            });
+            return redirectedRequest.isPresent();
+        }
+
         private SdkException handleUnmarshalledException(Response<OutputT> response) {
             SdkException exception = response.getException();
             if (!retryHandler.shouldRetry(response.getHttpResponse(), request, context, exception, requestCount)) {
@@ -19,6 +19,7 @@ import software.amazon.awssdk.annotations.ReviewBeforeRelease;
 import software.amazon.awssdk.core.SdkRequestOverrideConfig;
 import software.amazon.awssdk.core.ServiceAdvancedConfiguration;
 import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.http.RedirectHandler;
 import software.amazon.awssdk.core.regions.Region;
 
 /**
@@ -59,6 +60,24 @@ public final class AwsExecutionAttributes {
      */
     public static final ExecutionAttribute<Region> AWS_REGION = new ExecutionAttribute<>("AwsRegion");
 
+    /**
+     * The AWS {@link Region} the request should be signed for, when it differs from the region the client was configured with.
+     * Set by services that can address resources in other regions than the client's.
+     */
+    public static final ExecutionAttribute<Region> SIGNING_REGION = new ExecutionAttribute<>("SigningRegion");
+
+    /**
+     * The hex encoded SHA-256 hash of the request payload, when the service computed it before the request is signed. The
+     * signer uses it instead of reading the payload again. Set by services that read the payload for a checksum of their own.
+     */
+    public static final ExecutionAttribute<String> PRECOMPUTED_CONTENT_SHA256 =
+            new ExecutionAttribute<>("PrecomputedContentSha256");
+
+    /**
+     * The {@link RedirectHandler} consulted when an attempt of the request fails with a service error.
+     */
+    public static final ExecutionAttribute<RedirectHandler> REDIRECT_HANDLER = new ExecutionAttribute<>("RedirectHandler");
+
     /**
      * Handler context key for advanced configuration.
      */
@@ -30,10 +30,12 @@ import java.util.stream.Stream;
 import software.amazon.awssdk.annotations.ReviewBeforeRelease;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.util.ClassLoaderHelper;
+import software.amazon.awssdk.utils.SdkSystemSetting;
 import software.amazon.awssdk.utils.Validate;
 
 /**
- * Factory for creating request/response handler chains from the classpath.
+ * Factory for creating request/response handler chains from the classpath. Classpath loading can be disabled with
+ * {@link SdkSystemSetting#CLASSPATH_INTERCEPTORS_ENABLED}, in which case no interceptors are returned.
  */
 public final class ClasspathInterceptorChainFactory {
 
@@ -57,6 +59,10 @@ public final class ClasspathInterceptorChainFactory {
     }
 
     private List<ExecutionInterceptor> createExecutionInterceptorsFromClasspath(String path) {
+        if (!SdkSystemSetting.CLASSPATH_INTERCEPTORS_ENABLED.getBooleanValueOrThrow()) {
+            return new ArrayList<>();
+        }
+
         try {
             return createExecutionInterceptorsFromResources(classLoader().getResources(path)).collect(Collectors.toList());
         } catch (IOException e) {
@@ -71,8 +71,12 @@ import software.amazon.awssdk.http.SdkHttpFullResponse;
  *     service client is created by a client builder, all jars on the classpath (from the perspective of the current thread's
  *     classloader) are checked for a file named '/software/amazon/awssdk/services/{service}/execution.interceptors', where
  *     {service} is the package name of the service client. Any interceptors listed in these files (new line separated) are
- *     instantiated using their default constructor and loaded into the client.</li>
+ *     instantiated using their default constructor and loaded into the client. Interceptors that the SDK itself requires for a
+ *     service are registered directly by the generated client builder and are placed before any loaded from the classpath.</li>
  * </ol>
+ * Loading global and service interceptors from the classpath can be disabled with the
+ * {@link software.amazon.awssdk.utils.SdkSystemSetting#CLASSPATH_INTERCEPTORS_ENABLED} setting, which avoids scanning the
+ * classpath each time a client is created.
  * </p>
  *
  * <p>
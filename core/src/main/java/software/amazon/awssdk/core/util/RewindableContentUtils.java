@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.utils.FunctionalUtils.UnsafeFunction;
+
+/**
+ * Utilities for reading the content of a request before it is sent, e.g. to compute a checksum that has to be sent in a
+ * header.
+ */
+@SdkProtectedApi
+public final class RewindableContentUtils {
+
+    private RewindableContentUtils() {
+    }
+
+    /**
+     * Read the content of a request and rewind it to where it was, if that does not require buffering it, i.e. when the
+     * content was created from a file or from bytes. Other contents are left unread.
+     *
+     * @param content The content of the request.
+     * @param reader Reads the content from its current position and returns the result of the read.
+     * @return The result of the reader, or empty if the content cannot be rewound without buffering it.
+     */
+    public static <T> Optional<T> readAndRewind(InputStream content, UnsafeFunction<InputStream, T> reader) {
+        try {
+            if (content instanceof FileInputStream) {
+                FileChannel channel = ((FileInputStream) content).getChannel();
+                long position = channel.position();
+                T result = reader.apply(content);
+                channel.position(position);
+                return Optional.of(result);
+            }
+            if (content instanceof ByteArrayInputStream) {
+                content.mark(Integer.MAX_VALUE);
+                T result = reader.apply(content);
+                content.reset();
+                return Optional.of(result);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SdkClientException("Unable to read the request content and rewind it", e);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FixedDelayBackoffStrategy;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Polls an operation until the outcome of an attempt is matched by an acceptor in the {@link WaiterState#SUCCESS} or
+ * {@link WaiterState#FAILURE} state, or until the maximum number of attempts is reached. This is the engine of the waiters
+ * generated from the waiter definitions of the service models.
+ *
+ * <p>The acceptors are tried in order, and the first one matching decides the state. A response matched by no acceptor is
+ * polled again; an exception matched by no acceptor fails the waiter, as it is not an expected state of the resource.</p>
+ *
+ * <p>{@link #run(Supplier)} sleeps between the attempts on the calling thread. {@link #runAsync(Supplier)} does not tie up
+ * any thread while waiting: the next attempt is scheduled on a {@link ScheduledExecutorService}, by default a single daemon
+ * thread shared by all the waiters, so that waiting on many resources at once costs no more than a pending task per
+ * resource.</p>
+ *
+ * @param <T> The type of the responses of the polled operation.
+ */
+@SdkProtectedApi
+public final class Waiter<T> {
+
+    private final List<WaiterAcceptor<? super T>> acceptors;
+    private final int maxAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final Duration waitTimeout;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private Waiter(Builder<T> builder) {
+        WaiterOverrideConfiguration overrides = builder.overrideConfiguration != null
+                                                ? builder.overrideConfiguration
+                                                : WaiterOverrideConfiguration.builder().build();
+        this.acceptors = Collections.unmodifiableList(new ArrayList<>(builder.acceptors));
+        this.maxAttempts = overrides.maxAttempts() != null ? overrides.maxAttempts()
+                                                           : Validate.paramNotNull(builder.defaultMaxAttempts,
+                                                                                   "defaultMaxAttempts");
+        Validate.isPositive(maxAttempts, "maxAttempts");
+        this.backoffStrategy = overrides.backoffStrategy() != null
+                               ? overrides.backoffStrategy()
+                               : new FixedDelayBackoffStrategy(Validate.paramNotNull(builder.defaultDelay, "defaultDelay"));
+        this.waitTimeout = overrides.waitTimeout();
+        this.scheduledExecutorService = builder.scheduledExecutorService;
+    }
+
+    /**
+     * @param responseType The type of the responses of the polled operation, binding the type of the builder.
+     * @return Builder instance to construct a {@link Waiter}.
+     */
+    public static <T> Builder<T> builder(Class<T> responseType) {
+        return new Builder<>();
+    }
+
+    /**
+     * Poll an operation until the waiter succeeds or fails, sleeping on the calling thread between the attempts.
+     *
+     * @param pollingFunction Calls the polled operation.
+     * @return The outcome of the attempt that made the waiter succeed.
+     * @throws SdkClientException If an acceptor in the failure state matched, or the waiter gave up.
+     */
+    public WaiterResponse<T> run(Supplier<T> pollingFunction) {
+        long startNanos = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            T response = null;
+            RuntimeException exception = null;
+            try {
+                response = pollingFunction.get();
+            } catch (RuntimeException e) {
+                exception = e;
+            }
+            WaiterResponse<T> outcome = evaluate(attempt, response, exception);
+            if (outcome != null) {
+                return outcome;
+            }
+            try {
+                Thread.sleep(delayBeforeAttempt(attempt + 1, startNanos).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SdkClientException("Interrupted while waiting", e);
+            }
+        }
+    }
+
+    /**
+     * Poll an asynchronous operation until the waiter succeeds or fails, scheduling the attempts without blocking any
+     * thread.
+     *
+     * @param pollingFunction Calls the polled operation. It is called from the thread completing the previous attempt or
+     * from the scheduler, and must not block.
+     * @return A future completed with the outcome of the attempt that made the waiter succeed, or completed exceptionally
+     * with an {@link SdkClientException} if an acceptor in the failure state matched or the waiter gave up.
+     */
+    public CompletableFuture<WaiterResponse<T>> runAsync(Supplier<CompletableFuture<T>> pollingFunction) {
+        CompletableFuture<WaiterResponse<T>> result = new CompletableFuture<>();
+        attemptAsync(pollingFunction, 1, System.nanoTime(), result);
+        return result;
+    }
+
+    private void attemptAsync(Supplier<CompletableFuture<T>> pollingFunction, int attempt, long startNanos,
+                              CompletableFuture<WaiterResponse<T>> result) {
+        CompletableFuture<T> future;
+        try {
+            future = pollingFunction.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, t) -> {
+            Throwable exception = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            try {
+                WaiterResponse<T> outcome = evaluate(attempt, response, exception);
+                if (outcome != null) {
+                    result.complete(outcome);
+                    return;
+                }
+                Duration delay = delayBeforeAttempt(attempt + 1, startNanos);
+                scheduler().schedule(() -> attemptAsync(pollingFunction, attempt + 1, startNanos, result),
+                                     delay.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Decide what to do with the outcome of an attempt.
+     *
+     * @return The outcome to complete the waiter with, or null to poll again.
+     */
+    private WaiterResponse<T> evaluate(int attempt, T response, Throwable exception) {
+        WaiterState state = null;
+        for (WaiterAcceptor<? super T> acceptor : acceptors) {
+            if (exception == null ? acceptor.matches(response) : acceptor.matches(exception)) {
+                state = acceptor.waiterState();
+                break;
+            }
+        }
+
+        if (state == WaiterState.SUCCESS) {
+            return new WaiterResponse<>(response, exception, attempt);
+        }
+        if (state == WaiterState.FAILURE) {
+            throw new SdkClientException("The waiter reached a failure state after " + attempt + " attempts", exception);
+        }
+        if (state == null && exception != null) {
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new SdkClientException(exception);
+        }
+        if (attempt >= maxAttempts) {
+            throw new SdkClientException("The waiter gave up after " + attempt + " attempts", exception);
+        }
+        return null;
+    }
+
+    private Duration delayBeforeAttempt(int attempt, long startNanos) {
+        Duration delay = backoffStrategy.computeDelayBeforeNextRetry(
+                RetryPolicyContext.builder().retriesAttempted(attempt - 2).build());
+        if (waitTimeout != null && System.nanoTime() - startNanos + delay.toNanos() > waitTimeout.toNanos()) {
+            throw new SdkClientException("The waiter gave up after " + (attempt - 1) + " attempts, as the next one would "
+                                         + "exceed its wait timeout of " + waitTimeout);
+        }
+        return delay;
+    }
+
+    private ScheduledExecutorService scheduler() {
+        return scheduledExecutorService != null ? scheduledExecutorService : SharedScheduler.INSTANCE;
+    }
+
+    /**
+     * The scheduler shared by the asynchronous waiters not given one of their own, created on first use. It only schedules
+     * the attempts, which do not block.
+     */
+    private static final class SharedScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("sdk-async-waiter").daemonThreads(true).build());
+    }
+
+    /**
+     * Builder for a {@link Waiter}.
+     */
+    public static final class Builder<T> implements SdkBuilder<Builder<T>, Waiter<T>> {
+
+        private final List<WaiterAcceptor<? super T>> acceptors = new ArrayList<>();
+        private Integer defaultMaxAttempts;
+        private Duration defaultDelay;
+        private WaiterOverrideConfiguration overrideConfiguration;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an acceptor, tried after the acceptors added before it.
+         */
+        public Builder<T> addAcceptor(WaiterAcceptor<? super T> acceptor) {
+            acceptors.add(Validate.paramNotNull(acceptor, "acceptor"));
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of attempts of the waiter definition, used unless overridden. Required.
+         */
+        public Builder<T> defaultMaxAttempts(Integer defaultMaxAttempts) {
+            this.defaultMaxAttempts = defaultMaxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the fixed delay between attempts of the waiter definition, used unless a backoff strategy overrides it.
+         * Required.
+         */
+        public Builder<T> defaultDelay(Duration defaultDelay) {
+            this.defaultDelay = defaultDelay;
+            return this;
+        }
+
+        /**
+         * Sets the settings overriding the ones of the waiter definition.
+         */
+        public Builder<T> overrideConfiguration(WaiterOverrideConfiguration overrideConfiguration) {
+            this.overrideConfiguration = overrideConfiguration;
+            return this;
+        }
+
+        /**
+         * Sets the executor the attempts of {@link Waiter#runAsync(Supplier)} are scheduled on. It is not shut down by the
+         * waiter. By default, a daemon thread shared by all the waiters is used.
+         */
+        public Builder<T> scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        @Override
+        public Waiter<T> build() {
+            return new Waiter<>(this);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Matches the outcome of a polling attempt of a {@link Waiter}, a response or an exception, and decides the state the
+ * waiter moves to when it does.
+ *
+ * <p>The static factories implement the matchers of the waiter definitions of the service models: {@code path},
+ * {@code pathAll} and {@code pathAny} on the values selected from the response, {@code error} on the error code of the
+ * exception, and {@code status} on the HTTP status code.</p>
+ *
+ * @param <T> The type of the responses of the polled operation.
+ */
+@SdkProtectedApi
+public interface WaiterAcceptor<T> {
+
+    /**
+     * @return The state the waiter moves to when this acceptor matches.
+     */
+    WaiterState waiterState();
+
+    /**
+     * @param response The response of a polling attempt.
+     * @return Whether this acceptor matches the response.
+     */
+    default boolean matches(T response) {
+        return false;
+    }
+
+    /**
+     * @param exception The exception a polling attempt failed with.
+     * @return Whether this acceptor matches the exception.
+     */
+    default boolean matches(Throwable exception) {
+        return false;
+    }
+
+    /**
+     * Create an acceptor matching the responses accepted by a predicate.
+     */
+    static <T> WaiterAcceptor<T> onResponse(WaiterState state, Predicate<? super T> predicate) {
+        Validate.paramNotNull(state, "state");
+        Validate.paramNotNull(predicate, "predicate");
+        return new WaiterAcceptor<T>() {
+            @Override
+            public WaiterState waiterState() {
+                return state;
+            }
+
+            @Override
+            public boolean matches(T response) {
+                return predicate.test(response);
+            }
+        };
+    }
+
+    /**
+     * Create an acceptor matching the exceptions accepted by a predicate.
+     */
+    static <T> WaiterAcceptor<T> onException(WaiterState state, Predicate<? super Throwable> predicate) {
+        Validate.paramNotNull(state, "state");
+        Validate.paramNotNull(predicate, "predicate");
+        return new WaiterAcceptor<T>() {
+            @Override
+            public WaiterState waiterState() {
+                return state;
+            }
+
+            @Override
+            public boolean matches(Throwable exception) {
+                return predicate.test(exception);
+            }
+        };
+    }
+
+    /**
+     * Create an acceptor matching the responses in which any of the values selected by a path is equal to the expected
+     * value, once converted to a string. This implements both the {@code path} and {@code pathAny} matchers, as a path
+     * without projection selects at most one value.
+     */
+    static <T> WaiterAcceptor<T> onPathAny(WaiterState state, Function<? super T, ? extends Stream<?>> path, String expected) {
+        return onResponse(state, r -> path.apply(r).filter(Objects::nonNull).anyMatch(v -> expected.equals(String.valueOf(v))));
+    }
+
+    /**
+     * Create an acceptor matching the responses in which a path selects at least one value, and all the values it selects
+     * are equal to the expected value, once converted to a string. This implements the {@code pathAll} matcher.
+     */
+    static <T> WaiterAcceptor<T> onPathAll(WaiterState state, Function<? super T, ? extends Stream<?>> path, String expected) {
+        return onResponse(state, r -> {
+            Iterator<?> values = path.apply(r).filter(Objects::nonNull).iterator();
+            if (!values.hasNext()) {
+                return false;
+            }
+            while (values.hasNext()) {
+                if (!expected.equals(String.valueOf(values.next()))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Create an acceptor matching the service exceptions with an error code. This implements the {@code error} matcher.
+     */
+    static <T> WaiterAcceptor<T> onErrorCode(WaiterState state, String errorCode) {
+        Validate.paramNotNull(errorCode, "errorCode");
+        return onException(state, e -> e instanceof SdkServiceException
+                                       && errorCode.equals(((SdkServiceException) e).errorCode()));
+    }
+
+    /**
+     * Create an acceptor matching an HTTP status code. This implements the {@code status} matcher. Service exceptions match
+     * their status code; as the responses do not expose their status code, all responses match a successful (2xx) status
+     * code.
+     */
+    static <T> WaiterAcceptor<T> onStatusCode(WaiterState state, int statusCode) {
+        Validate.paramNotNull(state, "state");
+        boolean successful = statusCode / 100 == 2;
+        return new WaiterAcceptor<T>() {
+            @Override
+            public WaiterState waiterState() {
+                return state;
+            }
+
+            @Override
+            public boolean matches(T response) {
+                return successful;
+            }
+
+            @Override
+            public boolean matches(Throwable exception) {
+                return exception instanceof SdkServiceException && ((SdkServiceException) exception).statusCode() == statusCode;
+            }
+        };
+    }
+}
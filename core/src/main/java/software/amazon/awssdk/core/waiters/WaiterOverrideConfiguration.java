@@ -0,0 +1,125 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import java.time.Duration;
+import software.amazon.awssdk.annotations.Immutable;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.utils.ToString;
+import software.amazon.awssdk.utils.builder.CopyableBuilder;
+import software.amazon.awssdk.utils.builder.ToCopyableBuilder;
+
+/**
+ * Overrides how a waiter polls. The settings left unset keep the values of the waiter definition in the service model: a
+ * fixed delay between attempts, and a maximum number of attempts.
+ */
+@Immutable
+@SdkPublicApi
+public final class WaiterOverrideConfiguration
+        implements ToCopyableBuilder<WaiterOverrideConfiguration.Builder, WaiterOverrideConfiguration> {
+
+    private final Integer maxAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final Duration waitTimeout;
+
+    private WaiterOverrideConfiguration(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.backoffStrategy = builder.backoffStrategy;
+        this.waitTimeout = builder.waitTimeout;
+    }
+
+    /**
+     * @return The maximum number of polling attempts, or null to use the one of the waiter definition.
+     */
+    public Integer maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return The strategy computing the delay before each polling attempt after the first one, or null to use the fixed
+     * delay of the waiter definition.
+     */
+    public BackoffStrategy backoffStrategy() {
+        return backoffStrategy;
+    }
+
+    /**
+     * @return The maximum time to wait for, or null to only limit the number of attempts.
+     */
+    public Duration waitTimeout() {
+        return waitTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Builder toBuilder() {
+        return builder().maxAttempts(maxAttempts).backoffStrategy(backoffStrategy).waitTimeout(waitTimeout);
+    }
+
+    @Override
+    public String toString() {
+        return ToString.builder("WaiterOverrideConfiguration")
+                       .add("maxAttempts", maxAttempts)
+                       .add("backoffStrategy", backoffStrategy)
+                       .add("waitTimeout", waitTimeout)
+                       .build();
+    }
+
+    public static final class Builder implements CopyableBuilder<Builder, WaiterOverrideConfiguration> {
+
+        private Integer maxAttempts;
+        private BackoffStrategy backoffStrategy;
+        private Duration waitTimeout;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of polling attempts, including the first one.
+         */
+        public Builder maxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the strategy computing the delay before each polling attempt after the first one, for instance an exponential
+         * backoff to poll a slow resource less often the longer it takes.
+         */
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time to wait for. The waiter fails rather than poll again when the next attempt would start after
+         * this time.
+         */
+        public Builder waitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+            return this;
+        }
+
+        @Override
+        public WaiterOverrideConfiguration build() {
+            return new WaiterOverrideConfiguration(this);
+        }
+    }
+}
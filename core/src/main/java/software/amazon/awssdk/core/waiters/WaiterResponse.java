@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import java.util.Optional;
+import software.amazon.awssdk.annotations.Immutable;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.utils.ToString;
+
+/**
+ * The outcome of the polling attempt that made a waiter succeed: the response of the polled operation, or the exception it
+ * failed with when the waiter waits for a resource to disappear.
+ *
+ * @param <T> The type of the responses of the polled operation.
+ */
+@Immutable
+@SdkPublicApi
+public final class WaiterResponse<T> {
+
+    private final T response;
+    private final Throwable exception;
+    private final int attemptsExecuted;
+
+    WaiterResponse(T response, Throwable exception, int attemptsExecuted) {
+        this.response = response;
+        this.exception = exception;
+        this.attemptsExecuted = attemptsExecuted;
+    }
+
+    /**
+     * @return The response of the last attempt, or empty if it failed with an exception.
+     */
+    public Optional<T> response() {
+        return Optional.ofNullable(response);
+    }
+
+    /**
+     * @return The exception of the last attempt, or empty if it returned a response.
+     */
+    public Optional<Throwable> exception() {
+        return Optional.ofNullable(exception);
+    }
+
+    /**
+     * @return The number of polling attempts, including the last one.
+     */
+    public int attemptsExecuted() {
+        return attemptsExecuted;
+    }
+
+    @Override
+    public String toString() {
+        return ToString.builder("WaiterResponse")
+                       .add("response", response)
+                       .add("exception", exception)
+                       .add("attemptsExecuted", attemptsExecuted)
+                       .build();
+    }
+}
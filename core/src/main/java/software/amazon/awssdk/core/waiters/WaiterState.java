@@ -0,0 +1,40 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import software.amazon.awssdk.annotations.SdkPublicApi;
+
+/**
+ * The state a waiter moves to when one of its acceptors matches the outcome of a polling attempt.
+ */
+@SdkPublicApi
+public enum WaiterState {
+
+    /**
+     * The resource reached the state waited for: the waiter stops and returns the outcome of the attempt.
+     */
+    SUCCESS,
+
+    /**
+     * The resource reached a state from which it cannot reach the state waited for: the waiter stops and fails.
+     */
+    FAILURE,
+
+    /**
+     * The resource has not reached the state waited for yet: the waiter polls again after a delay.
+     */
+    RETRY
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+import software.amazon.awssdk.http.async.SimpleSubscriber;
+
+/**
+ * Tests for {@link ChecksumCalculatingAsyncRequestProvider} and {@link ChecksumValidatingAsyncResponseHandler}.
+ */
+public class ChecksumAsyncTest {
+
+    private static final String CONTENT = "123456789";
+    private static final String CRC32C = "4waSgw==";
+
+    @Test
+    public void requestProviderComputesChecksumOnceContentIsPublished() {
+        ChecksumCalculatingAsyncRequestProvider provider =
+                new ChecksumCalculatingAsyncRequestProvider(AsyncRequestProvider.fromString(CONTENT), ChecksumAlgorithm.CRC32C);
+        assertThat(provider.checksum()).isEmpty();
+        StringBuilder sent = new StringBuilder();
+
+        provider.subscribe(new SimpleSubscriber(b -> sent.append(StandardCharsets.UTF_8.decode(b))));
+
+        assertThat(sent.toString()).isEqualTo(CONTENT);
+        assertThat(provider.contentLength()).isEqualTo(CONTENT.length());
+        assertThat(provider.checksum()).hasValue(CRC32C);
+    }
+
+    @Test
+    public void checksumComputedBeforeSendingValidatesDownload() {
+        AsyncRequestProvider provider = AsyncRequestProvider.fromString(CONTENT);
+
+        String checksum = ChecksumCalculatingAsyncRequestProvider.checksumOf(provider, ChecksumAlgorithm.CRC32C).join();
+
+        assertThat(checksum).isEqualTo(CRC32C);
+        assertThat(download(checksum)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void responseHandlerPassesContentOnWhenChecksumMatches() {
+        assertThat(download(CRC32C)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void responseHandlerSkipsValidationWithoutExpectedChecksum() {
+        assertThat(download(null)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void responseHandlerFailsWhenChecksumDoesNotMatch() {
+        assertThatThrownBy(() -> download("AAAAAA==")).isInstanceOf(ChecksumMismatchException.class);
+    }
+
+    private static String download(String expectedChecksum) {
+        AsyncResponseHandler<String, String> handler =
+                new ChecksumValidatingAsyncResponseHandler<>(AsyncResponseHandler.toUtf8String(), ChecksumAlgorithm.CRC32C,
+                                                             response -> expectedChecksum);
+        handler.responseReceived("response");
+        handler.onStream(ChecksumAsyncTest::publishContent);
+        return handler.complete();
+    }
+
+    private static void publishContent(Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (!done) {
+                    done = true;
+                    subscriber.onNext(ByteBuffer.wrap(CONTENT.getBytes(StandardCharsets.UTF_8)));
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+    }
+}
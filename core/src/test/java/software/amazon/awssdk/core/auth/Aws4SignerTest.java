@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -28,6 +29,10 @@ import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 import org.junit.Test;
 import software.amazon.awssdk.core.auth.internal.Aws4SignerUtils;
+import software.amazon.awssdk.core.http.NoopTestRequest;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
 import software.amazon.awssdk.http.SdkHttpMethod;
 
@@ -143,6 +148,35 @@ public class Aws4SignerTest {
         assertNull(request.headers().get("Authorization"));
     }
 
+    @Test
+    public void precomputedContentSha256Attribute_IsSignedWithoutReadingPayload() throws Exception {
+        AwsCredentials credentials = new AwsCredentials("akid", "skid");
+        Calendar c = new GregorianCalendar();
+        c.set(1981, 1, 16, 6, 30, 0);
+        c.setTimeZone(TimeZone.getTimeZone("UTC"));
+        signer.setServiceName("demo");
+        signer.setOverrideDate(c.getTime());
+
+        SdkHttpFullRequest hashedBySigner = SignerTestUtils.signRequest(
+                signer, generateBasicRequest().header("x-amz-content-sha256", "required").build(), credentials);
+        String contentSha256 = hashedBySigner.firstMatchingHeader("x-amz-content-sha256").get();
+
+        InputStream unreadable = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("The payload should not be read");
+            }
+        };
+        SdkHttpFullRequest request = generateBasicRequest().header("x-amz-content-sha256", "required").content(unreadable).build();
+        SdkHttpFullRequest precomputed = signer.sign(
+                InterceptorContext.builder().request(NoopTestRequest.builder().build()).httpRequest(request).build(),
+                new ExecutionAttributes().putAttribute(AwsExecutionAttributes.AWS_CREDENTIALS, credentials)
+                                         .putAttribute(AwsExecutionAttributes.PRECOMPUTED_CONTENT_SHA256, contentSha256));
+
+        assertThat(precomputed.firstMatchingHeader("Authorization")).isEqualTo(hashedBySigner.firstMatchingHeader("Authorization"));
+        assertThat(precomputed.firstMatchingHeader("x-amz-content-sha256")).hasValue(contentSha256);
+    }
+
     /**
      * x-amzn-trace-id should not be signed as it may be mutated by proxies or load balancers.
      */
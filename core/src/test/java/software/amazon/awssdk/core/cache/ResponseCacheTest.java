@@ -0,0 +1,198 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkRequestOverrideConfig;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.AwsSessionCredentials;
+import software.amazon.awssdk.core.http.NoopTestRequest;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import utils.ValidSdkObjects;
+
+public class ResponseCacheTest {
+    private final SdkRequest request = NoopTestRequest.builder().build();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutionAttributes executionAttributes = sentWith(AwsCredentials.create("access-key", "secret-key"));
+
+    @Test
+    public void identicalRequestIsServedFromTheCache() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentParametersAreCachedSeparately() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(cache.get(request, executionAttributes, httpRequest("b"), this::call)).isEqualTo("response-2");
+        SdkHttpFullRequest withQuery = httpRequest("a").toBuilder().rawQueryParameter("q", "1").build();
+        assertThat(cache.get(request, executionAttributes, withQuery, this::call)).isEqualTo("response-3");
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void volatileHeadersAreIgnored() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+
+        SdkHttpFullRequest first = httpRequest("a").toBuilder().header("amz-sdk-invocation-id", "1").build();
+        SdkHttpFullRequest second = httpRequest("a").toBuilder().header("amz-sdk-invocation-id", "2").build();
+        cache.get(request, executionAttributes, first, this::call);
+        cache.get(request, executionAttributes, second, this::call);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void requestsSentWithDifferentCredentialsAreCachedSeparately() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+        ExecutionAttributes otherKey = sentWith(AwsCredentials.create("other-access-key", "secret-key"));
+        ExecutionAttributes otherSession = sentWith(AwsSessionCredentials.create("access-key", "secret-key", "token"));
+
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(cache.get(request, otherKey, httpRequest("a"), this::call)).isEqualTo("response-2");
+        assertThat(cache.get(request, otherSession, httpRequest("a"), this::call)).isEqualTo("response-3");
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+    }
+
+    @Test
+    public void expiredResponseIsFetchedAgain() throws InterruptedException {
+        ResponseCache cache = cache(Duration.ofMillis(1), 10);
+
+        cache.get(request, executionAttributes, httpRequest("a"), this::call);
+        Thread.sleep(10);
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-2");
+    }
+
+    @Test
+    public void leastRecentlyUsedResponseIsEvicted() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 2);
+
+        cache.get(request, executionAttributes, httpRequest("a"), this::call);
+        cache.get(request, executionAttributes, httpRequest("b"), this::call);
+        cache.get(request, executionAttributes, httpRequest("a"), this::call);
+        cache.get(request, executionAttributes, httpRequest("c"), this::call);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(cache.get(request, executionAttributes, httpRequest("b"), this::call)).isEqualTo("response-4");
+    }
+
+    @Test
+    public void concurrentMissesAreCoalesced() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.getAsync(request, executionAttributes, httpRequest("a"), () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        CompletableFuture<String> second = cache.getAsync(request, executionAttributes, httpRequest("a"), this::callAsync);
+        assertThat(second).isNotDone();
+
+        response.complete("shared");
+        assertThat(first.join()).isEqualTo("shared");
+        assertThat(second.join()).isEqualTo("shared");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+
+        assertThatThrownBy(() -> cache.get(request, executionAttributes, httpRequest("a"), () -> {
+            throw new IllegalStateException("Failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get(request, executionAttributes, httpRequest("a"), this::call)).isEqualTo("response-1");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void unconfiguredOperationsAreNotCached() {
+        ResponseCache cache = ResponseCache.builder().cache(OtherRequest.class, Duration.ofMinutes(1)).build();
+        ExecutionAttributes attributes = new ExecutionAttributes();
+
+        cache.beforeExecution(InterceptorContext.builder().request(request).build(), attributes);
+        cache.get(request, executionAttributes, httpRequest("a"), this::call);
+        cache.get(request, executionAttributes, httpRequest("a"), this::call);
+
+        assertThat(attributes.getAttribute(ResponseCache.RESPONSE_CACHE)).isNull();
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void configuredOperationsAreFlaggedForCaching() {
+        ResponseCache cache = cache(Duration.ofMinutes(1), 10);
+        ExecutionAttributes attributes = new ExecutionAttributes();
+
+        cache.beforeExecution(InterceptorContext.builder().request(request).build(), attributes);
+
+        assertThat(attributes.getAttribute(ResponseCache.RESPONSE_CACHE)).isSameAs(cache);
+    }
+
+    private static ExecutionAttributes sentWith(AwsCredentials credentials) {
+        return new ExecutionAttributes().putAttribute(AwsExecutionAttributes.AWS_CREDENTIALS, credentials);
+    }
+
+    private ResponseCache cache(Duration timeToLive, int maxEntries) {
+        return ResponseCache.builder().cache(NoopTestRequest.class, timeToLive).maxEntries(maxEntries).build();
+    }
+
+    private String call() {
+        return "response-" + calls.incrementAndGet();
+    }
+
+    private CompletableFuture<String> callAsync() {
+        return CompletableFuture.completedFuture(call());
+    }
+
+    private static SdkHttpFullRequest httpRequest(String body) {
+        return ValidSdkObjects.sdkHttpFullRequest()
+                              .content(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+                              .build();
+    }
+
+    private static final class OtherRequest extends SdkRequest {
+        @Override
+        public Optional<? extends SdkRequestOverrideConfig> requestOverrideConfig() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Builder toBuilder() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Checksum;
+import org.junit.Test;
+import software.amazon.awssdk.core.checksums.internal.Crc32C;
+
+public class ChecksumAlgorithmTest {
+
+    private static final byte[] CHECK_INPUT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void crc32MatchesCheckValue() {
+        assertThat(checksum(ChecksumAlgorithm.CRC32.newChecksum(), CHECK_INPUT)).isEqualTo(0xCBF43926L);
+    }
+
+    @Test
+    public void crc32cMatchesCheckValue() {
+        assertThat(checksum(ChecksumAlgorithm.CRC32C.newChecksum(), CHECK_INPUT)).isEqualTo(0xE3069283L);
+        assertThat(checksum(new Crc32C(), CHECK_INPUT)).isEqualTo(0xE3069283L);
+    }
+
+    @Test
+    public void crc32cIsIndependentOfUpdateSizes() {
+        byte[] data = new byte[10_000];
+        new Random(42).nextBytes(data);
+        Checksum whole = new Crc32C();
+        whole.update(data, 0, data.length);
+
+        Checksum pieces = new Crc32C();
+        int offset = 0;
+        for (int length = 1; offset < data.length; length = length * 3 % 97 + 1) {
+            int piece = Math.min(length, data.length - offset);
+            pieces.update(data, offset, piece);
+            offset += piece;
+        }
+        pieces.update(new byte[0], 0, 0);
+
+        assertThat(pieces.getValue()).isEqualTo(whole.getValue());
+        whole.reset();
+        for (byte b : data) {
+            whole.update(b);
+        }
+        assertThat(whole.getValue()).isEqualTo(pieces.getValue());
+    }
+
+    @Test
+    public void checksumIsEncodedAsBase64OfBigEndianValue() {
+        Checksum checksum = ChecksumAlgorithm.CRC32C.newChecksum();
+        checksum.update(CHECK_INPUT, 0, CHECK_INPUT.length);
+
+        assertThat(ChecksumAlgorithm.CRC32C.encode(checksum)).isEqualTo("4waSgw==");
+    }
+
+    private static long checksum(Checksum checksum, byte[] data) {
+        checksum.update(data, 0, data.length);
+        return checksum.getValue();
+    }
+}
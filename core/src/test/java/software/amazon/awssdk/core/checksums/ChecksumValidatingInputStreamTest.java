@@ -0,0 +1,69 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.checksums;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+import software.amazon.awssdk.utils.IoUtils;
+
+public class ChecksumValidatingInputStreamTest {
+
+    private static final byte[] CONTENT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void matchingChecksumIsValidatedAtEndOfStream() throws Exception {
+        ChecksumValidatingInputStream in = new ChecksumValidatingInputStream(new ByteArrayInputStream(CONTENT),
+                                                                             ChecksumAlgorithm.CRC32C, "4waSgw==");
+
+        assertThat(IoUtils.toByteArray(in)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void mismatchingChecksumFailsAtEndOfStream() {
+        ChecksumValidatingInputStream in = new ChecksumValidatingInputStream(new ByteArrayInputStream(CONTENT),
+                                                                             ChecksumAlgorithm.CRC32C, "AAAAAA==");
+
+        assertThatThrownBy(() -> IoUtils.toByteArray(in)).isInstanceOf(ChecksumMismatchException.class);
+    }
+
+    @Test
+    public void skippedBytesAreIncludedInChecksum() throws Exception {
+        ChecksumCalculatingInputStream in = new ChecksumCalculatingInputStream(new ByteArrayInputStream(CONTENT),
+                                                                               ChecksumAlgorithm.CRC32C);
+
+        assertThat(in.skip(4)).isEqualTo(4);
+        IoUtils.toByteArray(in);
+
+        assertThat(in.checksum()).isEqualTo("4waSgw==");
+    }
+
+    @Test
+    public void resetRestartsChecksum() throws Exception {
+        ChecksumCalculatingInputStream in = new ChecksumCalculatingInputStream(new ByteArrayInputStream(CONTENT),
+                                                                               ChecksumAlgorithm.CRC32C);
+        in.mark(CONTENT.length);
+        IoUtils.toByteArray(in);
+        in.reset();
+        IoUtils.toByteArray(in);
+
+        assertThat(in.checksum()).isEqualTo("4waSgw==");
+    }
+}
@@ -18,11 +18,13 @@ package software.amazon.awssdk.core.client;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
@@ -38,6 +40,7 @@ import software.amazon.awssdk.core.SdkRequest;
 import software.amazon.awssdk.core.SdkResponse;
 import software.amazon.awssdk.core.auth.AwsCredentials;
 import software.amazon.awssdk.core.auth.AwsCredentialsProvider;
+import software.amazon.awssdk.core.cache.ResponseCache;
 import software.amazon.awssdk.core.config.AdvancedClientOption;
 import software.amazon.awssdk.core.config.AsyncClientConfiguration;
 import software.amazon.awssdk.core.config.ClientOverrideConfiguration;
@@ -132,6 +135,58 @@ public class AsyncClientHandlerImplTest {
         verifyNoMoreInteractions(responseHandler); // Response handler is not called
     }
 
+    @Test
+    public void cachedOperationIsOnlySentOnce() throws Exception {
+        ResponseCache cache = ResponseCache.builder().cache(request.getClass(), Duration.ofMinutes(1)).build();
+        AsyncClientHandlerImpl cachingClientHandler = new AsyncClientHandlerImpl(clientConfiguration(cache), null);
+
+        // Given
+        ArgumentCaptor<SdkHttpResponseHandler> sdkHttpResponseHandler = ArgumentCaptor.forClass(SdkHttpResponseHandler.class);
+
+        expectRetrievalFromMocks();
+        when(httpClient.prepareRequest(any(), any(), any(), sdkHttpResponseHandler.capture())).thenReturn(httpClientCall);
+        when(responseHandler.handle(any(), any())).thenReturn(response); // Response handler call
+
+        // When
+        CompletableFuture<SdkResponse> firstFuture = cachingClientHandler.execute(clientExecutionParams());
+        sdkHttpResponseHandler.getValue().headersReceived(SdkHttpFullResponse.builder().statusCode(200).build());
+        sdkHttpResponseHandler.getValue().complete();
+        SdkResponse first = firstFuture.get(1, TimeUnit.SECONDS);
+        SdkResponse second = cachingClientHandler.execute(clientExecutionParams()).get(1, TimeUnit.SECONDS);
+
+        // Then
+        verify(httpClientCall, times(1)).run(); // Second execution served from the cache
+        assertThat(first).isEqualTo(response);
+        assertThat(second).isEqualTo(response);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cachedOperationIsSentAgainWithOtherCredentials() throws Exception {
+        ResponseCache cache = ResponseCache.builder().cache(request.getClass(), Duration.ofMinutes(1)).build();
+        AsyncClientHandlerImpl cachingClientHandler = new AsyncClientHandlerImpl(clientConfiguration(cache), null);
+
+        // Given
+        ArgumentCaptor<SdkHttpResponseHandler> sdkHttpResponseHandler = ArgumentCaptor.forClass(SdkHttpResponseHandler.class);
+
+        expectRetrievalFromMocks();
+        when(credentialsProvider.getCredentials()).thenReturn(awsCredentials, AwsCredentials.create("other", "private"));
+        when(httpClient.prepareRequest(any(), any(), any(), sdkHttpResponseHandler.capture())).thenReturn(httpClientCall);
+        when(responseHandler.handle(any(), any())).thenReturn(response); // Response handler call
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<SdkResponse> responseFuture = cachingClientHandler.execute(clientExecutionParams());
+            sdkHttpResponseHandler.getValue().headersReceived(SdkHttpFullResponse.builder().statusCode(200).build());
+            sdkHttpResponseHandler.getValue().complete();
+            assertThat(responseFuture.get(1, TimeUnit.SECONDS)).isEqualTo(response);
+        }
+
+        // Then
+        verify(httpClientCall, times(2)).run(); // Second execution not served the response of other credentials
+        assertThat(cache.hitCount()).isZero();
+    }
+
     private void expectRetrievalFromMocks() {
         when(credentialsProvider.getCredentials()).thenReturn(awsCredentials);
         when(marshaller.marshall(request)).thenReturn(marshalledRequest);
@@ -146,16 +201,24 @@ public class AsyncClientHandlerImplTest {
     }
 
     public AsyncClientConfiguration clientConfiguration() {
+        return clientConfiguration(null);
+    }
+
+    private AsyncClientConfiguration clientConfiguration(ResponseCache responseCache) {
+        ClientOverrideConfiguration.Builder overrideConfiguration =
+            ClientOverrideConfiguration.builder()
+                                       .advancedOption(AdvancedClientOption.SIGNER_PROVIDER, new NoOpSignerProvider())
+                                       .retryPolicy(RetryPolicy.builder().numRetries(0).build());
+        if (responseCache != null) {
+            overrideConfiguration.addLastExecutionInterceptor(responseCache);
+        }
+
         MutableClientConfiguration mutableClientConfiguration = new MutableClientConfiguration()
                 .credentialsProvider(credentialsProvider)
                 .asyncHttpClient(httpClient)
                 .endpoint(URI.create("http://test.com"));
 
-        mutableClientConfiguration.overrideConfiguration(
-            ClientOverrideConfiguration.builder()
-                                       .advancedOption(AdvancedClientOption.SIGNER_PROVIDER, new NoOpSignerProvider())
-                                       .retryPolicy(RetryPolicy.builder().numRetries(0).build())
-                                       .build());
+        mutableClientConfiguration.overrideConfiguration(overrideConfiguration.build());
 
         new GlobalClientConfigurationDefaults().applyAsyncDefaults(mutableClientConfiguration);
 
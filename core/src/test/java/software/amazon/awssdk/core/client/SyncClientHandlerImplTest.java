@@ -18,10 +18,13 @@ package software.amazon.awssdk.core.client;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.time.Duration;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,6 +37,7 @@ import software.amazon.awssdk.core.SdkRequest;
 import software.amazon.awssdk.core.SdkResponse;
 import software.amazon.awssdk.core.auth.AwsCredentials;
 import software.amazon.awssdk.core.auth.AwsCredentialsProvider;
+import software.amazon.awssdk.core.cache.ResponseCache;
 import software.amazon.awssdk.core.config.AdvancedClientOption;
 import software.amazon.awssdk.core.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.config.MutableClientConfiguration;
@@ -116,6 +120,27 @@ public class SyncClientHandlerImplTest {
         verifyNoMoreInteractions(responseHandler); // No response handler calls
     }
 
+    @Test
+    public void cachedOperationIsOnlySentOnce() throws Exception {
+        ResponseCache cache = ResponseCache.builder().cache(request.getClass(), Duration.ofMinutes(1)).build();
+        SyncClientHandlerImpl cachingClientHandler = new SyncClientHandlerImpl(clientConfiguration(cache), null);
+
+        // Given
+        expectRetrievalFromMocks();
+        when(httpClientCall.call()).thenReturn(SdkHttpFullResponse.builder().statusCode(200).build()); // Successful HTTP call
+        when(responseHandler.handle(any(), any())).thenReturn(response); // Response handler call
+
+        // When
+        SdkResponse first = cachingClientHandler.execute(clientExecutionParams());
+        SdkResponse second = cachingClientHandler.execute(clientExecutionParams());
+
+        // Then
+        verify(httpClientCall, times(1)).call(); // Second execution served from the cache
+        assertThat(first).isEqualTo(this.response);
+        assertThat(second).isEqualTo(this.response);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
     @Test(expected = IllegalStateException.class)
     public void clientHandlerThrowsExceptionWhenCredentialProviderReturnsNull() {
         when(credentialsProvider.getCredentials()).thenReturn(null);
@@ -137,16 +162,24 @@ public class SyncClientHandlerImplTest {
     }
 
     public SyncClientConfiguration clientConfiguration() {
+        return clientConfiguration(null);
+    }
+
+    private SyncClientConfiguration clientConfiguration(ResponseCache responseCache) {
+        ClientOverrideConfiguration.Builder overrideConfiguration =
+            ClientOverrideConfiguration.builder()
+                                       .advancedOption(AdvancedClientOption.SIGNER_PROVIDER, new NoOpSignerProvider())
+                                       .retryPolicy(RetryPolicy.NONE);
+        if (responseCache != null) {
+            overrideConfiguration.addLastExecutionInterceptor(responseCache);
+        }
+
         MutableClientConfiguration mutableClientConfiguration = new MutableClientConfiguration()
                 .endpoint(URI.create("http://test.com"))
                 .credentialsProvider(credentialsProvider)
                 .httpClient(httpClient);
 
-        mutableClientConfiguration.overrideConfiguration(
-            ClientOverrideConfiguration.builder()
-                                       .advancedOption(AdvancedClientOption.SIGNER_PROVIDER, new NoOpSignerProvider())
-                                       .retryPolicy(RetryPolicy.NONE)
-                                       .build());
+        mutableClientConfiguration.overrideConfiguration(overrideConfiguration.build());
 
         new GlobalClientConfigurationDefaults().applySyncDefaults(mutableClientConfiguration);
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.client.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpClientFactory;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.utils.AttributeMap;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SharedSdkHttpClientFactoryTest {
+
+    private static final AttributeMap SERVICE_DEFAULTS = AttributeMap.empty();
+
+    @Mock
+    private SdkHttpClient delegateClient;
+
+    @Mock
+    private SdkHttpClientFactory delegateFactory;
+
+    private SharedSdkHttpClientFactory sharedFactory;
+
+    @Before
+    public void setup() {
+        when(delegateFactory.createHttpClientWithDefaults(any(AttributeMap.class))).thenReturn(delegateClient);
+        sharedFactory = SharedSdkHttpClientFactory.create(delegateFactory);
+    }
+
+    @Test
+    public void clientsWithSameDefaults_ShareUnderlyingClient() {
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+
+        verify(delegateFactory, times(1)).createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        assertThat(sharedFactory.referenceCount(SERVICE_DEFAULTS)).isEqualTo(2);
+    }
+
+    @Test
+    public void clientsWithDifferentDefaults_DoNotShareUnderlyingClient() {
+        AttributeMap otherDefaults = AttributeMap.builder()
+                                                 .put(SdkHttpConfigurationOption.SOCKET_TIMEOUT, Duration.ofSeconds(1))
+                                                 .build();
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        sharedFactory.createHttpClientWithDefaults(otherDefaults);
+
+        verify(delegateFactory).createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        verify(delegateFactory).createHttpClientWithDefaults(otherDefaults);
+    }
+
+    @Test
+    public void underlyingClient_OnlyClosedWhenLastReferenceIsClosed() {
+        SdkHttpClient first = sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        SdkHttpClient second = sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+
+        first.close();
+        verify(delegateClient, never()).close();
+
+        second.close();
+        verify(delegateClient).close();
+        assertThat(sharedFactory.referenceCount(SERVICE_DEFAULTS)).isEqualTo(0);
+    }
+
+    @Test
+    public void closingSameClientTwice_OnlyReleasesOneReference() {
+        SdkHttpClient first = sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+
+        first.close();
+        first.close();
+
+        verify(delegateClient, never()).close();
+        assertThat(sharedFactory.referenceCount(SERVICE_DEFAULTS)).isEqualTo(1);
+    }
+
+    @Test
+    public void clientCreatedAfterAllReferencesClosed_CreatesNewUnderlyingClient() {
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS).close();
+        sharedFactory.createHttpClientWithDefaults(SERVICE_DEFAULTS);
+
+        verify(delegateFactory, times(2)).createHttpClientWithDefaults(SERVICE_DEFAULTS);
+    }
+}
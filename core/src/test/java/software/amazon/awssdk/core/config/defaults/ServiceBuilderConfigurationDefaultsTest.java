@@ -0,0 +1,49 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.config.defaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import org.junit.Test;
+import software.amazon.awssdk.core.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.config.MutableClientConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Validate functionality of {@link ServiceBuilderConfigurationDefaults}.
+ */
+public class ServiceBuilderConfigurationDefaultsTest {
+    @Test
+    public void registeredInterceptorsArePlacedBeforeConfiguredInterceptors() {
+        ExecutionInterceptor serviceInterceptor = new ExecutionInterceptor() {};
+        ExecutionInterceptor customerInterceptor = new ExecutionInterceptor() {};
+
+        MutableClientConfiguration config = new MutableClientConfiguration();
+        config.overrideConfiguration(ClientOverrideConfiguration.builder()
+                                                                .addLastExecutionInterceptor(customerInterceptor)
+                                                                .build());
+
+        ServiceBuilderConfigurationDefaults.builder()
+                                           .defaultEndpoint(() -> URI.create("http://example.com"))
+                                           .addExecutionInterceptor(serviceInterceptor)
+                                           .build()
+                                           .applySyncDefaults(config);
+
+        assertThat(config.overrideConfiguration().lastExecutionInterceptors())
+                .containsExactly(serviceInterceptor, customerInterceptor);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.http.pipeline.stages;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.RequestExecutionContext;
+import software.amazon.awssdk.core.Response;
+import software.amazon.awssdk.core.config.AsyncClientConfiguration;
+import software.amazon.awssdk.core.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.config.SyncClientConfiguration;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.http.ExecutionContext;
+import software.amazon.awssdk.core.http.HttpAsyncClientDependencies;
+import software.amazon.awssdk.core.http.HttpSyncClientDependencies;
+import software.amazon.awssdk.core.http.NoopTestAwsRequest;
+import software.amazon.awssdk.core.http.pipeline.RequestPipeline;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.internal.http.timers.client.ClientExecutionTimer;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.util.CapacityManager;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+
+/**
+ * Tests that {@link RetryableStage} and {@link AsyncRetryableStage} consult the {@link
+ * software.amazon.awssdk.core.http.RedirectHandler} whether a service error is returned or thrown by the wrapped pipeline.
+ */
+public class RetryableStageRedirectTest {
+
+    private static final int MOVED_PERMANENTLY = 301;
+
+    private final List<String> sentHosts = new ArrayList<>();
+
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void syncReturnedServiceError_IsRedirected() throws Exception {
+        RequestPipeline<SdkHttpFullRequest, Response<String>> wrapped = syncPipeline(false);
+
+        Response<String> response = new RetryableStage<>(syncDependencies(), wrapped).execute(request(), context());
+
+        assertThat(response.getAwsResponse()).isEqualTo("moved");
+        assertThat(sentHosts).containsExactly("old.example.com", "new.example.com");
+    }
+
+    @Test
+    public void syncThrownServiceError_IsRedirected() throws Exception {
+        RequestPipeline<SdkHttpFullRequest, Response<String>> wrapped = syncPipeline(true);
+
+        Response<String> response = new RetryableStage<>(syncDependencies(), wrapped).execute(request(), context());
+
+        assertThat(response.getAwsResponse()).isEqualTo("moved");
+        assertThat(sentHosts).containsExactly("old.example.com", "new.example.com");
+    }
+
+    @Test
+    public void asyncReturnedServiceError_IsRedirected() throws Exception {
+        RequestPipeline<SdkHttpFullRequest, CompletableFuture<Response<String>>> wrapped = asyncPipeline(false);
+
+        Response<String> response = new AsyncRetryableStage<>(asyncDependencies(), wrapped).execute(request(), context())
+                                                                                             .get(10, TimeUnit.SECONDS);
+
+        assertThat(response.getAwsResponse()).isEqualTo("moved");
+        assertThat(sentHosts).containsExactly("old.example.com", "new.example.com");
+    }
+
+    @Test
+    public void asyncFailedServiceError_IsRedirected() throws Exception {
+        RequestPipeline<SdkHttpFullRequest, CompletableFuture<Response<String>>> wrapped = asyncPipeline(true);
+
+        Response<String> response = new AsyncRetryableStage<>(asyncDependencies(), wrapped).execute(request(), context())
+                                                                                             .get(10, TimeUnit.SECONDS);
+
+        assertThat(response.getAwsResponse()).isEqualTo("moved");
+        assertThat(sentHosts).containsExactly("old.example.com", "new.example.com");
+    }
+
+    @SuppressWarnings("unchecked")
+    private RequestPipeline<SdkHttpFullRequest, Response<String>> syncPipeline(boolean throwError) throws Exception {
+        RequestPipeline<SdkHttpFullRequest, Response<String>> wrapped = mock(RequestPipeline.class);
+        when(wrapped.execute(any(SdkHttpFullRequest.class), any(RequestExecutionContext.class))).thenAnswer(i -> {
+            SdkHttpFullRequest sent = (SdkHttpFullRequest) i.getArguments()[0];
+            sentHosts.add(sent.host());
+            if (!"old.example.com".equals(sent.host())) {
+                return Response.fromSuccess("moved", null);
+            }
+            if (throwError) {
+                throw movedPermanently();
+            }
+            return Response.fromFailure(movedPermanently(), null);
+        });
+        return wrapped;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RequestPipeline<SdkHttpFullRequest, CompletableFuture<Response<String>>> asyncPipeline(boolean failFuture)
+            throws Exception {
+        RequestPipeline<SdkHttpFullRequest, CompletableFuture<Response<String>>> wrapped = mock(RequestPipeline.class);
+        when(wrapped.execute(any(SdkHttpFullRequest.class), any(RequestExecutionContext.class))).thenAnswer(i -> {
+            SdkHttpFullRequest sent = (SdkHttpFullRequest) i.getArguments()[0];
+            sentHosts.add(sent.host());
+            if (!"old.example.com".equals(sent.host())) {
+                return CompletableFuture.completedFuture(Response.fromSuccess("moved", null));
+            }
+            if (failFuture) {
+                // Chain a stage so the error reaches the retry stage wrapped in a CompletionException
+                CompletableFuture<Response<String>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(movedPermanently());
+                return failed.thenApply(r -> r);
+            }
+            return CompletableFuture.completedFuture(Response.fromFailure(movedPermanently(), null));
+        });
+        return wrapped;
+    }
+
+    private static SdkServiceException movedPermanently() {
+        SdkServiceException exception = new SdkServiceException("Moved Permanently");
+        exception.statusCode(MOVED_PERMANENTLY);
+        return exception;
+    }
+
+    private HttpSyncClientDependencies syncDependencies() {
+        SyncClientConfiguration configuration = mock(SyncClientConfiguration.class);
+        when(configuration.overrideConfiguration()).thenReturn(noRetries());
+        return HttpSyncClientDependencies.builder()
+                                         .syncClientConfiguration(configuration)
+                                         .capacityManager(mock(CapacityManager.class))
+                                         .clientExecutionTimer(new ClientExecutionTimer())
+                                         .build();
+    }
+
+    private HttpAsyncClientDependencies asyncDependencies() {
+        AsyncClientConfiguration configuration = mock(AsyncClientConfiguration.class);
+        when(configuration.overrideConfiguration()).thenReturn(noRetries());
+        when(configuration.asyncExecutorService()).thenReturn(executor);
+        return HttpAsyncClientDependencies.builder()
+                                          .asyncClientConfiguration(configuration)
+                                          .capacityManager(mock(CapacityManager.class))
+                                          .clientExecutionTimer(new ClientExecutionTimer())
+                                          .build();
+    }
+
+    private static ClientOverrideConfiguration noRetries() {
+        return ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.NONE).build();
+    }
+
+    private static SdkHttpFullRequest request() {
+        return SdkHttpFullRequest.builder()
+                                 .protocol("https")
+                                 .host("old.example.com")
+                                 .method(SdkHttpMethod.GET)
+                                 .build();
+    }
+
+    private static RequestExecutionContext context() {
+        ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(AwsExecutionAttributes.REDIRECT_HANDLER, (request, exception, executionAttributes) -> {
+            if (exception.statusCode() != MOVED_PERMANENTLY) {
+                return Optional.empty();
+            }
+            return Optional.of(request.toBuilder().host("new.example.com").build());
+        });
+        ExecutionContext executionContext = mock(ExecutionContext.class);
+        when(executionContext.executionAttributes()).thenReturn(attributes);
+        return RequestExecutionContext.builder()
+                                      .executionContext(executionContext)
+                                      .originalRequest(NoopTestAwsRequest.builder().build())
+                                      .build();
+    }
+}
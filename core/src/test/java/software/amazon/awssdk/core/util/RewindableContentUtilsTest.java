@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.utils.IoUtils;
+
+public class RewindableContentUtilsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void bytesAreReadAndRewound() throws IOException {
+        InputStream content = new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(RewindableContentUtils.readAndRewind(content, IoUtils::toString)).hasValue("content");
+        assertThat(IoUtils.toString(content)).isEqualTo("content");
+    }
+
+    @Test
+    public void fileIsReadAndRewoundToItsPosition() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "skipped content".getBytes(StandardCharsets.UTF_8));
+
+        try (InputStream content = new FileInputStream(file)) {
+            assertThat(content.skip(8)).isEqualTo(8);
+
+            assertThat(RewindableContentUtils.readAndRewind(content, IoUtils::toString)).hasValue("content");
+            assertThat(IoUtils.toString(content)).isEqualTo("content");
+        }
+    }
+
+    @Test
+    public void otherContentIsNotRead() throws IOException {
+        InputStream content = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("The content should not be read");
+            }
+        };
+
+        assertThat(RewindableContentUtils.readAndRewind(content, IoUtils::toString)).isEmpty();
+    }
+
+    @Test
+    public void readFailureIsWrapped() {
+        InputStream content = new ByteArrayInputStream(new byte[1]);
+
+        assertThatThrownBy(() -> RewindableContentUtils.readAndRewind(content, c -> {
+            throw new IOException("failed");
+        })).isInstanceOf(SdkClientException.class).hasCauseInstanceOf(IOException.class);
+    }
+}
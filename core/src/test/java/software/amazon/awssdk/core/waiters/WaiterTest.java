@@ -0,0 +1,152 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.core.waiters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+public class WaiterTest {
+
+    private static final WaiterOverrideConfiguration NO_DELAY = WaiterOverrideConfiguration.builder()
+                                                                                          .backoffStrategy(c -> Duration.ZERO)
+                                                                                          .build();
+
+    @Test
+    public void pollsUntilASuccessAcceptorMatches() {
+        Waiter<String> waiter = statusWaiter(10);
+
+        WaiterResponse<String> response = waiter.run(responses("CREATING", "CREATING", "ACTIVE"));
+
+        assertThat(response.response()).hasValue("ACTIVE");
+        assertThat(response.exception()).isEmpty();
+        assertThat(response.attemptsExecuted()).isEqualTo(3);
+    }
+
+    @Test
+    public void failsWhenAFailureAcceptorMatches() {
+        assertThatThrownBy(() -> statusWaiter(10).run(responses("CREATING", "FAILED")))
+            .isInstanceOf(SdkClientException.class)
+            .hasMessageContaining("failure state after 2 attempts");
+    }
+
+    @Test
+    public void givesUpAfterTheMaximumAttempts() {
+        assertThatThrownBy(() -> statusWaiter(2).run(responses("CREATING", "CREATING", "ACTIVE")))
+            .isInstanceOf(SdkClientException.class)
+            .hasMessageContaining("gave up after 2 attempts");
+    }
+
+    @Test
+    public void exceptionsMatchedByNoAcceptorFailTheWaiter() {
+        IllegalStateException failure = new IllegalStateException("boom");
+        assertThatThrownBy(() -> statusWaiter(10).run(() -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+    @Test
+    public void errorCodeAcceptorsMatchServiceExceptions() {
+        Waiter<String> waiter = Waiter.builder(String.class)
+                                      .addAcceptor(WaiterAcceptor.onErrorCode(WaiterState.SUCCESS, "ResourceNotFoundException"))
+                                      .addAcceptor(WaiterAcceptor.onStatusCode(WaiterState.RETRY, 200))
+                                      .defaultMaxAttempts(10)
+                                      .defaultDelay(Duration.ZERO)
+                                      .build();
+        SdkServiceException notFound = new SdkServiceException("Not found");
+        notFound.errorCode("ResourceNotFoundException");
+        Iterator<String> responses = Arrays.asList("ACTIVE", "DELETING").iterator();
+
+        WaiterResponse<String> response = waiter.run(() -> {
+            if (responses.hasNext()) {
+                return responses.next();
+            }
+            throw notFound;
+        });
+
+        assertThat(response.exception()).hasValue(notFound);
+        assertThat(response.attemptsExecuted()).isEqualTo(3);
+    }
+
+    @Test
+    public void pathAllMatchesWhenAllValuesAreEqual() {
+        WaiterAcceptor<List<String>> acceptor = WaiterAcceptor.onPathAll(WaiterState.SUCCESS, List::stream, "ACTIVE");
+
+        assertThat(acceptor.matches(Arrays.asList("ACTIVE", "ACTIVE"))).isTrue();
+        assertThat(acceptor.matches(Arrays.asList("ACTIVE", "CREATING"))).isFalse();
+        assertThat(acceptor.matches(new ArrayList<>())).isFalse();
+        assertThat(WaiterAcceptor.<List<String>>onPathAny(WaiterState.SUCCESS, List::stream, "ACTIVE")
+                       .matches(Arrays.asList("CREATING", "ACTIVE"))).isTrue();
+    }
+
+    @Test
+    public void asyncWaitersShareTheScheduler() {
+        Waiter<String> waiter = statusWaiter(10);
+
+        List<CompletableFuture<WaiterResponse<String>>> waits =
+            IntStream.range(0, 200)
+                     .mapToObj(i -> waiter.runAsync(asyncResponses("CREATING", "CREATING", "ACTIVE")))
+                     .collect(Collectors.toList());
+
+        for (CompletableFuture<WaiterResponse<String>> wait : waits) {
+            assertThat(wait.join().attemptsExecuted()).isEqualTo(3);
+        }
+        assertThat(Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().startsWith("sdk-async-waiter")))
+            .hasSize(1);
+    }
+
+    @Test
+    public void asyncWaitersFailWithTheFailureState() {
+        CompletableFuture<WaiterResponse<String>> wait = statusWaiter(10).runAsync(asyncResponses("FAILED"));
+
+        assertThatThrownBy(wait::join).isInstanceOf(CompletionException.class)
+                                      .hasCauseInstanceOf(SdkClientException.class);
+    }
+
+    private static Waiter<String> statusWaiter(int maxAttempts) {
+        return Waiter.builder(String.class)
+                     .addAcceptor(WaiterAcceptor.onPathAny(WaiterState.SUCCESS, Stream::of, "ACTIVE"))
+                     .addAcceptor(WaiterAcceptor.onPathAny(WaiterState.FAILURE, Stream::of, "FAILED"))
+                     .defaultMaxAttempts(maxAttempts)
+                     .defaultDelay(Duration.ofSeconds(20))
+                     .overrideConfiguration(NO_DELAY)
+                     .build();
+    }
+
+    private static Supplier<String> responses(String... responses) {
+        Iterator<String> iterator = Arrays.asList(responses).iterator();
+        return iterator::next;
+    }
+
+    private static Supplier<CompletableFuture<String>> asyncResponses(String... responses) {
+        Iterator<String> iterator = Arrays.asList(responses).iterator();
+        return () -> CompletableFuture.supplyAsync(iterator::next);
+    }
+}
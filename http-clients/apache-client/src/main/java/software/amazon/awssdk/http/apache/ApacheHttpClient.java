@@ -26,9 +26,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.HttpClientConnectionManager;
 import software.amazon.awssdk.annotations.SdkInternalApi;
 import software.amazon.awssdk.http.AbortableCallable;
 import software.amazon.awssdk.http.AbortableInputStream;
@@ -38,6 +41,8 @@ import software.amazon.awssdk.http.SdkHttpFullRequest;
 import software.amazon.awssdk.http.SdkHttpFullResponse;
 import software.amazon.awssdk.http.SdkRequestContext;
 import software.amazon.awssdk.http.apache.internal.ApacheHttpRequestConfig;
+import software.amazon.awssdk.http.apache.internal.RepeatableInputStreamRequestEntity;
+import software.amazon.awssdk.http.apache.internal.conn.IdleConnectionReaper;
 import software.amazon.awssdk.http.apache.internal.impl.ApacheHttpRequestFactory;
 import software.amazon.awssdk.http.apache.internal.impl.ConnectionManagerAwareHttpClient;
 import software.amazon.awssdk.http.apache.internal.utils.ApacheUtils;
@@ -50,13 +55,16 @@ class ApacheHttpClient implements SdkHttpClient {
     private final ConnectionManagerAwareHttpClient httpClient;
     private final ApacheHttpRequestConfig requestConfig;
     private final AttributeMap resolvedOptions;
+    private final Runnable onClose;
 
     ApacheHttpClient(ConnectionManagerAwareHttpClient httpClient,
                      ApacheHttpRequestConfig requestConfig,
-                     AttributeMap resolvedOptions) {
+                     AttributeMap resolvedOptions,
+                     Runnable onClose) {
         this.httpClient = notNull(httpClient, "httpClient must not be null.");
         this.requestConfig = notNull(requestConfig, "requestConfig must not be null.");
         this.resolvedOptions = notNull(resolvedOptions, "resolvedOptions must not be null");
+        this.onClose = notNull(onClose, "onClose must not be null");
     }
 
     @Override
@@ -82,13 +90,32 @@ class ApacheHttpClient implements SdkHttpClient {
 
     @Override
     public void close() {
-        httpClient.getHttpClientConnectionManager().shutdown();
+        HttpClientConnectionManager cm = httpClient.getHttpClientConnectionManager();
+        IdleConnectionReaper.removeConnectionManager(cm);
+        cm.shutdown();
+        onClose.run();
     }
 
     private SdkHttpFullResponse execute(HttpRequestBase apacheRequest) throws IOException {
         HttpClientContext localRequestContext = ApacheUtils.newClientContext(requestConfig.proxyConfiguration());
-        HttpResponse httpResponse = httpClient.execute(apacheRequest, localRequestContext);
-        return createResponse(httpResponse, apacheRequest);
+        try {
+            HttpResponse httpResponse = httpClient.execute(apacheRequest, localRequestContext);
+            return createResponse(httpResponse, apacheRequest);
+        } finally {
+            releaseRequestEntity(apacheRequest);
+        }
+    }
+
+    /**
+     * Release the resources held by the request content, such as a temporary file, once the request has been sent.
+     */
+    private void releaseRequestEntity(HttpRequestBase apacheRequest) {
+        if (apacheRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) apacheRequest).getEntity();
+            if (entity instanceof RepeatableInputStreamRequestEntity) {
+                ((RepeatableInputStreamRequestEntity) entity).release();
+            }
+        }
     }
 
     private HttpRequestBase toApacheRequest(SdkHttpFullRequest request) {
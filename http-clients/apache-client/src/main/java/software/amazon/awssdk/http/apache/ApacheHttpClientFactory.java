@@ -16,9 +16,9 @@
 package software.amazon.awssdk.http.apache;
 
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HttpRequestExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +28,8 @@ import software.amazon.awssdk.http.apache.internal.ApacheHttpRequestConfig;
 import software.amazon.awssdk.http.apache.internal.Defaults;
 import software.amazon.awssdk.http.apache.internal.SdkProxyRoutePlanner;
 import software.amazon.awssdk.http.apache.internal.conn.ClientConnectionManagerFactory;
+import software.amazon.awssdk.http.apache.internal.conn.IdleConnectionReaper;
+import software.amazon.awssdk.http.apache.internal.conn.PoolingConnectionPoolMetrics;
 import software.amazon.awssdk.http.apache.internal.conn.SdkConnectionKeepAliveStrategy;
 import software.amazon.awssdk.http.apache.internal.impl.ApacheConnectionManagerFactory;
 import software.amazon.awssdk.http.apache.internal.impl.ApacheSdkHttpClient;
@@ -45,16 +47,29 @@ class ApacheHttpClientFactory {
     public SdkHttpClient create(ApacheSdkHttpClientFactory configuration,
                                 AttributeMap resolvedOptions,
                                 ApacheHttpRequestConfig requestConfig) {
-        return new ApacheHttpClient(createClient(configuration, resolvedOptions), requestConfig, resolvedOptions);
+        final PoolingHttpClientConnectionManager cm = cmFactory.create(configuration, resolvedOptions);
+        final ConnectionManagerAwareHttpClient client = createClient(configuration, cm);
+
+        if (configuration.useIdleConnectionReaper().orElse(Defaults.USE_IDLE_CONNECTION_REAPER)) {
+            IdleConnectionReaper.registerConnectionManager(
+                    cm,
+                    configuration.connectionMaxIdleTime().orElse(Defaults.MAX_IDLE_CONNECTION_TIME).toMillis(),
+                    configuration.idleConnectionReaperPeriod().orElse(Defaults.IDLE_CONNECTION_REAPER_PERIOD).toMillis());
+        }
+
+        final ConnectionPoolMetricsCollector metricsCollector = configuration.connectionPoolMetricsCollector().orElse(null);
+        if (metricsCollector == null) {
+            return new ApacheHttpClient(client, requestConfig, resolvedOptions, () -> { });
+        }
+        final ConnectionPoolMetrics poolMetrics = new PoolingConnectionPoolMetrics(cm);
+        metricsCollector.connectionPoolOpened(poolMetrics);
+        final Runnable onClose = () -> metricsCollector.connectionPoolClosed(poolMetrics);
+        return new ApacheHttpClient(client, requestConfig, resolvedOptions, onClose);
     }
 
     private ConnectionManagerAwareHttpClient createClient(ApacheSdkHttpClientFactory configuration,
-                                                          AttributeMap standardOptions) {
+                                                          PoolingHttpClientConnectionManager cm) {
         final HttpClientBuilder builder = HttpClients.custom();
-        // Note that it is important we register the original connection manager with the
-        // IdleConnectionReaper as it's required for the successful deregistration of managers
-        // from the reaper. See https://github.com/aws/aws-sdk-java/issues/722.
-        final HttpClientConnectionManager cm = cmFactory.create(configuration, standardOptions);
 
         builder.setRequestExecutor(new HttpRequestExecutor())
                // SDK handles decompression
@@ -63,15 +78,14 @@ class ApacheHttpClientFactory {
                .disableRedirectHandling()
                .disableAutomaticRetries()
                .setUserAgent("") // SDK will set the user agent header in the pipeline. Don't let Apache waste time
-               .setConnectionManager(ClientConnectionManagerFactory.wrap(cm));
+               .setConnectionManager(ClientConnectionManagerFactory.wrap(
+                       cm, configuration.connectionPoolMetricsCollector().orElse(null)));
 
         addProxyConfig(builder, configuration.proxyConfiguration());
 
-        // TODO idle connection reaper
-        //        if (.useReaper()) {
-        //            IdleConnectionReaper.registerConnectionManager(cm, settings.getMaxIdleConnectionTime());
-        //        }
-
+        // Note that it is important the original connection manager is returned here rather than the wrapped one, as
+        // it's the one registered with the IdleConnectionReaper and required for its successful deregistration.
+        // See https://github.com/aws/aws-sdk-java/issues/722.
         return new ApacheSdkHttpClient(builder.build(), cm);
     }
 
@@ -56,6 +56,11 @@ public final class ApacheSdkHttpClientFactory
     private final Optional<Boolean> expectContinueEnabled;
     private final Optional<Duration> connectionPoolTtl;
     private final Optional<Duration> maxIdleConnectionTimeout;
+    private final Optional<Integer> maxConnectionsPerRoute;
+    private final Optional<Duration> validateAfterInactivity;
+    private final Optional<Boolean> useIdleConnectionReaper;
+    private final Optional<Duration> idleConnectionReaperPeriod;
+    private final Optional<ConnectionPoolMetricsCollector> connectionPoolMetricsCollector;
 
     private ApacheSdkHttpClientFactory(DefaultBuilder builder) {
         this.standardOptions = builder.standardOptions.build();
@@ -64,6 +69,11 @@ public final class ApacheSdkHttpClientFactory
         this.expectContinueEnabled = Optional.ofNullable(builder.expectContinueEnabled);
         this.connectionPoolTtl = Optional.ofNullable(builder.connectionTimeToLive);
         this.maxIdleConnectionTimeout = Optional.ofNullable(builder.connectionMaxIdleTime);
+        this.maxConnectionsPerRoute = Optional.ofNullable(builder.maxConnectionsPerRoute);
+        this.validateAfterInactivity = Optional.ofNullable(builder.validateAfterInactivity);
+        this.useIdleConnectionReaper = Optional.ofNullable(builder.useIdleConnectionReaper);
+        this.idleConnectionReaperPeriod = Optional.ofNullable(builder.idleConnectionReaperPeriod);
+        this.connectionPoolMetricsCollector = Optional.ofNullable(builder.connectionPoolMetricsCollector);
     }
 
     public ProxyConfiguration proxyConfiguration() {
@@ -88,6 +98,26 @@ public final class ApacheSdkHttpClientFactory
         return maxIdleConnectionTimeout;
     }
 
+    public Optional<Integer> maxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public Optional<Duration> validateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public Optional<Boolean> useIdleConnectionReaper() {
+        return useIdleConnectionReaper;
+    }
+
+    public Optional<Duration> idleConnectionReaperPeriod() {
+        return idleConnectionReaperPeriod;
+    }
+
+    public Optional<ConnectionPoolMetricsCollector> connectionPoolMetricsCollector() {
+        return connectionPoolMetricsCollector;
+    }
+
     public SdkHttpClient createHttpClient() {
         return createHttpClientWithDefaults(AttributeMap.empty());
     }
@@ -122,7 +152,12 @@ public final class ApacheSdkHttpClientFactory
                 .localAddress(localAddress.orElse(null))
                 .expectContinueEnabled(expectContinueEnabled.orElse(null))
                 .connectionTimeToLive(connectionPoolTtl.orElse(null))
-                .connectionMaxIdleTime(maxIdleConnectionTimeout.orElse(null));
+                .connectionMaxIdleTime(maxIdleConnectionTimeout.orElse(null))
+                .maxConnectionsPerRoute(maxConnectionsPerRoute.orElse(null))
+                .validateAfterInactivity(validateAfterInactivity.orElse(null))
+                .useIdleConnectionReaper(useIdleConnectionReaper.orElse(null))
+                .idleConnectionReaperPeriod(idleConnectionReaperPeriod.orElse(null))
+                .connectionPoolMetricsCollector(connectionPoolMetricsCollector.orElse(null));
     }
 
     @Override
@@ -134,6 +169,11 @@ public final class ApacheSdkHttpClientFactory
                        .add("expectContinueEnabled", expectContinueEnabled)
                        .add("connectionPoolTtl", connectionPoolTtl)
                        .add("maxIdleConnectionTimeout", maxIdleConnectionTimeout)
+                       .add("maxConnectionsPerRoute", maxConnectionsPerRoute)
+                       .add("validateAfterInactivity", validateAfterInactivity)
+                       .add("useIdleConnectionReaper", useIdleConnectionReaper)
+                       .add("idleConnectionReaperPeriod", idleConnectionReaperPeriod)
+                       .add("connectionPoolMetricsCollector", connectionPoolMetricsCollector)
                        .build();
     }
 
@@ -194,6 +234,39 @@ public final class ApacheSdkHttpClientFactory
          * Configure the maximum amount of time that a connection should be allowed to remain open while idle.
          */
         Builder connectionMaxIdleTime(Duration connectionMaxIdleTime);
+
+        /**
+         * The maximum number of connections allowed in the connection pool for a single route (scheme, host and port). Defaults
+         * to {@link #maxConnections(Integer)}. Lower this when one client talks to several endpoints and a slow endpoint should
+         * not be able to take every connection in the pool.
+         */
+        Builder maxConnectionsPerRoute(Integer maxConnectionsPerRoute);
+
+        /**
+         * The amount of time a pooled connection must have been idle before it is checked for staleness when it is leased. A
+         * shorter duration reduces failures on connections closed by the remote end, at the cost of a check on more requests.
+         */
+        Builder validateAfterInactivity(Duration validateAfterInactivity);
+
+        /**
+         * Configure whether idle connections in the connection pool should be closed in the background, after they have been idle
+         * for {@link #connectionMaxIdleTime(Duration)}. Enabled by default.
+         */
+        Builder useIdleConnectionReaper(Boolean useIdleConnectionReaper);
+
+        /**
+         * The maximum amount of time between two checks for idle connections when the idle connection reaper is enabled.
+         * Defaults to 60 seconds.
+         *
+         * @see #useIdleConnectionReaper(Boolean)
+         */
+        Builder idleConnectionReaperPeriod(Duration idleConnectionReaperPeriod);
+
+        /**
+         * Configure a collector that is notified of the connection pool of each built HTTP client and of the time requests spend
+         * waiting to acquire a connection.
+         */
+        Builder connectionPoolMetricsCollector(ConnectionPoolMetricsCollector connectionPoolMetricsCollector);
     }
 
     /**
@@ -208,6 +281,11 @@ public final class ApacheSdkHttpClientFactory
         private Boolean expectContinueEnabled;
         private Duration connectionTimeToLive;
         private Duration connectionMaxIdleTime;
+        private Integer maxConnectionsPerRoute;
+        private Duration validateAfterInactivity;
+        private Boolean useIdleConnectionReaper;
+        private Duration idleConnectionReaperPeriod;
+        private ConnectionPoolMetricsCollector connectionPoolMetricsCollector;
 
         private DefaultBuilder(AttributeMap.Builder standardOptions) {
             this.standardOptions = standardOptions;
@@ -293,6 +371,56 @@ public final class ApacheSdkHttpClientFactory
             connectionMaxIdleTime(connectionMaxIdleTime);
         }
 
+        @Override
+        public Builder maxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+            maxConnectionsPerRoute(maxConnectionsPerRoute);
+        }
+
+        @Override
+        public Builder validateAfterInactivity(Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+            validateAfterInactivity(validateAfterInactivity);
+        }
+
+        @Override
+        public Builder useIdleConnectionReaper(Boolean useIdleConnectionReaper) {
+            this.useIdleConnectionReaper = useIdleConnectionReaper;
+            return this;
+        }
+
+        public void setUseIdleConnectionReaper(Boolean useIdleConnectionReaper) {
+            useIdleConnectionReaper(useIdleConnectionReaper);
+        }
+
+        @Override
+        public Builder idleConnectionReaperPeriod(Duration idleConnectionReaperPeriod) {
+            this.idleConnectionReaperPeriod = idleConnectionReaperPeriod;
+            return this;
+        }
+
+        public void setIdleConnectionReaperPeriod(Duration idleConnectionReaperPeriod) {
+            idleConnectionReaperPeriod(idleConnectionReaperPeriod);
+        }
+
+        @Override
+        public Builder connectionPoolMetricsCollector(ConnectionPoolMetricsCollector connectionPoolMetricsCollector) {
+            this.connectionPoolMetricsCollector = connectionPoolMetricsCollector;
+            return this;
+        }
+
+        public void setConnectionPoolMetricsCollector(ConnectionPoolMetricsCollector connectionPoolMetricsCollector) {
+            connectionPoolMetricsCollector(connectionPoolMetricsCollector);
+        }
+
         @Override
         public ApacheSdkHttpClientFactory build() {
             return new ApacheSdkHttpClientFactory(this);
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache;
+
+import java.util.Map;
+
+/**
+ * A live view of the connection pool of an HTTP client created by {@link ApacheSdkHttpClientFactory}. Every call returns the
+ * state of the pool at the time of the call, so an instance can back gauges in a metrics system.
+ *
+ * @see ConnectionPoolMetricsCollector#connectionPoolOpened(ConnectionPoolMetrics)
+ */
+public interface ConnectionPoolMetrics {
+
+    /**
+     * The state of the whole connection pool.
+     */
+    ConnectionPoolStats totalStats();
+
+    /**
+     * The state of the connection pool for each route it currently holds connections or waiting requests for. Routes are keyed
+     * by their target host, for example {@code https://s3.amazonaws.com:443}.
+     */
+    Map<String, ConnectionPoolStats> routeStats();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache;
+
+import java.time.Duration;
+
+/**
+ * Receives metrics about the connection pools of HTTP clients created by an {@link ApacheSdkHttpClientFactory}. All methods
+ * are invoked on the thread that triggered the event and should return quickly.
+ *
+ * <pre class="brush: java">
+ * SdkHttpClient httpClient = ApacheSdkHttpClientFactory.builder()
+ * .connectionPoolMetricsCollector(new ConnectionPoolMetricsCollector() {
+ *     public void connectionAcquired(String route, Duration acquireTime) {
+ *         acquireTimer.record(acquireTime);
+ *     }
+ * })
+ * .build()
+ * .createHttpClient();
+ * </pre>
+ *
+ * @see ApacheSdkHttpClientFactory.Builder#connectionPoolMetricsCollector(ConnectionPoolMetricsCollector)
+ */
+public interface ConnectionPoolMetricsCollector {
+
+    /**
+     * Invoked when an HTTP client and its connection pool are created. The provided {@link ConnectionPoolMetrics} remains valid
+     * until {@link #connectionPoolClosed(ConnectionPoolMetrics)} is invoked with it, and can be used to register gauges for the
+     * leased, pending and available connections of the pool.
+     */
+    default void connectionPoolOpened(ConnectionPoolMetrics pool) {
+    }
+
+    /**
+     * Invoked each time a request leases a connection from the pool, with the amount of time the request waited for it.
+     *
+     * @param route The target host of the request, for example {@code https://s3.amazonaws.com:443}.
+     * @param acquireTime The time spent waiting for a connection to become available.
+     */
+    default void connectionAcquired(String route, Duration acquireTime) {
+    }
+
+    /**
+     * Invoked when an HTTP client is closed and its connection pool shut down.
+     */
+    default void connectionPoolClosed(ConnectionPoolMetrics pool) {
+    }
+}
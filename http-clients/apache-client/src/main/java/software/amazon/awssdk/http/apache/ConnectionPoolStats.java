@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache;
+
+import software.amazon.awssdk.utils.ToString;
+
+/**
+ * A point-in-time snapshot of the state of an Apache HTTP client's connection pool, either for the whole pool or for a single
+ * route.
+ *
+ * @see ConnectionPoolMetrics
+ */
+public final class ConnectionPoolStats {
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    private ConnectionPoolStats(int leased, int pending, int available, int max) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    /**
+     * Create a snapshot from the provided values.
+     */
+    public static ConnectionPoolStats create(int leased, int pending, int available, int max) {
+        return new ConnectionPoolStats(leased, pending, available, max);
+    }
+
+    /**
+     * The number of connections currently in use by a request.
+     */
+    public int leased() {
+        return leased;
+    }
+
+    /**
+     * The number of requests currently waiting to acquire a connection. A value that stays above zero means requests are
+     * queueing for the pool and {@link ApacheSdkHttpClientFactory.Builder#maxConnections(Integer)} or
+     * {@link ApacheSdkHttpClientFactory.Builder#maxConnectionsPerRoute(Integer)} may need to be raised.
+     */
+    public int pending() {
+        return pending;
+    }
+
+    /**
+     * The number of idle connections that are open and ready to be reused.
+     */
+    public int available() {
+        return available;
+    }
+
+    /**
+     * The maximum number of connections that may be open at once.
+     */
+    public int max() {
+        return max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConnectionPoolStats that = (ConnectionPoolStats) o;
+        return leased == that.leased && pending == that.pending && available == that.available && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = leased;
+        result = 31 * result + pending;
+        result = 31 * result + available;
+        result = 31 * result + max;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return ToString.builder("ConnectionPoolStats")
+                       .add("leased", leased)
+                       .add("pending", pending)
+                       .add("available", available)
+                       .add("max", max)
+                       .build();
+    }
+}
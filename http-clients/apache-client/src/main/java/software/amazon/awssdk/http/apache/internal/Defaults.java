@@ -33,6 +33,16 @@ public final class Defaults {
 
     public static final Boolean EXPECT_CONTINUE_ENABLED = Boolean.TRUE;
 
+    public static final Boolean USE_IDLE_CONNECTION_REAPER = Boolean.TRUE;
+
+    public static final Duration IDLE_CONNECTION_REAPER_PERIOD = Duration.ofSeconds(60);
+
+    /**
+     * The number of bytes read ahead from a request body with no Content-Length to determine whether it can be sent with a
+     * known length. Larger bodies are spilled to a temporary file, or streamed if the request asks for chunked encoding.
+     */
+    public static final int UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE = 128 * 1024;
+
     private Defaults() {
     }
 }
@@ -19,11 +19,18 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import org.apache.http.entity.BasicHttpEntity;
 import org.apache.http.entity.InputStreamEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.annotations.SdkTestInternalApi;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.utils.IoUtils;
 
 /**
  * Custom implementation of {@link org.apache.http.HttpEntity} that delegates to an
@@ -31,6 +38,13 @@ import software.amazon.awssdk.http.SdkHttpFullRequest;
  * the underlying InputStream supports being reset, this RequestEntity will
  * report that it is repeatable and will reset the stream on all subsequent
  * attempts to write out the request.
+ * <p>
+ * If the request has no content length, the content is inspected when the request is executed rather than when the entity
+ * is created. Up to {@link Defaults#UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE} bytes are read ahead, and content that fits is
+ * sent with a known length. Larger content is streamed using chunked transfer encoding if the request asks for it with a
+ * {@code Transfer-Encoding: chunked} header. Otherwise, since endpoints such as S3 require a length, it is spilled to a
+ * temporary file which is sent with a known length, reopened for every attempt to write out the request, and deleted by
+ * {@link #release()}. Either way, the memory used by the request is bounded by the read-ahead size.
  */
 public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
 
@@ -42,7 +56,22 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
     private boolean firstAttempt = true;
 
     /**
-     * The underlying InputStreamEntity being delegated to
+     * The content length of the request, or -1 if it is unknown
+     */
+    private final long declaredContentLength;
+
+    /**
+     * True if the request asks for content of unknown length to be sent using chunked transfer encoding
+     */
+    private final boolean chunkedRequested;
+
+    /**
+     * True if the content length is unknown and the content is sent using chunked transfer encoding
+     */
+    private boolean chunked;
+
+    /**
+     * The underlying InputStreamEntity being delegated to, created once the content length is resolved
      */
     private InputStreamEntity inputStreamRequestEntity;
 
@@ -51,6 +80,11 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
      */
     private InputStream content;
 
+    /**
+     * The temporary file holding content of unknown length too large to be read ahead, if any
+     */
+    private Path spillFile;
+
     /**
      * Record the original exception if we do attempt a retry, so that if the
      * retry fails, we can report the original exception. Otherwise, we're most
@@ -59,7 +93,6 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
      */
     private IOException originalException;
 
-
     /**
      * Creates a new RepeatableInputStreamRequestEntity using the information
      * from the specified request. If the input stream containing the request's
@@ -78,27 +111,23 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
          * buffer the entire stream contents into memory to determine
          * the content length.
          */
-        long contentLength = request.firstMatchingHeader("Content-Length")
-                                    .map(this::parseContentLength)
-                                    .orElse(-1L);
+        declaredContentLength = request.firstMatchingHeader("Content-Length")
+                                       .map(this::parseContentLength)
+                                       .orElse(-1L);
+        chunkedRequested = request.firstMatchingHeader("Transfer-Encoding")
+                                  .map("chunked"::equalsIgnoreCase)
+                                  .orElse(false);
 
         content = getContent(request);
-        // TODO v2 MetricInputStreamEntity
-        inputStreamRequestEntity = new InputStreamEntity(content, contentLength);
-        setContent(content);
-        setContentLength(contentLength);
 
-        request.firstMatchingHeader("Content-Type").ifPresent(contentType -> {
-            inputStreamRequestEntity.setContentType(contentType);
-            setContentType(contentType);
-        });
+        request.firstMatchingHeader("Content-Type").ifPresent(this::setContentType);
     }
 
     private long parseContentLength(String contentLength) {
         try {
             return Long.parseLong(contentLength);
         } catch (NumberFormatException nfe) {
-            log.warn("Unable to parse content length from request. Buffering contents in memory.");
+            log.warn("Unable to parse content length from request. Treating content length as unknown.");
             return -1;
         }
     }
@@ -110,9 +139,135 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
         return request.content().orElseGet(() -> new ByteArrayInputStream(new byte[0]));
     }
 
+    /**
+     * Resolve the length of the content and how it is sent, reading ahead content of unknown length. This is done on first
+     * use, while the request is executed, so that creating the entity never blocks.
+     */
+    private InputStreamEntity resolvedEntity() {
+        if (inputStreamRequestEntity != null) {
+            return inputStreamRequestEntity;
+        }
+
+        long contentLength = declaredContentLength;
+        if (contentLength < 0) {
+            byte[] readAhead = readAhead(content);
+            if (readAhead.length < Defaults.UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE) {
+                content = new ByteArrayInputStream(readAhead);
+                contentLength = readAhead.length;
+            } else if (chunkedRequested) {
+                content = new SequenceInputStream(new ByteArrayInputStream(readAhead), content);
+                chunked = true;
+            } else {
+                spillFile = spill(readAhead, content);
+                content = openSpillFile();
+                contentLength = spillFile.toFile().length();
+            }
+        }
+
+        // TODO v2 MetricInputStreamEntity
+        inputStreamRequestEntity = newInputStreamEntity(contentLength);
+        setContentLength(contentLength);
+        setChunked(chunked);
+        return inputStreamRequestEntity;
+    }
+
+    private InputStreamEntity newInputStreamEntity(long contentLength) {
+        InputStreamEntity entity = new InputStreamEntity(content, contentLength);
+        entity.setChunked(chunked);
+        entity.setContentType(getContentType());
+        return entity;
+    }
+
+    /**
+     * Read up to {@link Defaults#UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE} bytes from the provided stream, stopping early if the
+     * end of the stream is reached.
+     */
+    private byte[] readAhead(InputStream stream) {
+        byte[] buffer = new byte[Defaults.UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE];
+        int totalRead = 0;
+        try {
+            while (totalRead < buffer.length) {
+                int read = stream.read(buffer, totalRead, buffer.length - totalRead);
+                if (read == -1) {
+                    break;
+                }
+                totalRead += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read request content: " + e.getMessage(), e);
+        }
+        return totalRead == buffer.length ? buffer : Arrays.copyOf(buffer, totalRead);
+    }
+
+    /**
+     * Copy the read-ahead bytes and the rest of the provided stream to a new temporary file.
+     */
+    private Path spill(byte[] readAhead, InputStream stream) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("aws-sdk-request-content", ".tmp");
+            try (OutputStream output = Files.newOutputStream(file)) {
+                output.write(readAhead);
+                IoUtils.copy(stream, output);
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Unable to buffer request content to a temporary file: " + e.getMessage(), e);
+        }
+    }
+
+    private InputStream openSpillFile() {
+        try {
+            return Files.newInputStream(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read buffered request content: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete the temporary file holding the content, if any. Called once the request has been executed, after which this
+     * entity cannot be written out anymore.
+     */
+    public void release() {
+        if (spillFile != null) {
+            IoUtils.closeQuietly(content, log);
+            deleteQuietly(spillFile);
+            spillFile = null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Unable to delete temporary request content file {}", file, e);
+        }
+    }
+
+    @SdkTestInternalApi
+    Path spillFile() {
+        return spillFile;
+    }
+
+    @Override
+    public long getContentLength() {
+        return resolvedEntity().getContentLength();
+    }
+
+    @Override
+    public InputStream getContent() {
+        resolvedEntity();
+        return content;
+    }
+
     @Override
     public boolean isChunked() {
-        return false;
+        resolvedEntity();
+        return chunked;
     }
 
     /**
@@ -121,13 +276,15 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
      */
     @Override
     public boolean isRepeatable() {
-        return content.markSupported() || inputStreamRequestEntity.isRepeatable();
+        InputStreamEntity entity = resolvedEntity();
+        return spillFile != null || content.markSupported() || entity.isRepeatable();
     }
 
     /**
      * Resets the underlying InputStream if this isn't the first attempt to
      * write out the request, otherwise simply delegates to
-     * InputStreamRequestEntity to write out the data.
+     * InputStreamRequestEntity to write out the data. Content spilled to a
+     * temporary file is reopened rather than reset.
      * <p>
      * If an error is encountered the first time we try to write the request
      * entity, we remember the original exception, and report that as the root
@@ -137,12 +294,23 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
     @Override
     public void writeTo(OutputStream output) throws IOException {
         try {
-            if (!firstAttempt && isRepeatable()) {
+            InputStreamEntity entity = resolvedEntity();
+            if (!firstAttempt && spillFile != null) {
+                content.close();
+                content = openSpillFile();
+                inputStreamRequestEntity = newInputStreamEntity(entity.getContentLength());
+                entity = inputStreamRequestEntity;
+            } else if (!firstAttempt && isRepeatable()) {
                 content.reset();
             }
 
             firstAttempt = false;
-            inputStreamRequestEntity.writeTo(output);
+            entity.writeTo(output);
+        } catch (UncheckedIOException uioe) {
+            if (originalException == null) {
+                originalException = uioe.getCause();
+            }
+            throw originalException;
         } catch (IOException ioe) {
             if (originalException == null) {
                 originalException = ioe;
@@ -21,9 +21,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import org.apache.http.conn.ConnectionRequest;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.pool.ConnPoolControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.apache.ConnectionPoolMetricsCollector;
 
 public final class ClientConnectionManagerFactory {
     private static final Logger log = LoggerFactory.getLogger(ClientConnectionManagerFactory.class);
@@ -38,6 +40,18 @@ public final class ClientConnectionManagerFactory {
      * @param orig the target instance to be wrapped
      */
     public static HttpClientConnectionManager wrap(HttpClientConnectionManager orig) {
+        return wrap(orig, null);
+    }
+
+    /**
+     * Returns a wrapped instance of {@link HttpClientConnectionManager}
+     * that reports the time spent acquiring connections to the given collector.
+     *
+     * @param orig the target instance to be wrapped
+     * @param metricsCollector the collector to report to, or null to not report metrics
+     */
+    public static HttpClientConnectionManager wrap(HttpClientConnectionManager orig,
+                                                   ConnectionPoolMetricsCollector metricsCollector) {
         if (orig instanceof Wrapped) {
             throw new IllegalArgumentException();
         }
@@ -57,7 +71,7 @@ public final class ClientConnectionManagerFactory {
                 // https://github.com/aws/aws-sdk-java/pull/48#issuecomment-29454423
                 ClientConnectionManagerFactory.class.getClassLoader(),
                 interfaces,
-                new Handler(orig));
+                new Handler(orig, metricsCollector));
     }
 
     /**
@@ -67,19 +81,24 @@ public final class ClientConnectionManagerFactory {
      */
     private static class Handler implements InvocationHandler {
         private final HttpClientConnectionManager orig;
+        private final ConnectionPoolMetricsCollector metricsCollector;
 
-        Handler(HttpClientConnectionManager real) {
+        Handler(HttpClientConnectionManager real, ConnectionPoolMetricsCollector metricsCollector) {
             this.orig = real;
+            this.metricsCollector = metricsCollector;
         }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             try {
                 Object ret = method.invoke(orig, args);
-                return ret instanceof ConnectionRequest
-                        ? ClientConnectionRequestFactory.wrap((ConnectionRequest) ret)
-                        : ret
-                        ;
+                if (!(ret instanceof ConnectionRequest)) {
+                    return ret;
+                }
+                String route = args != null && args.length > 0 && args[0] instanceof HttpRoute
+                               ? PoolingConnectionPoolMetrics.routeName((HttpRoute) args[0])
+                               : null;
+                return ClientConnectionRequestFactory.wrap((ConnectionRequest) ret, route, metricsCollector);
             } catch (InvocationTargetException e) {
                 log.debug("", e);
                 throw e.getCause();
@@ -20,9 +20,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.time.Duration;
 import org.apache.http.conn.ConnectionRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.apache.ConnectionPoolMetricsCollector;
 
 final class ClientConnectionRequestFactory {
     private static final Logger log = LoggerFactory.getLogger(ClientConnectionRequestFactory.class);
@@ -39,8 +41,10 @@ final class ClientConnectionRequestFactory {
      * to capture the necessary performance metrics.
      *
      * @param orig the target instance to be wrapped
+     * @param route the name of the route the connection is requested for
+     * @param metricsCollector the collector to report the connection acquire time to, or null to not report it
      */
-    static ConnectionRequest wrap(ConnectionRequest orig) {
+    static ConnectionRequest wrap(ConnectionRequest orig, String route, ConnectionPoolMetricsCollector metricsCollector) {
         if (orig instanceof Wrapped) {
             throw new IllegalArgumentException();
         }
@@ -48,7 +52,7 @@ final class ClientConnectionRequestFactory {
                 // https://github.com/aws/aws-sdk-java/pull/48#issuecomment-29454423
                 ClientConnectionRequestFactory.class.getClassLoader(),
                 INTERFACES,
-                new Handler(orig));
+                new Handler(orig, route, metricsCollector));
     }
 
     /**
@@ -59,25 +63,24 @@ final class ClientConnectionRequestFactory {
      */
     private static class Handler implements InvocationHandler {
         private final ConnectionRequest orig;
+        private final String route;
+        private final ConnectionPoolMetricsCollector metricsCollector;
 
-        Handler(ConnectionRequest orig) {
+        Handler(ConnectionRequest orig, String route, ConnectionPoolMetricsCollector metricsCollector) {
             this.orig = orig;
+            this.route = route;
+            this.metricsCollector = metricsCollector;
         }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             try {
-                // TODO v2 service metrics
-                //                if ("get".equals(method.getName())) {
-                //                    ServiceLatencyProvider latencyProvider = new ServiceLatencyProvider(
-                //                            AWSServiceMetrics.HttpClientGetConnectionTime);
-                //                    try {
-                //                        return method.invoke(orig, args);
-                //                    } finally {
-                //                        AwsSdkMetrics.getServiceMetricCollector()
-                //                                .collectLatency(latencyProvider.endTiming());
-                //                    }
-                //                }
+                if (metricsCollector != null && "get".equals(method.getName())) {
+                    long start = System.nanoTime();
+                    Object connection = method.invoke(orig, args);
+                    metricsCollector.connectionAcquired(route, Duration.ofNanos(System.nanoTime() - start));
+                    return connection;
+                }
                 return method.invoke(orig, args);
             } catch (InvocationTargetException e) {
                 log.debug("", e);
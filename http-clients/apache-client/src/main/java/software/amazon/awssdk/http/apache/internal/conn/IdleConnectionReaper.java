@@ -49,9 +49,9 @@ public final class IdleConnectionReaper extends Thread {
      */
     private static final Logger log = LoggerFactory.getLogger(IdleConnectionReaper.class);
     /**
-     * The period between invocations of the idle connection reaper.
+     * The default period between invocations of the idle connection reaper.
      */
-    private static final int PERIOD_MILLISECONDS = 1000 * 60;
+    private static final long PERIOD_MILLISECONDS = 1000 * 60;
 
     /**
      * Legacy constant used when {@link #registerConnectionManager(HttpClientConnectionManager)} is called. New code paths should
@@ -62,6 +62,10 @@ public final class IdleConnectionReaper extends Thread {
     private static final int DEFAULT_MAX_IDLE_MILLIS = 1000 * 60;
 
     private static final Map<HttpClientConnectionManager, Long> CONNECTION_MANAGERS = new ConcurrentHashMap<>();
+    /**
+     * The period each registered connection manager asked to be checked at. The reaper runs at the shortest of them.
+     */
+    private static final Map<HttpClientConnectionManager, Long> PERIODS = new ConcurrentHashMap<>();
     /**
      * Singleton instance of the connection reaper.
      */
@@ -99,6 +103,24 @@ public final class IdleConnectionReaper extends Thread {
      * @return true if the connection manager has been successfully registered; false otherwise.
      */
     public static boolean registerConnectionManager(HttpClientConnectionManager connectionManager, long maxIdleInMs) {
+        return registerConnectionManager(connectionManager, maxIdleInMs, PERIOD_MILLISECONDS);
+    }
+
+    /**
+     * Registers the given connection manager with this reaper, asking for its idle connections to be checked at least every
+     * {@code periodInMs} milliseconds. A shorter period than the one currently in use takes effect after the reaper's next run.
+     *
+     * @param connectionManager Connection manager to register
+     * @param maxIdleInMs       Max idle connection timeout in milliseconds for this connection manager.
+     * @param periodInMs        Max time in milliseconds between two checks of this connection manager.
+     * @return true if the connection manager has been successfully registered; false otherwise.
+     */
+    public static boolean registerConnectionManager(HttpClientConnectionManager connectionManager, long maxIdleInMs,
+                                                    long periodInMs) {
+        if (periodInMs <= 0) {
+            throw new IllegalArgumentException("periodInMs must be positive, but was " + periodInMs);
+        }
+        PERIODS.put(connectionManager, periodInMs);
         if (instance == null) {
             synchronized (IdleConnectionReaper.class) {
                 if (instance == null) {
@@ -119,6 +141,7 @@ public final class IdleConnectionReaper extends Thread {
      */
     public static boolean removeConnectionManager(HttpClientConnectionManager connectionManager) {
         boolean wasRemoved = CONNECTION_MANAGERS.remove(connectionManager) != null;
+        PERIODS.remove(connectionManager);
         if (CONNECTION_MANAGERS.isEmpty()) {
             shutdown();
         }
@@ -145,6 +168,7 @@ public final class IdleConnectionReaper extends Thread {
             instance.markShuttingDown();
             instance.interrupt();
             CONNECTION_MANAGERS.clear();
+            PERIODS.clear();
             instance = null;
             return true;
         }
@@ -160,6 +184,14 @@ public final class IdleConnectionReaper extends Thread {
         return CONNECTION_MANAGERS.size();
     }
 
+    /**
+     * Returns the time in milliseconds the reaper waits between two runs, which
+     * is the shortest period requested by a registered connection manager.
+     */
+    static long period() {
+        return PERIODS.values().stream().min(Long::compare).orElse(PERIOD_MILLISECONDS);
+    }
+
     private void markShuttingDown() {
         shuttingDown = true;
     }
@@ -173,7 +205,7 @@ public final class IdleConnectionReaper extends Thread {
                 return;
             }
             try {
-                Thread.sleep(PERIOD_MILLISECONDS);
+                Thread.sleep(period());
 
                 for (Map.Entry<HttpClientConnectionManager, Long> entry : CONNECTION_MANAGERS.entrySet()) {
                     // When we release connections, the connection manager leaves them
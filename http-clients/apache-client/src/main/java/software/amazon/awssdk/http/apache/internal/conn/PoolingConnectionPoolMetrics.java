@@ -0,0 +1,64 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache.internal.conn;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.http.apache.ConnectionPoolMetrics;
+import software.amazon.awssdk.http.apache.ConnectionPoolStats;
+
+/**
+ * A {@link ConnectionPoolMetrics} that reads the statistics of a {@link PoolingHttpClientConnectionManager}.
+ */
+@SdkInternalApi
+public final class PoolingConnectionPoolMetrics implements ConnectionPoolMetrics {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public PoolingConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * The name used to identify the provided route in metrics.
+     */
+    public static String routeName(HttpRoute route) {
+        return route.getTargetHost().toURI();
+    }
+
+    @Override
+    public ConnectionPoolStats totalStats() {
+        return toConnectionPoolStats(connectionManager.getTotalStats());
+    }
+
+    @Override
+    public Map<String, ConnectionPoolStats> routeStats() {
+        Map<String, ConnectionPoolStats> routeStats = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routeStats.put(routeName(route), toConnectionPoolStats(connectionManager.getStats(route)));
+        }
+        return Collections.unmodifiableMap(routeStats);
+    }
+
+    private static ConnectionPoolStats toConnectionPoolStats(PoolStats stats) {
+        return ConnectionPoolStats.create(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+}
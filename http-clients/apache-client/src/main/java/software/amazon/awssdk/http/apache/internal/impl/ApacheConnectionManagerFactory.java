@@ -25,7 +25,6 @@ import javax.net.ssl.SSLContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -44,8 +43,8 @@ import software.amazon.awssdk.utils.AttributeMap;
  */
 public class ApacheConnectionManagerFactory {
 
-    public HttpClientConnectionManager create(ApacheSdkHttpClientFactory configuration,
-                                              AttributeMap standardOptions) {
+    public PoolingHttpClientConnectionManager create(ApacheSdkHttpClientFactory configuration,
+                                                     AttributeMap standardOptions) {
         ConnectionSocketFactory sslsf = getPreferredSocketFactory(standardOptions);
 
         final PoolingHttpClientConnectionManager cm = new
@@ -57,9 +56,12 @@ public class ApacheConnectionManagerFactory {
                 configuration.connectionTimeToLive().orElse(Defaults.CONNECTION_POOL_TTL).toMillis(),
                 TimeUnit.MILLISECONDS);
 
-        cm.setDefaultMaxPerRoute(standardOptions.get(SdkHttpConfigurationOption.MAX_CONNECTIONS));
-        cm.setMaxTotal(standardOptions.get(SdkHttpConfigurationOption.MAX_CONNECTIONS));
+        int maxConnections = standardOptions.get(SdkHttpConfigurationOption.MAX_CONNECTIONS);
+        cm.setDefaultMaxPerRoute(configuration.maxConnectionsPerRoute().orElse(maxConnections));
+        cm.setMaxTotal(maxConnections);
         cm.setDefaultSocketConfig(buildSocketConfig(standardOptions));
+        configuration.validateAfterInactivity()
+                     .ifPresent(d -> cm.setValidateAfterInactivity(saturatedCast(d.toMillis())));
 
         return cm;
     }
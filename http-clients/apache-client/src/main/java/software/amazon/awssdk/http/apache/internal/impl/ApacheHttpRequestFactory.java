@@ -21,7 +21,6 @@ import static software.amazon.awssdk.utils.StringUtils.lowerCase;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
@@ -38,7 +37,6 @@ import software.amazon.awssdk.http.SdkHttpMethod;
 import software.amazon.awssdk.http.SdkHttpRequest;
 import software.amazon.awssdk.http.apache.internal.ApacheHttpRequestConfig;
 import software.amazon.awssdk.http.apache.internal.RepeatableInputStreamRequestEntity;
-import software.amazon.awssdk.http.apache.internal.utils.ApacheUtils;
 import software.amazon.awssdk.utils.http.SdkHttpUtils;
 
 /**
@@ -48,7 +46,8 @@ public class ApacheHttpRequestFactory {
 
     private static final String DEFAULT_ENCODING = "UTF-8";
 
-    private static final List<String> IGNORE_HEADERS = Arrays.asList(HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST);
+    private static final List<String> IGNORE_HEADERS = Arrays.asList(HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST,
+                                                                     HttpHeaders.TRANSFER_ENCODING);
 
     public HttpRequestBase create(final SdkHttpFullRequest request, final ApacheHttpRequestConfig requestConfig) {
         URI uri = request.getUri();
@@ -120,11 +119,7 @@ public class ApacheHttpRequestFactory {
          * return incorrect validation result.
          */
         if (request.content().isPresent()) {
-            HttpEntity entity = new RepeatableInputStreamRequestEntity(request);
-            if (request.headers().get(HttpHeaders.CONTENT_LENGTH) == null) {
-                entity = ApacheUtils.newBufferedHttpEntity(entity);
-            }
-            entityEnclosingRequest.setEntity(entity);
+            entityEnclosingRequest.setEntity(new RepeatableInputStreamRequestEntity(request));
         }
 
         return entityEnclosingRequest;
@@ -141,8 +136,9 @@ public class ApacheHttpRequestFactory {
         // Copy over any other headers already in our request
         request.headers().entrySet().stream()
                /*
-                * HttpClient4 fills in the Content-Length header and complains if
-                * it's already present, so we skip it here. We also skip the Host
+                * HttpClient4 fills in the Content-Length and Transfer-Encoding headers
+                * and complains if they're already present, so we skip them here. The
+                * request entity decides whether to chunk. We also skip the Host
                 * header to avoid sending it twice, which will interfere with some
                 * signing schemes.
                 */
@@ -15,9 +15,6 @@
 
 package software.amazon.awssdk.http.apache.internal.utils;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
@@ -25,7 +22,6 @@ import org.apache.http.auth.NTCredentials;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
@@ -36,21 +32,6 @@ public final class ApacheUtils {
     private ApacheUtils() {
     }
 
-    /**
-     * Utility function for creating a new BufferedEntity and wrapping any errors
-     * as a SdkClientException.
-     *
-     * @param entity The HTTP entity to wrap with a buffered HTTP entity.
-     * @return A new BufferedHttpEntity wrapping the specified entity.
-     */
-    public static HttpEntity newBufferedHttpEntity(HttpEntity entity) {
-        try {
-            return new BufferedHttpEntity(entity);
-        } catch (IOException e) {
-            throw new UncheckedIOException("Unable to create HTTP entity: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Returns a new HttpClientContext used for request execution.
      */
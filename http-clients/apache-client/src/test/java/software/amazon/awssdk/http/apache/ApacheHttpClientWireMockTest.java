@@ -15,12 +15,62 @@
 
 package software.amazon.awssdk.http.apache;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.binaryEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.util.Random;
+import org.junit.Test;
 import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.http.SdkHttpClientTestSuite;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkRequestContext;
 
 public class ApacheHttpClientWireMockTest extends SdkHttpClientTestSuite {
     @Override
     protected SdkHttpClient createSdkHttpClient(SdkHttpClientOptions options) {
         return ApacheSdkHttpClientFactory.builder().build().createHttpClient();
     }
+
+    @Test
+    public void largeContentWithoutLength_IsSentWithContentLength() throws Exception {
+        byte[] content = new byte[1024 * 1024 + 3];
+        new Random().nextBytes(content);
+        stubFor(put(urlPathEqualTo("/object")).willReturn(aResponse().withStatus(200)));
+
+        SdkHttpFullRequest request = SdkHttpFullRequest.builder()
+                                                       .protocol("http")
+                                                       .host("localhost")
+                                                       .port(mockServer.port())
+                                                       .encodedPath("/object")
+                                                       .method(SdkHttpMethod.PUT)
+                                                       .content(new FilterInputStream(new ByteArrayInputStream(content)) {
+                                                           @Override
+                                                           public boolean markSupported() {
+                                                               return false;
+                                                           }
+                                                       })
+                                                       .build();
+
+        try (SdkHttpClient client = createSdkHttpClient()) {
+            SdkHttpFullResponse response = client.prepareRequest(request, SdkRequestContext.builder().build()).call();
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+
+        verify(putRequestedFor(urlPathEqualTo("/object"))
+                   .withHeader("Content-Length", equalTo(String.valueOf(content.length)))
+                   .withHeader("Transfer-Encoding", absent())
+                   .withRequestBody(binaryEqualTo(content)));
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkRequestContext;
+import software.amazon.awssdk.http.apache.internal.conn.IdleConnectionReaper;
+import software.amazon.awssdk.utils.IoUtils;
+
+public class ConnectionPoolMetricsTest {
+    @Rule
+    public WireMockRule mockServer = new WireMockRule(wireMockConfig().dynamicPort());
+
+    @Test
+    public void collectorIsNotifiedOfPoolLifecycleAndConnectionAcquisition() throws Exception {
+        stubFor(any(urlPathEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("hello")));
+        RecordingCollector collector = new RecordingCollector();
+
+        SdkHttpClient client = ApacheSdkHttpClientFactory.builder()
+                                                         .maxConnections(10)
+                                                         .maxConnectionsPerRoute(2)
+                                                         .connectionPoolMetricsCollector(collector)
+                                                         .build()
+                                                         .createHttpClient();
+        assertNotNull(collector.opened);
+        assertEquals(10, collector.opened.totalStats().max());
+
+        SdkHttpFullResponse response = client.prepareRequest(request(), SdkRequestContext.builder().build()).call();
+        assertEquals("hello", IoUtils.toString(response.content().get()));
+
+        String route = "http://localhost:" + mockServer.port();
+        assertEquals(1, collector.acquiredRoutes.size());
+        assertEquals(route, collector.acquiredRoutes.get(0));
+
+        ConnectionPoolStats routeStats = collector.opened.routeStats().get(route);
+        assertEquals(ConnectionPoolStats.create(0, 0, 1, 2), routeStats);
+        assertEquals(ConnectionPoolStats.create(0, 0, 1, 10), collector.opened.totalStats());
+
+        client.close();
+        assertSame(collector.opened, collector.closed);
+    }
+
+    @Test
+    public void idleConnectionReaperIsUsedByDefaultAndReleasedOnClose() {
+        int registered = IdleConnectionReaper.getRegisteredConnectionManagers().size();
+        SdkHttpClient client = ApacheSdkHttpClientFactory.builder().build().createHttpClient();
+        try {
+            assertEquals(registered + 1, IdleConnectionReaper.getRegisteredConnectionManagers().size());
+        } finally {
+            client.close();
+        }
+        assertEquals(registered, IdleConnectionReaper.getRegisteredConnectionManagers().size());
+    }
+
+    @Test
+    public void idleConnectionReaperCanBeDisabled() {
+        int registered = IdleConnectionReaper.getRegisteredConnectionManagers().size();
+        SdkHttpClient client = ApacheSdkHttpClientFactory.builder()
+                                                         .useIdleConnectionReaper(false)
+                                                         .build()
+                                                         .createHttpClient();
+        try {
+            assertEquals(registered, IdleConnectionReaper.getRegisteredConnectionManagers().size());
+        } finally {
+            client.close();
+        }
+    }
+
+    private SdkHttpFullRequest request() {
+        return SdkHttpFullRequest.builder()
+                                 .host("localhost")
+                                 .protocol("http")
+                                 .port(mockServer.port())
+                                 .method(SdkHttpMethod.GET)
+                                 .header("Host", "localhost")
+                                 .build();
+    }
+
+    private static final class RecordingCollector implements ConnectionPoolMetricsCollector {
+        private final List<String> acquiredRoutes = new ArrayList<>();
+        private ConnectionPoolMetrics opened;
+        private ConnectionPoolMetrics closed;
+
+        @Override
+        public void connectionPoolOpened(ConnectionPoolMetrics pool) {
+            opened = pool;
+        }
+
+        @Override
+        public void connectionAcquired(String route, Duration acquireTime) {
+            acquiredRoutes.add(route);
+        }
+
+        @Override
+        public void connectionPoolClosed(ConnectionPoolMetrics pool) {
+            closed = pool;
+        }
+    }
+}
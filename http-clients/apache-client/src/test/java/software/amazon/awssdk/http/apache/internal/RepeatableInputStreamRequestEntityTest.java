@@ -0,0 +1,139 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Test;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+
+public class RepeatableInputStreamRequestEntityTest {
+
+    @Test
+    public void smallContentWithoutLength_IsSentWithKnownLength() throws IOException {
+        byte[] content = randomBytes(100);
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(requestWithContent(content));
+
+        assertFalse(entity.isChunked());
+        assertEquals(content.length, entity.getContentLength());
+        assertArrayEquals(content, writeOut(entity));
+    }
+
+    @Test
+    public void creatingEntity_DoesNotReadContent() {
+        InputStream content = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("Content read while creating the entity");
+            }
+        };
+        SdkHttpFullRequest request = requestWithContent(new byte[0]).toBuilder().content(content).build();
+
+        new RepeatableInputStreamRequestEntity(request);
+    }
+
+    @Test
+    public void largeContentWithoutLength_IsSpilledAndSentWithKnownLength() throws IOException {
+        byte[] content = randomBytes(Defaults.UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE * 3 + 7);
+        RepeatableInputStreamRequestEntity entity =
+            new RepeatableInputStreamRequestEntity(requestWithContent(nonResettable(content)));
+
+        assertFalse(entity.isChunked());
+        assertEquals(content.length, entity.getContentLength());
+        assertTrue(entity.isRepeatable());
+        assertArrayEquals(content, writeOut(entity));
+        assertArrayEquals(content, writeOut(entity));
+
+        Path spillFile = entity.spillFile();
+        assertTrue(Files.exists(spillFile));
+        entity.release();
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    public void largeContentWithChunkedTransferEncoding_IsStreamedChunked() throws IOException {
+        byte[] content = randomBytes(Defaults.UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE * 3 + 7);
+        SdkHttpFullRequest request = requestWithContent(content).toBuilder()
+                                                                .header("Transfer-Encoding", "chunked")
+                                                                .build();
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(request);
+
+        assertTrue(entity.isChunked());
+        assertEquals(-1, entity.getContentLength());
+        assertNull(entity.spillFile());
+        assertArrayEquals(content, writeOut(entity));
+    }
+
+    @Test
+    public void contentWithLength_IsNotReadAhead() throws IOException {
+        byte[] content = randomBytes(Defaults.UNKNOWN_CONTENT_LENGTH_READ_AHEAD_SIZE * 2);
+        SdkHttpFullRequest request = requestWithContent(content).toBuilder()
+                                                                .header("Content-Length", String.valueOf(content.length))
+                                                                .build();
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(request);
+
+        assertFalse(entity.isChunked());
+        assertEquals(content.length, entity.getContentLength());
+        assertArrayEquals(content, writeOut(entity));
+    }
+
+    private static SdkHttpFullRequest requestWithContent(byte[] content) {
+        return requestWithContent(new ByteArrayInputStream(content));
+    }
+
+    private static SdkHttpFullRequest requestWithContent(InputStream content) {
+        return SdkHttpFullRequest.builder()
+                                 .method(SdkHttpMethod.PUT)
+                                 .protocol("https")
+                                 .host("localhost")
+                                 .content(content)
+                                 .build();
+    }
+
+    private static InputStream nonResettable(byte[] content) {
+        return new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+
+    private static byte[] writeOut(RepeatableInputStreamRequestEntity entity) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        entity.writeTo(output);
+        return output.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.apache.internal.conn;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdleConnectionReaperTest {
+
+    @Before
+    @After
+    public void cleanup() {
+        IdleConnectionReaper.shutdown();
+    }
+
+    @Test
+    public void reaperRunsAtShortestRegisteredPeriod() {
+        HttpClientConnectionManager first = mock(HttpClientConnectionManager.class);
+        HttpClientConnectionManager second = mock(HttpClientConnectionManager.class);
+
+        IdleConnectionReaper.registerConnectionManager(first, 1000, 30_000);
+        IdleConnectionReaper.registerConnectionManager(second, 1000, 5_000);
+        assertEquals(5_000, IdleConnectionReaper.period());
+
+        IdleConnectionReaper.removeConnectionManager(second);
+        assertEquals(30_000, IdleConnectionReaper.period());
+        assertEquals(1, IdleConnectionReaper.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositivePeriodIsRejected() {
+        IdleConnectionReaper.registerConnectionManager(mock(HttpClientConnectionManager.class), 1000, 0);
+    }
+}
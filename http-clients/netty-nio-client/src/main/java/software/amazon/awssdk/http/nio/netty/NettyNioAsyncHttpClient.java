@@ -76,6 +76,7 @@ final class NettyNioAsyncHttpClient implements SdkAsyncHttpClient {
                                 .channel(resolveSocketChannelClass(group))
                                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, configuration.connectionTimeout())
                                 .option(ChannelOption.TCP_NODELAY, true)
+                                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, configuration.writeBufferWaterMark())
                                 .remoteAddress(key.getHost(), key.getPort());
                 SslContext sslContext = sslContext(key.getScheme());
                 return new FixedChannelPool(bootstrap,
@@ -46,6 +46,8 @@ public final class NettySdkHttpClientFactory
     private final Duration readTimeout;
     private final Duration writeTimeout;
     private final Duration connectionAcquisitionTimeout;
+    private final Integer writeBufferLowWaterMark;
+    private final Integer writeBufferHighWaterMark;
 
     private NettySdkHttpClientFactory(DefaultBuilder builder) {
         this.standardOptions = builder.standardOptions.build();
@@ -54,6 +56,13 @@ public final class NettySdkHttpClientFactory
         this.readTimeout = validateIsWholeSecond(builder.readTimeout, "readTimeout");
         this.writeTimeout = validateIsWholeSecond(builder.writeTimeout, "writeTimeout");
         this.connectionAcquisitionTimeout = builder.connectionAcquisitionTimeout;
+        this.writeBufferLowWaterMark = validateNotNegative(builder.writeBufferLowWaterMark, "writeBufferLowWaterMark");
+        this.writeBufferHighWaterMark = validateNotNegative(builder.writeBufferHighWaterMark, "writeBufferHighWaterMark");
+        if (writeBufferLowWaterMark != null && writeBufferHighWaterMark != null
+            && writeBufferLowWaterMark > writeBufferHighWaterMark) {
+            throw new IllegalArgumentException("writeBufferLowWaterMark must not be greater than writeBufferHighWaterMark, got: "
+                                               + writeBufferLowWaterMark + " > " + writeBufferHighWaterMark);
+        }
     }
 
     /**
@@ -96,6 +105,22 @@ public final class NettySdkHttpClientFactory
         return Optional.ofNullable(connectionAcquisitionTimeout);
     }
 
+    /**
+     * @return Optional of the writeBufferLowWaterMark setting.
+     * @see Builder#writeBufferLowWaterMark(Integer)
+     */
+    public Optional<Integer> writeBufferLowWaterMark() {
+        return Optional.ofNullable(writeBufferLowWaterMark);
+    }
+
+    /**
+     * @return Optional of the writeBufferHighWaterMark setting.
+     * @see Builder#writeBufferHighWaterMark(Integer)
+     */
+    public Optional<Integer> writeBufferHighWaterMark() {
+        return Optional.ofNullable(writeBufferHighWaterMark);
+    }
+
     /**
      * @return Optional of the trustAllCertificates setting.
      * @see Builder#trustAllCertificates(Boolean)
@@ -133,7 +158,13 @@ public final class NettySdkHttpClientFactory
     @Override
     public Builder toBuilder() {
         return new DefaultBuilder(standardOptions.toBuilder())
-                .trustAllCertificates(trustAllCertificates.orElse(null));
+                .trustAllCertificates(trustAllCertificates.orElse(null))
+                .eventLoopGroupConfiguration(eventLoopGroupConfiguration)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                .writeBufferLowWaterMark(writeBufferLowWaterMark)
+                .writeBufferHighWaterMark(writeBufferHighWaterMark);
     }
 
     /**
@@ -150,6 +181,13 @@ public final class NettySdkHttpClientFactory
         return duration;
     }
 
+    private Integer validateNotNegative(Integer value, String param) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException(param + " must not be negative, got: " + value);
+        }
+        return value;
+    }
+
     @Override
     public String toString() {
         return ToString.builder("NettySdkHttpClientFactory")
@@ -159,6 +197,8 @@ public final class NettySdkHttpClientFactory
                        .add("readTimeout", readTimeout)
                        .add("writeTimeout", writeTimeout)
                        .add("connectionAcquisitionTimeout", connectionAcquisitionTimeout)
+                       .add("writeBufferLowWaterMark", writeBufferLowWaterMark)
+                       .add("writeBufferHighWaterMark", writeBufferHighWaterMark)
                        .build();
     }
 
@@ -226,6 +266,29 @@ public final class NettySdkHttpClientFactory
          */
         Builder trustAllCertificates(Boolean trustAllCertificates);
 
+        /**
+         * The number of bytes of request data that may be queued for writing on a connection before it stops accepting more
+         * data from the request body. Request bodies are only read while less than this amount is queued, which bounds the
+         * memory used by uploads on each connection.
+         *
+         * <p>Defaults to 64 KiB.</p>
+         *
+         * @param writeBufferHighWaterMark The high water mark in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder writeBufferHighWaterMark(Integer writeBufferHighWaterMark);
+
+        /**
+         * The number of bytes of request data that queued writes on a connection must drop below, after reaching the
+         * {@link #writeBufferHighWaterMark(Integer)}, before more data is read from the request body.
+         *
+         * <p>Defaults to 32 KiB, and must not be greater than the high water mark.</p>
+         *
+         * @param writeBufferLowWaterMark The low water mark in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder writeBufferLowWaterMark(Integer writeBufferLowWaterMark);
+
         /**
          * Configuration for the Netty {@link EventLoopGroup} which multiplexes IO events.
          *
@@ -259,6 +322,8 @@ public final class NettySdkHttpClientFactory
         private Duration readTimeout;
         private Duration writeTimeout;
         private Duration connectionAcquisitionTimeout;
+        private Integer writeBufferLowWaterMark;
+        private Integer writeBufferHighWaterMark;
 
         private DefaultBuilder(AttributeMap.Builder standardOptions) {
             this.standardOptions = standardOptions;
@@ -312,6 +377,26 @@ public final class NettySdkHttpClientFactory
             trustAllCertificates(trustAllCertificates);
         }
 
+        @Override
+        public Builder writeBufferHighWaterMark(Integer writeBufferHighWaterMark) {
+            this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+            return this;
+        }
+
+        public void setWriteBufferHighWaterMark(Integer writeBufferHighWaterMark) {
+            writeBufferHighWaterMark(writeBufferHighWaterMark);
+        }
+
+        @Override
+        public Builder writeBufferLowWaterMark(Integer writeBufferLowWaterMark) {
+            this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+            return this;
+        }
+
+        public void setWriteBufferLowWaterMark(Integer writeBufferLowWaterMark) {
+            writeBufferLowWaterMark(writeBufferLowWaterMark);
+        }
+
         @Override
         public DefaultBuilder eventLoopGroupConfiguration(EventLoopGroupConfiguration eventLoopGroupConfiguration) {
             this.eventLoopGroupConfiguration = eventLoopGroupConfiguration;
@@ -76,6 +76,7 @@ public class ChannelPipelineInitializer extends AbstractChannelPoolHandler {
                                     HttpStreamsClientHandler.class,
                                     ResponseHandler.class,
                                     ReadTimeoutHandler.class,
-                                    WriteTimeoutHandler.class);
+                                    WriteTimeoutHandler.class,
+                                    WritabilityAwareSubscription.class);
     }
 }
@@ -20,6 +20,7 @@ import static software.amazon.awssdk.http.SdkHttpConfigurationOption.MAX_CONNECT
 import static software.amazon.awssdk.http.SdkHttpConfigurationOption.USE_STRICT_HOSTNAME_VERIFICATION;
 import static software.amazon.awssdk.utils.NumericUtils.saturatedCast;
 
+import io.netty.channel.WriteBufferWaterMark;
 import java.time.Duration;
 import java.util.Optional;
 import software.amazon.awssdk.annotations.Immutable;
@@ -86,6 +87,21 @@ public final class NettyConfiguration {
         return factory.connectionAcquisitionTimeout().map(d -> saturatedCast(d.toMillis())).orElseGet(this::connectionTimeout);
     }
 
+    /**
+     * @return the write buffer water marks, with Netty's defaults for any mark not set on the factory. When only one mark is
+     * set, the default of the other is adjusted so that the low mark never exceeds the high one.
+     * @see NettySdkHttpClientFactory.Builder#writeBufferHighWaterMark(Integer)
+     * @see NettySdkHttpClientFactory.Builder#writeBufferLowWaterMark(Integer)
+     */
+    public WriteBufferWaterMark writeBufferWaterMark() {
+        Optional<Integer> low = factory.writeBufferLowWaterMark();
+        Optional<Integer> high = factory.writeBufferHighWaterMark();
+        int resolvedLow = low.orElseGet(() -> Math.min(WriteBufferWaterMark.DEFAULT.low(),
+                                                       high.orElse(WriteBufferWaterMark.DEFAULT.high())));
+        int resolvedHigh = high.orElseGet(() -> Math.max(WriteBufferWaterMark.DEFAULT.high(), resolvedLow));
+        return new WriteBufferWaterMark(resolvedLow, resolvedHigh);
+    }
+
     /**
      * @see NettySdkHttpClientFactory.Builder#trustAllCertificates(Boolean)
      */
@@ -214,7 +214,8 @@ public final class RunnableRequest implements AbortableRunnable {
 
     /**
      * Decorator around {@link StreamedHttpRequest} to adapt a publisher of {@link ByteBuffer} (i.e. {@link
-     * software.amazon.awssdk.http.async.SdkHttpRequestProvider}) to a publisher of {@link HttpContent}.
+     * software.amazon.awssdk.http.async.SdkHttpRequestProvider}) to a publisher of {@link HttpContent}. Demand is only
+     * passed on to the publisher while the channel is writable, see {@link WritabilityAwareSubscription}.
      */
     private static class StreamedRequest extends DelegateHttpRequest implements StreamedHttpRequest {
 
@@ -230,9 +231,12 @@ public final class RunnableRequest implements AbortableRunnable {
         @Override
         public void subscribe(Subscriber<? super HttpContent> subscriber) {
             publisher.subscribe(new Subscriber<ByteBuffer>() {
+                private WritabilityAwareSubscription subscription;
+
                 @Override
                 public void onSubscribe(Subscription subscription) {
-                    subscriber.onSubscribe(subscription);
+                    this.subscription = new WritabilityAwareSubscription(subscription, channel);
+                    subscriber.onSubscribe(this.subscription);
                 }
 
                 @Override
@@ -245,11 +249,13 @@ public final class RunnableRequest implements AbortableRunnable {
 
                 @Override
                 public void onError(Throwable t) {
+                    subscription.done();
                     subscriber.onError(t);
                 }
 
                 @Override
                 public void onComplete() {
+                    subscription.done();
                     subscriber.onComplete();
                 }
             });
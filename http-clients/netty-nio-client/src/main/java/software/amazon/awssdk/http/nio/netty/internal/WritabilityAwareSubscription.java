@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.nio.netty.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.reactivestreams.Subscription;
+
+/**
+ * Decorator around the {@link Subscription} to a request body publisher that only passes demand on to the publisher while the
+ * channel is writable. Demand signalled while the channel's write buffer is above its high water mark is held back until the
+ * buffer drains below the low water mark, so a fast publisher cannot queue request data on the connection without bound.
+ *
+ * <p>Instances are added to the channel pipeline to be notified of writability changes, and remove themselves once the
+ * request body has been fully written or the subscription is cancelled.</p>
+ */
+class WritabilityAwareSubscription extends ChannelInboundHandlerAdapter implements Subscription {
+
+    private final Subscription delegate;
+    private final Channel channel;
+
+    /**
+     * Demand not yet passed on to the publisher. Only accessed from the channel's event loop.
+     */
+    private long pendingDemand;
+
+    WritabilityAwareSubscription(Subscription delegate, Channel channel) {
+        this.delegate = delegate;
+        this.channel = channel;
+        runInEventLoop(() -> channel.pipeline().addLast(this));
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            // Let the publisher signal the specification violation
+            delegate.request(n);
+            return;
+        }
+        runInEventLoop(() -> {
+            pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+            requestIfWritable();
+        });
+    }
+
+    @Override
+    public void cancel() {
+        done();
+        delegate.cancel();
+    }
+
+    /**
+     * Stop listening to writability changes. Invoked once the publisher has completed or failed.
+     */
+    void done() {
+        runInEventLoop(() -> {
+            pendingDemand = 0;
+            if (channel.pipeline().context(this) != null) {
+                channel.pipeline().remove(this);
+            }
+        });
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        requestIfWritable();
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    private void requestIfWritable() {
+        if (pendingDemand > 0 && channel.isWritable()) {
+            long demand = pendingDemand;
+            pendingDemand = 0;
+            delegate.request(demand);
+        }
+    }
+
+    private void runInEventLoop(Runnable runnable) {
+        if (channel.eventLoop().inEventLoop()) {
+            runnable.run();
+        } else {
+            channel.eventLoop().execute(runnable);
+        }
+    }
+}
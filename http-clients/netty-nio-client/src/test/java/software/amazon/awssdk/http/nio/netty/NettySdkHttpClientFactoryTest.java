@@ -39,6 +39,23 @@ public class NettySdkHttpClientFactoryTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void writeBufferLowWaterMarkCannotExceedHighWaterMark() {
+        assertThatThrownBy(() -> builder().writeBufferLowWaterMark(2048).writeBufferHighWaterMark(1024).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void toBuilderRetainsAllSettings() {
+        NettySdkHttpClientFactory factory = builder().readTimeout(Duration.ofSeconds(5))
+                                                     .writeTimeout(Duration.ofSeconds(6))
+                                                     .connectionAcquisitionTimeout(Duration.ofSeconds(7))
+                                                     .writeBufferLowWaterMark(1024)
+                                                     .writeBufferHighWaterMark(2048)
+                                                     .build();
+        assertThat(factory.toBuilder().build().toString()).isEqualTo(factory.toString());
+    }
+
     private NettySdkHttpClientFactory.Builder builder() {
         return NettySdkHttpClientFactory.builder();
     }
@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static software.amazon.awssdk.http.SdkHttpConfigurationOption.CONNECTION_TIMEOUT;
 import static software.amazon.awssdk.http.SdkHttpConfigurationOption.MAX_CONNECTIONS;
 
+import io.netty.channel.WriteBufferWaterMark;
 import java.time.Duration;
 import java.util.function.Consumer;
 import org.junit.Test;
@@ -100,6 +101,35 @@ public class NettyConfigurationTest {
         assertThat(configuration.trustAllCertificates()).isTrue();
     }
 
+    @Test
+    public void writeBufferWaterMark_AppliesNettyDefaultsIfNotSetOnFactory() {
+        NettyConfiguration configuration = createEmptyConfiguration();
+        assertThat(configuration.writeBufferWaterMark().low()).isEqualTo(WriteBufferWaterMark.DEFAULT.low());
+        assertThat(configuration.writeBufferWaterMark().high()).isEqualTo(WriteBufferWaterMark.DEFAULT.high());
+    }
+
+    @Test
+    public void writeBufferWaterMark_HonorsFactoryOverDefault() {
+        NettyConfiguration configuration = createConfiguration(b -> b.writeBufferLowWaterMark(1024)
+                                                                     .writeBufferHighWaterMark(4096));
+        assertThat(configuration.writeBufferWaterMark().low()).isEqualTo(1024);
+        assertThat(configuration.writeBufferWaterMark().high()).isEqualTo(4096);
+    }
+
+    @Test
+    public void writeBufferWaterMark_AdjustsDefaultLowMarkToHighMark() {
+        NettyConfiguration configuration = createConfiguration(b -> b.writeBufferHighWaterMark(1024));
+        assertThat(configuration.writeBufferWaterMark().low()).isEqualTo(1024);
+        assertThat(configuration.writeBufferWaterMark().high()).isEqualTo(1024);
+    }
+
+    @Test
+    public void writeBufferWaterMark_AdjustsDefaultHighMarkToLowMark() {
+        NettyConfiguration configuration = createConfiguration(b -> b.writeBufferLowWaterMark(1024 * 1024));
+        assertThat(configuration.writeBufferWaterMark().low()).isEqualTo(1024 * 1024);
+        assertThat(configuration.writeBufferWaterMark().high()).isEqualTo(1024 * 1024);
+    }
+
     private NettyConfiguration createEmptyConfiguration() {
         return createConfiguration(b -> {
         });
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.http.nio.netty.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+public class WritabilityAwareSubscriptionTest {
+
+    private EmbeddedChannel channel;
+    private Subscription delegate;
+    private WritabilityAwareSubscription subscription;
+
+    @Before
+    public void setup() {
+        channel = new EmbeddedChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        delegate = mock(Subscription.class);
+        subscription = new WritabilityAwareSubscription(delegate, channel);
+    }
+
+    @Test
+    public void demandIsPassedOnWhileChannelIsWritable() {
+        subscription.request(2);
+        verify(delegate).request(2);
+    }
+
+    @Test
+    public void demandIsHeldBackUntilChannelIsWritableAgain() {
+        channel.write(Unpooled.wrappedBuffer(new byte[32]));
+        assertThat(channel.isWritable()).isFalse();
+
+        subscription.request(1);
+        subscription.request(2);
+        verify(delegate, never()).request(1);
+
+        channel.flush();
+        assertThat(channel.isWritable()).isTrue();
+        verify(delegate).request(3);
+    }
+
+    @Test
+    public void handlerIsRemovedWhenDone() {
+        assertThat(channel.pipeline().get(WritabilityAwareSubscription.class)).isNotNull();
+        subscription.done();
+        assertThat(channel.pipeline().get(WritabilityAwareSubscription.class)).isNull();
+    }
+
+    @Test
+    public void cancelRemovesHandlerAndCancelsPublisher() {
+        subscription.cancel();
+        verify(delegate).cancel();
+        assertThat(channel.pipeline().get(WritabilityAwareSubscription.class)).isNull();
+    }
+}
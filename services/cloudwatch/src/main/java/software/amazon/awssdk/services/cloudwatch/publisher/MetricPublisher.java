@@ -0,0 +1,460 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.cloudwatch.publisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Publishes metric datapoints to CloudWatch, aggregated into statistic sets and sent in batches of {@code PutMetricData}
+ * requests.
+ *
+ * <p>Recording a datapoint does not call CloudWatch: the datapoints of a metric with the same dimensions and unit, recorded
+ * within the same minute (or second, with {@link Builder#highResolution(Boolean)}), are rolled up into one
+ * {@link software.amazon.awssdk.services.cloudwatch.model.StatisticSet} of their count, sum, minimum and maximum. Every
+ * {@link Builder#flushInterval(Duration)}, the statistic sets are sent in {@code PutMetricData} requests of up to 20 metrics
+ * and 40 KB, the limits of the API, so that millions of datapoints a minute cost a few requests.</p>
+ *
+ * <p>Datapoints are recorded into one of several buffers, chosen by the recording thread, so that threads recording at
+ * the same time rarely wait for each other. A flush swaps the buffers for empty ones, and merges them outside of the
+ * recording path.</p>
+ *
+ * <pre class="brush: java">
+ * MetricPublisher publisher = MetricPublisher.builder()
+ *                                            .client(CloudWatchAsyncClient.create())
+ *                                            .namespace("MyApplication")
+ *                                            .build();
+ *
+ * publisher.putMetric("Latency", latencyMillis, StandardUnit.MILLISECONDS, Dimension.builder()
+ *                                                                                  .name("Operation")
+ *                                                                                  .value("GetItem")
+ *                                                                                  .build());
+ * </pre>
+ *
+ * <p>The publisher does not own the client: closing it publishes the remaining datapoints, but does not close the client.</p>
+ */
+public final class MetricPublisher implements SdkAutoCloseable {
+
+    private static final Logger log = Logger.loggerFor(MetricPublisher.class);
+
+    private static final int MAX_DIMENSIONS = 10;
+    private static final int MAX_METRICS_PER_REQUEST = 20;
+    private static final int MAX_REQUEST_BYTES = 40 * 1024;
+    private static final int REQUEST_OVERHEAD_BYTES = 100;
+    private static final int METRIC_OVERHEAD_BYTES = 400;
+    private static final int DIMENSION_OVERHEAD_BYTES = 100;
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMinutes(1);
+    private static final Comparator<Dimension> DIMENSION_ORDER = Comparator.comparing(Dimension::name);
+
+    private final CloudWatchAsyncClient client;
+    private final String namespace;
+    private final boolean highResolution;
+    private final long bucketMillis;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final ScheduledFuture<?> scheduledFlush;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private MetricPublisher(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.namespace = Validate.paramNotNull(builder.namespace, "namespace");
+        this.highResolution = Boolean.TRUE.equals(builder.highResolution);
+        this.bucketMillis = highResolution ? 1000 : 60_000;
+        Duration flushInterval = builder.flushInterval == null ? DEFAULT_FLUSH_INTERVAL : builder.flushInterval;
+        Validate.isPositive(flushInterval, "flushInterval");
+
+        int stripeCount = 1;
+        while (stripeCount < 2 * Runtime.getRuntime().availableProcessors()) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("cloudwatch-metric-publisher").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+        long flushNanos = flushInterval.toNanos();
+        this.scheduledFlush = scheduler.scheduleAtFixedRate(this::scheduledFlush, flushNanos, flushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return Builder instance to construct a {@link MetricPublisher}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Record a datapoint of a metric, timestamped now.
+     *
+     * @param metricName The name of the metric.
+     * @param value The value of the datapoint. It must be a finite number.
+     * @param unit The unit of the metric.
+     * @param dimensions The dimensions of the metric, up to 10.
+     */
+    public void putMetric(String metricName, double value, StandardUnit unit, Dimension... dimensions) {
+        putMetric(metricName, value, unit, Arrays.asList(dimensions));
+    }
+
+    /**
+     * Record a datapoint of a metric, timestamped now.
+     *
+     * @param metricName The name of the metric.
+     * @param value The value of the datapoint. It must be a finite number.
+     * @param unit The unit of the metric.
+     * @param dimensions The dimensions of the metric, up to 10.
+     */
+    public void putMetric(String metricName, double value, StandardUnit unit, Collection<Dimension> dimensions) {
+        Validate.paramNotNull(metricName, "metricName");
+        Validate.paramNotNull(unit, "unit");
+        Validate.isTrue(!Double.isNaN(value) && !Double.isInfinite(value), "value must be a finite number: %s", value);
+        Validate.isTrue(dimensions.size() <= MAX_DIMENSIONS, "A metric has at most %s dimensions", MAX_DIMENSIONS);
+
+        List<Dimension> sortedDimensions = new ArrayList<>(dimensions);
+        if (sortedDimensions.size() > 1) {
+            sortedDimensions.sort(DIMENSION_ORDER);
+        }
+        long bucket = System.currentTimeMillis() / bucketMillis * bucketMillis;
+        MetricKey key = new MetricKey(metricName, sortedDimensions, unit, bucket);
+
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        synchronized (stripe) {
+            stripe.statistics.computeIfAbsent(key, k -> new Statistics()).add(value);
+        }
+    }
+
+    /**
+     * Publish the datapoints recorded so far, without waiting for the next flush interval.
+     *
+     * @return A future completed once the datapoints have been published, or completed exceptionally if a
+     * {@code PutMetricData} request failed.
+     */
+    public CompletableFuture<Void> flush() {
+        Map<MetricKey, Statistics> merged = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<MetricKey, Statistics> statistics;
+            synchronized (stripe) {
+                if (stripe.statistics.isEmpty()) {
+                    continue;
+                }
+                statistics = stripe.statistics;
+                stripe.statistics = new HashMap<>();
+            }
+            statistics.forEach((key, value) -> merged.merge(key, value, Statistics::merge));
+        }
+
+        List<CompletableFuture<?>> requests = new ArrayList<>();
+        List<MetricDatum> batch = new ArrayList<>();
+        int batchBytes = REQUEST_OVERHEAD_BYTES + 3 * namespace.length();
+        for (Map.Entry<MetricKey, Statistics> entry : merged.entrySet()) {
+            int datumBytes = entry.getKey().estimatedSize();
+            if (batch.size() == MAX_METRICS_PER_REQUEST || !batch.isEmpty() && batchBytes + datumBytes > MAX_REQUEST_BYTES) {
+                requests.add(send(batch));
+                batch = new ArrayList<>();
+                batchBytes = REQUEST_OVERHEAD_BYTES + 3 * namespace.length();
+            }
+            batch.add(toDatum(entry.getKey(), entry.getValue()));
+            batchBytes += datumBytes;
+        }
+        if (!batch.isEmpty()) {
+            requests.add(send(batch));
+        }
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Flush on the schedule. Exceptions are logged rather than thrown, as they would cancel all the following flushes.
+     */
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn(() -> "Failed to publish the metrics of " + namespace, e);
+        }
+    }
+
+    /**
+     * Publish the remaining datapoints, and wait for them to be published. The client is not closed.
+     */
+    @Override
+    public void close() {
+        scheduledFlush.cancel(false);
+        try {
+            flush().join();
+        } catch (RuntimeException e) {
+            log.warn(() -> "Failed to publish the remaining metrics of " + namespace, e);
+        } finally {
+            if (ownsScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private CompletableFuture<?> send(List<MetricDatum> batch) {
+        CompletableFuture<?> response;
+        try {
+            response = client.putMetricData(PutMetricDataRequest.builder().namespace(namespace).metricData(batch).build());
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        return response.whenComplete((r, t) -> {
+            if (t != null) {
+                log.warn(() -> "Failed to publish " + batch.size() + " metrics to " + namespace, t);
+            }
+        });
+    }
+
+    private MetricDatum toDatum(MetricKey key, Statistics statistics) {
+        return MetricDatum.builder()
+                          .metricName(key.metricName)
+                          .dimensions(key.dimensions)
+                          .unit(key.unit)
+                          .timestamp(Instant.ofEpochMilli(key.bucket))
+                          .storageResolution(highResolution ? 1 : 60)
+                          .statisticValues(s -> s.sampleCount(statistics.count)
+                                                 .sum(statistics.sum)
+                                                 .minimum(statistics.minimum)
+                                                 .maximum(statistics.maximum))
+                          .build();
+    }
+
+    /**
+     * A buffer of statistics, guarded by its own lock.
+     */
+    private static final class Stripe {
+        private Map<MetricKey, Statistics> statistics = new HashMap<>();
+    }
+
+    /**
+     * A metric, with its dimensions in name order, and the minute or second its datapoints were recorded in.
+     */
+    private static final class MetricKey {
+        private final String metricName;
+        private final List<Dimension> dimensions;
+        private final StandardUnit unit;
+        private final long bucket;
+        private final int hashCode;
+
+        private MetricKey(String metricName, List<Dimension> dimensions, StandardUnit unit, long bucket) {
+            this.metricName = metricName;
+            this.dimensions = Collections.unmodifiableList(dimensions);
+            this.unit = unit;
+            this.bucket = bucket;
+            this.hashCode = 31 * (31 * (31 * metricName.hashCode() + dimensions.hashCode()) + unit.hashCode())
+                            + Long.hashCode(bucket);
+        }
+
+        /**
+         * An upper bound of the size of this metric in a form-encoded {@code PutMetricData} request.
+         */
+        private int estimatedSize() {
+            int size = METRIC_OVERHEAD_BYTES + 3 * metricName.length();
+            for (Dimension dimension : dimensions) {
+                size += DIMENSION_OVERHEAD_BYTES + 3 * (dimension.name().length() + dimension.value().length());
+            }
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey other = (MetricKey) o;
+            return bucket == other.bucket && metricName.equals(other.metricName) && unit == other.unit
+                   && dimensions.equals(other.dimensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The count, sum, minimum and maximum of the datapoints of a metric.
+     */
+    private static final class Statistics {
+        private double count;
+        private double sum;
+        private double minimum = Double.POSITIVE_INFINITY;
+        private double maximum = Double.NEGATIVE_INFINITY;
+
+        private void add(double value) {
+            count++;
+            sum += value;
+            minimum = Math.min(minimum, value);
+            maximum = Math.max(maximum, value);
+        }
+
+        private Statistics merge(Statistics other) {
+            count += other.count;
+            sum += other.sum;
+            minimum = Math.min(minimum, other.minimum);
+            maximum = Math.max(maximum, other.maximum);
+            return this;
+        }
+    }
+
+    /**
+     * Builder for a {@link MetricPublisher}.
+     */
+    public interface Builder extends SdkBuilder<Builder, MetricPublisher> {
+
+        /**
+         * Sets the client the {@code PutMetricData} requests are sent with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(CloudWatchAsyncClient client);
+
+        /**
+         * Sets the namespace the metrics are published in. Required.
+         *
+         * @param namespace The namespace.
+         * @return This builder for method chaining.
+         */
+        Builder namespace(String namespace);
+
+        /**
+         * Sets the interval between two publications of the recorded datapoints.
+         *
+         * <p>The default is 1 minute.</p>
+         *
+         * @param flushInterval New flush interval.
+         * @return This builder for method chaining.
+         */
+        Builder flushInterval(Duration flushInterval);
+
+        /**
+         * Sets whether the metrics are published as high-resolution metrics, rolling up the datapoints per second rather than
+         * per minute. High-resolution metrics are billed differently, see the CloudWatch pricing.
+         *
+         * <p>The default is false.</p>
+         *
+         * @param highResolution Whether to publish high-resolution metrics.
+         * @return This builder for method chaining.
+         */
+        Builder highResolution(Boolean highResolution);
+
+        /**
+         * Sets the executor the flushes are scheduled on. When not set, the publisher creates a single daemon thread, which is
+         * shut down when the publisher is closed. An executor set here is not shut down by the publisher.
+         *
+         * @param scheduledExecutorService The executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private CloudWatchAsyncClient client;
+        private String namespace;
+        private Duration flushInterval;
+        private Boolean highResolution;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(CloudWatchAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(CloudWatchAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder namespace(String namespace) {
+            this.namespace = namespace;
+            return this;
+        }
+
+        public void setNamespace(String namespace) {
+            namespace(namespace);
+        }
+
+        @Override
+        public Builder flushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            flushInterval(flushInterval);
+        }
+
+        @Override
+        public Builder highResolution(Boolean highResolution) {
+            this.highResolution = highResolution;
+            return this;
+        }
+
+        public void setHighResolution(Boolean highResolution) {
+            highResolution(highResolution);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public MetricPublisher build() {
+            return new MetricPublisher(this);
+        }
+    }
+}
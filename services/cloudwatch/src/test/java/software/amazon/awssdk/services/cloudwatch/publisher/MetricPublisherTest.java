@@ -0,0 +1,123 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.cloudwatch.publisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+public class MetricPublisherTest {
+
+    private static final Dimension OPERATION = Dimension.builder().name("Operation").value("GetItem").build();
+    private static final Dimension TABLE = Dimension.builder().name("Table").value("users").build();
+
+    private final List<PutMetricDataRequest> requests = new ArrayList<>();
+    private MetricPublisher publisher;
+
+    @Before
+    public void setUp() {
+        CloudWatchAsyncClient client = mock(CloudWatchAsyncClient.class);
+        when(client.putMetricData(any(PutMetricDataRequest.class))).then(i -> {
+            synchronized (requests) {
+                requests.add(i.getArgumentAt(0, PutMetricDataRequest.class));
+            }
+            return CompletableFuture.completedFuture(PutMetricDataResponse.builder().build());
+        });
+        publisher = MetricPublisher.builder()
+                                   .client(client)
+                                   .namespace("Test")
+                                   .flushInterval(Duration.ofHours(1))
+                                   .build();
+    }
+
+    @After
+    public void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    public void datapointsAreRolledUpPerMetricAndDimensions() {
+        publisher.putMetric("Latency", 10, StandardUnit.MILLISECONDS, OPERATION, TABLE);
+        publisher.putMetric("Latency", 30, StandardUnit.MILLISECONDS, TABLE, OPERATION);
+        publisher.putMetric("Latency", 20, StandardUnit.MILLISECONDS, TABLE, OPERATION);
+        publisher.putMetric("Latency", 5, StandardUnit.MILLISECONDS, OPERATION);
+        publisher.flush().join();
+
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).namespace()).isEqualTo("Test");
+        List<MetricDatum> metrics = requests.get(0).metricData();
+        assertThat(metrics).hasSize(2);
+        MetricDatum both = metrics.stream().filter(m -> m.dimensions().size() == 2).findFirst().get();
+        assertThat(both.dimensions()).containsExactly(OPERATION, TABLE);
+        assertThat(both.statisticValues())
+            .isEqualTo(StatisticSet.builder().sampleCount(3.0).sum(60.0).minimum(10.0).maximum(30.0).build());
+        assertThat(both.value()).isNull();
+        assertThat(both.storageResolution()).isEqualTo(60);
+        assertThat(both.timestamp().toEpochMilli() % 60_000).isZero();
+    }
+
+    @Test
+    public void metricsAreSentInBatchesOfTwenty() {
+        for (int i = 0; i < 45; i++) {
+            publisher.putMetric("Metric" + i, i, StandardUnit.COUNT);
+        }
+        publisher.flush().join();
+
+        assertThat(requests.stream().map(r -> r.metricData().size()).collect(Collectors.toList()))
+            .containsExactlyInAnyOrder(20, 20, 5);
+    }
+
+    @Test
+    public void datapointsRecordedConcurrentlyAreAllCounted() throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            threads.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    publisher.putMetric("Requests", 1, StandardUnit.COUNT, OPERATION);
+                }
+            });
+        }
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        publisher.close();
+
+        double count = requests.stream()
+                               .flatMap(r -> r.metricData().stream())
+                               .mapToDouble(m -> m.statisticValues().sampleCount())
+                               .sum();
+        assertThat(count).isEqualTo(80_000);
+    }
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.bulk;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.services.dynamodb.DynamoDBAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Writes individual items to DynamoDB with {@code BatchWriteItem} requests, retrying the items DynamoDB leaves unprocessed.
+ *
+ * <p>Puts and deletes are grouped per table into requests of up to 25 items, the maximum allowed by DynamoDB. A request is
+ * sent when it holds 25 items or {@link Builder#maxBatchOpenTime(Duration)} after its first item was added, and up to
+ * {@link Builder#maxConcurrentRequests(Integer)} requests are in flight at once. Items returned as {@code UnprocessedItems},
+ * usually because the table is writing at its provisioned throughput, are sent again after a jittered exponential backoff.
+ * The future returned for each item is completed once DynamoDB has durably written it, and failed if the request carrying it
+ * fails or if it is still unprocessed after {@link Builder#maxRetries(Integer)} retries.</p>
+ *
+ * <pre class="brush: java">
+ * try (DynamoDbBatchWriter writer = DynamoDbBatchWriter.builder().client(DynamoDBAsyncClient.create()).build()) {
+ *     for (Item item : items) {
+ *         writer.put("my-table", item);
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>DynamoDB rejects a request holding two writes to the same key, so an item must not be put or deleted again before the
+ * future of its previous write has completed.</p>
+ *
+ * <p>The writer does not own the client: closing it waits for the pending writes, but does not close the client.</p>
+ */
+public final class DynamoDbBatchWriter implements SdkAutoCloseable {
+
+    private static final Logger log = Logger.loggerFor(DynamoDbBatchWriter.class);
+
+    private static final int MAX_BATCH_SIZE = 25;
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    private static final Duration DEFAULT_MAX_BATCH_OPEN_TIME = Duration.ofMillis(200);
+    private static final int DEFAULT_MAX_RETRIES = 10;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(50);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(20);
+
+    private final DynamoDBAsyncClient client;
+    private final int maxConcurrentRequests;
+    private final Duration maxBatchOpenTime;
+    private final int maxRetries;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Map<String, Batch> openBatches = new HashMap<>();
+    private final Deque<Batch> readyBatches = new ArrayDeque<>();
+    private final Set<CompletableFuture<Void>> pendingWrites = ConcurrentHashMap.newKeySet();
+    private int requestsInFlight;
+    private boolean closed;
+
+    private DynamoDbBatchWriter(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.maxConcurrentRequests = builder.maxConcurrentRequests == null ? DEFAULT_MAX_CONCURRENT_REQUESTS
+                                                                           : builder.maxConcurrentRequests;
+        this.maxBatchOpenTime = builder.maxBatchOpenTime == null ? DEFAULT_MAX_BATCH_OPEN_TIME : builder.maxBatchOpenTime;
+        this.maxRetries = builder.maxRetries == null ? DEFAULT_MAX_RETRIES : builder.maxRetries;
+        Validate.isPositive(maxConcurrentRequests, "maxConcurrentRequests");
+        Validate.isNotNegative(maxBatchOpenTime, "maxBatchOpenTime");
+        Validate.isNotNegative(maxRetries, "maxRetries");
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy : defaultBackoffStrategy(maxRetries);
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("dynamodb-batch-writer").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy(int maxRetries) {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(maxRetries)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link DynamoDbBatchWriter}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Put an item into a table, replacing any item with the same key.
+     *
+     * @param tableName The name of the table.
+     * @param item The attributes of the item, for example an {@link software.amazon.awssdk.services.dynamodb.model.Item}.
+     * @return A future completed once the item has been written.
+     */
+    public CompletableFuture<Void> put(String tableName, Map<String, AttributeValue> item) {
+        Validate.paramNotNull(item, "item");
+        return write(tableName, WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+    }
+
+    /**
+     * Delete an item from a table.
+     *
+     * @param tableName The name of the table.
+     * @param key The primary key attributes of the item.
+     * @return A future completed once the item has been deleted.
+     */
+    public CompletableFuture<Void> delete(String tableName, Map<String, AttributeValue> key) {
+        Validate.paramNotNull(key, "key");
+        return write(tableName, WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(key).build()).build());
+    }
+
+    /**
+     * Add a write request to the open batch of its table.
+     *
+     * @param tableName The name of the table.
+     * @param writeRequest The put or delete to send.
+     * @return A future completed once the write has been processed, or failed right away if the writer is closed.
+     */
+    public CompletableFuture<Void> write(String tableName, WriteRequest writeRequest) {
+        Validate.paramNotNull(tableName, "tableName");
+        Validate.paramNotNull(writeRequest, "writeRequest");
+        Entry entry = new Entry(writeRequest);
+        synchronized (this) {
+            if (closed) {
+                entry.result.completeExceptionally(new IllegalStateException("The writer is closed, no item can be written."));
+                return entry.result;
+            }
+            Batch batch = openBatches.get(tableName);
+            if (batch == null) {
+                try {
+                    batch = open(tableName);
+                } catch (RejectedExecutionException e) {
+                    entry.result.completeExceptionally(new SdkClientException("Unable to schedule the sending of the batch.", e));
+                    return entry.result;
+                }
+            }
+            pendingWrites.add(entry.result);
+            entry.result.whenComplete((r, t) -> pendingWrites.remove(entry.result));
+            batch.entries.add(entry);
+            if (batch.entries.size() == MAX_BATCH_SIZE) {
+                close(batch);
+            }
+        }
+        sendReadyBatches();
+        return entry.result;
+    }
+
+    /**
+     * Send all open batches without waiting for them to fill up.
+     *
+     * @return A future completed once all the writes added so far have completed, successfully or not.
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<?>[] writes = pendingWrites.toArray(new CompletableFuture<?>[0]);
+        synchronized (this) {
+            new ArrayList<>(openBatches.values()).forEach(this::close);
+        }
+        sendReadyBatches();
+        return CompletableFuture.allOf(writes).handle((r, t) -> null);
+    }
+
+    /**
+     * Send all open batches, wait for all the pending writes to complete and release the resources of this writer. The client
+     * is not closed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            flush().join();
+        } finally {
+            if (ownsScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private void sendIfOpen(Batch batch) {
+        synchronized (this) {
+            if (openBatches.get(batch.tableName) == batch) {
+                close(batch);
+            }
+        }
+        sendReadyBatches();
+    }
+
+    /**
+     * Open a batch for a table. Must be called holding the lock.
+     */
+    private Batch open(String tableName) {
+        Batch batch = new Batch(tableName);
+        // Scheduled before the batch is registered, so that a rejected timer leaves no batch without one
+        batch.timer = scheduler.schedule(() -> sendIfOpen(batch), maxBatchOpenTime.toMillis(), TimeUnit.MILLISECONDS);
+        openBatches.put(tableName, batch);
+        return batch;
+    }
+
+    /**
+     * Move an open batch to the batches ready to be sent. Must be called holding the lock.
+     */
+    private void close(Batch batch) {
+        openBatches.remove(batch.tableName);
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+        }
+        readyBatches.add(batch);
+    }
+
+    /**
+     * Send ready batches while fewer than the maximum number of requests are in flight. The requests are sent outside the
+     * lock, as the client may complete them on the calling thread.
+     */
+    private void sendReadyBatches() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                if (requestsInFlight >= maxConcurrentRequests || readyBatches.isEmpty()) {
+                    return;
+                }
+                batch = readyBatches.poll();
+                requestsInFlight++;
+            }
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        List<WriteRequest> writeRequests = new ArrayList<>(batch.entries.size());
+        batch.entries.forEach(e -> writeRequests.add(e.writeRequest));
+        BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                                                             .requestItems(Collections.singletonMap(batch.tableName,
+                                                                                                    writeRequests))
+                                                             .build();
+        CompletableFuture<BatchWriteItemResponse> response;
+        try {
+            response = client.batchWriteItem(request);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((r, t) -> {
+            try {
+                if (t != null) {
+                    batch.entries.forEach(e -> e.result.completeExceptionally(t));
+                } else {
+                    complete(batch, r);
+                }
+            } catch (RuntimeException e) {
+                batch.entries.forEach(entry -> entry.result.completeExceptionally(e));
+            } finally {
+                synchronized (this) {
+                    requestsInFlight--;
+                }
+                sendReadyBatches();
+            }
+        });
+    }
+
+    /**
+     * Complete the entries of a sent batch, and schedule the retry of the entries DynamoDB left unprocessed.
+     *
+     * <p>Unprocessed items are matched back to their entries by equality. Should an unprocessed item match no entry, the
+     * entries it may stand for cannot be told apart from the processed ones, so all the unmatched entries are retried rather
+     * than reported as written. Writing a processed put or delete again is harmless, as an item is not written again before
+     * its previous write has completed.</p>
+     */
+    private void complete(Batch batch, BatchWriteItemResponse response) {
+        List<WriteRequest> unprocessed = response.unprocessedItems() == null ? null
+                                                                             : response.unprocessedItems().get(batch.tableName);
+        List<Entry> remaining = new ArrayList<>(batch.entries);
+        Batch retry = new Batch(batch.tableName);
+        boolean unmatched = false;
+        if (unprocessed != null) {
+            for (WriteRequest writeRequest : unprocessed) {
+                unmatched |= !moveMatchingEntry(writeRequest, remaining, retry);
+            }
+        }
+        if (unmatched) {
+            log.debug(() -> String.format("Unable to match unprocessed items of table %s to their writes, retrying %s writes.",
+                                          batch.tableName, remaining.size()));
+            retry.entries.addAll(remaining);
+            remaining.clear();
+        }
+        remaining.forEach(e -> e.result.complete(null));
+        if (retry.entries.isEmpty()) {
+            return;
+        }
+
+        int retriesAttempted = batch.retriesAttempted;
+        if (retriesAttempted >= maxRetries) {
+            SdkClientException exception = new SdkClientException(
+                    String.format("Item was still unprocessed by DynamoDB after %s retries.", retriesAttempted));
+            retry.entries.forEach(e -> e.result.completeExceptionally(exception));
+            return;
+        }
+        retry.retriesAttempted = retriesAttempted + 1;
+        Duration delay = backoffStrategy.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                                                                                        .retriesAttempted(retriesAttempted)
+                                                                                        .build());
+        log.debug(() -> String.format("Retrying %s unprocessed items of table %s in %s ms.", retry.entries.size(),
+                                      batch.tableName, delay.toMillis()));
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                readyBatches.add(retry);
+            }
+            sendReadyBatches();
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean moveMatchingEntry(WriteRequest writeRequest, List<Entry> remaining, Batch retry) {
+        for (Iterator<Entry> i = remaining.iterator(); i.hasNext(); ) {
+            Entry entry = i.next();
+            if (entry.writeRequest.equals(writeRequest)) {
+                i.remove();
+                retry.entries.add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Batch {
+        private final String tableName;
+        private final List<Entry> entries = new ArrayList<>(MAX_BATCH_SIZE);
+        private ScheduledFuture<?> timer;
+        private int retriesAttempted;
+
+        private Batch(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+
+    private static final class Entry {
+        private final WriteRequest writeRequest;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Entry(WriteRequest writeRequest) {
+            this.writeRequest = writeRequest;
+        }
+    }
+
+    /**
+     * A builder for {@link DynamoDbBatchWriter}.
+     */
+    public interface Builder extends SdkBuilder<Builder, DynamoDbBatchWriter> {
+
+        /**
+         * Sets the client the {@code BatchWriteItem} requests are sent with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(DynamoDBAsyncClient client);
+
+        /**
+         * Sets the maximum number of {@code BatchWriteItem} requests in flight at once.
+         *
+         * <p>The default is 8 requests.</p>
+         *
+         * @param maxConcurrentRequests New maximum number of requests.
+         * @return This builder for method chaining.
+         */
+        Builder maxConcurrentRequests(Integer maxConcurrentRequests);
+
+        /**
+         * Sets the maximum time a batch waits for more items after its first item was added, which is the maximum latency
+         * added to a write by batching.
+         *
+         * <p>The default is 200 milliseconds.</p>
+         *
+         * @param maxBatchOpenTime New maximum time.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchOpenTime(Duration maxBatchOpenTime);
+
+        /**
+         * Sets the maximum number of times an unprocessed item is sent again before its future is failed.
+         *
+         * <p>The default is 10 retries.</p>
+         *
+         * @param maxRetries New maximum number of retries.
+         * @return This builder for method chaining.
+         */
+        Builder maxRetries(Integer maxRetries);
+
+        /**
+         * Sets the strategy computing the delay before unprocessed items are sent again.
+         *
+         * <p>The default is a {@link FullJitterBackoffStrategy} with a base delay of 50 milliseconds and a maximum delay of
+         * 20 seconds.</p>
+         *
+         * @param backoffStrategy New backoff strategy.
+         * @return This builder for method chaining.
+         */
+        Builder backoffStrategy(BackoffStrategy backoffStrategy);
+
+        /**
+         * Sets the executor used to send batches once their maximum open time has elapsed, and to retry unprocessed items. It
+         * is not shut down when the writer is closed.
+         *
+         * <p>By default, the writer uses a single daemon thread of its own, which is stopped when the writer is closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private DynamoDBAsyncClient client;
+        private Integer maxConcurrentRequests;
+        private Duration maxBatchOpenTime;
+        private Integer maxRetries;
+        private BackoffStrategy backoffStrategy;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(DynamoDBAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(DynamoDBAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder maxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+            maxConcurrentRequests(maxConcurrentRequests);
+        }
+
+        @Override
+        public Builder maxBatchOpenTime(Duration maxBatchOpenTime) {
+            this.maxBatchOpenTime = maxBatchOpenTime;
+            return this;
+        }
+
+        public void setMaxBatchOpenTime(Duration maxBatchOpenTime) {
+            maxBatchOpenTime(maxBatchOpenTime);
+        }
+
+        @Override
+        public Builder maxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public void setMaxRetries(Integer maxRetries) {
+            maxRetries(maxRetries);
+        }
+
+        @Override
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+            backoffStrategy(backoffStrategy);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public DynamoDbBatchWriter build() {
+            return new DynamoDbBatchWriter(this);
+        }
+    }
+}
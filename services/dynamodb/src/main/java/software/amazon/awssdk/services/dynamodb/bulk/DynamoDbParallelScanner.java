@@ -0,0 +1,278 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.bulk;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.reactivestreams.Publisher;
+import software.amazon.awssdk.services.dynamodb.DynamoDBAsyncClient;
+import software.amazon.awssdk.services.dynamodb.bulk.internal.ParallelScanExecution;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Scans whole tables by splitting them into {@code Segment}s that are paged through concurrently over a
+ * {@link DynamoDBAsyncClient}, instead of following a single chain of {@code LastEvaluatedKey}s.
+ *
+ * <p>The items of all the segments are merged into a single publisher. Items are published as the subscriber requests them,
+ * and segments stop requesting pages while {@link Builder#maxBufferedItems(Integer)} items are waiting to be published, so
+ * memory stays bounded whatever the size of the table.</p>
+ *
+ * <p>To leave capacity for the other users of a table, the scan can be limited to a fraction of the provisioned read
+ * capacity of the table with {@link Builder#readCapacityFraction(Double)}, or to a fixed rate with
+ * {@link Builder#readCapacityUnitsPerSecond(Double)}. The capacity consumed by each page then delays the following pages, so
+ * that the scan reads at that rate on average.</p>
+ *
+ * <pre class="brush: java">
+ * try (DynamoDbParallelScanner scanner = DynamoDbParallelScanner.builder()
+ * .client(dynamoDbAsyncClient)
+ * .totalSegments(16)
+ * .readCapacityFraction(0.5)
+ * .build()) {
+ *     scanner.scan(ScanRequest.builder().tableName("my-table").build())
+ *     .subscribe(subscriber);
+ * }
+ * </pre>
+ *
+ * <p>The scanner does not own the client and does not close it.</p>
+ */
+public final class DynamoDbParallelScanner implements SdkAutoCloseable {
+
+    private static final int DEFAULT_TOTAL_SEGMENTS = 8;
+    private static final int MAX_TOTAL_SEGMENTS = 1_000_000;
+    private static final int DEFAULT_MAX_BUFFERED_ITEMS = 1000;
+
+    private final DynamoDBAsyncClient client;
+    private final int totalSegments;
+    private final int maxBufferedItems;
+    private final Double readCapacityFraction;
+    private final Double readCapacityUnitsPerSecond;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private DynamoDbParallelScanner(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.totalSegments = builder.totalSegments == null ? DEFAULT_TOTAL_SEGMENTS : builder.totalSegments;
+        this.maxBufferedItems = builder.maxBufferedItems == null ? DEFAULT_MAX_BUFFERED_ITEMS : builder.maxBufferedItems;
+        this.readCapacityFraction = builder.readCapacityFraction;
+        this.readCapacityUnitsPerSecond = builder.readCapacityUnitsPerSecond;
+        Validate.isTrue(totalSegments > 0 && totalSegments <= MAX_TOTAL_SEGMENTS,
+                        "totalSegments must be between 1 and %s, but was %s",
+                        MAX_TOTAL_SEGMENTS, totalSegments);
+        Validate.isPositive(maxBufferedItems, "maxBufferedItems");
+        Validate.isTrue(readCapacityFraction == null || readCapacityUnitsPerSecond == null,
+                        "Only one of readCapacityFraction and readCapacityUnitsPerSecond may be set.");
+        Validate.isTrue(readCapacityFraction == null || readCapacityFraction > 0 && readCapacityFraction <= 1,
+                        "readCapacityFraction must be greater than 0 and at most 1, but was %s", readCapacityFraction);
+        Validate.isTrue(readCapacityUnitsPerSecond == null || readCapacityUnitsPerSecond > 0,
+                        "readCapacityUnitsPerSecond must be positive, but was %s", readCapacityUnitsPerSecond);
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("dynamodb-parallel-scanner").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+    }
+
+    /**
+     * @return Builder instance to construct a {@link DynamoDbParallelScanner}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Scan all the items of the table or index of the request, across all segments.
+     *
+     * @param request The scan request. Its table, index, filter, projection and page limit apply to every segment. It must not
+     *                have a segment, total segments or exclusive start key.
+     * @return A publisher of the items, in no particular order. Every subscription scans the table again.
+     */
+    public Publisher<Map<String, AttributeValue>> scan(ScanRequest request) {
+        Validate.paramNotNull(request, "request");
+        Validate.isTrue(request.segment() == null && request.totalSegments() == null,
+                        "The request must not have a segment or total segments.");
+        Validate.isTrue(request.exclusiveStartKey() == null || request.exclusiveStartKey().isEmpty(),
+                        "The request must not have an exclusive start key.");
+        return s -> {
+            ParallelScanExecution execution = new ParallelScanExecution(client, request, totalSegments, maxBufferedItems,
+                                                                         scheduler, s);
+            if (readCapacityFraction != null) {
+                execution.startWithCapacityFraction(readCapacityFraction);
+            } else {
+                execution.start(readCapacityUnitsPerSecond);
+            }
+        };
+    }
+
+    /**
+     * Release the resources of this scanner. Scans still in progress stop waiting for read capacity, and may fail or never
+     * complete. The client is not closed.
+     */
+    @Override
+    public void close() {
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * A builder for {@link DynamoDbParallelScanner}.
+     */
+    public interface Builder extends SdkBuilder<Builder, DynamoDbParallelScanner> {
+
+        /**
+         * Sets the client used to scan. Required.
+         *
+         * @param client The client to scan with.
+         * @return This builder for method chaining.
+         */
+        Builder client(DynamoDBAsyncClient client);
+
+        /**
+         * Sets the number of segments the table is split into, which is the number of concurrent {@code Scan} requests.
+         *
+         * <p>The default is 8 segments.</p>
+         *
+         * @param totalSegments New number of segments.
+         * @return This builder for method chaining.
+         */
+        Builder totalSegments(Integer totalSegments);
+
+        /**
+         * Sets the number of items waiting to be published above which segments stop requesting pages. As a page is only
+         * requested while below this number, up to a page per segment more may be held in memory.
+         *
+         * <p>The default is 1000 items.</p>
+         *
+         * @param maxBufferedItems New maximum number of items.
+         * @return This builder for method chaining.
+         */
+        Builder maxBufferedItems(Integer maxBufferedItems);
+
+        /**
+         * Sets the fraction of the provisioned read capacity of the table, or of the scanned global secondary index, that a
+         * scan may consume on average, greater than 0 and at most 1. The capacity is looked up with {@code DescribeTable} when
+         * a scan starts; tables in on-demand mode are scanned without limiting the rate.
+         *
+         * <p>By default the rate of the scan is not limited.</p>
+         *
+         * @param readCapacityFraction New fraction of the read capacity.
+         * @return This builder for method chaining.
+         */
+        Builder readCapacityFraction(Double readCapacityFraction);
+
+        /**
+         * Sets the number of read capacity units per second that a scan may consume on average. This cannot be combined with
+         * {@link #readCapacityFraction(Double)}.
+         *
+         * <p>By default the rate of the scan is not limited.</p>
+         *
+         * @param readCapacityUnitsPerSecond New read capacity rate.
+         * @return This builder for method chaining.
+         */
+        Builder readCapacityUnitsPerSecond(Double readCapacityUnitsPerSecond);
+
+        /**
+         * Sets the executor used to delay pages when the read capacity rate is limited. It is not shut down when the scanner
+         * is closed.
+         *
+         * <p>By default, the scanner uses a single daemon thread of its own, which is stopped when the scanner is closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private DynamoDBAsyncClient client;
+        private Integer totalSegments;
+        private Integer maxBufferedItems;
+        private Double readCapacityFraction;
+        private Double readCapacityUnitsPerSecond;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(DynamoDBAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(DynamoDBAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder totalSegments(Integer totalSegments) {
+            this.totalSegments = totalSegments;
+            return this;
+        }
+
+        public void setTotalSegments(Integer totalSegments) {
+            totalSegments(totalSegments);
+        }
+
+        @Override
+        public Builder maxBufferedItems(Integer maxBufferedItems) {
+            this.maxBufferedItems = maxBufferedItems;
+            return this;
+        }
+
+        public void setMaxBufferedItems(Integer maxBufferedItems) {
+            maxBufferedItems(maxBufferedItems);
+        }
+
+        @Override
+        public Builder readCapacityFraction(Double readCapacityFraction) {
+            this.readCapacityFraction = readCapacityFraction;
+            return this;
+        }
+
+        public void setReadCapacityFraction(Double readCapacityFraction) {
+            readCapacityFraction(readCapacityFraction);
+        }
+
+        @Override
+        public Builder readCapacityUnitsPerSecond(Double readCapacityUnitsPerSecond) {
+            this.readCapacityUnitsPerSecond = readCapacityUnitsPerSecond;
+            return this;
+        }
+
+        public void setReadCapacityUnitsPerSecond(Double readCapacityUnitsPerSecond) {
+            readCapacityUnitsPerSecond(readCapacityUnitsPerSecond);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public DynamoDbParallelScanner build() {
+            return new DynamoDbParallelScanner(this);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.bulk.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.dynamodb.DynamoDBAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputDescription;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.utils.Logger;
+
+/**
+ * A single parallel scan of a table, split into segments that are paged through concurrently. A segment only requests its
+ * next page while fewer than the maximum number of items are waiting to be delivered, so the number of items held in memory
+ * stays bounded by that maximum plus a page per segment. Items are delivered as the subscriber requests them, taking from the
+ * segments in turn.
+ *
+ * <p>When a read capacity rate is set, every page is requested with {@code ReturnConsumedCapacity} and the capacity it
+ * consumed delays the next page of any segment, so that the scan reads at the given rate on average.</p>
+ */
+@SdkInternalApi
+public final class ParallelScanExecution implements Subscription {
+
+    private static final Logger log = Logger.loggerFor(ParallelScanExecution.class);
+
+    private final DynamoDBAsyncClient client;
+    private final ScanRequest request;
+    private final int maxBufferedItems;
+    private final ScheduledExecutorService scheduler;
+    private final Subscriber<? super Map<String, AttributeValue>> subscriber;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private CapacityRateLimiter rateLimiter;
+    private int nextSegment;
+    private int bufferedItems;
+    private long demand;
+    private boolean started;
+    private boolean draining;
+    private boolean drainAgain;
+    private boolean terminated;
+    private Throwable error;
+
+    public ParallelScanExecution(DynamoDBAsyncClient client,
+                                 ScanRequest request,
+                                 int totalSegments,
+                                 int maxBufferedItems,
+                                 ScheduledExecutorService scheduler,
+                                 Subscriber<? super Map<String, AttributeValue>> subscriber) {
+        this.client = client;
+        this.request = request;
+        this.maxBufferedItems = maxBufferedItems;
+        this.scheduler = scheduler;
+        this.subscriber = subscriber;
+        for (int i = 0; i < totalSegments; i++) {
+            segments.add(new Segment(i));
+        }
+    }
+
+    /**
+     * Start scanning, reading at most the given number of capacity units per second on average, or as fast as pages can be
+     * delivered if null.
+     */
+    public void start(Double readCapacityUnitsPerSecond) {
+        subscriber.onSubscribe(this);
+        synchronized (this) {
+            rateLimiter = readCapacityUnitsPerSecond == null ? null : new CapacityRateLimiter(readCapacityUnitsPerSecond);
+            started = true;
+        }
+        drain();
+    }
+
+    /**
+     * Start scanning, reading at most the given fraction of the provisioned read capacity of the table, or of the global
+     * secondary index if the request scans one. The capacity is looked up with {@code DescribeTable} first. Tables without
+     * provisioned read capacity are scanned without limiting the rate.
+     */
+    public void startWithCapacityFraction(double readCapacityFraction) {
+        subscriber.onSubscribe(this);
+        client.describeTable(DescribeTableRequest.builder().tableName(request.tableName()).build()).whenComplete((r, t) -> {
+            if (t != null) {
+                fail(t);
+                return;
+            }
+            Long readCapacityUnits = provisionedReadCapacity(r);
+            synchronized (this) {
+                if (readCapacityUnits != null && readCapacityUnits > 0) {
+                    rateLimiter = new CapacityRateLimiter(readCapacityFraction * readCapacityUnits);
+                }
+                started = true;
+            }
+            log.debug(() -> String.format("Scanning %s with %s segments at %s capacity units per second.", request.tableName(),
+                                          segments.size(), rateLimiter == null ? "unlimited" : rateLimiter.unitsPerSecond));
+            drain();
+        });
+    }
+
+    private Long provisionedReadCapacity(DescribeTableResponse response) {
+        ProvisionedThroughputDescription throughput = response.table().provisionedThroughput();
+        if (request.indexName() != null && response.table().globalSecondaryIndexes() != null) {
+            for (GlobalSecondaryIndexDescription index : response.table().globalSecondaryIndexes()) {
+                if (request.indexName().equals(index.indexName())) {
+                    throughput = index.provisionedThroughput();
+                }
+            }
+        }
+        return throughput == null ? null : throughput.readCapacityUnits();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Demand must be positive, but was " + n));
+            return;
+        }
+        synchronized (this) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+    }
+
+    @Override
+    public synchronized void cancel() {
+        terminated = true;
+        segments.clear();
+    }
+
+    /**
+     * Deliver buffered items within the demand of the subscriber and request the next page of the segments while there is
+     * room for it. Only one thread drains at a time; other threads record that another pass is needed, so items are delivered
+     * serially and without holding the lock.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                drainAgain = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            List<Map<String, AttributeValue>> toDeliver = new ArrayList<>();
+            List<Segment> toFetch = new ArrayList<>();
+            Throwable failure;
+            boolean complete;
+            synchronized (this) {
+                drainAgain = false;
+                if (terminated) {
+                    draining = false;
+                    return;
+                }
+                failure = error;
+                if (failure == null && started) {
+                    collect(toDeliver);
+                    segmentsToFetch(toFetch);
+                }
+                complete = failure == null && started && bufferedItems == 0 && segments.stream().allMatch(s -> s.done);
+                terminated = failure != null || complete;
+            }
+            toFetch.forEach(this::fetchPage);
+            toDeliver.forEach(subscriber::onNext);
+            if (failure != null) {
+                subscriber.onError(failure);
+                return;
+            }
+            if (complete) {
+                subscriber.onComplete();
+                return;
+            }
+            synchronized (this) {
+                if (!drainAgain) {
+                    draining = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    private void collect(List<Map<String, AttributeValue>> toDeliver) {
+        int emptySegments = 0;
+        while (demand > 0 && bufferedItems > 0 && emptySegments < segments.size()) {
+            Segment segment = segments.get(nextSegment);
+            nextSegment = (nextSegment + 1) % segments.size();
+            if (segment.items.isEmpty()) {
+                emptySegments++;
+                continue;
+            }
+            emptySegments = 0;
+            toDeliver.add(segment.items.poll());
+            bufferedItems--;
+            demand--;
+        }
+    }
+
+    private void segmentsToFetch(List<Segment> toFetch) {
+        for (Segment segment : segments) {
+            if (bufferedItems >= maxBufferedItems) {
+                return;
+            }
+            if (!segment.done && !segment.fetching) {
+                segment.fetching = true;
+                toFetch.add(segment);
+            }
+        }
+    }
+
+    private void fetchPage(Segment segment) {
+        long delay = rateLimiter == null ? 0 : rateLimiter.delayNanos();
+        if (delay > 0) {
+            scheduler.schedule(() -> scanPage(segment), delay, TimeUnit.NANOSECONDS);
+        } else {
+            scanPage(segment);
+        }
+    }
+
+    private void scanPage(Segment segment) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+        }
+        ScanRequest.Builder pageRequest = request.toBuilder()
+                                                 .segment(segment.index)
+                                                 .totalSegments(segments.size())
+                                                 .exclusiveStartKey(segment.exclusiveStartKey);
+        if (rateLimiter != null) {
+            pageRequest.returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        }
+        client.scan(pageRequest.build()).whenComplete((response, t) -> {
+            if (t != null) {
+                fail(t);
+                return;
+            }
+            if (rateLimiter != null && response.consumedCapacity() != null
+                && response.consumedCapacity().capacityUnits() != null) {
+                rateLimiter.consume(response.consumedCapacity().capacityUnits());
+            }
+            synchronized (this) {
+                bufferedItems += segment.pageReceived(response);
+            }
+            drain();
+        });
+    }
+
+    private void fail(Throwable t) {
+        synchronized (this) {
+            if (terminated || error != null) {
+                return;
+            }
+            error = t;
+        }
+        drain();
+    }
+
+    /**
+     * A segment of the table, scanned page by page.
+     */
+    private static final class Segment {
+        private final int index;
+        private final Deque<Map<String, AttributeValue>> items = new ArrayDeque<>();
+        private Map<String, AttributeValue> exclusiveStartKey;
+        private boolean fetching;
+        private boolean done;
+
+        private Segment(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return The number of items added to the buffer of this segment.
+         */
+        private int pageReceived(ScanResponse response) {
+            fetching = false;
+            exclusiveStartKey = response.lastEvaluatedKey();
+            done = exclusiveStartKey == null || exclusiveStartKey.isEmpty();
+            if (response.items() == null) {
+                return 0;
+            }
+            items.addAll(response.items());
+            return response.items().size();
+        }
+    }
+
+    /**
+     * Spaces out pages so that the capacity they consume averages to a rate. The capacity consumed by a page is only known once
+     * it has been read, so each page pushes back the time at which the next page may be requested.
+     */
+    private static final class CapacityRateLimiter {
+        private final double unitsPerSecond;
+        private long nextPageNanos = System.nanoTime();
+
+        private CapacityRateLimiter(double unitsPerSecond) {
+            this.unitsPerSecond = unitsPerSecond;
+        }
+
+        private synchronized long delayNanos() {
+            return Math.max(0, nextPageNanos - System.nanoTime());
+        }
+
+        private synchronized void consume(double capacityUnits) {
+            nextPageNanos = Math.max(nextPageNanos, System.nanoTime())
+                            + (long) (capacityUnits / unitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import static software.amazon.awssdk.core.protocol.json.SdkStructuredPlainJsonFactory.JSON_FACTORY;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.runtime.transform.JsonUnmarshallerContext;
+import software.amazon.awssdk.core.runtime.transform.JsonUnmarshallerContextImpl;
+import software.amazon.awssdk.core.runtime.transform.SimpleTypeJsonUnmarshallers;
+import software.amazon.awssdk.core.runtime.transform.Unmarshaller;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.transform.AttributeValueUnmarshaller;
+
+/**
+ * A read-only DynamoDB item kept in the JSON form in which DynamoDB returned it, and decoded attribute by attribute as they
+ * are read.
+ *
+ * <p>A compact item references a range of the buffer holding the whole response, instead of holding a tree of
+ * {@link AttributeValue}s. The first access to an attribute indexes the names and positions of the top-level attributes of
+ * the item, and every access decodes only the requested attribute. This keeps heap use and parsing time low for wide items
+ * of which only a few attributes are read.</p>
+ *
+ * <p>Compact items are returned by {@link CompactItemReader}. Decoded attributes are not cached, so an attribute read
+ * repeatedly is best kept by the caller. Compact items are safe to read from multiple threads.</p>
+ */
+public final class CompactItem {
+
+    private static final Map<Class<?>, Unmarshaller<?, JsonUnmarshallerContext>> UNMARSHALLERS;
+
+    static {
+        Map<Class<?>, Unmarshaller<?, JsonUnmarshallerContext>> unmarshallers = new HashMap<>();
+        unmarshallers.put(String.class, SimpleTypeJsonUnmarshallers.StringJsonUnmarshaller.getInstance());
+        unmarshallers.put(Boolean.class, SimpleTypeJsonUnmarshallers.BooleanJsonUnmarshaller.getInstance());
+        unmarshallers.put(ByteBuffer.class, SimpleTypeJsonUnmarshallers.ByteBufferJsonUnmarshaller.getInstance());
+        UNMARSHALLERS = Collections.unmodifiableMap(unmarshallers);
+    }
+
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
+    private final Map<String, AttributeValue> decoded;
+    private volatile Index index;
+
+    /**
+     * A compact item holding the JSON object found in the given range of a buffer.
+     */
+    CompactItem(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.decoded = null;
+    }
+
+    /**
+     * A compact item wrapping an item that was already decoded, when the response could not be kept in its JSON form.
+     */
+    CompactItem(Map<String, AttributeValue> decoded) {
+        this.buffer = null;
+        this.offset = 0;
+        this.length = 0;
+        this.decoded = Collections.unmodifiableMap(new LinkedHashMap<>(decoded));
+    }
+
+    /**
+     * @return The names of the attributes of this item, in the order DynamoDB returned them.
+     */
+    public Set<String> attributeNames() {
+        if (decoded != null) {
+            return decoded.keySet();
+        }
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(index().names)));
+    }
+
+    /**
+     * @return True if this item has an attribute with the given name.
+     */
+    public boolean hasAttribute(String name) {
+        return decoded != null ? decoded.containsKey(name) : index().find(name) >= 0;
+    }
+
+    /**
+     * Decode an attribute of this item.
+     *
+     * @param name The name of the attribute.
+     * @return The value of the attribute, or null if this item has no such attribute.
+     */
+    public AttributeValue get(String name) {
+        if (decoded != null) {
+            return decoded.get(name);
+        }
+        Index i = index();
+        int position = i.find(name);
+        return position < 0 ? null : decode(i.starts[position], i.ends[position]);
+    }
+
+    /**
+     * @return The string value of an attribute, or null if this item has no such attribute or it is not a string.
+     */
+    public String getString(String name) {
+        AttributeValue value = get(name);
+        return value == null ? null : value.s();
+    }
+
+    /**
+     * @return The number value of an attribute, or null if this item has no such attribute or it is not a number.
+     */
+    public BigDecimal getNumber(String name) {
+        AttributeValue value = get(name);
+        return value == null || value.n() == null ? null : new BigDecimal(value.n());
+    }
+
+    /**
+     * @return The binary value of an attribute, or null if this item has no such attribute or it is not binary.
+     */
+    public ByteBuffer getBinary(String name) {
+        AttributeValue value = get(name);
+        return value == null ? null : value.b();
+    }
+
+    /**
+     * @return The boolean value of an attribute, or null if this item has no such attribute or it is not a boolean.
+     */
+    public Boolean getBoolean(String name) {
+        AttributeValue value = get(name);
+        return value == null ? null : value.bool();
+    }
+
+    /**
+     * Decode all the attributes of this item, for example to pass them to a {@code PutItem} request.
+     *
+     * @return A new map of the attributes of this item.
+     */
+    public Map<String, AttributeValue> toMap() {
+        if (decoded != null) {
+            return new LinkedHashMap<>(decoded);
+        }
+        Index i = index();
+        Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+        for (int position = 0; position < i.names.length; position++) {
+            attributes.put(i.names[position], decode(i.starts[position], i.ends[position]));
+        }
+        return attributes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactItem(" + attributeNames() + ")";
+    }
+
+    private Index index() {
+        Index i = index;
+        if (i == null) {
+            i = buildIndex();
+            index = i;
+        }
+        return i;
+    }
+
+    /**
+     * Find the name and range of every top-level attribute of this item, skipping over their values.
+     */
+    private Index buildIndex() {
+        try (JsonParser parser = JSON_FACTORY.createParser(buffer, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SdkClientException("Item is not a JSON object.");
+            }
+            // Depending on the parser, offsets are relative to the buffer or to the start of the item
+            long shift = offset - parser.getTokenLocation().getByteOffset();
+            Index i = new Index();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                int start = (int) (parser.getTokenLocation().getByteOffset() + shift);
+                parser.skipChildren();
+                int end = (int) (parser.getCurrentLocation().getByteOffset() + shift);
+                i.add(name, start, end);
+            }
+            return i.trim();
+        } catch (IOException e) {
+            throw new SdkClientException("Unable to index item.", e);
+        }
+    }
+
+    private AttributeValue decode(int start, int end) {
+        try (JsonParser parser = JSON_FACTORY.createParser(buffer, start, end - start)) {
+            return AttributeValueUnmarshaller.getInstance().unmarshall(new JsonUnmarshallerContextImpl(parser, UNMARSHALLERS,
+                                                                                                        null));
+        } catch (Exception e) {
+            throw new SdkClientException("Unable to decode attribute value.", e);
+        }
+    }
+
+    /**
+     * The names and ranges of the top-level attributes of an item, in parallel arrays.
+     */
+    private static final class Index {
+        private String[] names = new String[8];
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int size;
+
+        private void add(String name, int start, int end) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            names[size] = name;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        private Index trim() {
+            names = Arrays.copyOf(names, size);
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            return this;
+        }
+
+        private int find(String name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
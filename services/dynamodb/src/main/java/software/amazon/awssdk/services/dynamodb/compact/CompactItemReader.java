@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.DynamoDBClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Makes {@code Scan} and {@code Query} requests whose items are returned as {@link CompactItem}s, which reference the
+ * response body and decode attributes as they are read, instead of as trees of {@link AttributeValue}s. This cuts the heap
+ * use and unmarshalling time of large pages, especially of wide items of which only a few attributes are read.
+ *
+ * <p>The items are kept in their JSON form by the {@link #interceptor()} of the reader, which must be added to the clients
+ * the reader is used with. Requests made with those clients other than through the reader are not affected.</p>
+ *
+ * <pre class="brush: java">
+ * CompactItemReader reader = CompactItemReader.create();
+ * DynamoDBClient client = DynamoDBClient.builder()
+ * .overrideConfiguration(c -> c.addLastExecutionInterceptor(reader.interceptor()))
+ * .build();
+ * for (CompactItem item : reader.scan(client, ScanRequest.builder().tableName("my-table").build()).items()) {
+ *     System.out.println(item.getString("name"));
+ * }
+ * </pre>
+ *
+ * <p>If the interceptor was not added to the client, or a response cannot be kept in its JSON form, for example because it
+ * is compressed, the items are unmarshalled as usual and wrapped as compact items.</p>
+ *
+ * <p>Only the synchronous client is supported: the asynchronous client buffers the response body after the interceptors
+ * have seen the response, so they cannot change it.</p>
+ */
+public final class CompactItemReader {
+
+    private final CompactItemsInterceptor interceptor = new CompactItemsInterceptor();
+
+    private CompactItemReader() {
+    }
+
+    /**
+     * @return A new reader.
+     */
+    public static CompactItemReader create() {
+        return new CompactItemReader();
+    }
+
+    /**
+     * @return The interceptor to add to the clients this reader is used with.
+     */
+    public ExecutionInterceptor interceptor() {
+        return interceptor;
+    }
+
+    /**
+     * Scan a page of items.
+     *
+     * @param client A client the {@link #interceptor()} of this reader was added to.
+     * @param request The scan request.
+     * @return The page of items.
+     */
+    public CompactPage<ScanResponse> scan(DynamoDBClient client, ScanRequest request) {
+        Validate.paramNotNull(client, "client");
+        return execute(request.toBuilder().build(), client::scan, ScanResponse::items);
+    }
+
+    /**
+     * Query a page of items.
+     *
+     * @param client A client the {@link #interceptor()} of this reader was added to.
+     * @param request The query request.
+     * @return The page of items.
+     */
+    public CompactPage<QueryResponse> query(DynamoDBClient client, QueryRequest request) {
+        Validate.paramNotNull(client, "client");
+        return execute(request.toBuilder().build(), client::query, QueryResponse::items);
+    }
+
+    /**
+     * Make a request, whose response the interceptor recognizes by the identity of the request. Every call must be given a
+     * new request instance.
+     */
+    private <RequestT extends SdkRequest, ResponseT extends SdkResponse> CompactPage<ResponseT> execute(
+            RequestT request,
+            Function<RequestT, ResponseT> call,
+            Function<ResponseT, List<Map<String, AttributeValue>>> items) {
+        AtomicReference<List<CompactItem>> compactItems = new AtomicReference<>();
+        interceptor.register(request, compactItems);
+        try {
+            return page(call.apply(request), compactItems, items);
+        } finally {
+            interceptor.deregister(request);
+        }
+    }
+
+    private static <ResponseT extends SdkResponse> CompactPage<ResponseT> page(
+            ResponseT response,
+            AtomicReference<List<CompactItem>> compactItems,
+            Function<ResponseT, List<Map<String, AttributeValue>>> items) {
+        List<CompactItem> pageItems = compactItems.get();
+        if (pageItems == null) {
+            List<Map<String, AttributeValue>> decoded = items.apply(response);
+            pageItems = decoded == null ? Collections.emptyList()
+                                        : decoded.stream().map(CompactItem::new).collect(Collectors.toList());
+        }
+        return new CompactPage<>(response, Collections.unmodifiableList(pageItems));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import static software.amazon.awssdk.core.protocol.json.SdkStructuredPlainJsonFactory.JSON_FACTORY;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.utils.IoUtils;
+import software.amazon.awssdk.utils.Logger;
+
+/**
+ * Keeps the items of the responses to requests made through a {@link CompactItemReader} in their JSON form.
+ *
+ * <p>The body of such a response is read into a single buffer, the range of every item of its {@code Items} array is
+ * recorded as a {@link CompactItem} referencing that buffer, and the body is passed on to the SDK with an empty
+ * {@code Items} array, so that no {@link software.amazon.awssdk.services.dynamodb.model.AttributeValue} is unmarshalled. As
+ * the body is changed, its CRC32 checksum is validated here. Responses that are compressed, fail their checksum or cannot be
+ * parsed are passed on as they are, and their items are unmarshalled as usual.</p>
+ */
+final class CompactItemsInterceptor implements ExecutionInterceptor {
+
+    private static final Logger log = Logger.loggerFor(CompactItemsInterceptor.class);
+
+    private static final ExecutionAttribute<AtomicReference<List<CompactItem>>> COMPACT_ITEMS =
+            new ExecutionAttribute<>("CompactItems");
+    private static final String CRC32_HEADER = "x-amz-crc32";
+    private static final String ITEMS = "Items";
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final Map<SdkRequest, AtomicReference<List<CompactItem>>> pendingRequests =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Keep the items of the response to the given request, which is identified by identity, in the given reference.
+     */
+    void register(SdkRequest request, AtomicReference<List<CompactItem>> items) {
+        pendingRequests.put(request, items);
+    }
+
+    void deregister(SdkRequest request) {
+        pendingRequests.remove(request);
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        AtomicReference<List<CompactItem>> items = pendingRequests.remove(context.request());
+        if (items != null) {
+            executionAttributes.putAttribute(COMPACT_ITEMS, items);
+        }
+    }
+
+    @Override
+    public SdkHttpFullResponse modifyHttpResponse(Context.ModifyHttpResponse context, ExecutionAttributes executionAttributes) {
+        SdkHttpFullResponse response = context.httpResponse();
+        AtomicReference<List<CompactItem>> items = executionAttributes.getAttribute(COMPACT_ITEMS);
+        if (items == null || response.statusCode() / 100 != 2 || !response.content().isPresent()
+            || response.firstMatchingHeader("Content-Encoding").isPresent()) {
+            return response;
+        }
+
+        byte[] body = readAll(response.content().get());
+        Optional<String> expectedCrc32 = response.firstMatchingHeader(CRC32_HEADER);
+        if (expectedCrc32.isPresent() && !crc32Matches(body, expectedCrc32.get())) {
+            // Let the SDK report the mismatch
+            return response.toBuilder().content(content(body)).build();
+        }
+
+        List<CompactItem> compactItems = new ArrayList<>();
+        int[] itemsRange = findItems(body, compactItems);
+        if (itemsRange == null) {
+            return response.toBuilder().content(content(body)).build();
+        }
+        items.set(compactItems);
+
+        ByteArrayOutputStream withoutItems = new ByteArrayOutputStream(body.length - (itemsRange[1] - itemsRange[0]) + 2);
+        withoutItems.write(body, 0, itemsRange[0]);
+        withoutItems.write(EMPTY_ARRAY, 0, EMPTY_ARRAY.length);
+        withoutItems.write(body, itemsRange[1], body.length - itemsRange[1]);
+        return response.toBuilder()
+                       .removeHeader(CRC32_HEADER)
+                       .content(content(withoutItems.toByteArray()))
+                       .build();
+    }
+
+    /**
+     * Record a compact item for every item of the top-level {@code Items} array of a response body.
+     *
+     * @return The start and end of the {@code Items} array, or null if the body has no such array or cannot be parsed.
+     */
+    private static int[] findItems(byte[] body, List<CompactItem> compactItems) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isItems = ITEMS.equals(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                if (!isItems || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int arrayStart = (int) parser.getTokenLocation().getByteOffset();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int itemStart = (int) parser.getTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    int itemEnd = (int) parser.getCurrentLocation().getByteOffset();
+                    compactItems.add(new CompactItem(body, itemStart, itemEnd - itemStart));
+                }
+                return new int[] {arrayStart, (int) parser.getCurrentLocation().getByteOffset()};
+            }
+            return null;
+        } catch (IOException e) {
+            log.debug(() -> "Unable to find the items of the response, they will be unmarshalled.", e);
+            compactItems.clear();
+            return null;
+        }
+    }
+
+    private static boolean crc32Matches(byte[] body, String expected) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body, 0, body.length);
+        try {
+            return crc32.getValue() == Long.parseLong(expected);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static byte[] readAll(InputStream content) {
+        try {
+            return IoUtils.toByteArray(content);
+        } catch (IOException e) {
+            throw new SdkClientException("Unable to read the response.", e);
+        }
+    }
+
+    private static AbortableInputStream content(byte[] body) {
+        return new AbortableInputStream(new ByteArrayInputStream(body), () -> { });
+    }
+}
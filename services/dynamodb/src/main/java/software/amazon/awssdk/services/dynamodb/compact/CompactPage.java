@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import java.util.List;
+import software.amazon.awssdk.core.SdkResponse;
+
+/**
+ * A page of items returned by a {@code Scan} or {@code Query} made through a {@link CompactItemReader}.
+ *
+ * @param <ResponseT> The type of the response.
+ */
+public final class CompactPage<ResponseT extends SdkResponse> {
+
+    private final ResponseT response;
+    private final List<CompactItem> items;
+
+    CompactPage(ResponseT response, List<CompactItem> items) {
+        this.response = response;
+        this.items = items;
+    }
+
+    /**
+     * The response to the request, holding everything but the items, such as the key to continue from and the consumed
+     * capacity. Its items are usually empty, as they are returned by {@link #items()} instead.
+     *
+     * @return The response.
+     */
+    public ResponseT response() {
+        return response;
+    }
+
+    /**
+     * @return The items of this page.
+     */
+    public List<CompactItem> items() {
+        return items;
+    }
+}
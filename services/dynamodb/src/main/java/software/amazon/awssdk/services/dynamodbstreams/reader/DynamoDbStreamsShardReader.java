@@ -0,0 +1,117 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodbstreams.reader;
+
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodbstreams.DynamoDBStreamsAsyncClient;
+import software.amazon.awssdk.services.dynamodbstreams.reader.internal.DynamoDbStreamsShardedStream;
+import software.amazon.awssdk.shard.AbstractShardReader;
+import software.amazon.awssdk.shard.ShardCheckpointer;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Reads all the shards of a DynamoDB stream in parallel, publishing their records as the subscriber requests them.
+ *
+ * <p>Every shard is read with its own chain of {@code GetRecords} calls, at most 5 per second, ahead of the subscriber until
+ * {@link Builder#maxBufferedRecordsPerShard(Integer)} of its records are waiting to be delivered. DynamoDB regularly closes
+ * the shards of a stream and replaces them with children; the children are found as their parents are read to their end,
+ * and are only read once all the records of their parents have been delivered, so that the changes to an item are delivered
+ * in order. Throttled calls are made again after a backoff, and expired shard iterators are replaced.</p>
+ *
+ * <pre class="brush: java">
+ * DynamoDbStreamsShardReader reader = DynamoDbStreamsShardReader.builder()
+ *                                                               .client(DynamoDBStreamsAsyncClient.create())
+ *                                                               .streamArn(table.latestStreamArn())
+ *                                                               .checkpointer(myCheckpointer)
+ *                                                               .build();
+ * reader.read().subscribe(mySubscriber);
+ * </pre>
+ *
+ * <p>Each record is delivered with the shard it was read from, and can be checkpointed once processed so that a reader
+ * started later with the same {@link ShardCheckpointer} resumes after it.</p>
+ *
+ * <p>The reader does not own the client: closing it stops the reads, but does not close the client.</p>
+ */
+public final class DynamoDbStreamsShardReader extends AbstractShardReader<Record> {
+
+    private DynamoDbStreamsShardReader(DefaultBuilder builder) {
+        super(builder,
+              new DynamoDbStreamsShardedStream(Validate.paramNotNull(builder.client, "client"),
+                                               Validate.paramNotNull(builder.streamArn, "streamArn")),
+              "dynamodb-streams-shard-reader");
+    }
+
+    /**
+     * @return Builder instance to construct a {@link DynamoDbStreamsShardReader}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * A builder for {@link DynamoDbStreamsShardReader}.
+     */
+    public interface Builder extends AbstractShardReader.Builder<Builder, DynamoDbStreamsShardReader> {
+
+        /**
+         * Sets the client the stream is read with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(DynamoDBStreamsAsyncClient client);
+
+        /**
+         * Sets the ARN of the stream to read, as returned by {@code DescribeTable} or {@code ListStreams}. Required.
+         *
+         * @param streamArn The ARN of the stream.
+         * @return This builder for method chaining.
+         */
+        Builder streamArn(String streamArn);
+    }
+
+    private static final class DefaultBuilder
+            extends AbstractShardReader.BuilderImpl<Builder, DynamoDbStreamsShardReader> implements Builder {
+
+        private DynamoDBStreamsAsyncClient client;
+        private String streamArn;
+
+        @Override
+        public Builder client(DynamoDBStreamsAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(DynamoDBStreamsAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder streamArn(String streamArn) {
+            this.streamArn = streamArn;
+            return this;
+        }
+
+        public void setStreamArn(String streamArn) {
+            streamArn(streamArn);
+        }
+
+        @Override
+        public DynamoDbStreamsShardReader build() {
+            return new DynamoDbStreamsShardReader(this);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodbstreams.reader.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.StreamDescription;
+import software.amazon.awssdk.services.dynamodbstreams.DynamoDBStreamsAsyncClient;
+import software.amazon.awssdk.shard.InitialShardPosition;
+import software.amazon.awssdk.shard.ShardLineage;
+import software.amazon.awssdk.shard.ShardRecordsPage;
+import software.amazon.awssdk.shard.ShardedStream;
+
+/**
+ * A DynamoDB stream, read with {@code DescribeStream}, {@code GetShardIterator} and {@code GetRecords}.
+ */
+@SdkInternalApi
+public final class DynamoDbStreamsShardedStream implements ShardedStream<Record> {
+
+    private final DynamoDBStreamsAsyncClient client;
+    private final String streamArn;
+
+    public DynamoDbStreamsShardedStream(DynamoDBStreamsAsyncClient client, String streamArn) {
+        this.client = client;
+        this.streamArn = streamArn;
+    }
+
+    @Override
+    public CompletableFuture<List<ShardLineage>> listShards() {
+        return describe(null, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<ShardLineage>> describe(String exclusiveStartShardId, List<ShardLineage> lineages) {
+        DescribeStreamRequest request = DescribeStreamRequest.builder()
+                                                             .streamArn(streamArn)
+                                                             .exclusiveStartShardId(exclusiveStartShardId)
+                                                             .build();
+        return client.describeStream(request).thenCompose(r -> {
+            StreamDescription description = r.streamDescription();
+            for (Shard shard : description.shards()) {
+                lineages.add(new ShardLineage(shard.shardId(), shard.parentShardId(), null));
+            }
+            if (description.lastEvaluatedShardId() != null) {
+                return describe(description.lastEvaluatedShardId(), lineages);
+            }
+            return CompletableFuture.completedFuture(lineages);
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> shardIterator(String shardId, String afterSequenceNumber,
+                                                   InitialShardPosition initialPosition) {
+        GetShardIteratorRequest.Builder request = GetShardIteratorRequest.builder().streamArn(streamArn).shardId(shardId);
+        if (afterSequenceNumber != null) {
+            request.shardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER).sequenceNumber(afterSequenceNumber);
+        } else if (initialPosition == InitialShardPosition.TRIM_HORIZON) {
+            request.shardIteratorType(ShardIteratorType.TRIM_HORIZON);
+        } else {
+            request.shardIteratorType(ShardIteratorType.LATEST);
+        }
+        return client.getShardIterator(request.build()).thenApply(GetShardIteratorResponse::shardIterator);
+    }
+
+    @Override
+    public CompletableFuture<ShardRecordsPage<Record>> getRecords(String shardIterator, Integer limit) {
+        GetRecordsRequest request = GetRecordsRequest.builder().shardIterator(shardIterator).limit(limit).build();
+        return client.getRecords(request).thenApply(r -> new ShardRecordsPage<>(r.records(), r.nextShardIterator()));
+    }
+
+    @Override
+    public String sequenceNumber(Record record) {
+        return record.dynamodb().sequenceNumber();
+    }
+
+    @Override
+    public boolean isExpiredIteratorException(Throwable exception) {
+        return exception instanceof ExpiredIteratorException;
+    }
+
+    @Override
+    public boolean isThrottlingException(Throwable exception) {
+        return exception instanceof LimitExceededException || ShardedStream.super.isThrottlingException(exception);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.services.dynamodb.DynamoDBAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDBException;
+import software.amazon.awssdk.services.dynamodb.model.Item;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+public class DynamoDbBatchWriterTest {
+
+    private final List<BatchWriteItemRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private DynamoDBAsyncClient client;
+    private DynamoDbBatchWriter writer;
+
+    @Before
+    public void setup() {
+        client = mock(DynamoDBAsyncClient.class);
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void itemsAreGroupedIntoBatchesPerTable() {
+        respond(r -> CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build()));
+        writer = writer(DynamoDbBatchWriter.builder().maxBatchOpenTime(Duration.ofMinutes(1)));
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            writes.add(writer.put("table-a", item(i)));
+        }
+        writes.add(writer.put("table-b", item(0)));
+        writes.add(writer.delete("table-b", item(1)));
+        assertThat(requests).hasSize(1);
+
+        writer.flush().join();
+
+        assertThat(writes).allMatch(w -> w.isDone() && !w.isCompletedExceptionally());
+        assertThat(requests.stream().map(DynamoDbBatchWriterTest::size).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder(25, 5, 2);
+        assertThat(requests).allMatch(r -> r.requestItems().size() == 1);
+    }
+
+    @Test
+    public void batchIsSentAfterMaxOpenTime() throws Exception {
+        respond(r -> CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build()));
+        writer = writer(DynamoDbBatchWriter.builder().maxBatchOpenTime(Duration.ofMillis(10)));
+
+        writer.put("table", item(0)).get(5, TimeUnit.SECONDS);
+
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    public void unprocessedItemsAreRetried() {
+        respond(r -> {
+            List<WriteRequest> writeRequests = r.requestItems().get("table");
+            BatchWriteItemResponse.Builder response = BatchWriteItemResponse.builder();
+            if (writeRequests.size() == 10) {
+                response.unprocessedItems(Collections.singletonMap("table", writeRequests.subList(3, 5)));
+            }
+            return CompletableFuture.completedFuture(response.build());
+        });
+        writer = writer(DynamoDbBatchWriter.builder().backoffStrategy(BackoffStrategy.none()));
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            writes.add(writer.put("table", item(i)));
+        }
+        writer.flush();
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).requestItems().get("table"))
+                .isEqualTo(requests.get(0).requestItems().get("table").subList(3, 5));
+    }
+
+    @Test
+    public void unmatchedUnprocessedItemsAreRetriedRatherThanReportedWritten() {
+        respond(r -> {
+            BatchWriteItemResponse.Builder response = BatchWriteItemResponse.builder();
+            if (requests.size() == 1) {
+                // An unprocessed item that does not compare equal to the write that was sent
+                WriteRequest unmatched = WriteRequest.builder()
+                                                     .putRequest(p -> p.item(Item.builder().attribute("id", "1.0").build()))
+                                                     .build();
+                response.unprocessedItems(Collections.singletonMap("table", Collections.singletonList(unmatched)));
+            }
+            return CompletableFuture.completedFuture(response.build());
+        });
+        writer = writer(DynamoDbBatchWriter.builder().backoffStrategy(BackoffStrategy.none()));
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            writes.add(writer.put("table", item(i)));
+        }
+        writer.flush();
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).requestItems().get("table")).isEqualTo(requests.get(0).requestItems().get("table"));
+    }
+
+    @Test
+    public void writesAfterCloseFail() {
+        respond(r -> CompletableFuture.completedFuture(BatchWriteItemResponse.builder().build()));
+        writer = writer(DynamoDbBatchWriter.builder());
+        writer.close();
+
+        assertThatThrownBy(writer.put("table", item(0))::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    public void itemsStillUnprocessedAfterMaxRetriesFail() {
+        respond(r -> CompletableFuture.completedFuture(BatchWriteItemResponse.builder()
+                                                                             .unprocessedItems(r.requestItems())
+                                                                             .build()));
+        writer = writer(DynamoDbBatchWriter.builder().backoffStrategy(BackoffStrategy.none()).maxRetries(2));
+
+        CompletableFuture<Void> write = writer.put("table", item(0));
+        writer.flush();
+
+        assertThatThrownBy(write::join).isInstanceOf(CompletionException.class)
+                                       .hasCauseInstanceOf(SdkClientException.class);
+        assertThat(requests).hasSize(3);
+    }
+
+    @Test
+    public void failedRequestFailsItsItems() {
+        respond(r -> {
+            CompletableFuture<BatchWriteItemResponse> response = new CompletableFuture<>();
+            response.completeExceptionally(new DynamoDBException("Boom"));
+            return response;
+        });
+        writer = writer(DynamoDbBatchWriter.builder());
+
+        CompletableFuture<Void> write = writer.put("table", item(0));
+        writer.flush().join();
+
+        assertThatThrownBy(write::join).hasCauseInstanceOf(DynamoDBException.class);
+    }
+
+    @Test
+    public void concurrentRequestsAreLimited() {
+        List<CompletableFuture<BatchWriteItemResponse>> responses = Collections.synchronizedList(new ArrayList<>());
+        respond(r -> {
+            CompletableFuture<BatchWriteItemResponse> response = new CompletableFuture<>();
+            responses.add(response);
+            return response;
+        });
+        writer = writer(DynamoDbBatchWriter.builder().maxConcurrentRequests(2));
+
+        for (int i = 0; i < 100; i++) {
+            writer.put("table", item(i));
+        }
+        assertThat(requests).hasSize(2);
+
+        responses.get(0).complete(BatchWriteItemResponse.builder().build());
+        assertThat(requests).hasSize(3);
+
+        responses.get(1).complete(BatchWriteItemResponse.builder().build());
+        responses.get(2).complete(BatchWriteItemResponse.builder().build());
+        assertThat(requests).hasSize(4);
+        responses.get(3).complete(BatchWriteItemResponse.builder().build());
+    }
+
+    private void respond(Function<BatchWriteItemRequest, CompletableFuture<BatchWriteItemResponse>> responder) {
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(i -> {
+            BatchWriteItemRequest request = (BatchWriteItemRequest) i.getArguments()[0];
+            requests.add(request);
+            return responder.apply(request);
+        });
+    }
+
+    private DynamoDbBatchWriter writer(DynamoDbBatchWriter.Builder builder) {
+        return builder.client(client).build();
+    }
+
+    private static Map<String, AttributeValue> item(int id) {
+        return Item.builder().attribute("id", id).build();
+    }
+
+    private static int size(BatchWriteItemRequest request) {
+        return request.requestItems().values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.dynamodb.DynamoDBAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDBException;
+import software.amazon.awssdk.services.dynamodb.model.Item;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputDescription;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+
+public class DynamoDbParallelScannerTest {
+
+    private static final ScanRequest REQUEST = ScanRequest.builder().tableName("table").build();
+    private static final int ITEMS_PER_SEGMENT = 5;
+    private static final int PAGE_SIZE = 2;
+
+    private final List<ScanRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private DynamoDBAsyncClient client;
+    private DynamoDbParallelScanner scanner;
+
+    @Before
+    public void setup() {
+        client = mock(DynamoDBAsyncClient.class);
+        when(client.scan(any(ScanRequest.class))).thenAnswer(i -> {
+            ScanRequest request = (ScanRequest) i.getArguments()[0];
+            requests.add(request);
+            return CompletableFuture.completedFuture(page(request));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (scanner != null) {
+            scanner.close();
+        }
+    }
+
+    @Test
+    public void scansAllSegments() throws Exception {
+        scanner = DynamoDbParallelScanner.builder().client(client).totalSegments(3).build();
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        scanner.scan(REQUEST).subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.items).containsExactlyInAnyOrder("0-0", "0-1", "0-2", "0-3", "0-4",
+                                                               "1-0", "1-1", "1-2", "1-3", "1-4",
+                                                               "2-0", "2-1", "2-2", "2-3", "2-4");
+        assertThat(requests).hasSize(9);
+        assertThat(requests).allMatch(r -> r.totalSegments() == 3 && r.returnConsumedCapacity() == null);
+    }
+
+    @Test
+    public void pagesAreOnlyRequestedWhileBelowMaxBufferedItems() {
+        scanner = DynamoDbParallelScanner.builder().client(client).totalSegments(4).maxBufferedItems(3).build();
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(1);
+        scanner.scan(REQUEST).subscribe(subscriber);
+
+        // Every segment requests a page before any is received, then none while 3 items are buffered
+        assertThat(requests).hasSize(4);
+        assertThat(subscriber.items).hasSize(1);
+
+        subscriber.subscription.request(4);
+        assertThat(subscriber.items).hasSize(5);
+        assertThat(requests).hasSize(4);
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items).hasSize(6);
+        assertThat(requests).hasSize(8);
+    }
+
+    @Test
+    public void readCapacityIsLimitedToFractionOfProvisionedCapacity() throws Exception {
+        when(client.describeTable(any(DescribeTableRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                DescribeTableResponse.builder()
+                                     .table(TableDescription.builder()
+                                                            .provisionedThroughput(ProvisionedThroughputDescription.builder()
+                                                                                                                   .readCapacityUnits(10L)
+                                                                                                                   .build())
+                                                            .build())
+                                     .build()));
+        scanner = DynamoDbParallelScanner.builder().client(client).totalSegments(1).readCapacityFraction(0.5).build();
+
+        // Each page consumes 0.5 units, which is 100 milliseconds at 5 units per second
+        long start = System.nanoTime();
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        scanner.scan(REQUEST).subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200);
+        assertThat(subscriber.items).hasSize(ITEMS_PER_SEGMENT);
+        assertThat(requests).allMatch(r -> r.returnConsumedCapacity() == ReturnConsumedCapacity.TOTAL);
+    }
+
+    @Test
+    public void failedPageFailsScan() throws Exception {
+        doAnswer(i -> {
+            CompletableFuture<ScanResponse> response = new CompletableFuture<>();
+            response.completeExceptionally(new DynamoDBException("Boom"));
+            return response;
+        }).when(client).scan(any(ScanRequest.class));
+        scanner = DynamoDbParallelScanner.builder().client(client).build();
+
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        scanner.scan(REQUEST).subscribe(subscriber);
+
+        assertThat(subscriber.error).isInstanceOf(DynamoDBException.class);
+        assertThat(subscriber.completed.getCount()).isEqualTo(1);
+    }
+
+    /**
+     * Every segment holds {@link #ITEMS_PER_SEGMENT} items, returned {@link #PAGE_SIZE} per page.
+     */
+    private static ScanResponse page(ScanRequest request) {
+        int start = request.exclusiveStartKey() == null ? 0 : Integer.parseInt(request.exclusiveStartKey().get("index").n()) + 1;
+        int end = Math.min(start + PAGE_SIZE, ITEMS_PER_SEGMENT);
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            items.add(Item.builder().attribute("id", request.segment() + "-" + i).attribute("index", i).build());
+        }
+        ScanResponse.Builder response = ScanResponse.builder()
+                                                    .items(items)
+                                                    .consumedCapacity(ConsumedCapacity.builder().capacityUnits(0.5).build());
+        if (end < ITEMS_PER_SEGMENT) {
+            response.lastEvaluatedKey(items.get(items.size() - 1));
+        }
+        return response.build();
+    }
+
+    private static final class CollectingSubscriber implements Subscriber<Map<String, AttributeValue>> {
+        private final List<String> items = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final long demand;
+        private Subscription subscription;
+        private volatile Throwable error;
+
+        private CollectingSubscriber(long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(demand);
+        }
+
+        @Override
+        public void onNext(Map<String, AttributeValue> item) {
+            items.add(item.get("id").s());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
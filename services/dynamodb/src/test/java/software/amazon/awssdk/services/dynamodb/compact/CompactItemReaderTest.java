@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import java.net.URI;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import org.junit.Rule;
+import org.junit.Test;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.services.dynamodb.DynamoDBClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+public class CompactItemReaderTest {
+
+    private static final String BODY = "{\"Count\":2,"
+                                       + "\"Items\":[{\"id\":{\"S\":\"a\"},\"value\":{\"N\":\"1\"}},"
+                                       + "{\"id\":{\"S\":\"b\"},\"value\":{\"N\":\"2\"}}],"
+                                       + "\"LastEvaluatedKey\":{\"id\":{\"S\":\"b\"}},"
+                                       + "\"ScannedCount\":2}";
+
+    @Rule
+    public WireMockRule mockServer = new WireMockRule(0);
+
+    private final CompactItemReader reader = CompactItemReader.create();
+
+    @Test
+    public void scanItemsAreKeptCompact() {
+        respond(BODY, crc32(BODY));
+
+        CompactPage<ScanResponse> page = reader.scan(syncClient(true), ScanRequest.builder().tableName("table").build());
+
+        assertThat(page.response().items()).isEmpty();
+        assertThat(page.response().count()).isEqualTo(2);
+        assertThat(page.response().lastEvaluatedKey()).containsEntry("id", AttributeValue.builder().s("b").build());
+        assertThat(page.items().stream().map(i -> i.getString("id")).collect(Collectors.toList())).containsExactly("a", "b");
+        assertThat(page.items().get(1).getNumber("value")).isEqualByComparingTo("2");
+    }
+
+    @Test
+    public void queryItemsAreKeptCompact() {
+        respond(BODY, crc32(BODY));
+
+        CompactPage<QueryResponse> page = reader.query(syncClient(true), QueryRequest.builder().tableName("table").build());
+
+        assertThat(page.response().items()).isEmpty();
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.items().get(0).toMap()).containsOnlyKeys("id", "value");
+    }
+
+    @Test
+    public void itemsAreUnmarshalledWhenInterceptorIsNotAdded() {
+        respond(BODY, crc32(BODY));
+
+        CompactPage<ScanResponse> page = reader.scan(syncClient(false), ScanRequest.builder().tableName("table").build());
+
+        assertThat(page.response().items()).hasSize(2);
+        assertThat(page.items().stream().map(i -> i.getString("id")).collect(Collectors.toList())).containsExactly("a", "b");
+    }
+
+    @Test
+    public void requestsNotMadeThroughReaderAreUnaffected() {
+        respond(BODY, crc32(BODY));
+
+        ScanResponse response = syncClient(true).scan(ScanRequest.builder().tableName("table").build());
+
+        assertThat(response.items()).hasSize(2);
+    }
+
+    @Test
+    public void checksumMismatchIsReported() {
+        respond(BODY, crc32(BODY) + 1);
+
+        assertThatThrownBy(() -> reader.scan(syncClient(true), ScanRequest.builder().tableName("table").build()))
+                .isInstanceOf(SdkClientException.class);
+    }
+
+    private void respond(String body, long crc32) {
+        stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200)
+                                                            .withHeader("x-amz-crc32", Long.toString(crc32))
+                                                            .withBody(body)));
+    }
+
+    private DynamoDBClient syncClient(boolean withInterceptor) {
+        return DynamoDBClient.builder()
+                             .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid", "skid")))
+                             .region(Region.US_WEST_2)
+                             .endpointOverride(URI.create("http://localhost:" + mockServer.port()))
+                             .overrideConfiguration(c -> {
+                                 if (withInterceptor) {
+                                     c.addLastExecutionInterceptor(reader.interceptor());
+                                 }
+                                 c.retryPolicy(RetryPolicy.NONE);
+                             })
+                             .build();
+    }
+
+    private static long crc32(String body) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body.getBytes(UTF_8));
+        return crc32.getValue();
+    }
+}
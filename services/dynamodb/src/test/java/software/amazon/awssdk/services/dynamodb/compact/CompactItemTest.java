@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodb.compact;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public class CompactItemTest {
+
+    private static final String ITEM = "{\"id\":{\"S\":\"item-1\"},"
+                                       + "\"count\":{\"N\":\"42.5\"},"
+                                       + "\"data\":{\"B\":\"AQID\"},"
+                                       + "\"flag\":{\"BOOL\":true},"
+                                       + "\"nested\":{\"M\":{\"tags\":{\"SS\":[\"a\",\"b\"]},\"list\":{\"L\":[{\"N\":\"1\"},{\"NULL\":true}]}}}}";
+
+    @Test
+    public void attributesAreDecodedOnAccess() {
+        CompactItem item = compactItem("[1, 2, " + ITEM + "]", 7);
+
+        assertThat(item.attributeNames()).containsExactly("id", "count", "data", "flag", "nested");
+        assertThat(item.hasAttribute("id")).isTrue();
+        assertThat(item.hasAttribute("missing")).isFalse();
+        assertThat(item.getString("id")).isEqualTo("item-1");
+        assertThat(item.getNumber("count")).isEqualTo(new BigDecimal("42.5"));
+        assertThat(item.getBinary("data")).isEqualTo(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        assertThat(item.getBoolean("flag")).isTrue();
+        assertThat(item.getString("missing")).isNull();
+        assertThat(item.getNumber("id")).isNull();
+    }
+
+    @Test
+    public void nestedAttributesAreDecoded() {
+        AttributeValue nested = compactItem(ITEM, 0).get("nested");
+
+        assertThat(nested.m().get("tags").ss()).containsExactly("a", "b");
+        assertThat(nested.m().get("list").l()).containsExactly(AttributeValue.builder().n("1").build(),
+                                                               AttributeValue.builder().nul(true).build());
+    }
+
+    @Test
+    public void toMapDecodesAllAttributes() {
+        CompactItem item = compactItem(ITEM, 0);
+
+        assertThat(item.toMap()).containsOnlyKeys("id", "count", "data", "flag", "nested")
+                                .containsEntry("id", AttributeValue.builder().s("item-1").build());
+        assertThat(new CompactItem(item.toMap()).toMap()).isEqualTo(item.toMap());
+    }
+
+    private static CompactItem compactItem(String json, int offset) {
+        byte[] buffer = json.getBytes(UTF_8);
+        return new CompactItem(buffer, offset, ITEM.getBytes(UTF_8).length);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.dynamodbstreams.reader;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodbstreams.DynamoDBStreamsAsyncClient;
+import software.amazon.awssdk.shard.InitialShardPosition;
+import software.amazon.awssdk.shard.ShardCheckpointer;
+import software.amazon.awssdk.shard.ShardRecord;
+
+public class DynamoDbStreamsShardReaderTest {
+
+    private static final String STREAM_ARN = "arn:aws:dynamodb:us-west-2:123456789012:table/table/stream/label";
+
+    @Rule
+    public WireMockRule mockServer = new WireMockRule(0);
+
+    private DynamoDBStreamsAsyncClient client;
+    private DynamoDbStreamsShardReader reader;
+
+    @Before
+    public void setup() {
+        client = DynamoDBStreamsAsyncClient.builder()
+                                           .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid",
+                                                                                                                        "skid")))
+                                           .region(Region.US_WEST_2)
+                                           .endpointOverride(URI.create("http://localhost:" + mockServer.port()))
+                                           .build();
+    }
+
+    @After
+    public void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+        client.close();
+    }
+
+    @Test
+    public void shardsOfAllPagesAreReadParentFirst() throws Exception {
+        respond("DescribeStream", "ExclusiveStartShardId", streamDescription(shard("child", "parent"), null));
+        respond("DescribeStream", "StreamArn", streamDescription(shard("parent", null), "parent"));
+        respond("GetShardIterator", "\"parent\"", "{\"ShardIterator\":\"parent-iterator\"}");
+        respond("GetShardIterator", "\"child\"", "{\"ShardIterator\":\"child-iterator\"}");
+        respond("GetRecords", "parent-iterator", records("100", "200"));
+        respond("GetRecords", "child-iterator", records("300"));
+        ShardCheckpointer checkpointer = ShardCheckpointer.inMemory();
+        reader = DynamoDbStreamsShardReader.builder()
+                                           .client(client)
+                                           .streamArn(STREAM_ARN)
+                                           .initialPosition(InitialShardPosition.TRIM_HORIZON)
+                                           .checkpointer(checkpointer)
+                                           .build();
+
+        List<ShardRecord<Record>> records = readAll(reader);
+
+        assertThat(records).extracting(ShardRecord::sequenceNumber).containsExactly("100", "200", "300");
+        assertThat(records).extracting(ShardRecord::shardId).containsExactly("parent", "parent", "child");
+        assertThat(records.get(2).record().dynamodb().keys().get("id").s()).isEqualTo("300");
+
+        records.get(0).checkpoint().join();
+        assertThat(checkpointer.lastCheckpoint("parent").join()).isEqualTo("100");
+    }
+
+    private void respond(String operation, String bodyContaining, String response) {
+        stubFor(post(urlEqualTo("/")).atPriority(operation.equals("DescribeStream") && bodyContaining.equals("StreamArn") ? 2 : 1)
+                                     .withHeader("X-Amz-Target", equalTo("DynamoDBStreams_20120810." + operation))
+                                     .withRequestBody(containing(bodyContaining))
+                                     .willReturn(aResponse().withStatus(200)
+                                                            .withHeader("Content-Type", "application/x-amz-json-1.0")
+                                                            .withBody(response)));
+    }
+
+    private static String streamDescription(String shard, String lastEvaluatedShardId) {
+        return "{\"StreamDescription\":{\"StreamArn\":\"" + STREAM_ARN + "\",\"StreamStatus\":\"ENABLED\",\"Shards\":[" + shard + "]"
+               + (lastEvaluatedShardId == null ? "" : ",\"LastEvaluatedShardId\":\"" + lastEvaluatedShardId + "\"") + "}}";
+    }
+
+    private static String shard(String shardId, String parentShardId) {
+        return "{\"ShardId\":\"" + shardId + "\""
+               + (parentShardId == null ? "" : ",\"ParentShardId\":\"" + parentShardId + "\"")
+               + ",\"SequenceNumberRange\":{\"StartingSequenceNumber\":\"1\",\"EndingSequenceNumber\":\"999\"}}";
+    }
+
+    private static String records(String... sequenceNumbers) {
+        StringBuilder body = new StringBuilder("{\"Records\":[");
+        for (int i = 0; i < sequenceNumbers.length; i++) {
+            body.append(i == 0 ? "" : ",")
+                .append("{\"eventID\":\"").append(sequenceNumbers[i]).append("\",\"eventName\":\"INSERT\",")
+                .append("\"dynamodb\":{\"SequenceNumber\":\"").append(sequenceNumbers[i]).append("\",")
+                .append("\"Keys\":{\"id\":{\"S\":\"").append(sequenceNumbers[i]).append("\"}}}}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static List<ShardRecord<Record>> readAll(DynamoDbStreamsShardReader reader) throws Exception {
+        List<ShardRecord<Record>> records = new ArrayList<>();
+        CompletableFuture<List<ShardRecord<Record>>> done = new CompletableFuture<>();
+        reader.read().subscribe(new Subscriber<ShardRecord<Record>>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ShardRecord<Record> record) {
+                records.add(record);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(records);
+            }
+        });
+        return done.get(10, TimeUnit.SECONDS);
+    }
+}
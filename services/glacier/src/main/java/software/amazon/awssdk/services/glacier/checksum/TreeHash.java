@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.glacier.checksum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.utils.BinaryUtils;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * The SHA-256 tree hash of a payload uploaded to Amazon Glacier, sent in the {@code x-amz-sha256-tree-hash} header, along with
+ * the SHA-256 hash of the whole payload, sent in the {@code x-amz-content-sha256} header and signed. Both are computed in a
+ * single pass over the payload.
+ *
+ * <p>The hashes of the payloads of the sync {@code uploadArchive} and {@code uploadMultipartPart} operations are computed
+ * automatically when the request has no checksum and the payload can be read twice, i.e. when it was created from a file or
+ * from bytes. The payload of an async upload is only read once the request is signed, so its checksum should be computed
+ * beforehand with {@link #of(AsyncRequestProvider)}.</p>
+ *
+ * @see <a href="http://docs.aws.amazon.com/amazonglacier/latest/dev/checksum-calculations.html">Computing Checksums</a>
+ */
+public final class TreeHash {
+
+    private final byte[] treeHash;
+    private final byte[] linearHash;
+
+    TreeHash(byte[] treeHash, byte[] linearHash) {
+        this.treeHash = treeHash;
+        this.linearHash = linearHash;
+    }
+
+    /**
+     * Hash the bytes of a stream, until its end. The stream is not closed.
+     */
+    public static TreeHash of(InputStream input) {
+        Validate.paramNotNull(input, "input");
+        TreeHashCalculator calculator = new TreeHashCalculator();
+        try {
+            calculator.update(input);
+        } catch (IOException e) {
+            throw new SdkClientException("Unable to read the payload to compute its SHA-256 tree hash", e);
+        }
+        return calculator.finish();
+    }
+
+    /**
+     * Hash the remaining bytes of a buffer. The position of the buffer is not modified.
+     */
+    public static TreeHash of(ByteBuffer bytes) {
+        Validate.paramNotNull(bytes, "bytes");
+        TreeHashCalculator calculator = new TreeHashCalculator();
+        calculator.update(bytes);
+        return calculator.finish();
+    }
+
+    /**
+     * Hash the bytes published by a request provider, e.g. before uploading them with the async client. The provider is
+     * subscribed to once more when the request is sent, so it must be able to publish its bytes again, as the providers
+     * created from files or bytes do.
+     *
+     * @return A future completed with the hashes once all the bytes are published.
+     */
+    public static CompletableFuture<TreeHash> of(AsyncRequestProvider provider) {
+        Validate.paramNotNull(provider, "provider");
+        CompletableFuture<TreeHash> result = new CompletableFuture<>();
+        provider.subscribe(new HashingSubscriber(result));
+        return result;
+    }
+
+    /**
+     * @return The hex encoded SHA-256 tree hash of the payload.
+     */
+    public String treeHash() {
+        return BinaryUtils.toHex(treeHash);
+    }
+
+    /**
+     * @return The hex encoded SHA-256 hash of the payload.
+     */
+    public String linearHash() {
+        return BinaryUtils.toHex(linearHash);
+    }
+
+    @Override
+    public String toString() {
+        return "TreeHash(treeHash=" + treeHash() + ", linearHash=" + linearHash() + ")";
+    }
+
+    private static final class HashingSubscriber implements Subscriber<ByteBuffer> {
+
+        private final TreeHashCalculator calculator = new TreeHashCalculator();
+        private final CompletableFuture<TreeHash> result;
+        private Subscription subscription;
+
+        private HashingSubscriber(CompletableFuture<TreeHash> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer bytes) {
+            try {
+                calculator.update(bytes);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.completeExceptionally(t);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                result.complete(calculator.finish());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.glacier.checksum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+/**
+ * Computes the SHA-256 tree hash and the SHA-256 hash of a payload in a single pass over its bytes.
+ *
+ * <p>The payload is cut into 1 MB leaves. The linear hash is updated on the calling thread as the bytes arrive, while the
+ * hashes of the complete leaves are computed on the common fork join pool when more than one core is available, so that
+ * hashing a large archive is bound by the read speed rather than by a single core. The number of leaves waiting to be
+ * hashed is bounded to keep the memory used by the calculation proportional to the number of cores.</p>
+ *
+ * <p>This class is not thread safe: the bytes of a payload must be fed by one thread at a time.</p>
+ */
+final class TreeHashCalculator {
+
+    static final int LEAF_SIZE = 1024 * 1024;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_LEAVES_IN_FLIGHT = 2 * PARALLELISM;
+
+    private final MessageDigest linearDigest = newSha256Digest();
+    private final List<CompletableFuture<byte[]>> leafHashes = new ArrayList<>();
+    private int completedLeaves;
+    private byte[] leaf = new byte[LEAF_SIZE];
+    private int leafPosition;
+
+    void update(ByteBuffer bytes) {
+        ByteBuffer remaining = bytes.duplicate();
+        while (remaining.hasRemaining()) {
+            int length = Math.min(remaining.remaining(), LEAF_SIZE - leafPosition);
+            remaining.get(leaf, leafPosition, length);
+            update(length);
+        }
+    }
+
+    void update(InputStream input) throws IOException {
+        int read;
+        while ((read = input.read(leaf, leafPosition, LEAF_SIZE - leafPosition)) != -1) {
+            update(read);
+        }
+    }
+
+    /**
+     * @return The hashes of all the bytes fed to this calculator. It cannot be used anymore afterwards.
+     */
+    TreeHash finish() {
+        if (leafPosition > 0 || leafHashes.isEmpty()) {
+            leafHashes.add(CompletableFuture.completedFuture(sha256(leaf, leafPosition)));
+        }
+        leaf = null;
+
+        List<byte[]> level = new ArrayList<>(leafHashes.size());
+        leafHashes.forEach(hash -> level.add(join(hash)));
+        return new TreeHash(combine(level), linearDigest.digest());
+    }
+
+    private void update(int length) {
+        linearDigest.update(leaf, leafPosition, length);
+        leafPosition += length;
+        if (leafPosition == LEAF_SIZE) {
+            hashLeaf();
+        }
+    }
+
+    private void hashLeaf() {
+        byte[] completeLeaf = leaf;
+        if (PARALLELISM > 1) {
+            leafHashes.add(CompletableFuture.supplyAsync(() -> sha256(completeLeaf, LEAF_SIZE), ForkJoinPool.commonPool()));
+            leaf = new byte[LEAF_SIZE];
+            while (leafHashes.size() - completedLeaves > MAX_LEAVES_IN_FLIGHT) {
+                join(leafHashes.get(completedLeaves++));
+            }
+        } else {
+            leafHashes.add(CompletableFuture.completedFuture(sha256(completeLeaf, LEAF_SIZE)));
+        }
+        leafPosition = 0;
+    }
+
+    /**
+     * Hashes the concatenation of each pair of hashes, level by level, until a single hash is left. An odd hash at the end
+     * of a level is carried to the next level as is.
+     */
+    private static byte[] combine(List<byte[]> level) {
+        while (level.size() > 1) {
+            List<byte[]> nextLevel = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 < level.size()) {
+                    MessageDigest digest = newSha256Digest();
+                    digest.update(level.get(i));
+                    digest.update(level.get(i + 1));
+                    nextLevel.add(digest.digest());
+                } else {
+                    nextLevel.add(level.get(i));
+                }
+            }
+            level = nextLevel;
+        }
+        return level.get(0);
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> hash) {
+        try {
+            return hash.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes, int length) {
+        MessageDigest digest = newSha256Digest();
+        digest.update(bytes, 0, length);
+        return digest.digest();
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SdkClientException("Unable to get a SHA-256 message digest", e);
+        }
+    }
+}
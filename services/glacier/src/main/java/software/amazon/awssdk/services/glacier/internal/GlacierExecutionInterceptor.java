@@ -15,31 +15,48 @@
 
 package software.amazon.awssdk.services.glacier.internal;
 
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.Context;
 import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.util.RewindableContentUtils;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.services.glacier.checksum.TreeHash;
 import software.amazon.awssdk.services.glacier.model.DescribeJobRequest;
 import software.amazon.awssdk.services.glacier.model.GetJobOutputRequest;
+import software.amazon.awssdk.services.glacier.model.UploadArchiveRequest;
 import software.amazon.awssdk.services.glacier.model.UploadMultipartPartRequest;
 
 public class GlacierExecutionInterceptor implements ExecutionInterceptor {
 
+    private static final String TREE_HASH_HEADER = "x-amz-sha256-tree-hash";
+
     @Override
     public SdkHttpFullRequest modifyHttpRequest(Context.ModifyHttpRequest context, ExecutionAttributes executionAttributes) {
         SdkHttpFullRequest request = context.httpRequest();
         Object originalRequest = context.request();
         return request.toBuilder()
-                      .apply(b -> beforeRequest(originalRequest, b))
+                      .apply(b -> beforeRequest(originalRequest, b, executionAttributes))
                       .build();
     }
 
-    private SdkHttpFullRequest.Builder beforeRequest(Object originalRequest, SdkHttpFullRequest.Builder mutableRequest) {
+    private SdkHttpFullRequest.Builder beforeRequest(Object originalRequest, SdkHttpFullRequest.Builder mutableRequest,
+                                                     ExecutionAttributes executionAttributes) {
         mutableRequest.header("x-amz-glacier-version", "2012-06-01");
 
         //  "x-amz-content-sha256" header is required for sig v4 for some streaming operations
         mutableRequest.header("x-amz-content-sha256", "required");
 
+        if ((originalRequest instanceof UploadArchiveRequest || originalRequest instanceof UploadMultipartPartRequest)
+            && !mutableRequest.firstMatchingHeader(TREE_HASH_HEADER).isPresent()) {
+            // Computing both hashes here in one pass spares the signer from reading the payload again for the linear hash.
+            // Other payloads are left to the signer, and their tree hash to the caller.
+            RewindableContentUtils.readAndRewind(mutableRequest.content(), TreeHash::of).ifPresent(hash -> {
+                mutableRequest.header(TREE_HASH_HEADER, hash.treeHash());
+                executionAttributes.putAttribute(AwsExecutionAttributes.PRECOMPUTED_CONTENT_SHA256, hash.linearHash());
+            });
+        }
+
         if (originalRequest instanceof UploadMultipartPartRequest) {
             mutableRequest.firstMatchingHeader("Content-Range")
                           .ifPresent(range -> mutableRequest.header("Content-Length",
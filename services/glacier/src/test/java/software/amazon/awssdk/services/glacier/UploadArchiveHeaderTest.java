@@ -17,6 +17,7 @@ package software.amazon.awssdk.services.glacier;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.binaryEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
@@ -26,6 +27,8 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static software.amazon.awssdk.http.Headers.CONTENT_TYPE;
+import static software.amazon.awssdk.services.glacier.checksum.TreeHashTest.referenceTreeHash;
+import static software.amazon.awssdk.services.glacier.checksum.TreeHashTest.sha256;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import java.io.File;
@@ -33,6 +36,8 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -44,6 +49,7 @@ import software.amazon.awssdk.core.util.Mimetypes;
 import software.amazon.awssdk.services.glacier.model.ListVaultsRequest;
 import software.amazon.awssdk.services.glacier.model.UploadArchiveRequest;
 import software.amazon.awssdk.testutils.RandomTempFile;
+import software.amazon.awssdk.utils.BinaryUtils;
 
 public class UploadArchiveHeaderTest {
 
@@ -89,6 +95,49 @@ public class UploadArchiveHeaderTest {
         verify(postRequestedFor(anyUrl()).withHeader(CONTENT_TYPE, equalTo("text/tab-separated-values")));
     }
 
+    @Test
+    public void uploadArchiveBytes_treeHashAndContentSha256AreComputed() throws Exception {
+        stubFor(any(urlMatching(".*"))
+                    .willReturn(aResponse()
+                                    .withStatus(200)
+                                    .withBody("{}")));
+        byte[] payload = new byte[3 * 1024 * 1024 + 7];
+        new Random(0).nextBytes(payload);
+
+        glacier.uploadArchive(request, RequestBody.of(payload));
+
+        verify(postRequestedFor(anyUrl()).withHeader("x-amz-sha256-tree-hash", equalTo(referenceTreeHash(payload)))
+                                         .withHeader("x-amz-content-sha256", equalTo(BinaryUtils.toHex(sha256(payload)))));
+    }
+
+    @Test
+    public void uploadArchiveFile_treeHashIsComputedAndFileIsStillSent() throws Exception {
+        stubFor(any(urlMatching(".*"))
+                    .willReturn(aResponse()
+                                    .withStatus(200)
+                                    .withBody("{}")));
+        File file = new RandomTempFile("test.bin", 2 * 1024 * 1024 + 1);
+        byte[] payload = Files.readAllBytes(file.toPath());
+
+        glacier.uploadArchive(request, RequestBody.of(file));
+        file.delete();
+
+        verify(postRequestedFor(anyUrl()).withHeader("x-amz-sha256-tree-hash", equalTo(referenceTreeHash(payload)))
+                                         .withRequestBody(binaryEqualTo(payload)));
+    }
+
+    @Test
+    public void uploadArchive_providedTreeHashIsNotOverridden() {
+        stubFor(any(urlMatching(".*"))
+                    .willReturn(aResponse()
+                                    .withStatus(200)
+                                    .withBody("{}")));
+
+        glacier.uploadArchive(request.toBuilder().checksum("provided").build(), RequestBody.of("test".getBytes()));
+
+        verify(postRequestedFor(anyUrl()).withHeader("x-amz-sha256-tree-hash", equalTo("provided")));
+    }
+
     @Test
     public void uploadArchiveFile_contentTypeShouldNotBeOverrideIfSet() throws IOException {
         stubFor(any(urlMatching(".*"))
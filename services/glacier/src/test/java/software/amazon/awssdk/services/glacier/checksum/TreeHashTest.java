@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.glacier.checksum;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import software.amazon.awssdk.core.async.AsyncRequestProvider;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+public class TreeHashTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    public void emptyPayload_HashesToTheHashOfNoBytes() throws Exception {
+        TreeHash hash = TreeHash.of(ByteBuffer.allocate(0));
+
+        String emptySha256 = BinaryUtils.toHex(sha256(new byte[0]));
+        assertThat(hash.treeHash()).isEqualTo(emptySha256);
+        assertThat(hash.linearHash()).isEqualTo(emptySha256);
+    }
+
+    @Test
+    public void payloadSmallerThanALeaf_TreeHashIsTheLinearHash() throws Exception {
+        byte[] payload = randomBytes(MB - 1);
+
+        TreeHash hash = TreeHash.of(new ByteArrayInputStream(payload));
+
+        assertThat(hash.treeHash()).isEqualTo(BinaryUtils.toHex(sha256(payload)));
+        assertThat(hash.linearHash()).isEqualTo(BinaryUtils.toHex(sha256(payload)));
+    }
+
+    @Test
+    public void multiLeafPayload_MatchesTheReferenceTreeHash() throws Exception {
+        for (int length : new int[] {MB, 2 * MB, 3 * MB + 17, 7 * MB, 21 * MB + 1}) {
+            byte[] payload = randomBytes(length);
+
+            TreeHash hash = TreeHash.of(new ByteArrayInputStream(payload));
+
+            assertThat(hash.treeHash()).as("length %s", length).isEqualTo(referenceTreeHash(payload));
+            assertThat(hash.linearHash()).as("length %s", length).isEqualTo(BinaryUtils.toHex(sha256(payload)));
+        }
+    }
+
+    @Test
+    public void byteBuffer_IsHashedWithoutMovingItsPosition() throws Exception {
+        byte[] payload = randomBytes(3 * MB + 5);
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+
+        TreeHash hash = TreeHash.of(buffer);
+
+        assertThat(buffer.position()).isEqualTo(0);
+        assertThat(hash.treeHash()).isEqualTo(referenceTreeHash(payload));
+    }
+
+    @Test
+    public void asyncRequestProvider_IsHashedAsItPublishes() throws Exception {
+        byte[] payload = randomBytes(5 * MB + 3);
+        Path file = Files.createTempFile("tree-hash", ".bin");
+        Files.write(file, payload);
+
+        TreeHash hash;
+        try {
+            hash = TreeHash.of(AsyncRequestProvider.fromFile(file)).join();
+        } finally {
+            Files.delete(file);
+        }
+
+        assertThat(hash.treeHash()).isEqualTo(referenceTreeHash(payload));
+        assertThat(hash.linearHash()).isEqualTo(BinaryUtils.toHex(sha256(payload)));
+    }
+
+    public static String referenceTreeHash(byte[] payload) throws Exception {
+        List<byte[]> hashes = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += MB) {
+            hashes.add(sha256(Arrays.copyOfRange(payload, offset, Math.min(payload.length, offset + MB))));
+        }
+        while (hashes.size() > 1) {
+            List<byte[]> parents = new ArrayList<>();
+            for (int i = 0; i < hashes.size(); i += 2) {
+                if (i + 1 == hashes.size()) {
+                    parents.add(hashes.get(i));
+                } else {
+                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                    digest.update(hashes.get(i));
+                    digest.update(hashes.get(i + 1));
+                    parents.add(digest.digest());
+                }
+            }
+            hashes = parents;
+        }
+        return BinaryUtils.toHex(hashes.get(0));
+    }
+
+    public static byte[] sha256(byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(bytes);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,915 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.producer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.producer.internal.RecordAggregator;
+import software.amazon.awssdk.services.kinesis.producer.internal.ShardMap;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Puts records into a Kinesis stream with {@code PutRecords} requests, retrying the records Kinesis fails to put.
+ *
+ * <p>Records are buffered per shard, using the hash key ranges returned by {@code DescribeStream}, and sent in requests of up
+ * to 500 records and 5 MB, the limits of {@code PutRecords}. A request is sent as soon as the buffered records fill one, or
+ * {@link Builder#maxBatchOpenTime(Duration)} after a record was added to an empty buffer, and up to
+ * {@link Builder#maxConcurrentRequests(Integer)} requests are in flight at once. Records failed by Kinesis, because their shard
+ * exceeded its provisioned throughput or because of an internal failure, are sent again after a jittered exponential backoff.
+ * </p>
+ *
+ * <p>Unless {@link Builder#shardRateLimitEnabled(Boolean)} is disabled, records are only sent as fast as a shard accepts
+ * them, 1,000 records and 1 MB per second, so that a busy shard does not fail most of the records sent to it. A shard that
+ * still fails records for exceeding its throughput is not sent to again until its rate allows.</p>
+ *
+ * <p>With {@link Builder#aggregationEnabled(Boolean)}, the records buffered for a shard are packed into Kinesis records of up to
+ * 1 MB, in the aggregated record format of the Kinesis Producer Library, so that many small records count as one against
+ * the limits of the shard. Consumers using the Kinesis Client Library de-aggregate the records transparently; other consumers
+ * have to de-aggregate them.</p>
+ *
+ * <pre class="brush: java">
+ * try (KinesisProducer producer = KinesisProducer.builder()
+ *                                                .client(KinesisAsyncClient.create())
+ *                                                .streamName("my-stream")
+ *                                                .aggregationEnabled(true)
+ *                                                .build()) {
+ *     for (Event event : events) {
+ *         producer.put(event.userId(), event.toByteBuffer());
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Records waiting to be put, buffered or in flight, are bounded by {@link Builder#maxBufferedRecords(Integer)} and
+ * {@link Builder#maxBufferedBytes(Long)}. When either is reached, for example because the stream cannot keep up, the future
+ * returned by {@code put} fails right away, so that the caller can slow down instead of exhausting the memory.</p>
+ *
+ * <p>The producer does not own the client: closing it waits for the pending records, but does not close the client.</p>
+ */
+public final class KinesisProducer implements SdkAutoCloseable {
+
+    private static final Logger log = Logger.loggerFor(KinesisProducer.class);
+
+    private static final int MAX_RECORDS_PER_REQUEST = 500;
+    private static final long MAX_BYTES_PER_REQUEST = 5L * 1024 * 1024;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+    private static final int SHARD_RECORDS_PER_SECOND = 1000;
+    private static final int SHARD_BYTES_PER_SECOND = 1024 * 1024;
+    private static final String THROUGHPUT_EXCEEDED = "ProvisionedThroughputExceededException";
+
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    private static final Duration DEFAULT_MAX_BATCH_OPEN_TIME = Duration.ofMillis(100);
+    private static final int DEFAULT_MAX_RETRIES = 10;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(20);
+    private static final int DEFAULT_MAX_BUFFERED_RECORDS = 100_000;
+    private static final long DEFAULT_MAX_BUFFERED_BYTES = 256L * 1024 * 1024;
+
+    private final KinesisAsyncClient client;
+    private final String streamName;
+    private final int maxConcurrentRequests;
+    private final long maxBatchOpenNanos;
+    private final int maxRetries;
+    private final int maxBufferedRecords;
+    private final long maxBufferedBytes;
+    private final BackoffStrategy backoffStrategy;
+    private final boolean aggregationEnabled;
+    private final boolean shardRateLimitEnabled;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Set<CompletableFuture<PutRecordsResultEntry>> pendingRecords = ConcurrentHashMap.newKeySet();
+
+    private ShardMap shardMap;
+    private boolean loadingShardMap;
+    private final List<UserRecord> unroutedRecords = new ArrayList<>();
+    private final Map<String, ShardQueue> shardQueues = new HashMap<>();
+    private final List<ShardQueue> shardOrder = new ArrayList<>();
+    private int nextShard;
+    private int bufferedRecords;
+    private long bufferedBytes;
+    private int pendingRecordCount;
+    private long pendingBytes;
+    private long sendDeadlineNanos;
+    private boolean flushing;
+    private int requestsInFlight;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpNanos;
+
+    private KinesisProducer(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.streamName = Validate.paramNotNull(builder.streamName, "streamName");
+        this.maxConcurrentRequests = builder.maxConcurrentRequests == null ? DEFAULT_MAX_CONCURRENT_REQUESTS
+                                                                           : builder.maxConcurrentRequests;
+        Duration maxBatchOpenTime = builder.maxBatchOpenTime == null ? DEFAULT_MAX_BATCH_OPEN_TIME : builder.maxBatchOpenTime;
+        this.maxRetries = builder.maxRetries == null ? DEFAULT_MAX_RETRIES : builder.maxRetries;
+        this.maxBufferedRecords = builder.maxBufferedRecords == null ? DEFAULT_MAX_BUFFERED_RECORDS : builder.maxBufferedRecords;
+        this.maxBufferedBytes = builder.maxBufferedBytes == null ? DEFAULT_MAX_BUFFERED_BYTES : builder.maxBufferedBytes;
+        Validate.isPositive(maxConcurrentRequests, "maxConcurrentRequests");
+        Validate.isNotNegative(maxBatchOpenTime, "maxBatchOpenTime");
+        Validate.isNotNegative(maxRetries, "maxRetries");
+        Validate.isPositive(maxBufferedRecords, "maxBufferedRecords");
+        Validate.isTrue(maxBufferedBytes > 0, "maxBufferedBytes must be positive.");
+        this.maxBatchOpenNanos = maxBatchOpenTime.toNanos();
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy : defaultBackoffStrategy(maxRetries);
+        this.aggregationEnabled = Boolean.TRUE.equals(builder.aggregationEnabled);
+        this.shardRateLimitEnabled = !Boolean.FALSE.equals(builder.shardRateLimitEnabled);
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("kinesis-producer").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy(int maxRetries) {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(maxRetries)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link KinesisProducer}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Put a record into the stream.
+     *
+     * @param partitionKey The partition key of the record, which determines its shard.
+     * @param data The data of the record. It must not be modified until the returned future has completed.
+     * @return A future completed once the record has been put.
+     * @see #put(PutRecordsRequestEntry)
+     */
+    public CompletableFuture<PutRecordsResultEntry> put(String partitionKey, ByteBuffer data) {
+        return put(PutRecordsRequestEntry.builder().partitionKey(partitionKey).data(data).build());
+    }
+
+    /**
+     * Put a record into the stream.
+     *
+     * <p>The future is completed with the result of the Kinesis record that carried the record. When aggregation is enabled,
+     * several records may have been put as a single Kinesis record, and share its sequence number.</p>
+     *
+     * @param record The record.
+     * @return A future completed once the record has been put, or failed if the record could not be put after the maximum
+     * number of retries. It fails right away if the maximum number of records or bytes waiting to be put is reached.
+     */
+    public CompletableFuture<PutRecordsResultEntry> put(PutRecordsRequestEntry record) {
+        Validate.paramNotNull(record, "record");
+        Validate.paramNotNull(record.partitionKey(), "partitionKey");
+        Validate.paramNotNull(record.data(), "data");
+        UserRecord userRecord = new UserRecord(record);
+        Validate.isTrue(userRecord.size <= MAX_RECORD_BYTES, "The size of a record must not exceed %s bytes.", MAX_RECORD_BYTES);
+        synchronized (this) {
+            if (pendingRecordCount >= maxBufferedRecords || pendingBytes + userRecord.size > maxBufferedBytes) {
+                userRecord.result.completeExceptionally(new SdkClientException(String.format(
+                        "Unable to buffer the record, %s records of %s bytes in total are already waiting to be put.",
+                        pendingRecordCount, pendingBytes)));
+                return userRecord.result;
+            }
+            pendingRecordCount++;
+            pendingBytes += userRecord.size;
+        }
+        pendingRecords.add(userRecord.result);
+        userRecord.result.whenComplete((r, t) -> {
+            pendingRecords.remove(userRecord.result);
+            synchronized (this) {
+                pendingRecordCount--;
+                pendingBytes -= userRecord.size;
+            }
+        });
+        boolean loadShardMap;
+        synchronized (this) {
+            buffer(userRecord, false);
+            loadShardMap = startLoadingShardMap();
+        }
+        if (loadShardMap) {
+            loadShardMap();
+        }
+        sendReadyRecords();
+        return userRecord.result;
+    }
+
+    /**
+     * Send all buffered records without waiting for requests to fill up.
+     *
+     * @return A future completed once all the records added so far have been put or failed.
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<?>[] records = pendingRecords.toArray(new CompletableFuture<?>[0]);
+        synchronized (this) {
+            flushing = bufferedRecords > 0;
+        }
+        sendReadyRecords();
+        return CompletableFuture.allOf(records).handle((r, t) -> null);
+    }
+
+    /**
+     * Send all buffered records, wait for all the pending records to complete and release the resources of this producer. The
+     * client is not closed.
+     */
+    @Override
+    public void close() {
+        try {
+            flush().join();
+        } finally {
+            if (ownsScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Add a record to the buffer of its shard. Must be called holding the lock.
+     */
+    private void buffer(UserRecord record, boolean first) {
+        if (bufferedRecords == 0) {
+            sendDeadlineNanos = System.nanoTime() + maxBatchOpenNanos;
+        }
+        bufferedRecords++;
+        bufferedBytes += record.size;
+        if (shardMap == null) {
+            unroutedRecords.add(record);
+            return;
+        }
+        ShardQueue queue = shardQueues.get(shardMap.shardFor(record.hashKey));
+        if (first) {
+            queue.records.addFirst(record);
+        } else {
+            queue.records.addLast(record);
+        }
+    }
+
+    /**
+     * Check whether the shard map needs to be loaded and, if so, mark it as loading. Must be called holding the lock.
+     */
+    private boolean startLoadingShardMap() {
+        if (shardMap != null || loadingShardMap) {
+            return false;
+        }
+        loadingShardMap = true;
+        return true;
+    }
+
+    private void loadShardMap() {
+        CompletableFuture<ShardMap> loaded;
+        try {
+            loaded = ShardMap.load(client, streamName);
+        } catch (RuntimeException e) {
+            loaded = new CompletableFuture<>();
+            loaded.completeExceptionally(e);
+        }
+        loaded.whenComplete((map, t) -> {
+            List<UserRecord> failed = new ArrayList<>();
+            synchronized (this) {
+                loadingShardMap = false;
+                if (map != null) {
+                    route(map);
+                } else if (shardMap == null) {
+                    failed.addAll(unroutedRecords);
+                    unroutedRecords.clear();
+                    bufferedRecords = 0;
+                    bufferedBytes = 0;
+                }
+            }
+            if (t != null) {
+                log.debug(() -> "Unable to describe the shards of stream " + streamName, t);
+                SdkClientException exception = new SdkClientException(
+                        String.format("Unable to describe the shards of stream %s.", streamName), t);
+                failed.forEach(r -> r.result.completeExceptionally(exception));
+            }
+            sendReadyRecords();
+        });
+    }
+
+    /**
+     * Use a new shard map, moving the buffered records to the queues of their new shards. The send rate of the shards that are
+     * still open is kept. Must be called holding the lock.
+     */
+    private void route(ShardMap map) {
+        List<UserRecord> records = new ArrayList<>(unroutedRecords);
+        unroutedRecords.clear();
+        shardOrder.forEach(q -> records.addAll(q.records));
+        Map<String, ShardQueue> previous = new HashMap<>(shardQueues);
+        shardQueues.clear();
+        shardOrder.clear();
+        for (String shardId : map.shardIds()) {
+            ShardQueue queue = previous.get(shardId);
+            if (queue == null) {
+                queue = new ShardQueue(shardId);
+            }
+            queue.records.clear();
+            shardQueues.put(shardId, queue);
+            shardOrder.add(queue);
+        }
+        shardMap = map;
+        nextShard = 0;
+        records.forEach(r -> shardQueues.get(map.shardFor(r.hashKey)).records.addLast(r));
+    }
+
+    /**
+     * Send requests while there are buffered records ready to be sent and fewer than the maximum number of requests in flight.
+     * The requests are sent outside the lock, as the client may complete them on the calling thread.
+     */
+    private void sendReadyRecords() {
+        while (true) {
+            List<KinesisRecord> batch;
+            synchronized (this) {
+                if (requestsInFlight >= maxConcurrentRequests || shardMap == null || bufferedRecords == 0) {
+                    return;
+                }
+                long now = System.nanoTime();
+                boolean full = bufferedBytes >= MAX_BYTES_PER_REQUEST
+                               || !aggregationEnabled && bufferedRecords >= MAX_RECORDS_PER_REQUEST;
+                if (!full && !flushing && now - sendDeadlineNanos < 0) {
+                    scheduleWakeUp(now, sendDeadlineNanos);
+                    return;
+                }
+                long[] throttledUntil = {Long.MAX_VALUE};
+                batch = takeBatch(now, throttledUntil);
+                if (bufferedRecords == 0) {
+                    flushing = false;
+                } else if (!flushing) {
+                    sendDeadlineNanos = now + maxBatchOpenNanos;
+                }
+                if (batch.isEmpty()) {
+                    scheduleWakeUp(now, throttledUntil[0]);
+                    return;
+                }
+                requestsInFlight++;
+            }
+            send(batch);
+        }
+    }
+
+    /**
+     * Take the records of the next request from the shard queues, one Kinesis record from each shard in turn so that a busy
+     * shard does not delay the others. Must be called holding the lock.
+     */
+    private List<KinesisRecord> takeBatch(long now, long[] throttledUntil) {
+        List<KinesisRecord> batch = new ArrayList<>();
+        if (shardOrder.isEmpty()) {
+            return batch;
+        }
+        long batchBytes = 0;
+        boolean progress = true;
+        while (progress && batch.size() < MAX_RECORDS_PER_REQUEST) {
+            progress = false;
+            for (int i = 0; i < shardOrder.size() && batch.size() < MAX_RECORDS_PER_REQUEST; i++) {
+                ShardQueue queue = shardOrder.get((nextShard + i) % shardOrder.size());
+                KinesisRecord record = queue.nextRecord(now, MAX_BYTES_PER_REQUEST - batchBytes, throttledUntil);
+                if (record != null) {
+                    batch.add(record);
+                    batchBytes += record.size;
+                    bufferedRecords -= record.userRecords.size();
+                    record.userRecords.forEach(r -> bufferedBytes -= r.size);
+                    progress = true;
+                }
+            }
+        }
+        nextShard = (nextShard + 1) % shardOrder.size();
+        return batch;
+    }
+
+    /**
+     * Make sure the buffered records are looked at again at the given time. Must be called holding the lock.
+     */
+    private void scheduleWakeUp(long now, long atNanos) {
+        if (atNanos == Long.MAX_VALUE || wakeUp != null && wakeUpNanos - atNanos <= 0) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpNanos = atNanos;
+        wakeUp = scheduler.schedule(() -> {
+            synchronized (this) {
+                wakeUp = null;
+            }
+            sendReadyRecords();
+        }, Math.max(0, atNanos - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void send(List<KinesisRecord> batch) {
+        List<PutRecordsRequestEntry> entries = new ArrayList<>(batch.size());
+        batch.forEach(r -> entries.add(r.entry));
+        PutRecordsRequest request = PutRecordsRequest.builder().streamName(streamName).records(entries).build();
+        CompletableFuture<PutRecordsResponse> response;
+        try {
+            response = client.putRecords(request);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((r, t) -> {
+            try {
+                if (t != null) {
+                    batch.forEach(record -> record.userRecords.forEach(u -> u.result.completeExceptionally(t)));
+                } else {
+                    complete(batch, r);
+                }
+            } catch (RuntimeException e) {
+                batch.forEach(record -> record.userRecords.forEach(u -> u.result.completeExceptionally(e)));
+            } finally {
+                synchronized (this) {
+                    requestsInFlight--;
+                }
+                sendReadyRecords();
+            }
+        });
+    }
+
+    /**
+     * Complete the records of a sent request, and schedule the retry of the records Kinesis failed to put.
+     */
+    private void complete(List<KinesisRecord> batch, PutRecordsResponse response) {
+        List<PutRecordsResultEntry> results = response.records();
+        Validate.validState(results != null && results.size() == batch.size(),
+                            "PutRecords returned %s results for %s records.", results == null ? 0 : results.size(), batch.size());
+        boolean shardMapOutdated = false;
+        List<UserRecord> retries = new ArrayList<>();
+        int retriesAttempted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            KinesisRecord record = batch.get(i);
+            PutRecordsResultEntry result = results.get(i);
+            if (result.errorCode() == null) {
+                shardMapOutdated |= result.shardId() != null && !result.shardId().equals(record.shardQueue.shardId);
+                record.userRecords.forEach(u -> u.result.complete(result));
+                continue;
+            }
+            if (THROUGHPUT_EXCEEDED.equals(result.errorCode())) {
+                synchronized (this) {
+                    record.shardQueue.throttled(System.nanoTime());
+                }
+            }
+            for (UserRecord userRecord : record.userRecords) {
+                if (userRecord.retriesAttempted >= maxRetries) {
+                    userRecord.result.completeExceptionally(new SdkClientException(
+                            String.format("Record could not be put after %s retries: %s: %s", userRecord.retriesAttempted,
+                                          result.errorCode(), result.errorMessage())));
+                } else {
+                    retriesAttempted = Math.max(retriesAttempted, userRecord.retriesAttempted);
+                    userRecord.retriesAttempted++;
+                    retries.add(userRecord);
+                }
+            }
+        }
+        if (shardMapOutdated) {
+            refreshShardMap();
+        }
+        if (retries.isEmpty()) {
+            return;
+        }
+
+        Duration delay = backoffStrategy.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                                                                                        .retriesAttempted(retriesAttempted)
+                                                                                        .build());
+        log.debug(() -> String.format("Retrying %s failed records of stream %s in %s ms.", retries.size(), streamName,
+                                      delay.toMillis()));
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                for (int i = retries.size() - 1; i >= 0; i--) {
+                    buffer(retries.get(i), true);
+                }
+                // Retried records have waited long enough, they are sent without waiting for more records.
+                sendDeadlineNanos = System.nanoTime();
+            }
+            sendReadyRecords();
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Describe the shards of the stream again, after Kinesis put a record into another shard than expected because the stream
+     * was resharded.
+     */
+    private void refreshShardMap() {
+        synchronized (this) {
+            if (loadingShardMap) {
+                return;
+            }
+            loadingShardMap = true;
+        }
+        log.debug(() -> "Describing the shards of stream " + streamName + " again, as it was resharded.");
+        loadShardMap();
+    }
+
+    /**
+     * The records buffered for a shard, and the rate at which they can be sent.
+     */
+    private final class ShardQueue {
+        private final String shardId;
+        private final Deque<UserRecord> records = new ArrayDeque<>();
+        private double recordAllowance = SHARD_RECORDS_PER_SECOND;
+        private double byteAllowance = SHARD_BYTES_PER_SECOND;
+        private long refilledNanos = System.nanoTime();
+
+        private ShardQueue(String shardId) {
+            this.shardId = shardId;
+        }
+
+        /**
+         * Take the next Kinesis record to send to this shard, aggregating the records at the head of the queue if aggregation
+         * is enabled.
+         *
+         * @return The record, or null if the queue is empty, if the record does not fit in the remaining bytes of the request
+         * or if the shard cannot accept it yet, in which case the time it can is stored into {@code throttledUntil}.
+         */
+        private KinesisRecord nextRecord(long now, long remainingBytes, long[] throttledUntil) {
+            UserRecord head = records.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            long maxBytes = Math.min(MAX_RECORD_BYTES, remainingBytes);
+            if (head.size > maxBytes) {
+                return null;
+            }
+            int count = 1;
+            int size = head.size;
+            RecordAggregator aggregator = null;
+            if (aggregationEnabled && records.size() > 1) {
+                aggregator = new RecordAggregator();
+                for (UserRecord record : records) {
+                    PutRecordsRequestEntry entry = record.entry;
+                    int aggregatedSize = aggregator.encodedSizeWith(entry.partitionKey(), entry.explicitHashKey(), entry.data())
+                                         + head.partitionKeySize;
+                    if (aggregator.size() > 0 && aggregatedSize > maxBytes) {
+                        break;
+                    }
+                    aggregator.add(entry.partitionKey(), entry.explicitHashKey(), entry.data());
+                    if (aggregator.size() > 1) {
+                        size = aggregatedSize;
+                    }
+                }
+                count = aggregator.size();
+            }
+            if (!tryAcquire(now, size, throttledUntil)) {
+                return null;
+            }
+            List<UserRecord> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                taken.add(records.pollFirst());
+            }
+            if (count == 1) {
+                return new KinesisRecord(this, taken, head.entry, head.size);
+            }
+            PutRecordsRequestEntry entry = PutRecordsRequestEntry.builder()
+                                                                 .partitionKey(head.entry.partitionKey())
+                                                                 .explicitHashKey(head.hashKey.toString())
+                                                                 .data(aggregator.encode())
+                                                                 .build();
+            return new KinesisRecord(this, taken, entry, size);
+        }
+
+        private boolean tryAcquire(long now, int bytes, long[] throttledUntil) {
+            if (!shardRateLimitEnabled) {
+                return true;
+            }
+            double elapsedSeconds = (now - refilledNanos) / 1e9;
+            refilledNanos = now;
+            recordAllowance = Math.min(SHARD_RECORDS_PER_SECOND, recordAllowance + elapsedSeconds * SHARD_RECORDS_PER_SECOND);
+            byteAllowance = Math.min(SHARD_BYTES_PER_SECOND, byteAllowance + elapsedSeconds * SHARD_BYTES_PER_SECOND);
+            if (recordAllowance >= 1 && byteAllowance >= bytes) {
+                recordAllowance--;
+                byteAllowance -= bytes;
+                return true;
+            }
+            double waitSeconds = Math.max((1 - recordAllowance) / SHARD_RECORDS_PER_SECOND,
+                                          (bytes - byteAllowance) / SHARD_BYTES_PER_SECOND);
+            throttledUntil[0] = Math.min(throttledUntil[0], now + (long) Math.ceil(waitSeconds * 1e9));
+            return false;
+        }
+
+        /**
+         * Stop sending to this shard until a full second of its throughput is available again, after it failed records for
+         * exceeding it.
+         */
+        private void throttled(long now) {
+            refilledNanos = now;
+            recordAllowance = 0;
+            byteAllowance = 0;
+        }
+    }
+
+    private static final class UserRecord {
+        private final PutRecordsRequestEntry entry;
+        private final BigInteger hashKey;
+        private final int partitionKeySize;
+        private final int size;
+        private final CompletableFuture<PutRecordsResultEntry> result = new CompletableFuture<>();
+        private int retriesAttempted;
+
+        private UserRecord(PutRecordsRequestEntry entry) {
+            this.entry = entry;
+            this.hashKey = ShardMap.hashKey(entry.partitionKey(), entry.explicitHashKey());
+            this.partitionKeySize = entry.partitionKey().getBytes(UTF_8).length;
+            this.size = partitionKeySize + entry.data().remaining();
+        }
+    }
+
+    private static final class KinesisRecord {
+        private final ShardQueue shardQueue;
+        private final List<UserRecord> userRecords;
+        private final PutRecordsRequestEntry entry;
+        private final int size;
+
+        private KinesisRecord(ShardQueue shardQueue, List<UserRecord> userRecords, PutRecordsRequestEntry entry, int size) {
+            this.shardQueue = shardQueue;
+            this.userRecords = userRecords;
+            this.entry = entry;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A builder for {@link KinesisProducer}.
+     */
+    public interface Builder extends SdkBuilder<Builder, KinesisProducer> {
+
+        /**
+         * Sets the client the {@code DescribeStream} and {@code PutRecords} requests are sent with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(KinesisAsyncClient client);
+
+        /**
+         * Sets the name of the stream the records are put into. Required.
+         *
+         * @param streamName The name of the stream.
+         * @return This builder for method chaining.
+         */
+        Builder streamName(String streamName);
+
+        /**
+         * Sets the maximum number of {@code PutRecords} requests in flight at once.
+         *
+         * <p>The default is 8 requests.</p>
+         *
+         * @param maxConcurrentRequests New maximum number of requests.
+         * @return This builder for method chaining.
+         */
+        Builder maxConcurrentRequests(Integer maxConcurrentRequests);
+
+        /**
+         * Sets the maximum time records are buffered to fill up a request, which is the maximum latency added to a record by
+         * batching when its shard is not busy.
+         *
+         * <p>The default is 100 milliseconds.</p>
+         *
+         * @param maxBatchOpenTime New maximum time.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchOpenTime(Duration maxBatchOpenTime);
+
+        /**
+         * Sets the maximum number of times a record failed by Kinesis is sent again before its future is failed.
+         *
+         * <p>The default is 10 retries.</p>
+         *
+         * @param maxRetries New maximum number of retries.
+         * @return This builder for method chaining.
+         */
+        Builder maxRetries(Integer maxRetries);
+
+        /**
+         * Sets the strategy computing the delay before failed records are sent again.
+         *
+         * <p>The default is a {@link FullJitterBackoffStrategy} with a base delay of 100 milliseconds and a maximum delay of
+         * 20 seconds.</p>
+         *
+         * @param backoffStrategy New backoff strategy.
+         * @return This builder for method chaining.
+         */
+        Builder backoffStrategy(BackoffStrategy backoffStrategy);
+
+        /**
+         * Sets whether the records buffered for a shard are packed into aggregated Kinesis records, in the format of the
+         * Kinesis Producer Library. Consumers have to de-aggregate the records, which the Kinesis Client Library does.
+         *
+         * <p>Aggregation is disabled by default.</p>
+         *
+         * @param aggregationEnabled Whether records are aggregated.
+         * @return This builder for method chaining.
+         */
+        Builder aggregationEnabled(Boolean aggregationEnabled);
+
+        /**
+         * Sets whether records are sent no faster than a shard accepts them, 1,000 records and 1 MB per second. This should
+         * be disabled when other producers write into the same shards, as their records are not accounted for.
+         *
+         * <p>The rate limit is enabled by default.</p>
+         *
+         * @param shardRateLimitEnabled Whether the send rate of each shard is limited.
+         * @return This builder for method chaining.
+         */
+        Builder shardRateLimitEnabled(Boolean shardRateLimitEnabled);
+
+        /**
+         * Sets the maximum number of records waiting to be put, buffered or in flight, above which {@code put} fails.
+         *
+         * <p>The default is 100,000 records.</p>
+         *
+         * @param maxBufferedRecords New maximum number of records.
+         * @return This builder for method chaining.
+         */
+        Builder maxBufferedRecords(Integer maxBufferedRecords);
+
+        /**
+         * Sets the maximum total size of the partition keys and data of the records waiting to be put, buffered or in flight,
+         * above which {@code put} fails.
+         *
+         * <p>The default is 256 MB.</p>
+         *
+         * @param maxBufferedBytes New maximum size in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder maxBufferedBytes(Long maxBufferedBytes);
+
+        /**
+         * Sets the executor used to send buffered records once their maximum batch open time has elapsed or their shard
+         * accepts them, and to retry failed records. It is not shut down when the producer is closed.
+         *
+         * <p>By default, the producer uses a single daemon thread of its own, which is stopped when the producer is
+         * closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private KinesisAsyncClient client;
+        private String streamName;
+        private Integer maxConcurrentRequests;
+        private Duration maxBatchOpenTime;
+        private Integer maxRetries;
+        private BackoffStrategy backoffStrategy;
+        private Boolean aggregationEnabled;
+        private Boolean shardRateLimitEnabled;
+        private Integer maxBufferedRecords;
+        private Long maxBufferedBytes;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(KinesisAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(KinesisAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder streamName(String streamName) {
+            this.streamName = streamName;
+            return this;
+        }
+
+        public void setStreamName(String streamName) {
+            streamName(streamName);
+        }
+
+        @Override
+        public Builder maxConcurrentRequests(Integer maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+            maxConcurrentRequests(maxConcurrentRequests);
+        }
+
+        @Override
+        public Builder maxBatchOpenTime(Duration maxBatchOpenTime) {
+            this.maxBatchOpenTime = maxBatchOpenTime;
+            return this;
+        }
+
+        public void setMaxBatchOpenTime(Duration maxBatchOpenTime) {
+            maxBatchOpenTime(maxBatchOpenTime);
+        }
+
+        @Override
+        public Builder maxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public void setMaxRetries(Integer maxRetries) {
+            maxRetries(maxRetries);
+        }
+
+        @Override
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+            backoffStrategy(backoffStrategy);
+        }
+
+        @Override
+        public Builder aggregationEnabled(Boolean aggregationEnabled) {
+            this.aggregationEnabled = aggregationEnabled;
+            return this;
+        }
+
+        public void setAggregationEnabled(Boolean aggregationEnabled) {
+            aggregationEnabled(aggregationEnabled);
+        }
+
+        @Override
+        public Builder shardRateLimitEnabled(Boolean shardRateLimitEnabled) {
+            this.shardRateLimitEnabled = shardRateLimitEnabled;
+            return this;
+        }
+
+        public void setShardRateLimitEnabled(Boolean shardRateLimitEnabled) {
+            shardRateLimitEnabled(shardRateLimitEnabled);
+        }
+
+        @Override
+        public Builder maxBufferedRecords(Integer maxBufferedRecords) {
+            this.maxBufferedRecords = maxBufferedRecords;
+            return this;
+        }
+
+        public void setMaxBufferedRecords(Integer maxBufferedRecords) {
+            maxBufferedRecords(maxBufferedRecords);
+        }
+
+        @Override
+        public Builder maxBufferedBytes(Long maxBufferedBytes) {
+            this.maxBufferedBytes = maxBufferedBytes;
+            return this;
+        }
+
+        public void setMaxBufferedBytes(Long maxBufferedBytes) {
+            maxBufferedBytes(maxBufferedBytes);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public KinesisProducer build() {
+            return new KinesisProducer(this);
+        }
+    }
+}
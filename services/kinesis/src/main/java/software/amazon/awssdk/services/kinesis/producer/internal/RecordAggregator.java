@@ -0,0 +1,218 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.producer.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.util.Md5Utils;
+
+/**
+ * Packs several user records into the data of a single Kinesis record, in the aggregated record format of the Kinesis Producer
+ * Library, which the Kinesis Client Library de-aggregates transparently.
+ *
+ * <p>The data of an aggregated record is a 4-byte magic number, followed by an {@code AggregatedRecord} protocol buffers
+ * message holding the tables of partition keys and explicit hash keys and the user records, followed by the MD5 digest of the
+ * message. The aggregator only tracks the size of the message as records are added; the message is written once, by
+ * {@link #encode()}.</p>
+ */
+@SdkInternalApi
+public final class RecordAggregator {
+
+    private static final byte[] MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+    private static final int DIGEST_LENGTH = 16;
+
+    private static final int PARTITION_KEY_TABLE_TAG = 1 << 3 | 2;
+    private static final int EXPLICIT_HASH_KEY_TABLE_TAG = 2 << 3 | 2;
+    private static final int RECORD_TAG = 3 << 3 | 2;
+    private static final int PARTITION_KEY_INDEX_TAG = 1 << 3;
+    private static final int EXPLICIT_HASH_KEY_INDEX_TAG = 2 << 3;
+    private static final int DATA_TAG = 3 << 3 | 2;
+
+    private final Map<String, Integer> partitionKeys = new LinkedHashMap<>();
+    private final Map<String, Integer> explicitHashKeys = new LinkedHashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private int messageSize;
+
+    /**
+     * @return The number of user records added to this aggregator.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The partition key of the first user record, used as the partition key of the aggregated record.
+     */
+    public String partitionKey() {
+        return entries.isEmpty() ? null : entries.get(0).partitionKey;
+    }
+
+    /**
+     * @return The size in bytes of the aggregated record data, as it would be returned by {@link #encode()}.
+     */
+    public int encodedSize() {
+        return MAGIC.length + messageSize + DIGEST_LENGTH;
+    }
+
+    /**
+     * Compute the size in bytes the aggregated record data would have if a user record was added.
+     *
+     * @param partitionKey The partition key of the user record.
+     * @param explicitHashKey The explicit hash key of the user record, or null.
+     * @param data The data of the user record.
+     * @return The size {@link #encodedSize()} would return after {@link #add(String, String, ByteBuffer)}.
+     */
+    public int encodedSizeWith(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        return encodedSize() + addedSize(partitionKey, explicitHashKey, data);
+    }
+
+    /**
+     * Add a user record.
+     *
+     * @param partitionKey The partition key of the user record.
+     * @param explicitHashKey The explicit hash key of the user record, or null.
+     * @param data The data of the user record.
+     */
+    public void add(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        messageSize += addedSize(partitionKey, explicitHashKey, data);
+        int partitionKeyIndex = partitionKeys.computeIfAbsent(partitionKey, k -> partitionKeys.size());
+        int explicitHashKeyIndex = explicitHashKey == null
+                                   ? -1 : explicitHashKeys.computeIfAbsent(explicitHashKey, k -> explicitHashKeys.size());
+        entries.add(new Entry(partitionKey, partitionKeyIndex, explicitHashKeyIndex, data));
+    }
+
+    /**
+     * @return The data of the aggregated record.
+     */
+    public ByteBuffer encode() {
+        byte[] encoded = new byte[encodedSize()];
+        System.arraycopy(MAGIC, 0, encoded, 0, MAGIC.length);
+        Writer writer = new Writer(encoded, MAGIC.length);
+        partitionKeys.keySet().forEach(k -> writer.bytesField(PARTITION_KEY_TABLE_TAG, k.getBytes(UTF_8)));
+        explicitHashKeys.keySet().forEach(k -> writer.bytesField(EXPLICIT_HASH_KEY_TABLE_TAG, k.getBytes(UTF_8)));
+        for (Entry entry : entries) {
+            writer.varint(RECORD_TAG);
+            writer.varint(recordSize(entry.partitionKeyIndex, entry.explicitHashKeyIndex, entry.data.remaining()));
+            writer.varint(PARTITION_KEY_INDEX_TAG);
+            writer.varint(entry.partitionKeyIndex);
+            if (entry.explicitHashKeyIndex >= 0) {
+                writer.varint(EXPLICIT_HASH_KEY_INDEX_TAG);
+                writer.varint(entry.explicitHashKeyIndex);
+            }
+            writer.varint(DATA_TAG);
+            writer.varint(entry.data.remaining());
+            writer.bytes(entry.data.duplicate());
+        }
+        byte[] message = new byte[messageSize];
+        System.arraycopy(encoded, MAGIC.length, message, 0, messageSize);
+        System.arraycopy(Md5Utils.computeMD5Hash(message), 0, encoded, MAGIC.length + messageSize, DIGEST_LENGTH);
+        return ByteBuffer.wrap(encoded);
+    }
+
+    private int addedSize(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        int size = 0;
+        Integer partitionKeyIndex = partitionKeys.get(partitionKey);
+        if (partitionKeyIndex == null) {
+            partitionKeyIndex = partitionKeys.size();
+            size += bytesFieldSize(partitionKey.getBytes(UTF_8).length);
+        }
+        int explicitHashKeyIndex = -1;
+        if (explicitHashKey != null) {
+            Integer index = explicitHashKeys.get(explicitHashKey);
+            if (index == null) {
+                index = explicitHashKeys.size();
+                size += bytesFieldSize(explicitHashKey.getBytes(UTF_8).length);
+            }
+            explicitHashKeyIndex = index;
+        }
+        return size + bytesFieldSize(recordSize(partitionKeyIndex, explicitHashKeyIndex, data.remaining()));
+    }
+
+    private static int recordSize(int partitionKeyIndex, int explicitHashKeyIndex, int dataLength) {
+        int size = 1 + varintSize(partitionKeyIndex) + bytesFieldSize(dataLength);
+        if (explicitHashKeyIndex >= 0) {
+            size += 1 + varintSize(explicitHashKeyIndex);
+        }
+        return size;
+    }
+
+    /**
+     * The size of a length-delimited field with a single-byte tag.
+     */
+    private static int bytesFieldSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Entry {
+        private final String partitionKey;
+        private final int partitionKeyIndex;
+        private final int explicitHashKeyIndex;
+        private final ByteBuffer data;
+
+        private Entry(String partitionKey, int partitionKeyIndex, int explicitHashKeyIndex, ByteBuffer data) {
+            this.partitionKey = partitionKey;
+            this.partitionKeyIndex = partitionKeyIndex;
+            this.explicitHashKeyIndex = explicitHashKeyIndex;
+            this.data = data;
+        }
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void bytesField(int tag, byte[] bytes) {
+            varint(tag);
+            varint(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void bytes(ByteBuffer bytes) {
+            int length = bytes.remaining();
+            bytes.get(buffer, position, length);
+            position += length;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.producer.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.util.Md5Utils;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.StreamDescription;
+
+/**
+ * The hash key ranges of the open shards of a stream, used to find the shard a record will be put into.
+ */
+@SdkInternalApi
+public final class ShardMap {
+
+    private final String[] shardIds;
+    private final BigInteger[] startingHashKeys;
+
+    ShardMap(List<Shard> shards) {
+        List<Shard> open = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (shard.sequenceNumberRange() == null || shard.sequenceNumberRange().endingSequenceNumber() == null) {
+                open.add(shard);
+            }
+        }
+        open.sort(Comparator.comparing(s -> new BigInteger(s.hashKeyRange().startingHashKey())));
+        this.shardIds = new String[open.size()];
+        this.startingHashKeys = new BigInteger[open.size()];
+        for (int i = 0; i < open.size(); i++) {
+            shardIds[i] = open.get(i).shardId();
+            startingHashKeys[i] = new BigInteger(open.get(i).hashKeyRange().startingHashKey());
+        }
+    }
+
+    /**
+     * Describe the shards of a stream and map their hash key ranges.
+     *
+     * @param client The client to describe the stream with.
+     * @param streamName The name of the stream.
+     * @return A future completed with the map of the open shards of the stream.
+     */
+    public static CompletableFuture<ShardMap> load(KinesisAsyncClient client, String streamName) {
+        return describeShards(client, streamName).thenApply(shards -> {
+            ShardMap shardMap = new ShardMap(shards);
+            if (shardMap.shardIds.length == 0) {
+                throw new SdkClientException(String.format("Stream %s has no open shards.", streamName));
+            }
+            return shardMap;
+        });
+    }
+
+    /**
+     * Describe all the shards of a stream, open or closed, following the pages of {@code DescribeStream}.
+     *
+     * @param client The client to describe the stream with.
+     * @param streamName The name of the stream.
+     * @return A future completed with the shards.
+     */
+    public static CompletableFuture<List<Shard>> describeShards(KinesisAsyncClient client, String streamName) {
+        List<Shard> shards = new ArrayList<>();
+        return describe(client, streamName, null, shards).thenApply(v -> shards);
+    }
+
+    private static CompletableFuture<Void> describe(KinesisAsyncClient client, String streamName, String exclusiveStartShardId,
+                                                    List<Shard> shards) {
+        DescribeStreamRequest request = DescribeStreamRequest.builder()
+                                                             .streamName(streamName)
+                                                             .exclusiveStartShardId(exclusiveStartShardId)
+                                                             .build();
+        return client.describeStream(request).thenCompose(r -> {
+            StreamDescription description = r.streamDescription();
+            shards.addAll(description.shards());
+            if (Boolean.TRUE.equals(description.hasMoreShards()) && !description.shards().isEmpty()) {
+                String lastShardId = description.shards().get(description.shards().size() - 1).shardId();
+                return describe(client, streamName, lastShardId, shards);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Compute the hash key Kinesis assigns to a record.
+     *
+     * @param partitionKey The partition key of the record.
+     * @param explicitHashKey The explicit hash key of the record, or null.
+     * @return The explicit hash key if there is one, otherwise the MD5 digest of the partition key.
+     */
+    public static BigInteger hashKey(String partitionKey, String explicitHashKey) {
+        if (explicitHashKey != null) {
+            return new BigInteger(explicitHashKey);
+        }
+        return new BigInteger(1, Md5Utils.computeMD5Hash(partitionKey.getBytes(UTF_8)));
+    }
+
+    /**
+     * @return The identifiers of the open shards, in the order of their hash key ranges.
+     */
+    public List<String> shardIds() {
+        return Collections.unmodifiableList(Arrays.asList(shardIds));
+    }
+
+    /**
+     * Find the open shard whose hash key range holds a hash key.
+     *
+     * @param hashKey The hash key of a record.
+     * @return The identifier of the shard, or of the closest shard if no range holds the key, which can only happen while
+     * the stream is being resharded.
+     */
+    public String shardFor(BigInteger hashKey) {
+        int low = 0;
+        int high = shardIds.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (startingHashKeys[middle].compareTo(hashKey) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return shardIds[low];
+    }
+}
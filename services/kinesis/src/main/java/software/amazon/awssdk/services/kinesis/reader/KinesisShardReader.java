@@ -0,0 +1,117 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.reader;
+
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.reader.internal.KinesisShardedStream;
+import software.amazon.awssdk.shard.AbstractShardReader;
+import software.amazon.awssdk.shard.ShardCheckpointer;
+import software.amazon.awssdk.utils.Validate;
+
+/**
+ * Reads all the shards of a Kinesis stream in parallel, publishing their records as the subscriber requests them.
+ *
+ * <p>Every shard is read with its own chain of {@code GetRecords} calls, at most 5 per second as allowed by Kinesis, ahead of
+ * the subscriber until {@link Builder#maxBufferedRecordsPerShard(Integer)} of its records are waiting to be delivered. The
+ * shards created by resharding are found as their parents are read to their end, and are only read once all the records of
+ * their parents have been delivered, so that the records of a partition key are delivered in order. Throttled calls are made
+ * again after a backoff, and expired shard iterators are replaced.</p>
+ *
+ * <pre class="brush: java">
+ * KinesisShardReader reader = KinesisShardReader.builder()
+ *                                               .client(KinesisAsyncClient.create())
+ *                                               .streamName("my-stream")
+ *                                               .checkpointer(myCheckpointer)
+ *                                               .build();
+ * reader.read().subscribe(mySubscriber);
+ * </pre>
+ *
+ * <p>Each record is delivered with the shard it was read from, and can be checkpointed once processed so that a reader
+ * started later with the same {@link ShardCheckpointer} resumes after it.</p>
+ *
+ * <p>The reader does not own the client: closing it stops the reads, but does not close the client.</p>
+ */
+public final class KinesisShardReader extends AbstractShardReader<Record> {
+
+    private KinesisShardReader(DefaultBuilder builder) {
+        super(builder,
+              new KinesisShardedStream(Validate.paramNotNull(builder.client, "client"),
+                                       Validate.paramNotNull(builder.streamName, "streamName")),
+              "kinesis-shard-reader");
+    }
+
+    /**
+     * @return Builder instance to construct a {@link KinesisShardReader}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * A builder for {@link KinesisShardReader}.
+     */
+    public interface Builder extends AbstractShardReader.Builder<Builder, KinesisShardReader> {
+
+        /**
+         * Sets the client the stream is read with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(KinesisAsyncClient client);
+
+        /**
+         * Sets the name of the stream to read. Required.
+         *
+         * @param streamName The name of the stream.
+         * @return This builder for method chaining.
+         */
+        Builder streamName(String streamName);
+    }
+
+    private static final class DefaultBuilder
+            extends AbstractShardReader.BuilderImpl<Builder, KinesisShardReader> implements Builder {
+
+        private KinesisAsyncClient client;
+        private String streamName;
+
+        @Override
+        public Builder client(KinesisAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(KinesisAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder streamName(String streamName) {
+            this.streamName = streamName;
+            return this;
+        }
+
+        public void setStreamName(String streamName) {
+            streamName(streamName);
+        }
+
+        @Override
+        public KinesisShardReader build() {
+            return new KinesisShardReader(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.reader.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.LimitExceededException;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.producer.internal.ShardMap;
+import software.amazon.awssdk.shard.InitialShardPosition;
+import software.amazon.awssdk.shard.ShardLineage;
+import software.amazon.awssdk.shard.ShardRecordsPage;
+import software.amazon.awssdk.shard.ShardedStream;
+
+/**
+ * A Kinesis stream, read with {@code DescribeStream}, {@code GetShardIterator} and {@code GetRecords}.
+ */
+@SdkInternalApi
+public final class KinesisShardedStream implements ShardedStream<Record> {
+
+    private final KinesisAsyncClient client;
+    private final String streamName;
+
+    public KinesisShardedStream(KinesisAsyncClient client, String streamName) {
+        this.client = client;
+        this.streamName = streamName;
+    }
+
+    @Override
+    public CompletableFuture<List<ShardLineage>> listShards() {
+        return ShardMap.describeShards(client, streamName).thenApply(shards -> {
+            List<ShardLineage> lineages = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                lineages.add(new ShardLineage(shard.shardId(), shard.parentShardId(), shard.adjacentParentShardId()));
+            }
+            return lineages;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> shardIterator(String shardId, String afterSequenceNumber,
+                                                   InitialShardPosition initialPosition) {
+        GetShardIteratorRequest.Builder request = GetShardIteratorRequest.builder().streamName(streamName).shardId(shardId);
+        if (afterSequenceNumber != null) {
+            request.shardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER).startingSequenceNumber(afterSequenceNumber);
+        } else if (initialPosition == InitialShardPosition.TRIM_HORIZON) {
+            request.shardIteratorType(ShardIteratorType.TRIM_HORIZON);
+        } else {
+            request.shardIteratorType(ShardIteratorType.LATEST);
+        }
+        return client.getShardIterator(request.build()).thenApply(GetShardIteratorResponse::shardIterator);
+    }
+
+    @Override
+    public CompletableFuture<ShardRecordsPage<Record>> getRecords(String shardIterator, Integer limit) {
+        GetRecordsRequest request = GetRecordsRequest.builder().shardIterator(shardIterator).limit(limit).build();
+        return client.getRecords(request).thenApply(r -> new ShardRecordsPage<>(r.records(), r.nextShardIterator()));
+    }
+
+    @Override
+    public String sequenceNumber(Record record) {
+        return record.sequenceNumber();
+    }
+
+    @Override
+    public boolean isExpiredIteratorException(Throwable exception) {
+        return exception instanceof ExpiredIteratorException;
+    }
+
+    @Override
+    public boolean isThrottlingException(Throwable exception) {
+        return exception instanceof LimitExceededException || ShardedStream.super.isThrottlingException(exception);
+    }
+}
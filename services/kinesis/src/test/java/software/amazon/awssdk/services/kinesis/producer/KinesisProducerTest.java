@@ -0,0 +1,286 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.StreamDescription;
+
+public class KinesisProducerTest {
+
+    private static final BigInteger SHARD_1_START = BigInteger.ONE.shiftLeft(127);
+    private static final String SHARD_0_KEY = "1";
+    private static final String SHARD_1_KEY = SHARD_1_START.add(BigInteger.ONE).toString();
+
+    private final List<PutRecordsRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private KinesisAsyncClient client;
+    private KinesisProducer producer;
+
+    @Before
+    public void setup() {
+        client = mock(KinesisAsyncClient.class);
+        StreamDescription description =
+                StreamDescription.builder()
+                                 .shards(shard("shard-0", BigInteger.ZERO, SHARD_1_START.subtract(BigInteger.ONE)),
+                                         shard("shard-1", SHARD_1_START, BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE)))
+                                 .hasMoreShards(false)
+                                 .build();
+        when(client.describeStream(any(DescribeStreamRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DescribeStreamResponse.builder()
+                                                                                    .streamDescription(description)
+                                                                                    .build()));
+    }
+
+    @After
+    public void tearDown() {
+        if (producer != null) {
+            producer.close();
+        }
+    }
+
+    @Test
+    public void recordsAreBatchedIntoPutRecordsRequests() {
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder());
+
+        List<CompletableFuture<PutRecordsResultEntry>> puts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            puts.add(producer.put(record(i % 2 == 0 ? SHARD_0_KEY : SHARD_1_KEY, i)));
+        }
+        assertThat(requests).isEmpty();
+
+        producer.flush().join();
+
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).streamName()).isEqualTo("stream");
+        assertThat(requests.get(0).records()).hasSize(3);
+        assertThat(puts.get(0).join().shardId()).isEqualTo("shard-0");
+        assertThat(puts.get(1).join().shardId()).isEqualTo("shard-1");
+        assertThat(puts.get(2).join().sequenceNumber()).isNotNull();
+    }
+
+    @Test
+    public void requestsHoldAtMost500Records() {
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder().shardRateLimitEnabled(false));
+
+        for (int i = 0; i < 1200; i++) {
+            producer.put(record(SHARD_0_KEY, i));
+        }
+        assertThat(requests).hasSize(2);
+
+        producer.flush().join();
+
+        assertThat(requests).extracting(r -> r.records().size()).containsExactly(500, 500, 200);
+    }
+
+    @Test
+    public void failedRecordsAreRetried() {
+        List<PutRecordsRequest> received = new ArrayList<>();
+        respond(r -> {
+            received.add(r);
+            if (received.size() > 1) {
+                return success(r);
+            }
+            List<PutRecordsResultEntry> results = new ArrayList<>(success(r).join().records());
+            results.set(1, failure("InternalFailure"));
+            return CompletableFuture.completedFuture(PutRecordsResponse.builder().failedRecordCount(1).records(results).build());
+        });
+        producer = producer(KinesisProducer.builder().backoffStrategy(c -> Duration.ZERO));
+
+        List<CompletableFuture<PutRecordsResultEntry>> puts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            puts.add(producer.put(record(SHARD_0_KEY, i)));
+        }
+        producer.flush().join();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).records()).containsExactly(requests.get(0).records().get(1));
+        puts.forEach(p -> assertThat(p.join().errorCode()).isNull());
+    }
+
+    @Test
+    public void recordsAreFailedAfterMaxRetries() {
+        respond(r -> {
+            List<PutRecordsResultEntry> results = new ArrayList<>();
+            r.records().forEach(e -> results.add(failure("ProvisionedThroughputExceededException")));
+            return CompletableFuture.completedFuture(PutRecordsResponse.builder().records(results).build());
+        });
+        producer = producer(KinesisProducer.builder()
+                                           .shardRateLimitEnabled(false)
+                                           .maxRetries(1)
+                                           .backoffStrategy(c -> Duration.ZERO));
+
+        CompletableFuture<PutRecordsResultEntry> put = producer.put(record(SHARD_0_KEY, 0));
+        producer.flush().join();
+
+        assertThat(requests).hasSize(2);
+        assertThatThrownBy(put::join).isInstanceOf(CompletionException.class)
+                                     .hasCauseInstanceOf(SdkClientException.class)
+                                     .hasMessageContaining("ProvisionedThroughputExceededException");
+    }
+
+    @Test
+    public void recordsOfAShardAreAggregated() {
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder().aggregationEnabled(true));
+
+        List<CompletableFuture<PutRecordsResultEntry>> puts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            puts.add(producer.put(record(SHARD_0_KEY, i)));
+        }
+        PutRecordsRequestEntry single = record(SHARD_1_KEY, 3);
+        CompletableFuture<PutRecordsResultEntry> singlePut = producer.put(single);
+        producer.flush().join();
+
+        assertThat(requests).hasSize(1);
+        List<PutRecordsRequestEntry> entries = requests.get(0).records();
+        assertThat(entries).hasSize(2);
+        PutRecordsRequestEntry aggregated = entries.stream().filter(e -> !e.equals(single)).findFirst().get();
+        assertThat(aggregated.explicitHashKey()).isEqualTo(SHARD_0_KEY);
+        assertThat(aggregated.data().get(0)).isEqualTo((byte) 0xF3);
+        assertThat(entries).contains(single);
+        assertThat(puts).extracting(CompletableFuture::join).containsOnly(puts.get(0).join());
+        assertThat(singlePut.join().shardId()).isEqualTo("shard-1");
+    }
+
+    @Test
+    public void recordsAreSentNoFasterThanTheirShardAcceptsThem() {
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder());
+
+        List<CompletableFuture<PutRecordsResultEntry>> puts = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            puts.add(producer.put(record(SHARD_0_KEY, i)));
+        }
+        producer.flush();
+
+        assertThat(sentRecords()).isBetween(1000, 1200);
+        CompletableFuture.allOf(puts.toArray(new CompletableFuture<?>[0])).join();
+        assertThat(sentRecords()).isEqualTo(1500);
+    }
+
+    @Test
+    public void recordsAreFailedWhenTheStreamCannotBeDescribed() {
+        CompletableFuture<DescribeStreamResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("no stream"));
+        when(client.describeStream(any(DescribeStreamRequest.class))).thenReturn(failed);
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder());
+
+        CompletableFuture<PutRecordsResultEntry> put = producer.put(record(SHARD_0_KEY, 0));
+
+        assertThatThrownBy(put::join).hasCauseInstanceOf(SdkClientException.class);
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    public void putFailsWhenMaxBufferedRecordsIsReached() {
+        respond(KinesisProducerTest::success);
+        producer = producer(KinesisProducer.builder().maxBufferedRecords(2));
+
+        CompletableFuture<PutRecordsResultEntry> first = producer.put(record(SHARD_0_KEY, 0));
+        producer.put(record(SHARD_1_KEY, 1));
+        CompletableFuture<PutRecordsResultEntry> rejected = producer.put(record(SHARD_0_KEY, 2));
+
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(SdkClientException.class);
+        assertThat(first).isNotDone();
+
+        producer.flush().join();
+
+        assertThat(producer.put(record(SHARD_0_KEY, 3))).isNotDone();
+        assertThat(sentRecords()).isEqualTo(2);
+    }
+
+    private KinesisProducer producer(KinesisProducer.Builder builder) {
+        return builder.client(client).streamName("stream").maxBatchOpenTime(Duration.ofMinutes(1)).build();
+    }
+
+    private void respond(Function<PutRecordsRequest, CompletableFuture<PutRecordsResponse>> responder) {
+        when(client.putRecords(any(PutRecordsRequest.class))).thenAnswer(i -> {
+            PutRecordsRequest request = (PutRecordsRequest) i.getArguments()[0];
+            requests.add(request);
+            return responder.apply(request);
+        });
+    }
+
+    private int sentRecords() {
+        synchronized (requests) {
+            return requests.stream().mapToInt(r -> r.records().size()).sum();
+        }
+    }
+
+    private static CompletableFuture<PutRecordsResponse> success(PutRecordsRequest request) {
+        List<PutRecordsResultEntry> results = new ArrayList<>();
+        for (PutRecordsRequestEntry entry : request.records()) {
+            boolean shard0 = new BigInteger(entry.explicitHashKey()).compareTo(SHARD_1_START) < 0;
+            results.add(PutRecordsResultEntry.builder()
+                                             .shardId(shard0 ? "shard-0" : "shard-1")
+                                             .sequenceNumber(String.valueOf(results.size()))
+                                             .build());
+        }
+        return CompletableFuture.completedFuture(PutRecordsResponse.builder().failedRecordCount(0).records(results).build());
+    }
+
+    private static PutRecordsResultEntry failure(String errorCode) {
+        return PutRecordsResultEntry.builder().errorCode(errorCode).errorMessage("failed").build();
+    }
+
+    private static PutRecordsRequestEntry record(String explicitHashKey, int i) {
+        return PutRecordsRequestEntry.builder()
+                                     .partitionKey("key-" + i)
+                                     .explicitHashKey(explicitHashKey)
+                                     .data(ByteBuffer.wrap(new byte[] {(byte) i}))
+                                     .build();
+    }
+
+    private static Shard shard(String shardId, BigInteger startingHashKey, BigInteger endingHashKey) {
+        return Shard.builder()
+                    .shardId(shardId)
+                    .hashKeyRange(HashKeyRange.builder()
+                                              .startingHashKey(startingHashKey.toString())
+                                              .endingHashKey(endingHashKey.toString())
+                                              .build())
+                    .build();
+    }
+}
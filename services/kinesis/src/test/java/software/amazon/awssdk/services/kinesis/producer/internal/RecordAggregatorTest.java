@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.producer.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+import software.amazon.awssdk.core.util.Md5Utils;
+
+public class RecordAggregatorTest {
+
+    private static final byte[] MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+
+    @Test
+    public void recordsAreEncodedInAggregatedRecordFormat() {
+        RecordAggregator aggregator = new RecordAggregator();
+        aggregator.add("a", null, ByteBuffer.wrap(new byte[] {1}));
+        aggregator.add("b", null, ByteBuffer.wrap(new byte[] {2, 3}));
+        aggregator.add("a", null, ByteBuffer.wrap(new byte[0]));
+
+        byte[] message = {
+            0x0A, 0x01, 'a',
+            0x0A, 0x01, 'b',
+            0x1A, 0x05, 0x08, 0x00, 0x1A, 0x01, 0x01,
+            0x1A, 0x06, 0x08, 0x01, 0x1A, 0x02, 0x02, 0x03,
+            0x1A, 0x04, 0x08, 0x00, 0x1A, 0x00
+        };
+        assertThat(aggregator.size()).isEqualTo(3);
+        assertThat(aggregator.partitionKey()).isEqualTo("a");
+        assertThat(encode(aggregator)).isEqualTo(expected(message));
+    }
+
+    @Test
+    public void explicitHashKeysAreEncodedInTheirTable() {
+        RecordAggregator aggregator = new RecordAggregator();
+        aggregator.add("a", "12", ByteBuffer.wrap(new byte[] {1}));
+
+        byte[] message = {
+            0x0A, 0x01, 'a',
+            0x12, 0x02, '1', '2',
+            0x1A, 0x07, 0x08, 0x00, 0x10, 0x00, 0x1A, 0x01, 0x01
+        };
+        assertThat(encode(aggregator)).isEqualTo(expected(message));
+    }
+
+    @Test
+    public void predictedSizeMatchesEncodedSize() {
+        RecordAggregator aggregator = new RecordAggregator();
+        for (int i = 0; i < 300; i++) {
+            ByteBuffer data = ByteBuffer.wrap(new byte[i * 7]);
+            String explicitHashKey = i % 3 == 0 ? String.valueOf(i) : null;
+            int predicted = aggregator.encodedSizeWith("key-" + i % 20, explicitHashKey, data);
+            aggregator.add("key-" + i % 20, explicitHashKey, data);
+            assertThat(aggregator.encodedSize()).isEqualTo(predicted);
+        }
+        assertThat(aggregator.encode().remaining()).isEqualTo(aggregator.encodedSize());
+    }
+
+    private static byte[] encode(RecordAggregator aggregator) {
+        ByteBuffer encoded = aggregator.encode();
+        assertThat(encoded.remaining()).isEqualTo(aggregator.encodedSize());
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] expected(byte[] message) {
+        byte[] expected = Arrays.copyOf(MAGIC, MAGIC.length + message.length + 16);
+        System.arraycopy(message, 0, expected, MAGIC.length, message.length);
+        System.arraycopy(Md5Utils.computeMD5Hash(message), 0, expected, MAGIC.length + message.length, 16);
+        return expected;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kinesis.reader;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.AwsSystemSetting;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.shard.InitialShardPosition;
+import software.amazon.awssdk.shard.ShardCheckpointer;
+import software.amazon.awssdk.shard.ShardRecord;
+
+public class KinesisShardReaderTest {
+
+    private static final String DESCRIBE_STREAM =
+            "{\"StreamDescription\":{\"StreamName\":\"stream\",\"StreamStatus\":\"ACTIVE\",\"HasMoreShards\":false,\"Shards\":["
+            + "{\"ShardId\":\"parent\",\"HashKeyRange\":{\"StartingHashKey\":\"0\",\"EndingHashKey\":\"10\"},"
+            + "\"SequenceNumberRange\":{\"StartingSequenceNumber\":\"1\",\"EndingSequenceNumber\":\"2\"}},"
+            + "{\"ShardId\":\"child\",\"ParentShardId\":\"parent\",\"HashKeyRange\":{\"StartingHashKey\":\"0\","
+            + "\"EndingHashKey\":\"10\"},\"SequenceNumberRange\":{\"StartingSequenceNumber\":\"3\","
+            + "\"EndingSequenceNumber\":\"3\"}}]}}";
+
+    @Rule
+    public WireMockRule mockServer = new WireMockRule(0);
+
+    private KinesisAsyncClient client;
+    private KinesisShardReader reader;
+
+    @BeforeClass
+    public static void disableCbor() {
+        System.setProperty(AwsSystemSetting.AWS_CBOR_ENABLED.property(), "false");
+    }
+
+    @AfterClass
+    public static void enableCbor() {
+        System.clearProperty(AwsSystemSetting.AWS_CBOR_ENABLED.property());
+    }
+
+    @Before
+    public void setup() {
+        client = KinesisAsyncClient.builder()
+                                   .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid", "skid")))
+                                   .region(Region.US_WEST_2)
+                                   .endpointOverride(URI.create("http://localhost:" + mockServer.port()))
+                                   .build();
+    }
+
+    @After
+    public void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+        client.close();
+    }
+
+    @Test
+    public void childShardsAreReadAfterTheirParent() throws Exception {
+        respond("DescribeStream", "\"StreamName\"", DESCRIBE_STREAM);
+        respond("GetShardIterator", "\"parent\"", "{\"ShardIterator\":\"parent-iterator\"}");
+        respond("GetShardIterator", "\"child\"", "{\"ShardIterator\":\"child-iterator\"}");
+        respond("GetRecords", "parent-iterator", records("1", "2"));
+        respond("GetRecords", "child-iterator", records("3"));
+        ShardCheckpointer checkpointer = ShardCheckpointer.inMemory();
+        reader = KinesisShardReader.builder()
+                                   .client(client)
+                                   .streamName("stream")
+                                   .initialPosition(InitialShardPosition.TRIM_HORIZON)
+                                   .checkpointer(checkpointer)
+                                   .build();
+
+        List<ShardRecord<Record>> records = readAll(reader);
+
+        assertThat(records).extracting(ShardRecord::sequenceNumber).containsExactly("1", "2", "3");
+        assertThat(records).extracting(ShardRecord::shardId).containsExactly("parent", "parent", "child");
+        assertThat(records.get(0).record().data().asReadOnlyBuffer().get()).isEqualTo((byte) '1');
+
+        records.get(1).checkpoint().join();
+        assertThat(checkpointer.lastCheckpoint("parent").join()).isEqualTo(ShardCheckpointer.SHARD_END);
+    }
+
+    @Test
+    public void shardsOfTheFirstListingAreReadFromTheInitialPosition() throws Exception {
+        respond("DescribeStream", "\"StreamName\"", DESCRIBE_STREAM);
+        respond("GetShardIterator", "\"parent\"", "{\"ShardIterator\":\"parent-iterator\"}");
+        respond("GetShardIterator", "\"child\"", "{\"ShardIterator\":\"child-iterator\"}");
+        respond("GetRecords", "parent-iterator", records());
+        respond("GetRecords", "child-iterator", records("3"));
+        reader = KinesisShardReader.builder().client(client).streamName("stream").build();
+
+        assertThat(readAll(reader)).extracting(ShardRecord::sequenceNumber).containsExactly("3");
+        verify(postRequestedFor(urlEqualTo("/")).withRequestBody(containing("\"parent\""))
+                                                .withRequestBody(containing("LATEST")));
+        verify(postRequestedFor(urlEqualTo("/")).withRequestBody(containing("\"child\""))
+                                                .withRequestBody(containing("LATEST")));
+    }
+
+    private void respond(String operation, String bodyContaining, String response) {
+        stubFor(post(urlEqualTo("/")).withHeader("X-Amz-Target", equalTo("Kinesis_20131202." + operation))
+                                     .withRequestBody(containing(bodyContaining))
+                                     .willReturn(aResponse().withStatus(200)
+                                                            .withHeader("Content-Type", "application/x-amz-json-1.1")
+                                                            .withBody(response)));
+    }
+
+    private static String records(String... sequenceNumbers) {
+        StringBuilder body = new StringBuilder("{\"MillisBehindLatest\":0,\"Records\":[");
+        for (int i = 0; i < sequenceNumbers.length; i++) {
+            body.append(i == 0 ? "" : ",")
+                .append("{\"SequenceNumber\":\"").append(sequenceNumbers[i]).append("\",\"PartitionKey\":\"key\",\"Data\":\"")
+                .append(Base64.getEncoder().encodeToString(sequenceNumbers[i].getBytes(UTF_8))).append("\"}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static List<ShardRecord<Record>> readAll(KinesisShardReader reader) throws Exception {
+        List<ShardRecord<Record>> records = new ArrayList<>();
+        CompletableFuture<List<ShardRecord<Record>>> done = new CompletableFuture<>();
+        reader.read().subscribe(new Subscriber<ShardRecord<Record>>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ShardRecord<Record> record) {
+                records.add(record);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(records);
+            }
+        });
+        return done.get(10, TimeUnit.SECONDS);
+    }
+}
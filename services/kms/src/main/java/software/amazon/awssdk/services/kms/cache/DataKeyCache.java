@@ -0,0 +1,452 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kms.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import software.amazon.awssdk.services.kms.KMSClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Caches the data keys generated and decrypted by KMS, so that envelope encryption does not call KMS for every object it
+ * encrypts or decrypts.
+ *
+ * <p>{@link #generateDataKey(GenerateDataKeyRequest, long)} reuses a data key generated for the same key, encryption context,
+ * key spec and number of bytes, until it is older than {@link Builder#maxAge(Duration)}, or until it has encrypted
+ * {@link Builder#maxMessagesPerKey(Long)} messages or {@link Builder#maxBytesPerKey(Long)} bytes. Once a key reaches one of these
+ * limits, a new one is generated. {@link #decrypt(DecryptRequest)} reuses the plaintext of an encrypted data key decrypted with
+ * the same encryption context, until it is older than the maximum age. The cache holds up to {@link Builder#maxEntries(Integer)}
+ * keys, and evicts the least recently used one when it is full.</p>
+ *
+ * <p>A cache hit does not call KMS: it returns a response holding a copy of the cached key. The plaintext of the cached keys
+ * is overwritten with zeros when they are evicted, and when the cache is cleared or closed.</p>
+ *
+ * <pre class="brush: java">
+ * try (DataKeyCache cache = DataKeyCache.builder()
+ *                                       .client(KMSClient.create())
+ *                                       .maxAge(Duration.ofMinutes(5))
+ *                                       .maxMessagesPerKey(1000L)
+ *                                       .build()) {
+ *     GenerateDataKeyResponse dataKey = cache.generateDataKey(r -> r.keyId(masterKeyId)
+ *                                                                   .encryptionContext(context)
+ *                                                                   .keySpec(DataKeySpec.AES_256),
+ *                                                             object.length);
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>The cache does not own the client: closing it clears the cache, but does not close the client.</p>
+ */
+public final class DataKeyCache implements SdkAutoCloseable {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(5);
+    private static final long DEFAULT_MAX_MESSAGES_PER_KEY = 1L << 32;
+    private static final long DEFAULT_MAX_BYTES_PER_KEY = Long.MAX_VALUE;
+
+    private final KMSClient client;
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final long maxMessagesPerKey;
+    private final long maxBytesPerKey;
+
+    private final Map<List<Object>, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private DataKeyCache(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.maxEntries = builder.maxEntries == null ? DEFAULT_MAX_ENTRIES : builder.maxEntries;
+        Duration maxAge = builder.maxAge == null ? DEFAULT_MAX_AGE : builder.maxAge;
+        this.maxMessagesPerKey = builder.maxMessagesPerKey == null ? DEFAULT_MAX_MESSAGES_PER_KEY : builder.maxMessagesPerKey;
+        this.maxBytesPerKey = builder.maxBytesPerKey == null ? DEFAULT_MAX_BYTES_PER_KEY : builder.maxBytesPerKey;
+        Validate.isPositive(maxEntries, "maxEntries");
+        Validate.isPositive(maxAge, "maxAge");
+        Validate.isTrue(maxMessagesPerKey > 0, "maxMessagesPerKey must be positive");
+        Validate.isTrue(maxBytesPerKey > 0, "maxBytesPerKey must be positive");
+        this.maxAgeNanos = maxAge.toNanos();
+        this.entries = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evict(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return Builder instance to construct a {@link DataKeyCache}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Get a data key to encrypt a message with, generating it with {@code GenerateDataKey} unless a cached key can still be
+     * used for the message.
+     *
+     * @param request The {@code GenerateDataKey} request. Its grant tokens are only used when a new key is generated.
+     * @param messageBytes The number of bytes of the message the key encrypts, counted against
+     * {@link Builder#maxBytesPerKey(Long)}.
+     * @return The response of the {@code GenerateDataKey} request, with a copy of the plaintext key.
+     */
+    public GenerateDataKeyResponse generateDataKey(GenerateDataKeyRequest request, long messageBytes) {
+        Validate.paramNotNull(request, "request");
+        Validate.isTrue(messageBytes >= 0, "messageBytes must not be negative");
+        List<Object> cacheKey = Arrays.asList("GenerateDataKey", request.keyId(), request.encryptionContext(),
+                                              request.keySpecString(), request.numberOfBytes());
+        synchronized (entries) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && !isExpired(entry) && entry.messages < maxMessagesPerKey
+                && messageBytes <= maxBytesPerKey - entry.bytes) {
+                entry.messages++;
+                entry.bytes += messageBytes;
+                hits.incrementAndGet();
+                return entry.generateDataKeyResponse();
+            }
+            remove(cacheKey, entry);
+        }
+
+        misses.incrementAndGet();
+        GenerateDataKeyResponse response = client.generateDataKey(request);
+        Entry entry = new Entry(response.keyId(), copy(response.ciphertextBlob()), copy(response.plaintext()));
+        if (messageBytes <= maxBytesPerKey) {
+            entry.messages = 1;
+            entry.bytes = messageBytes;
+            put(cacheKey, entry);
+        }
+        return response;
+    }
+
+    /**
+     * Get a data key to encrypt a message with, generating it with {@code GenerateDataKey} unless a cached key can still be
+     * used for the message.
+     *
+     * <p>This is a convenience which creates an instance of the {@link GenerateDataKeyRequest.Builder} avoiding the need to
+     * create one manually via {@link GenerateDataKeyRequest#builder()}.</p>
+     *
+     * @see #generateDataKey(GenerateDataKeyRequest, long)
+     */
+    public GenerateDataKeyResponse generateDataKey(Consumer<GenerateDataKeyRequest.Builder> request,
+                                                   long messageBytes) {
+        return generateDataKey(GenerateDataKeyRequest.builder().apply(request).build(), messageBytes);
+    }
+
+    /**
+     * Decrypt an encrypted data key with {@code Decrypt}, unless its plaintext is cached.
+     *
+     * @param request The {@code Decrypt} request. Its grant tokens are only used when the key is not cached.
+     * @return The response of the {@code Decrypt} request, with a copy of the plaintext key.
+     */
+    public DecryptResponse decrypt(DecryptRequest request) {
+        Validate.paramNotNull(request, "request");
+        List<Object> cacheKey = Arrays.asList("Decrypt", copyBuffer(request.ciphertextBlob()), request.encryptionContext());
+        synchronized (entries) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && !isExpired(entry)) {
+                hits.incrementAndGet();
+                return entry.decryptResponse();
+            }
+            remove(cacheKey, entry);
+        }
+
+        misses.incrementAndGet();
+        DecryptResponse response = client.decrypt(request);
+        put(cacheKey, new Entry(response.keyId(), null, copy(response.plaintext())));
+        return response;
+    }
+
+    /**
+     * Decrypt an encrypted data key with {@code Decrypt}, unless its plaintext is cached.
+     *
+     * <p>This is a convenience which creates an instance of the {@link DecryptRequest.Builder} avoiding the need to create one
+     * manually via {@link DecryptRequest#builder()}.</p>
+     *
+     * @see #decrypt(DecryptRequest)
+     */
+    public DecryptResponse decrypt(Consumer<DecryptRequest.Builder> request) {
+        return decrypt(DecryptRequest.builder().apply(request).build());
+    }
+
+    /**
+     * @return The number of data keys returned from the cache, without calling KMS.
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of data keys that were not cached, or could no longer be used, and were requested from KMS.
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of data keys removed from the cache, because the cache was full or because they reached their
+     * maximum age or usage.
+     */
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return The number of data keys currently cached, including the ones that have expired but were not evicted yet.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Remove all the data keys from the cache, overwriting their plaintext with zeros.
+     */
+    public void clear() {
+        synchronized (entries) {
+            for (Iterator<Entry> i = entries.values().iterator(); i.hasNext(); ) {
+                i.next().zeroize();
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Clear the cache. The client is not closed.
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private void put(List<Object> cacheKey, Entry entry) {
+        synchronized (entries) {
+            Entry replaced = entries.put(cacheKey, entry);
+            if (replaced != null) {
+                evict(replaced);
+            }
+        }
+    }
+
+    private void remove(List<Object> cacheKey, Entry entry) {
+        if (entry != null) {
+            entries.remove(cacheKey);
+            evict(entry);
+        }
+    }
+
+    private void evict(Entry entry) {
+        entry.zeroize();
+        evictions.incrementAndGet();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.nanoTime() - entry.createdNanos >= maxAgeNanos;
+    }
+
+    private static byte[] copy(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer copyBuffer(ByteBuffer buffer) {
+        byte[] bytes = copy(buffer);
+        return bytes == null ? null : ByteBuffer.wrap(bytes);
+    }
+
+    private static ByteBuffer wrapCopy(byte[] bytes) {
+        return bytes == null ? null : ByteBuffer.wrap(bytes.clone());
+    }
+
+    /**
+     * A cached data key. Its usage is guarded by the lock of the cache.
+     */
+    private static final class Entry {
+        private final String keyId;
+        private final byte[] ciphertextBlob;
+        private final byte[] plaintext;
+        private final long createdNanos = System.nanoTime();
+        private long messages;
+        private long bytes;
+
+        private Entry(String keyId, byte[] ciphertextBlob, byte[] plaintext) {
+            this.keyId = keyId;
+            this.ciphertextBlob = ciphertextBlob;
+            this.plaintext = plaintext;
+        }
+
+        private GenerateDataKeyResponse generateDataKeyResponse() {
+            return GenerateDataKeyResponse.builder()
+                                          .keyId(keyId)
+                                          .ciphertextBlob(wrapCopy(ciphertextBlob))
+                                          .plaintext(wrapCopy(plaintext))
+                                          .build();
+        }
+
+        private DecryptResponse decryptResponse() {
+            return DecryptResponse.builder().keyId(keyId).plaintext(wrapCopy(plaintext)).build();
+        }
+
+        private void zeroize() {
+            if (plaintext != null) {
+                Arrays.fill(plaintext, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Builder for a {@link DataKeyCache}.
+     */
+    public interface Builder extends SdkBuilder<Builder, DataKeyCache> {
+
+        /**
+         * Sets the client the {@code GenerateDataKey} and {@code Decrypt} requests are sent with when a key is not cached.
+         * Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(KMSClient client);
+
+        /**
+         * Sets the maximum number of data keys cached. The least recently used key is evicted when the cache is full.
+         *
+         * <p>The default is 1,000 keys.</p>
+         *
+         * @param maxEntries New maximum number of keys.
+         * @return This builder for method chaining.
+         */
+        Builder maxEntries(Integer maxEntries);
+
+        /**
+         * Sets the maximum time a data key is used for after it was generated or decrypted.
+         *
+         * <p>The default is 5 minutes.</p>
+         *
+         * @param maxAge New maximum age.
+         * @return This builder for method chaining.
+         */
+        Builder maxAge(Duration maxAge);
+
+        /**
+         * Sets the maximum number of messages a generated data key encrypts.
+         *
+         * <p>The default is 2<sup>32</sup> messages.</p>
+         *
+         * @param maxMessagesPerKey New maximum number of messages.
+         * @return This builder for method chaining.
+         */
+        Builder maxMessagesPerKey(Long maxMessagesPerKey);
+
+        /**
+         * Sets the maximum number of bytes a generated data key encrypts. A message larger than this is given a data key of
+         * its own, which is not cached.
+         *
+         * <p>The default is not to limit the number of bytes.</p>
+         *
+         * @param maxBytesPerKey New maximum number of bytes.
+         * @return This builder for method chaining.
+         */
+        Builder maxBytesPerKey(Long maxBytesPerKey);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private KMSClient client;
+        private Integer maxEntries;
+        private Duration maxAge;
+        private Long maxMessagesPerKey;
+        private Long maxBytesPerKey;
+
+        @Override
+        public Builder client(KMSClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(KMSClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder maxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            maxEntries(maxEntries);
+        }
+
+        @Override
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            maxAge(maxAge);
+        }
+
+        @Override
+        public Builder maxMessagesPerKey(Long maxMessagesPerKey) {
+            this.maxMessagesPerKey = maxMessagesPerKey;
+            return this;
+        }
+
+        public void setMaxMessagesPerKey(Long maxMessagesPerKey) {
+            maxMessagesPerKey(maxMessagesPerKey);
+        }
+
+        @Override
+        public Builder maxBytesPerKey(Long maxBytesPerKey) {
+            this.maxBytesPerKey = maxBytesPerKey;
+            return this;
+        }
+
+        public void setMaxBytesPerKey(Long maxBytesPerKey) {
+            maxBytesPerKey(maxBytesPerKey);
+        }
+
+        @Override
+        public DataKeyCache build() {
+            return new DataKeyCache(this);
+        }
+    }
+}
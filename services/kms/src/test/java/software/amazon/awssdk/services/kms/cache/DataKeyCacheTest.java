@@ -0,0 +1,155 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.kms.cache;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.services.kms.KMSClient;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+
+public class DataKeyCacheTest {
+
+    private static final Map<String, String> CONTEXT = singletonMap("purpose", "test");
+
+    private final AtomicInteger generatedKeys = new AtomicInteger();
+    private KMSClient client;
+
+    @Before
+    public void setUp() {
+        client = mock(KMSClient.class);
+        when(client.generateDataKey(any(GenerateDataKeyRequest.class))).then(i -> {
+            byte key = (byte) generatedKeys.incrementAndGet();
+            return GenerateDataKeyResponse.builder()
+                                          .keyId("key")
+                                          .ciphertextBlob(ByteBuffer.wrap(new byte[] {key, key}))
+                                          .plaintext(ByteBuffer.wrap(new byte[] {key}))
+                                          .build();
+        });
+        when(client.decrypt(any(DecryptRequest.class))).then(i -> {
+            ByteBuffer ciphertext = i.getArgumentAt(0, DecryptRequest.class).ciphertextBlob();
+            return DecryptResponse.builder().keyId("key").plaintext(ByteBuffer.wrap(new byte[] {ciphertext.get(0)})).build();
+        });
+    }
+
+    @Test
+    public void generatedKeyIsReusedUntilItsMessageLimit() {
+        DataKeyCache cache = DataKeyCache.builder().client(client).maxMessagesPerKey(2L).build();
+
+        generate(cache, CONTEXT, 10);
+        GenerateDataKeyResponse second = generate(cache, CONTEXT, 10);
+        GenerateDataKeyResponse third = generate(cache, CONTEXT, 10);
+
+        assertThat(second.plaintext().get(0)).isEqualTo((byte) 1);
+        assertThat(second.ciphertextBlob()).isEqualTo(ByteBuffer.wrap(new byte[] {1, 1}));
+        assertThat(third.plaintext().get(0)).isEqualTo((byte) 2);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        verify(client, times(2)).generateDataKey(any(GenerateDataKeyRequest.class));
+    }
+
+    @Test
+    public void generatedKeysAreCachedPerEncryptionContext() {
+        DataKeyCache cache = DataKeyCache.builder().client(client).build();
+
+        generate(cache, CONTEXT, 10);
+        generate(cache, singletonMap("purpose", "other"), 10);
+        generate(cache, CONTEXT, 10);
+
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void generatedKeyIsReusedUntilItsByteLimit() {
+        DataKeyCache cache = DataKeyCache.builder().client(client).maxBytesPerKey(100L).build();
+
+        generate(cache, CONTEXT, 200);
+        assertThat(cache.size()).isZero();
+
+        generate(cache, CONTEXT, 60);
+        generate(cache, CONTEXT, 40);
+        assertThat(generate(cache, CONTEXT, 1).plaintext().get(0)).isEqualTo((byte) 3);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void keysExpireAfterTheirMaximumAge() throws InterruptedException {
+        DataKeyCache cache = DataKeyCache.builder().client(client).maxAge(Duration.ofMillis(20)).build();
+
+        generate(cache, CONTEXT, 10);
+        Thread.sleep(50);
+        generate(cache, CONTEXT, 10);
+
+        assertThat(cache.hitCount()).isZero();
+        assertThat(cache.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void decryptedKeysAreCachedPerCiphertextAndContext() {
+        DataKeyCache cache = DataKeyCache.builder().client(client).build();
+
+        assertThat(decrypt(cache, 7, CONTEXT).plaintext().get(0)).isEqualTo((byte) 7);
+        assertThat(decrypt(cache, 7, CONTEXT).plaintext().get(0)).isEqualTo((byte) 7);
+        decrypt(cache, 8, CONTEXT);
+        decrypt(cache, 7, singletonMap("purpose", "other"));
+
+        assertThat(cache.hitCount()).isEqualTo(1);
+        verify(client, times(3)).decrypt(any(DecryptRequest.class));
+    }
+
+    @Test
+    public void leastRecentlyUsedKeyIsEvictedWhenFull() {
+        DataKeyCache cache = DataKeyCache.builder().client(client).maxEntries(2).build();
+
+        decrypt(cache, 1, CONTEXT);
+        decrypt(cache, 2, CONTEXT);
+        decrypt(cache, 1, CONTEXT);
+        decrypt(cache, 3, CONTEXT);
+        decrypt(cache, 1, CONTEXT);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(2);
+
+        cache.close();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static GenerateDataKeyResponse generate(DataKeyCache cache, Map<String, String> context, long messageBytes) {
+        return cache.generateDataKey(r -> r.keyId("key").encryptionContext(context).keySpec(DataKeySpec.AES_256), messageBytes);
+    }
+
+    private static DecryptResponse decrypt(DataKeyCache cache, int ciphertext, Map<String, String> context) {
+        return cache.decrypt(r -> r.ciphertextBlob(ByteBuffer.wrap(new byte[] {(byte) ciphertext})).encryptionContext(context));
+    }
+}
@@ -0,0 +1,649 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.cloudwatchlogs.shipper;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.DataAlreadyAcceptedException;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InvalidSequenceTokenException;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsResponse;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Ships log events to CloudWatch Logs with {@code PutLogEvents} requests, without making the threads that log wait for the
+ * events to be delivered.
+ *
+ * <p>Events are buffered per log stream, in a buffer of up to {@link Builder#maxBufferedEventsPerStream(Integer)} events. When
+ * the buffer of a stream is full, the {@link Builder#overflowPolicy(OverflowPolicy)} decides which event is dropped, and
+ * {@link #log(String, String, long, String)} returns false when it is the new one. Logging never blocks, and does not send
+ * requests from the logging thread.</p>
+ *
+ * <p>The buffered events of a stream are sent in requests as large as {@code PutLogEvents} allows: up to 10,000 events and
+ * 1 MB, spanning at most 24 hours, sorted by timestamp. A request is sent as soon as the buffer fills one, or
+ * {@link Builder#maxBatchOpenTime(Duration)} after the first event of a batch was buffered. As every request of a stream
+ * needs the sequence token returned by the previous one, a stream has one request in flight at a time, while the events of
+ * the next request are buffered; different streams are shipped in parallel. The sequence token of a stream written to
+ * before, or by another writer, is learnt from the request CloudWatch Logs rejects with the expected token, which is then
+ * sent again. Requests that fail are
+ * sent again after a jittered exponential backoff, and their events are dropped after {@link Builder#maxRetries(Integer)}
+ * retries.</p>
+ *
+ * <pre class="brush: java">
+ * try (LogShipper shipper = LogShipper.builder().client(CloudWatchLogsAsyncClient.create()).build()) {
+ *     shipper.log("my-application", instanceId, System.currentTimeMillis(), "Started");
+ * }
+ * </pre>
+ *
+ * <p>The log groups and streams must exist. The shipper does not own the client: closing it waits for the buffered events
+ * to be shipped, but does not close the client.</p>
+ */
+public final class LogShipper implements SdkAutoCloseable {
+
+    private static final Logger log = Logger.loggerFor(LogShipper.class);
+
+    private static final int MAX_BATCH_EVENTS = 10_000;
+    private static final int MAX_BATCH_BYTES = 1_048_576;
+    private static final int EVENT_OVERHEAD_BYTES = 26;
+    private static final int MAX_EVENT_BYTES = 256 * 1024;
+    private static final long MAX_BATCH_SPAN_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private static final int DEFAULT_MAX_BUFFERED_EVENTS_PER_STREAM = 10_000;
+    private static final Duration DEFAULT_MAX_BATCH_OPEN_TIME = Duration.ofSeconds(1);
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(20);
+
+    private final CloudWatchLogsAsyncClient client;
+    private final int maxBufferedEventsPerStream;
+    private final OverflowPolicy overflowPolicy;
+    private final long maxBatchOpenNanos;
+    private final int maxRetries;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Map<List<String>, LogStream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean closed;
+
+    private LogShipper(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        this.maxBufferedEventsPerStream = builder.maxBufferedEventsPerStream == null ? DEFAULT_MAX_BUFFERED_EVENTS_PER_STREAM
+                                                                                     : builder.maxBufferedEventsPerStream;
+        this.overflowPolicy = builder.overflowPolicy == null ? OverflowPolicy.DROP_OLDEST : builder.overflowPolicy;
+        Duration maxBatchOpenTime = builder.maxBatchOpenTime == null ? DEFAULT_MAX_BATCH_OPEN_TIME : builder.maxBatchOpenTime;
+        this.maxRetries = builder.maxRetries == null ? DEFAULT_MAX_RETRIES : builder.maxRetries;
+        Validate.isPositive(maxBufferedEventsPerStream, "maxBufferedEventsPerStream");
+        Validate.isNotNegative(maxBatchOpenTime, "maxBatchOpenTime");
+        Validate.isNotNegative(maxRetries, "maxRetries");
+        this.maxBatchOpenNanos = maxBatchOpenTime.toNanos();
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy : defaultBackoffStrategy(maxRetries);
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("cloudwatch-log-shipper").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy(int maxRetries) {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(maxRetries)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link LogShipper}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Log an event, timestamped now.
+     *
+     * @see #log(String, String, long, String)
+     */
+    public boolean log(String logGroupName, String logStreamName, String message) {
+        return log(logGroupName, logStreamName, System.currentTimeMillis(), message);
+    }
+
+    /**
+     * Log an event. The event is buffered and shipped later; this method does not block.
+     *
+     * <p>A message longer than the 256 KB allowed by CloudWatch Logs is truncated.</p>
+     *
+     * @param logGroupName The name of the log group of the stream.
+     * @param logStreamName The name of the log stream.
+     * @param timestamp The time of the event, in milliseconds since the epoch.
+     * @param message The message of the event.
+     * @return False if the event was dropped, because the buffer of the stream is full and the overflow policy is
+     * {@link OverflowPolicy#DROP_NEWEST}, or because the shipper is closed.
+     */
+    public boolean log(String logGroupName, String logStreamName, long timestamp, String message) {
+        Validate.paramNotNull(logGroupName, "logGroupName");
+        Validate.paramNotNull(logStreamName, "logStreamName");
+        Validate.paramNotNull(message, "message");
+        if (closed) {
+            droppedEvents.incrementAndGet();
+            return false;
+        }
+        List<String> streamKey = Arrays.asList(logGroupName, logStreamName);
+        LogStream stream = streams.computeIfAbsent(streamKey, k -> new LogStream(logGroupName, logStreamName));
+        return stream.offer(new PendingEvent(timestamp, message));
+    }
+
+    /**
+     * Ship the events logged so far, without waiting for their batches to fill up.
+     *
+     * @return A future completed once the events logged so far have been shipped or dropped.
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.allOf(streams.values().stream().map(LogStream::flush).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * @return The number of events dropped so far, because their stream's buffer was full, because the shipper was closed,
+     * or because the requests shipping them failed.
+     */
+    public long droppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Ship the buffered events and wait for them to be shipped. Events logged from then on are dropped. The client is not
+     * closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flush().join();
+        } finally {
+            if (ownsScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * The UTF-8 length of a string, without encoding it.
+     */
+    private static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+                       && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Truncate a string to the longest prefix of whole characters that is at most {@code maxBytes} long in UTF-8.
+     */
+    private static String truncate(String string, int maxBytes) {
+        int length = 0;
+        int i = 0;
+        while (i < string.length()) {
+            int codePoint = string.codePointAt(i);
+            int bytes = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (length + bytes > maxBytes) {
+                break;
+            }
+            length += bytes;
+            i += Character.charCount(codePoint);
+        }
+        return string.substring(0, i);
+    }
+
+    /**
+     * A buffered event, with its size in a {@code PutLogEvents} request.
+     */
+    private static final class PendingEvent {
+        private final long timestamp;
+        private final String message;
+        private final int size;
+
+        private PendingEvent(long timestamp, String message) {
+            int messageBytes = utf8Length(message);
+            if (messageBytes > MAX_EVENT_BYTES - EVENT_OVERHEAD_BYTES) {
+                message = truncate(message, MAX_EVENT_BYTES - EVENT_OVERHEAD_BYTES);
+                messageBytes = utf8Length(message);
+            }
+            this.timestamp = timestamp;
+            this.message = message;
+            this.size = messageBytes + EVENT_OVERHEAD_BYTES;
+        }
+    }
+
+    /**
+     * A future completed once a number of events of a stream have been shipped or dropped.
+     */
+    private static final class Waiter {
+        private final long settledEvents;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Waiter(long settledEvents) {
+            this.settledEvents = settledEvents;
+        }
+    }
+
+    /**
+     * The buffer and sequence token of a log stream. Its state is guarded by its own lock; requests are sent outside of it.
+     */
+    private final class LogStream {
+        private final String logGroupName;
+        private final String logStreamName;
+        private final ArrayDeque<PendingEvent> buffer = new ArrayDeque<>();
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private long bufferedBytes;
+        private long batchDeadlineNanos;
+        private String sequenceToken;
+        private boolean sending;
+        private ScheduledFuture<?> timer;
+        private long acceptedEvents;
+        private long settledEvents;
+        private long flushTarget;
+
+        private LogStream(String logGroupName, String logStreamName) {
+            this.logGroupName = logGroupName;
+            this.logStreamName = logStreamName;
+        }
+
+        private boolean offer(PendingEvent event) {
+            List<PendingEvent> batch;
+            List<Waiter> completed = new ArrayList<>();
+            synchronized (this) {
+                if (buffer.size() >= maxBufferedEventsPerStream) {
+                    droppedEvents.incrementAndGet();
+                    if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                        return false;
+                    }
+                    bufferedBytes -= buffer.poll().size;
+                    settle(1, completed);
+                }
+                if (buffer.isEmpty() && !sending) {
+                    batchDeadlineNanos = System.nanoTime() + maxBatchOpenNanos;
+                }
+                buffer.add(event);
+                bufferedBytes += event.size;
+                acceptedEvents++;
+                batch = nextBatch();
+            }
+            completed.forEach(w -> w.future.complete(null));
+            if (batch != null) {
+                scheduler.execute(() -> send(batch, 0));
+            }
+            return true;
+        }
+
+        private CompletableFuture<Void> flush() {
+            Waiter waiter;
+            List<PendingEvent> batch;
+            synchronized (this) {
+                if (settledEvents == acceptedEvents) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                flushTarget = acceptedEvents;
+                waiter = new Waiter(acceptedEvents);
+                waiters.add(waiter);
+                batch = nextBatch();
+            }
+            if (batch != null) {
+                scheduler.execute(() -> send(batch, 0));
+            }
+            return waiter.future;
+        }
+
+        private void onTimer() {
+            List<PendingEvent> batch;
+            synchronized (this) {
+                timer = null;
+                batch = nextBatch();
+            }
+            if (batch != null) {
+                send(batch, 0);
+            }
+        }
+
+        /**
+         * Take the next batch to send from the buffer, if no request is in flight and the batch is full or due. Otherwise,
+         * make sure a timer sends it once it is due.
+         */
+        private List<PendingEvent> nextBatch() {
+            if (sending || buffer.isEmpty()) {
+                return null;
+            }
+            long now = System.nanoTime();
+            boolean full = buffer.size() >= MAX_BATCH_EVENTS || bufferedBytes >= MAX_BATCH_BYTES;
+            boolean due = now - batchDeadlineNanos >= 0 || settledEvents < flushTarget || closed;
+            if (!full && !due) {
+                if (timer == null) {
+                    timer = scheduler.schedule(this::onTimer, batchDeadlineNanos - now, TimeUnit.NANOSECONDS);
+                }
+                return null;
+            }
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+
+            List<PendingEvent> batch = new ArrayList<>();
+            long batchBytes = 0;
+            long oldest = Long.MAX_VALUE;
+            long newest = Long.MIN_VALUE;
+            while (!buffer.isEmpty() && batch.size() < MAX_BATCH_EVENTS) {
+                PendingEvent event = buffer.peek();
+                long newOldest = Math.min(oldest, event.timestamp);
+                long newNewest = Math.max(newest, event.timestamp);
+                if (batchBytes + event.size > MAX_BATCH_BYTES || newNewest - newOldest > MAX_BATCH_SPAN_MILLIS) {
+                    break;
+                }
+                buffer.poll();
+                batch.add(event);
+                batchBytes += event.size;
+                bufferedBytes -= event.size;
+                oldest = newOldest;
+                newest = newNewest;
+            }
+            batchDeadlineNanos = now + maxBatchOpenNanos;
+            sending = true;
+            return batch;
+        }
+
+        private void send(List<PendingEvent> batch, int retriesAttempted) {
+            String token;
+            synchronized (this) {
+                token = sequenceToken;
+            }
+            List<InputLogEvent> events = batch.stream()
+                                              .sorted(Comparator.comparingLong(e -> e.timestamp))
+                                              .map(e -> InputLogEvent.builder().timestamp(e.timestamp).message(e.message).build())
+                                              .collect(Collectors.toList());
+            PutLogEventsRequest request = PutLogEventsRequest.builder()
+                                                             .logGroupName(logGroupName)
+                                                             .logStreamName(logStreamName)
+                                                             .logEvents(events)
+                                                             .sequenceToken(token)
+                                                             .build();
+            CompletableFuture<PutLogEventsResponse> response;
+            try {
+                response = client.putLogEvents(request);
+            } catch (RuntimeException e) {
+                response = new CompletableFuture<>();
+                response.completeExceptionally(e);
+            }
+            response.whenComplete((r, t) -> onResponse(batch, token, retriesAttempted, r, t));
+        }
+
+        private void onResponse(List<PendingEvent> batch, String token, int retriesAttempted, PutLogEventsResponse response,
+                                Throwable t) {
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (cause == null) {
+                if (response.rejectedLogEventsInfo() != null) {
+                    log.warn(() -> "Some events of " + logGroupName + "/" + logStreamName + " were rejected as too old or too "
+                                   + "new: " + response.rejectedLogEventsInfo());
+                }
+                completeBatch(batch, response.nextSequenceToken(), false);
+            } else if (cause instanceof DataAlreadyAcceptedException) {
+                completeBatch(batch, ((DataAlreadyAcceptedException) cause).expectedSequenceToken(), false);
+            } else if (cause instanceof InvalidSequenceTokenException
+                       && !Objects.equals(token, ((InvalidSequenceTokenException) cause).expectedSequenceToken())) {
+                // The stream was written to before, or by another writer: send the batch again with the expected token.
+                synchronized (this) {
+                    sequenceToken = ((InvalidSequenceTokenException) cause).expectedSequenceToken();
+                }
+                scheduler.execute(() -> send(batch, retriesAttempted));
+            } else if (retriesAttempted >= maxRetries) {
+                log.warn(() -> "Dropping " + batch.size() + " events of " + logGroupName + "/" + logStreamName
+                               + " after " + retriesAttempted + " retries", cause);
+                droppedEvents.addAndGet(batch.size());
+                completeBatch(batch, null, true);
+            } else {
+                Duration delay = backoffStrategy.computeDelayBeforeNextRetry(
+                        RetryPolicyContext.builder().retriesAttempted(retriesAttempted).build());
+                log.debug(() -> "Retrying the events of " + logGroupName + "/" + logStreamName + " in " + delay);
+                scheduler.schedule(() -> send(batch, retriesAttempted + 1), delay.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void completeBatch(List<PendingEvent> batch, String nextSequenceToken, boolean failed) {
+            List<PendingEvent> next;
+            List<Waiter> completed = new ArrayList<>();
+            synchronized (this) {
+                if (!failed) {
+                    sequenceToken = nextSequenceToken;
+                }
+                sending = false;
+                settle(batch.size(), completed);
+                next = nextBatch();
+            }
+            completed.forEach(w -> w.future.complete(null));
+            if (next != null) {
+                scheduler.execute(() -> send(next, 0));
+            }
+        }
+
+        /**
+         * Count events as shipped or dropped, collecting the waiters this completes. Called with the lock held.
+         */
+        private void settle(int events, List<Waiter> completed) {
+            settledEvents += events;
+            while (!waiters.isEmpty() && waiters.peek().settledEvents <= settledEvents) {
+                completed.add(waiters.poll());
+            }
+        }
+    }
+
+    /**
+     * Builder for a {@link LogShipper}.
+     */
+    public interface Builder extends SdkBuilder<Builder, LogShipper> {
+
+        /**
+         * Sets the client the {@code PutLogEvents} requests are sent with. Required.
+         *
+         * @param client The client.
+         * @return This builder for method chaining.
+         */
+        Builder client(CloudWatchLogsAsyncClient client);
+
+        /**
+         * Sets the maximum number of events buffered for a log stream, not counting the events of its request in flight.
+         *
+         * <p>The default is 10,000 events.</p>
+         *
+         * @param maxBufferedEventsPerStream New maximum number of events.
+         * @return This builder for method chaining.
+         */
+        Builder maxBufferedEventsPerStream(Integer maxBufferedEventsPerStream);
+
+        /**
+         * Sets which event is dropped when an event is logged to a stream whose buffer is full.
+         *
+         * <p>The default is {@link OverflowPolicy#DROP_OLDEST}.</p>
+         *
+         * @param overflowPolicy New overflow policy.
+         * @return This builder for method chaining.
+         */
+        Builder overflowPolicy(OverflowPolicy overflowPolicy);
+
+        /**
+         * Sets the maximum time events are buffered to fill up a request, which is the maximum latency added to an event by
+         * batching when its stream is not busy.
+         *
+         * <p>The default is 1 second.</p>
+         *
+         * @param maxBatchOpenTime New maximum time.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchOpenTime(Duration maxBatchOpenTime);
+
+        /**
+         * Sets the number of times a failed request is sent again before its events are dropped. This is in addition to
+         * the retries of the client.
+         *
+         * <p>The default is 3 retries.</p>
+         *
+         * @param maxRetries New maximum number of retries.
+         * @return This builder for method chaining.
+         */
+        Builder maxRetries(Integer maxRetries);
+
+        /**
+         * Sets the backoff strategy computing the delay before a failed request is sent again.
+         *
+         * <p>The default is a full jitter backoff, with a base delay of 100 milliseconds and a maximum of 20 seconds.</p>
+         *
+         * @param backoffStrategy New backoff strategy.
+         * @return This builder for method chaining.
+         */
+        Builder backoffStrategy(BackoffStrategy backoffStrategy);
+
+        /**
+         * Sets the executor the requests are sent from, and the batches and retries are scheduled on. It is not shut down
+         * when the shipper is closed.
+         *
+         * <p>By default, the shipper uses a single daemon thread of its own, which is stopped when the shipper is
+         * closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private CloudWatchLogsAsyncClient client;
+        private Integer maxBufferedEventsPerStream;
+        private OverflowPolicy overflowPolicy;
+        private Duration maxBatchOpenTime;
+        private Integer maxRetries;
+        private BackoffStrategy backoffStrategy;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(CloudWatchLogsAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(CloudWatchLogsAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder maxBufferedEventsPerStream(Integer maxBufferedEventsPerStream) {
+            this.maxBufferedEventsPerStream = maxBufferedEventsPerStream;
+            return this;
+        }
+
+        public void setMaxBufferedEventsPerStream(Integer maxBufferedEventsPerStream) {
+            maxBufferedEventsPerStream(maxBufferedEventsPerStream);
+        }
+
+        @Override
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            overflowPolicy(overflowPolicy);
+        }
+
+        @Override
+        public Builder maxBatchOpenTime(Duration maxBatchOpenTime) {
+            this.maxBatchOpenTime = maxBatchOpenTime;
+            return this;
+        }
+
+        public void setMaxBatchOpenTime(Duration maxBatchOpenTime) {
+            maxBatchOpenTime(maxBatchOpenTime);
+        }
+
+        @Override
+        public Builder maxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public void setMaxRetries(Integer maxRetries) {
+            maxRetries(maxRetries);
+        }
+
+        @Override
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+            backoffStrategy(backoffStrategy);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public LogShipper build() {
+            return new LogShipper(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.cloudwatchlogs.shipper;
+
+/**
+ * What a {@link LogShipper} does with a log event when the buffer of its log stream is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Drop the oldest event of the buffer to make room for the new event.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drop the new event, and return false from {@link LogShipper#log(String, String, long, String)}, so that the application
+     * can slow down or log less.
+     */
+    DROP_NEWEST
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.cloudwatchlogs.shipper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InvalidSequenceTokenException;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsResponse;
+
+public class LogShipperTest {
+
+    private final List<PutLogEventsRequest> requests = new ArrayList<>();
+    private CloudWatchLogsAsyncClient client;
+    private Function<PutLogEventsRequest, CompletableFuture<PutLogEventsResponse>> service;
+
+    @Before
+    public void setUp() {
+        client = mock(CloudWatchLogsAsyncClient.class);
+        service = r -> CompletableFuture.completedFuture(PutLogEventsResponse.builder()
+                                                                             .nextSequenceToken("token" + requests.size())
+                                                                             .build());
+        when(client.putLogEvents(any(PutLogEventsRequest.class))).then(i -> {
+            PutLogEventsRequest request = i.getArgumentAt(0, PutLogEventsRequest.class);
+            synchronized (requests) {
+                requests.add(request);
+            }
+            return service.apply(request);
+        });
+    }
+
+    @Test
+    public void eventsAreSentSortedWithTheSequenceTokenOfThePreviousRequest() {
+        try (LogShipper shipper = shipper().build()) {
+            shipper.log("group", "stream", 2000, "second");
+            shipper.log("group", "stream", 1000, "first");
+            shipper.flush().join();
+            shipper.log("group", "stream", 3000, "third");
+            shipper.flush().join();
+        }
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).sequenceToken()).isNull();
+        assertThat(requests.get(0).logEvents().stream().map(InputLogEvent::message).collect(Collectors.toList()))
+            .containsExactly("first", "second");
+        assertThat(requests.get(1).sequenceToken()).isEqualTo("token1");
+        assertThat(requests.get(1).logGroupName()).isEqualTo("group");
+        assertThat(requests.get(1).logStreamName()).isEqualTo("stream");
+    }
+
+    @Test
+    public void sequenceTokenIsLearntFromTheRejectedRequest() {
+        service = r -> {
+            CompletableFuture<PutLogEventsResponse> response = new CompletableFuture<>();
+            if (r.sequenceToken() == null) {
+                response.completeExceptionally(InvalidSequenceTokenException.builder().expectedSequenceToken("abc").build());
+            } else {
+                response.complete(PutLogEventsResponse.builder().nextSequenceToken("def").build());
+            }
+            return response;
+        };
+
+        LogShipper shipper = shipper().maxRetries(0).build();
+        shipper.log("group", "stream", "message");
+        shipper.close();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).sequenceToken()).isEqualTo("abc");
+        assertThat(shipper.droppedEventCount()).isZero();
+    }
+
+    @Test
+    public void streamsHaveOneRequestInFlightWithMaximalBatches() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        service = r -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleep(10);
+                inFlight.decrementAndGet();
+                return PutLogEventsResponse.builder().nextSequenceToken("token").build();
+            });
+        };
+
+        try (LogShipper shipper = shipper().maxBufferedEventsPerStream(30_000).build()) {
+            for (int i = 0; i < 25_000; i++) {
+                assertThat(shipper.log("group", "stream", i, "message")).isTrue();
+            }
+        }
+
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        assertThat(requests.stream().map(r -> r.logEvents().size()).collect(Collectors.toList()))
+            .containsExactly(10_000, 10_000, 5_000);
+    }
+
+    @Test
+    public void newEventsAreDroppedWhenTheBufferIsFull() {
+        try (LogShipper shipper = shipper().maxBufferedEventsPerStream(2).overflowPolicy(OverflowPolicy.DROP_NEWEST).build()) {
+            assertThat(shipper.log("group", "stream", 1, "1")).isTrue();
+            assertThat(shipper.log("group", "stream", 2, "2")).isTrue();
+            assertThat(shipper.log("group", "stream", 3, "3")).isFalse();
+            assertThat(shipper.droppedEventCount()).isEqualTo(1);
+        }
+
+        assertThat(requests.get(0).logEvents().stream().map(InputLogEvent::message).collect(Collectors.toList()))
+            .containsExactly("1", "2");
+    }
+
+    @Test
+    public void oldestEventsAreDroppedWhenTheBufferIsFull() {
+        try (LogShipper shipper = shipper().maxBufferedEventsPerStream(2).build()) {
+            shipper.log("group", "stream", 1, "1");
+            shipper.log("group", "stream", 2, "2");
+            assertThat(shipper.log("group", "stream", 3, "3")).isTrue();
+            assertThat(shipper.droppedEventCount()).isEqualTo(1);
+        }
+
+        assertThat(requests.get(0).logEvents().stream().map(InputLogEvent::message).collect(Collectors.toList()))
+            .containsExactly("2", "3");
+    }
+
+    @Test
+    public void eventsAreDroppedAfterTheMaximumRetries() {
+        service = r -> {
+            CompletableFuture<PutLogEventsResponse> response = new CompletableFuture<>();
+            response.completeExceptionally(new IllegalStateException("Service unavailable"));
+            return response;
+        };
+
+        LogShipper shipper = shipper().maxRetries(2).build();
+        shipper.log("group", "stream", "message");
+        shipper.close();
+
+        assertThat(requests).hasSize(3);
+        assertThat(shipper.droppedEventCount()).isEqualTo(1);
+    }
+
+    private LogShipper.Builder shipper() {
+        return LogShipper.builder()
+                         .client(client)
+                         .maxBatchOpenTime(Duration.ofHours(1))
+                         .backoffStrategy(BackoffStrategy.none());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.checksums.ChecksumCalculatingInputStream;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.util.RewindableContentUtils;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Interceptor storing the CRC32C checksum of objects uploaded with PutObject in their user metadata, under the key
+ * validated by {@link ChecksumValidationInterceptor} when they are downloaded.
+ *
+ * <p>The checksum is sent in a header, before the content, so the content is read once to compute it and rewound to be
+ * sent. This is only done when that does not require buffering it, i.e. when it comes from a file or from bytes, and when no
+ * checksum metadata was already set. This interceptor is not registered by default; add it to the client to opt in:</p>
+ *
+ * <pre class="brush: java">
+ * S3Client s3 = S3Client.builder()
+ *                       .overrideConfiguration(ClientOverrideConfiguration.builder()
+ *                                                                         .addLastExecutionInterceptor(
+ *                                                                                 new ChecksumCalculationInterceptor())
+ *                                                                         .build())
+ *                       .build();
+ * </pre>
+ *
+ * <p>With the async client, compute the checksum beforehand with
+ * {@link software.amazon.awssdk.core.async.ChecksumCalculatingAsyncRequestProvider#checksumOf} and set it in the metadata of
+ * the request.</p>
+ */
+public class ChecksumCalculationInterceptor implements ExecutionInterceptor {
+
+    private static final String METADATA_HEADER_PREFIX = "x-amz-meta-";
+    private static final ChecksumAlgorithm UPLOAD_ALGORITHM = ChecksumAlgorithm.CRC32C;
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public SdkHttpFullRequest modifyHttpRequest(Context.ModifyHttpRequest context, ExecutionAttributes executionAttributes) {
+        SdkHttpFullRequest request = context.httpRequest();
+        if (!(context.request() instanceof PutObjectRequest) || !request.content().isPresent() || hasChecksum(request)) {
+            return request;
+        }
+        return RewindableContentUtils.readAndRewind(request.content().get(), ChecksumCalculationInterceptor::readChecksum)
+                .map(checksum -> request.toBuilder()
+                                        .header(METADATA_HEADER_PREFIX
+                                                + ChecksumValidationInterceptor.metadataKey(UPLOAD_ALGORITHM), checksum)
+                                        .build())
+                .orElse(request);
+    }
+
+    private static boolean hasChecksum(SdkHttpFullRequest request) {
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            String header = METADATA_HEADER_PREFIX + ChecksumValidationInterceptor.metadataKey(algorithm);
+            if (request.firstMatchingHeader(header).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readChecksum(InputStream content) throws IOException {
+        ChecksumCalculatingInputStream checksumStream = new ChecksumCalculatingInputStream(content, UPLOAD_ALGORITHM);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (checksumStream.read(buffer) != -1) {
+            // Only the checksum of the content is needed
+        }
+        return checksumStream.checksum();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.handlers;
+
+import java.util.Optional;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.checksums.ChecksumValidatingInputStream;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+/**
+ * Interceptor validating the content of objects downloaded with GetObject against the checksum stored with them, as it is
+ * read. The checksum of an object is stored in its user metadata, under the key returned by
+ * {@link #metadataKey(ChecksumAlgorithm)}, as encoded by {@link ChecksumAlgorithm#encode}. Objects without such metadata and
+ * partial downloads are not validated.
+ *
+ * <p>Register a {@link ChecksumCalculationInterceptor} with the client to store the CRC32C checksum of objects uploaded with
+ * PutObject in their metadata.</p>
+ *
+ * <p>The validation happens when the end of the object is reached, without reading it a second time. With the async client,
+ * wrap the response handler in a {@link software.amazon.awssdk.core.async.ChecksumValidatingAsyncResponseHandler} to get
+ * the same validation.</p>
+ */
+public class ChecksumValidationInterceptor implements ExecutionInterceptor {
+
+    private static final String METADATA_KEY_PREFIX = "sdk-checksum-";
+    private static final String METADATA_HEADER_PREFIX = "x-amz-meta-";
+
+    /**
+     * @return The user metadata key under which a checksum computed with the given algorithm is stored.
+     */
+    public static String metadataKey(ChecksumAlgorithm algorithm) {
+        return METADATA_KEY_PREFIX + algorithm.algorithmId();
+    }
+
+    @Override
+    public SdkHttpFullResponse modifyHttpResponse(Context.ModifyHttpResponse context, ExecutionAttributes executionAttributes) {
+        SdkHttpFullResponse response = context.httpResponse();
+        if (!(context.request() instanceof GetObjectRequest) || response.statusCode() != 200 || !response.content().isPresent()) {
+            return response;
+        }
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            Optional<String> expectedChecksum = response.firstMatchingHeader(METADATA_HEADER_PREFIX + metadataKey(algorithm));
+            if (expectedChecksum.isPresent()) {
+                AbortableInputStream content = response.content().get();
+                return response.toBuilder()
+                               .content(new AbortableInputStream(
+                                       new ChecksumValidatingInputStream(content, algorithm, expectedChecksum.get()), content))
+                               .build();
+            }
+        }
+        return response;
+    }
+}
@@ -21,13 +21,18 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.Context;
 import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.internal.collections.FifoCache;
 import software.amazon.awssdk.core.regions.Region;
 import software.amazon.awssdk.core.regions.RegionMetadata;
+import software.amazon.awssdk.core.regions.ServiceMetadata;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
 import software.amazon.awssdk.services.s3.BucketUtils;
 import software.amazon.awssdk.services.s3.S3AdvancedConfiguration;
@@ -41,6 +46,26 @@ public class EndpointAddressInterceptor implements ExecutionInterceptor {
     private static List<Class<?>> ACCELERATE_DISABLED_OPERATIONS = Arrays.asList(
             ListBucketsRequest.class, CreateBucketRequest.class, DeleteBucketRequest.class);
 
+    /**
+     * Header in which S3 returns the region of a bucket, including in the errors returned when a bucket is addressed in the
+     * wrong region.
+     */
+    private static final String BUCKET_REGION_HEADER = "x-amz-bucket-region";
+
+    /**
+     * Status codes of the errors returned by S3 when a bucket is addressed in the wrong region: 301 (PermanentRedirect), 307
+     * (TemporaryRedirect) and 400 (AuthorizationHeaderMalformed, signed for the wrong region).
+     */
+    private static final List<Integer> REDIRECT_STATUS_CODES = Arrays.asList(301, 307, 400);
+
+    private static final int MAX_CACHED_BUCKET_REGIONS = 300;
+
+    /**
+     * Regions of the buckets that were found to be in another region than the client's, so later requests to them go straight
+     * to the right regional endpoint.
+     */
+    private final FifoCache<Region> bucketRegions = new FifoCache<>(MAX_CACHED_BUCKET_REGIONS);
+
     @Override
     public SdkHttpFullRequest modifyHttpRequest(Context.ModifyHttpRequest context, ExecutionAttributes executionAttributes) {
         SdkHttpFullRequest request = context.httpRequest();
@@ -50,6 +75,15 @@ public class EndpointAddressInterceptor implements ExecutionInterceptor {
                 (S3AdvancedConfiguration) executionAttributes.getAttribute(AwsExecutionAttributes.SERVICE_ADVANCED_CONFIG);
         SdkHttpFullRequest.Builder mutableRequest = request.toBuilder();
 
+        Optional<String> bucket = sdkRequest.getValueForField("Bucket", String.class);
+        if (bucket.isPresent() && isRedirectSupported(request, sdkRequest, executionAttributes, advancedConfiguration)) {
+            installRedirectHandler(bucket.get(), executionAttributes, advancedConfiguration);
+            Region bucketRegion = bucketRegions.get(bucket.get());
+            if (bucketRegion != null) {
+                executionAttributes.putAttribute(AwsExecutionAttributes.SIGNING_REGION, bucketRegion);
+            }
+        }
+
         URI endpoint = resolveEndpoint(request, sdkRequest,
                                        executionAttributes, advancedConfiguration);
         mutableRequest.protocol(endpoint.getScheme())
@@ -58,7 +92,7 @@ public class EndpointAddressInterceptor implements ExecutionInterceptor {
                       .encodedPath(SdkHttpUtils.appendUri(endpoint.getPath(), mutableRequest.encodedPath()));
 
         if (advancedConfiguration == null || !advancedConfiguration.pathStyleAccessEnabled()) {
-            sdkRequest.getValueForField("Bucket", String.class).ifPresent(b -> {
+            bucket.ifPresent(b -> {
                 if (BucketUtils.isValidDnsBucketName(b, false)) {
                     changeToDnsEndpoint(mutableRequest, b);
                 }
@@ -71,23 +105,93 @@ public class EndpointAddressInterceptor implements ExecutionInterceptor {
     /**
      * Determine which endpoint to use based on region and {@link S3AdvancedConfiguration}. Will either be a traditional
      * S3 endpoint (i.e. s3.us-east-1.amazonaws.com), the global S3 accelerate endpoint (i.e. s3-accelerate.amazonaws.com) or
-     * a regional dualstack endpoint for IPV6 (i.e. s3.dualstack.us-east-1.amazonaws.com).
+     * a regional dualstack endpoint for IPV6 (i.e. s3.dualstack.us-east-1.amazonaws.com). Requests to a bucket known to be in
+     * another region than the client's go to the endpoint of the bucket's region.
      */
     private URI resolveEndpoint(SdkHttpFullRequest request,
                                 SdkRequest originalRequest,
                                 ExecutionAttributes executionAttributes,
                                 S3AdvancedConfiguration advancedConfiguration) {
         Region region = executionAttributes.getAttribute(AwsExecutionAttributes.AWS_REGION);
-        RegionMetadata regionMetadata = RegionMetadata.of(region);
+        Region bucketRegion = executionAttributes.getAttribute(AwsExecutionAttributes.SIGNING_REGION);
+        RegionMetadata regionMetadata = RegionMetadata.of(bucketRegion != null ? bucketRegion : region);
         if (isAccelerateEnabled(advancedConfiguration) && isAccelerateSupported(originalRequest)) {
             return accelerateEndpoint(advancedConfiguration, regionMetadata);
         } else if (advancedConfiguration != null && advancedConfiguration.dualstackEnabled()) {
             return dualstackEndpoint(regionMetadata);
+        } else if (bucketRegion != null) {
+            return invokeSafely(() -> new URI(request.protocol(), null, standardHost(bucketRegion), -1, null, null, null));
         } else {
             return invokeSafely(() -> new URI(request.protocol(), null, request.host(), request.port(), null, null, null));
         }
     }
 
+    /**
+     * Requests are redirected to the region of their bucket only when they would go to the standard regional endpoint of the
+     * client's region: not with a custom endpoint, not in accelerate mode (which has a single global endpoint) and not when
+     * creating a bucket (whose region is chosen by the request).
+     */
+    private static boolean isRedirectSupported(SdkHttpFullRequest request,
+                                               SdkRequest originalRequest,
+                                               ExecutionAttributes executionAttributes,
+                                               S3AdvancedConfiguration advancedConfiguration) {
+        Region region = executionAttributes.getAttribute(AwsExecutionAttributes.AWS_REGION);
+        return region != null &&
+               !isAccelerateEnabled(advancedConfiguration) &&
+               !(originalRequest instanceof CreateBucketRequest) &&
+               request.host().equals(standardHost(region));
+    }
+
+    /**
+     * Install a handler sending a request that failed because its bucket is in another region to the endpoint of the bucket's
+     * region, signed for that region. The region of the bucket is remembered for later requests.
+     */
+    private void installRedirectHandler(String bucket,
+                                        ExecutionAttributes executionAttributes,
+                                        S3AdvancedConfiguration advancedConfiguration) {
+        executionAttributes.putAttribute(AwsExecutionAttributes.REDIRECT_HANDLER, (request, exception, attributes) -> {
+            Optional<Region> bucketRegion = bucketRegion(exception);
+            if (!bucketRegion.isPresent() || bucketRegion.get().value().equals(signingRegion(attributes).value())) {
+                return Optional.empty();
+            }
+            Region region = bucketRegion.get();
+            bucketRegions.add(bucket, region);
+            attributes.putAttribute(AwsExecutionAttributes.SIGNING_REGION, region);
+
+            String host = advancedConfiguration != null && advancedConfiguration.dualstackEnabled()
+                          ? dualstackEndpoint(RegionMetadata.of(region)).getHost()
+                          : standardHost(region);
+            String redirectedHost = request.host().startsWith(bucket + ".") ? bucket + "." + host : host;
+            return Optional.of(request.copy(r -> r.host(redirectedHost)));
+        });
+    }
+
+    /**
+     * @return The region of the bucket reported by an error returned because the bucket was addressed in the wrong region.
+     */
+    private static Optional<Region> bucketRegion(SdkServiceException exception) {
+        Map<String, String> headers = exception.headers();
+        if (!REDIRECT_STATUS_CODES.contains(exception.statusCode()) || headers == null) {
+            return Optional.empty();
+        }
+        return headers.entrySet().stream()
+                      .filter(h -> h.getKey().equalsIgnoreCase(BUCKET_REGION_HEADER))
+                      .map(h -> Region.of(h.getValue()))
+                      .findFirst();
+    }
+
+    private static Region signingRegion(ExecutionAttributes executionAttributes) {
+        Region signingRegion = executionAttributes.getAttribute(AwsExecutionAttributes.SIGNING_REGION);
+        return signingRegion != null ? signingRegion : executionAttributes.getAttribute(AwsExecutionAttributes.AWS_REGION);
+    }
+
+    /**
+     * @return The host of the standard S3 endpoint of a region (i.e. s3.ap-south-1.amazonaws.com).
+     */
+    private static String standardHost(Region region) {
+        return ServiceMetadata.of("s3").endpointFor(region).toString();
+    }
+
     private static URI dualstackEndpoint(RegionMetadata metadata) {
         String serviceEndpoint = String.format("%s.%s.%s.%s", "s3", "dualstack", metadata.getName(), metadata.getDomain());
         return toUri(serviceEndpoint);
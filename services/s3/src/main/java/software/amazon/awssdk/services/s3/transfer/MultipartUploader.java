@@ -0,0 +1,394 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.reactivestreams.Publisher;
+import software.amazon.awssdk.core.async.AsyncRequestProvider;
+import software.amazon.awssdk.core.async.FileAsyncRequestProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.transfer.internal.InputStreamPublisher;
+import software.amazon.awssdk.services.s3.transfer.internal.MultipartUploadExecution;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Uploads large objects to Amazon S3 as multipart uploads, sending several parts concurrently over an {@link S3AsyncClient}.
+ *
+ * <p>The content is cut into parts of {@link Builder#partSizeInBytes(Integer)} bytes, which are uploaded while at most
+ * {@link Builder#maxInFlightBytes(Long)} bytes of content are held in memory. A part that fails is retried on its own after
+ * a {@link Builder#backoffStrategy(BackoffStrategy) backoff}, up to {@link Builder#maxPartAttempts(Integer)} times. The
+ * multipart upload is completed once every part has been uploaded, or
+ * aborted if a part cannot be uploaded or the returned future is cancelled.</p>
+ *
+ * <p>The length of the content does not need to be known in advance: content from an {@link InputStream} or a
+ * {@link Publisher} is cut into parts as it arrives, and the buffers of uploaded parts are reused for the following parts. The
+ * memory used by an upload is therefore bounded by {@link Builder#maxInFlightBytes(Long)} whatever the size of the object,
+ * which can be at most 10,000 times the part size.</p>
+ *
+ * <pre class="brush: java">
+ * MultipartUploader uploader = MultipartUploader.builder()
+ * .s3Client(s3AsyncClient)
+ * .build();
+ * uploader.upload(CreateMultipartUploadRequest.builder().bucket("bucket").key("key").build(), Paths.get("large-file"))
+ * .join();
+ * </pre>
+ *
+ * <p>The uploader does not own the client and does not close it. The maximum number of concurrent part uploads is also
+ * limited by the maximum number of connections of the client's HTTP implementation.</p>
+ */
+public final class MultipartUploader {
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    private static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 8L * DEFAULT_PART_SIZE;
+    private static final int DEFAULT_MAX_PART_ATTEMPTS = 3;
+    private static final int FILE_CHUNK_SIZE = 64 * 1024;
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(20);
+
+    private final S3AsyncClient s3Client;
+    private final int partSizeInBytes;
+    private final long maxInFlightBytes;
+    private final int maxPartAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+
+    private MultipartUploader(DefaultBuilder builder) {
+        this.s3Client = Validate.paramNotNull(builder.s3Client, "s3Client");
+        this.partSizeInBytes = builder.partSizeInBytes == null ? DEFAULT_PART_SIZE : builder.partSizeInBytes;
+        this.maxInFlightBytes = builder.maxInFlightBytes == null ? Math.max(DEFAULT_MAX_IN_FLIGHT_BYTES, partSizeInBytes)
+                                                                 : builder.maxInFlightBytes;
+        this.maxPartAttempts = builder.maxPartAttempts == null ? DEFAULT_MAX_PART_ATTEMPTS : builder.maxPartAttempts;
+        Validate.isTrue(partSizeInBytes >= MIN_PART_SIZE, "partSizeInBytes must be at least %s, but was %s",
+                        MIN_PART_SIZE, partSizeInBytes);
+        Validate.isTrue(maxInFlightBytes >= partSizeInBytes, "maxInFlightBytes must be at least partSizeInBytes (%s), but was %s",
+                        partSizeInBytes, maxInFlightBytes);
+        Validate.isPositive(maxPartAttempts, "maxPartAttempts");
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy
+                                                               : defaultBackoffStrategy(maxPartAttempts);
+        this.scheduler = builder.scheduledExecutorService != null ? builder.scheduledExecutorService
+                                                                  : DefaultScheduler.INSTANCE;
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy(int maxPartAttempts) {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(maxPartAttempts)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link MultipartUploader}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Upload the content of the given provider as a multipart upload.
+     *
+     * @param request The request starting the multipart upload, which identifies the object and its metadata.
+     * @param requestProvider The content to upload. It is subscribed to once.
+     * @return A future completed with the response of the completed multipart upload.
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     AsyncRequestProvider requestProvider) {
+        return upload(request, requestProvider, TransferProgressListener.noOp());
+    }
+
+    /**
+     * Upload the content of the given provider as a multipart upload, reporting progress to the given listener.
+     *
+     * @see #upload(CreateMultipartUploadRequest, AsyncRequestProvider)
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     AsyncRequestProvider requestProvider,
+                                                                     TransferProgressListener progressListener) {
+        Validate.paramNotNull(request, "request");
+        Validate.paramNotNull(requestProvider, "requestProvider");
+        Validate.paramNotNull(progressListener, "progressListener");
+        long contentLength = requestProvider.contentLength();
+        int partSize = partSizeFor(contentLength);
+        return new MultipartUploadExecution(s3Client, request, partSize, Math.max(maxInFlightBytes, partSize), maxPartAttempts,
+                                            backoffStrategy, scheduler, contentLength, progressListener)
+                .start(requestProvider);
+    }
+
+    /**
+     * Upload content of unknown length as a multipart upload. The content is requested as parts are uploaded, so a publisher
+     * honouring backpressure is never asked for more than {@link Builder#maxInFlightBytes(Long)} bytes ahead of the upload.
+     *
+     * @param request The request starting the multipart upload, which identifies the object and its metadata.
+     * @param content The content to upload. It is subscribed to once.
+     * @return A future completed with the response of the completed multipart upload.
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     Publisher<ByteBuffer> content) {
+        return upload(request, content, TransferProgressListener.noOp());
+    }
+
+    /**
+     * Upload content of unknown length as a multipart upload, reporting progress to the given listener.
+     *
+     * @see #upload(CreateMultipartUploadRequest, Publisher)
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     Publisher<ByteBuffer> content,
+                                                                     TransferProgressListener progressListener) {
+        Validate.paramNotNull(request, "request");
+        Validate.paramNotNull(content, "content");
+        Validate.paramNotNull(progressListener, "progressListener");
+        return new MultipartUploadExecution(s3Client, request, partSizeInBytes, maxInFlightBytes, maxPartAttempts,
+                                            backoffStrategy, scheduler, -1, progressListener)
+                .start(content);
+    }
+
+    /**
+     * Upload the content of the given stream, whose length does not need to be known, as a multipart upload.
+     *
+     * <p>The stream is read on the calling thread, which blocks while {@link Builder#maxInFlightBytes(Long)} bytes are waiting
+     * to be uploaded and returns once the whole stream has been read, or the upload has failed. The stream is not closed.</p>
+     *
+     * @param request The request starting the multipart upload, which identifies the object and its metadata.
+     * @param inputStream The content to upload.
+     * @return A future completed with the response of the completed multipart upload.
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     InputStream inputStream) {
+        return upload(request, inputStream, TransferProgressListener.noOp());
+    }
+
+    /**
+     * Upload the content of the given stream as a multipart upload, reporting progress to the given listener.
+     *
+     * @see #upload(CreateMultipartUploadRequest, InputStream)
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     InputStream inputStream,
+                                                                     TransferProgressListener progressListener) {
+        Validate.paramNotNull(inputStream, "inputStream");
+        InputStreamPublisher publisher = new InputStreamPublisher(STREAM_CHUNK_SIZE);
+        CompletableFuture<CompleteMultipartUploadResponse> result = upload(request, publisher, progressListener);
+        result.whenComplete((r, t) -> publisher.stop());
+        try {
+            publisher.writeFrom(inputStream);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new SdkClientException("Interrupted while reading the content to upload.", e);
+        }
+        return result;
+    }
+
+    /**
+     * Upload the content of the given file as a multipart upload.
+     *
+     * @see #upload(CreateMultipartUploadRequest, AsyncRequestProvider)
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request, Path path) {
+        return upload(request, path, TransferProgressListener.noOp());
+    }
+
+    /**
+     * Upload the content of the given file as a multipart upload, reporting progress to the given listener.
+     *
+     * @see #upload(CreateMultipartUploadRequest, AsyncRequestProvider)
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> upload(CreateMultipartUploadRequest request,
+                                                                     Path path,
+                                                                     TransferProgressListener progressListener) {
+        Validate.paramNotNull(path, "path");
+        return upload(request, FileAsyncRequestProvider.builder().path(path).chunkSizeInBytes(FILE_CHUNK_SIZE).build(),
+                      progressListener);
+    }
+
+    /**
+     * The configured part size, grown if necessary so that content of the given length fits in the maximum number of parts.
+     */
+    private int partSizeFor(long contentLength) {
+        long minPartSize = (contentLength + MultipartUploadExecution.MAX_PARTS - 1) / MultipartUploadExecution.MAX_PARTS;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(partSizeInBytes, minPartSize));
+    }
+
+    /**
+     * A builder for {@link MultipartUploader}.
+     */
+    public interface Builder extends SdkBuilder<Builder, MultipartUploader> {
+
+        /**
+         * Sets the client used to upload. Required.
+         *
+         * @param s3Client The client to upload with.
+         * @return This builder for method chaining.
+         */
+        Builder s3Client(S3AsyncClient s3Client);
+
+        /**
+         * Sets the size of each part but the last. Must be at least 5 MiB. When the length of the content is known, the part
+         * size is increased as needed to fit the content in the maximum of 10,000 parts. Otherwise, uploads of content longer
+         * than 10,000 parts fail.
+         *
+         * <p>The default part size is 8 MiB.</p>
+         *
+         * @param partSizeInBytes New part size in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder partSizeInBytes(Integer partSizeInBytes);
+
+        /**
+         * Sets the maximum number of bytes of content held in memory for parts being read or uploaded, which bounds both the
+         * memory used by an upload and the number of parts uploaded concurrently. Must be at least the part size.
+         *
+         * <p>The default is 8 times the part size.</p>
+         *
+         * @param maxInFlightBytes New maximum in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder maxInFlightBytes(Long maxInFlightBytes);
+
+        /**
+         * Sets the number of times the upload of a single part is attempted before the whole upload fails and is aborted. Each
+         * attempt is itself retried according to the client's retry policy.
+         *
+         * <p>The default is 3 attempts.</p>
+         *
+         * @param maxPartAttempts New maximum number of attempts.
+         * @return This builder for method chaining.
+         */
+        Builder maxPartAttempts(Integer maxPartAttempts);
+
+        /**
+         * Sets the strategy computing the delay before a failed part is attempted again.
+         *
+         * <p>The default is a {@link FullJitterBackoffStrategy} with a base delay of 100 milliseconds and a maximum delay of
+         * 20 seconds.</p>
+         *
+         * @param backoffStrategy New backoff strategy.
+         * @return This builder for method chaining.
+         */
+        Builder backoffStrategy(BackoffStrategy backoffStrategy);
+
+        /**
+         * Sets the executor on which failed parts are attempted again once their backoff delay has elapsed. It is not shut down
+         * by the uploader.
+         *
+         * <p>By default, a single daemon thread shared by all uploaders is used. It only starts the asynchronous part uploads,
+         * which run on the client's threads.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    /**
+     * The executor scheduling part retries for uploaders not given one, created when first needed.
+     */
+    private static final class DefaultScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("s3-multipart-uploader").daemonThreads(true).build());
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private S3AsyncClient s3Client;
+        private Integer partSizeInBytes;
+        private Long maxInFlightBytes;
+        private Integer maxPartAttempts;
+        private BackoffStrategy backoffStrategy;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder s3Client(S3AsyncClient s3Client) {
+            this.s3Client = s3Client;
+            return this;
+        }
+
+        public void setS3Client(S3AsyncClient s3Client) {
+            s3Client(s3Client);
+        }
+
+        @Override
+        public Builder partSizeInBytes(Integer partSizeInBytes) {
+            this.partSizeInBytes = partSizeInBytes;
+            return this;
+        }
+
+        public void setPartSizeInBytes(Integer partSizeInBytes) {
+            partSizeInBytes(partSizeInBytes);
+        }
+
+        @Override
+        public Builder maxInFlightBytes(Long maxInFlightBytes) {
+            this.maxInFlightBytes = maxInFlightBytes;
+            return this;
+        }
+
+        public void setMaxInFlightBytes(Long maxInFlightBytes) {
+            maxInFlightBytes(maxInFlightBytes);
+        }
+
+        @Override
+        public Builder maxPartAttempts(Integer maxPartAttempts) {
+            this.maxPartAttempts = maxPartAttempts;
+            return this;
+        }
+
+        public void setMaxPartAttempts(Integer maxPartAttempts) {
+            maxPartAttempts(maxPartAttempts);
+        }
+
+        @Override
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+            backoffStrategy(backoffStrategy);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public MultipartUploader build() {
+            return new MultipartUploader(this);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.transfer.internal.RangeDownloadExecution;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Downloads objects from Amazon S3 into files, fetching several byte ranges of an object concurrently over an
+ * {@link S3AsyncClient}.
+ *
+ * <p>The size and ETag of the object are first looked up with a {@code HeadObject} request. The object is then downloaded in
+ * ranges of {@link Builder#rangeSizeInBytes(Long)} bytes, at most {@link Builder#maxConcurrentRanges(Integer)} at a time, and
+ * each range is written at its offset in the file as it arrives. Every range is requested with an {@code If-Match} condition
+ * on the ETag and its ETag is checked, so the file never mixes several versions of the object. A range that fails is retried
+ * on its own after a {@link Builder#backoffStrategy(BackoffStrategy) backoff}, up to {@link Builder#maxRangeAttempts(Integer)}
+ * times. If the download fails or the returned future is
+ * cancelled, the file is deleted.</p>
+ *
+ * <pre class="brush: java">
+ * ParallelDownloader downloader = ParallelDownloader.builder()
+ * .s3Client(s3AsyncClient)
+ * .build();
+ * downloader.download(GetObjectRequest.builder().bucket("bucket").key("key").build(), Paths.get("large-file"))
+ * .join();
+ * </pre>
+ *
+ * <p>The downloader does not own the client and does not close it.</p>
+ */
+public final class ParallelDownloader {
+
+    private static final long DEFAULT_RANGE_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_MAX_CONCURRENT_RANGES = 8;
+    private static final int DEFAULT_MAX_RANGE_ATTEMPTS = 3;
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(20);
+
+    private final S3AsyncClient s3Client;
+    private final long rangeSizeInBytes;
+    private final int maxConcurrentRanges;
+    private final int maxRangeAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+
+    private ParallelDownloader(DefaultBuilder builder) {
+        this.s3Client = Validate.paramNotNull(builder.s3Client, "s3Client");
+        this.rangeSizeInBytes = builder.rangeSizeInBytes == null ? DEFAULT_RANGE_SIZE : builder.rangeSizeInBytes;
+        this.maxConcurrentRanges = builder.maxConcurrentRanges == null ? DEFAULT_MAX_CONCURRENT_RANGES
+                                                                       : builder.maxConcurrentRanges;
+        this.maxRangeAttempts = builder.maxRangeAttempts == null ? DEFAULT_MAX_RANGE_ATTEMPTS : builder.maxRangeAttempts;
+        Validate.isTrue(rangeSizeInBytes > 0, "rangeSizeInBytes must be positive, but was %s", rangeSizeInBytes);
+        Validate.isPositive(maxConcurrentRanges, "maxConcurrentRanges");
+        Validate.isPositive(maxRangeAttempts, "maxRangeAttempts");
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy
+                                                               : defaultBackoffStrategy(maxRangeAttempts);
+        this.scheduler = builder.scheduledExecutorService != null ? builder.scheduledExecutorService
+                                                                  : DefaultScheduler.INSTANCE;
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy(int maxRangeAttempts) {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(maxRangeAttempts)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link ParallelDownloader}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Download an object into a new file.
+     *
+     * @param request The request identifying the object. Its range, if any, is ignored.
+     * @param destination The file to write the object to. An exception is thrown if it already exists.
+     * @return A future completed with the metadata of the object once it has been fully written to the file.
+     */
+    public CompletableFuture<HeadObjectResponse> download(GetObjectRequest request, Path destination) {
+        return download(request, destination, TransferProgressListener.noOp());
+    }
+
+    /**
+     * Download an object into a new file, reporting progress to the given listener.
+     *
+     * @see #download(GetObjectRequest, Path)
+     */
+    public CompletableFuture<HeadObjectResponse> download(GetObjectRequest request,
+                                                          Path destination,
+                                                          TransferProgressListener progressListener) {
+        Validate.paramNotNull(request, "request");
+        Validate.paramNotNull(destination, "destination");
+        Validate.paramNotNull(progressListener, "progressListener");
+        return new RangeDownloadExecution(s3Client, request, destination, rangeSizeInBytes, maxConcurrentRanges,
+                                          maxRangeAttempts, backoffStrategy, scheduler, progressListener)
+                .start();
+    }
+
+    /**
+     * A builder for {@link ParallelDownloader}.
+     */
+    public interface Builder extends SdkBuilder<Builder, ParallelDownloader> {
+
+        /**
+         * Sets the client used to download. Required.
+         *
+         * @param s3Client The client to download with.
+         * @return This builder for method chaining.
+         */
+        Builder s3Client(S3AsyncClient s3Client);
+
+        /**
+         * Sets the size of each byte range requested, but the last.
+         *
+         * <p>The default range size is 8 MiB.</p>
+         *
+         * @param rangeSizeInBytes New range size in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder rangeSizeInBytes(Long rangeSizeInBytes);
+
+        /**
+         * Sets the maximum number of ranges of an object downloaded at the same time. The number of concurrent requests is also
+         * limited by the maximum number of connections of the client's HTTP implementation.
+         *
+         * <p>The default is 8 ranges.</p>
+         *
+         * @param maxConcurrentRanges New maximum number of ranges.
+         * @return This builder for method chaining.
+         */
+        Builder maxConcurrentRanges(Integer maxConcurrentRanges);
+
+        /**
+         * Sets the number of times the download of a single range is attempted before the whole download fails. Each attempt is
+         * itself retried according to the client's retry policy.
+         *
+         * <p>The default is 3 attempts.</p>
+         *
+         * @param maxRangeAttempts New maximum number of attempts.
+         * @return This builder for method chaining.
+         */
+        Builder maxRangeAttempts(Integer maxRangeAttempts);
+
+        /**
+         * Sets the strategy computing the delay before a failed range is attempted again.
+         *
+         * <p>The default is a {@link FullJitterBackoffStrategy} with a base delay of 100 milliseconds and a maximum delay of
+         * 20 seconds.</p>
+         *
+         * @param backoffStrategy New backoff strategy.
+         * @return This builder for method chaining.
+         */
+        Builder backoffStrategy(BackoffStrategy backoffStrategy);
+
+        /**
+         * Sets the executor on which failed ranges are attempted again once their backoff delay has elapsed. It is not shut
+         * down by the downloader.
+         *
+         * <p>By default, a single daemon thread shared by all downloaders is used. It only starts the asynchronous range
+         * downloads, which run on the client's threads.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    /**
+     * The executor scheduling range retries for downloaders not given one, created when first needed.
+     */
+    private static final class DefaultScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("s3-parallel-downloader").daemonThreads(true).build());
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private S3AsyncClient s3Client;
+        private Long rangeSizeInBytes;
+        private Integer maxConcurrentRanges;
+        private Integer maxRangeAttempts;
+        private BackoffStrategy backoffStrategy;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder s3Client(S3AsyncClient s3Client) {
+            this.s3Client = s3Client;
+            return this;
+        }
+
+        public void setS3Client(S3AsyncClient s3Client) {
+            s3Client(s3Client);
+        }
+
+        @Override
+        public Builder rangeSizeInBytes(Long rangeSizeInBytes) {
+            this.rangeSizeInBytes = rangeSizeInBytes;
+            return this;
+        }
+
+        public void setRangeSizeInBytes(Long rangeSizeInBytes) {
+            rangeSizeInBytes(rangeSizeInBytes);
+        }
+
+        @Override
+        public Builder maxConcurrentRanges(Integer maxConcurrentRanges) {
+            this.maxConcurrentRanges = maxConcurrentRanges;
+            return this;
+        }
+
+        public void setMaxConcurrentRanges(Integer maxConcurrentRanges) {
+            maxConcurrentRanges(maxConcurrentRanges);
+        }
+
+        @Override
+        public Builder maxRangeAttempts(Integer maxRangeAttempts) {
+            this.maxRangeAttempts = maxRangeAttempts;
+            return this;
+        }
+
+        public void setMaxRangeAttempts(Integer maxRangeAttempts) {
+            maxRangeAttempts(maxRangeAttempts);
+        }
+
+        @Override
+        public Builder backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+            backoffStrategy(backoffStrategy);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public ParallelDownloader build() {
+            return new ParallelDownloader(this);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.reactivestreams.Publisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.transfer.internal.ParallelListExecution;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Lists large numbers of objects in Amazon S3 by splitting the keyspace into partitions that are paged through concurrently
+ * over an {@link S3AsyncClient}, instead of following a single chain of continuation tokens.
+ *
+ * <p>The keyspace is split either by the common prefixes found with a delimiter, see {@link #list(ListObjectsV2Request)}, or
+ * at keys supplied by the caller, see {@link #list(ListObjectsV2Request, List)}. At most
+ * {@link Builder#maxConcurrentPartitions(Integer)} partitions are listed at a time. The objects are published as the
+ * subscriber requests them, and a partition only requests its next page while less than a page of its objects is waiting to
+ * be published, so memory stays bounded whatever the number of keys.</p>
+ *
+ * <p>By default objects are published in key order, like {@code ListObjectsV2} returns them. With
+ * {@link Builder#ordered(Boolean)} disabled they are published as soon as their page arrives, which keeps every partition
+ * being listed busy.</p>
+ *
+ * <pre class="brush: java">
+ * ParallelLister lister = ParallelLister.builder()
+ * .s3Client(s3AsyncClient)
+ * .build();
+ * lister.list(ListObjectsV2Request.builder().bucket("bucket").prefix("logs/").build())
+ * .subscribe(subscriber);
+ * </pre>
+ *
+ * <p>The lister does not own the client and does not close it.</p>
+ */
+public final class ParallelLister {
+
+    private static final int DEFAULT_MAX_CONCURRENT_PARTITIONS = 8;
+    private static final String DEFAULT_DELIMITER = "/";
+
+    private final S3AsyncClient s3Client;
+    private final int maxConcurrentPartitions;
+    private final boolean ordered;
+    private final String delimiter;
+
+    private ParallelLister(DefaultBuilder builder) {
+        this.s3Client = Validate.paramNotNull(builder.s3Client, "s3Client");
+        this.maxConcurrentPartitions = builder.maxConcurrentPartitions == null ? DEFAULT_MAX_CONCURRENT_PARTITIONS
+                                                                               : builder.maxConcurrentPartitions;
+        this.ordered = builder.ordered == null || builder.ordered;
+        this.delimiter = builder.delimiter == null ? DEFAULT_DELIMITER : builder.delimiter;
+        Validate.isPositive(maxConcurrentPartitions, "maxConcurrentPartitions");
+        Validate.notEmpty(delimiter, "delimiter");
+    }
+
+    /**
+     * @return Builder instance to construct a {@link ParallelLister}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * List all the objects under the prefix of the request, partitioning the keyspace by the common prefixes found under that
+     * prefix with the configured delimiter. The prefix is first listed with the delimiter, then every common prefix is listed
+     * as a partition.
+     *
+     * <p>This suits keyspaces organized in "directories". Objects directly under the prefix are held in memory until they are
+     * published, so use {@link #list(ListObjectsV2Request, List)} for flat keyspaces.</p>
+     *
+     * @param request The listing request. Its bucket, prefix, start key and page size apply to every partition. It must not
+     *                have a delimiter or continuation token.
+     * @return A publisher of the objects. Every subscription lists the objects again.
+     */
+    public Publisher<S3Object> list(ListObjectsV2Request request) {
+        validate(request);
+        return s -> new ParallelListExecution(s3Client, request, maxConcurrentPartitions, ordered, s)
+                .startWithDelimiter(delimiter);
+    }
+
+    /**
+     * List all the objects under the prefix of the request, partitioning the keyspace at the given keys. The first partition
+     * holds the keys up to the first split key included, and each following partition the keys after the previous split key,
+     * up to the next one included.
+     *
+     * @param request The listing request. Its bucket, prefix, start key and page size apply to every partition. It must not
+     *                have a delimiter or continuation token.
+     * @param splitKeys The keys at which the keyspace is split, in ascending order.
+     * @return A publisher of the objects. Every subscription lists the objects again.
+     */
+    public Publisher<S3Object> list(ListObjectsV2Request request, List<String> splitKeys) {
+        validate(request);
+        Validate.paramNotNull(splitKeys, "splitKeys");
+        List<String> keys = new ArrayList<>(splitKeys);
+        for (int i = 1; i < keys.size(); i++) {
+            Validate.isTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, "splitKeys must be in strictly ascending order");
+        }
+        return s -> new ParallelListExecution(s3Client, request, maxConcurrentPartitions, ordered, s)
+                .startWithSplitKeys(keys);
+    }
+
+    private static void validate(ListObjectsV2Request request) {
+        Validate.paramNotNull(request, "request");
+        Validate.isTrue(request.delimiter() == null, "The request must not have a delimiter.");
+        Validate.isTrue(request.continuationToken() == null, "The request must not have a continuation token.");
+    }
+
+    /**
+     * A builder for {@link ParallelLister}.
+     */
+    public interface Builder extends SdkBuilder<Builder, ParallelLister> {
+
+        /**
+         * Sets the client used to list. Required.
+         *
+         * @param s3Client The client to list with.
+         * @return This builder for method chaining.
+         */
+        Builder s3Client(S3AsyncClient s3Client);
+
+        /**
+         * Sets the maximum number of partitions listed concurrently, which bounds both the number of concurrent requests and
+         * the number of pages of objects held in memory.
+         *
+         * <p>The default is 8 partitions.</p>
+         *
+         * @param maxConcurrentPartitions New maximum number of partitions.
+         * @return This builder for method chaining.
+         */
+        Builder maxConcurrentPartitions(Integer maxConcurrentPartitions);
+
+        /**
+         * Sets whether objects are published in key order. When disabled, objects of different partitions are interleaved
+         * and published as soon as they are listed.
+         *
+         * <p>Objects are ordered by default.</p>
+         *
+         * @param ordered True to publish objects in key order.
+         * @return This builder for method chaining.
+         */
+        Builder ordered(Boolean ordered);
+
+        /**
+         * Sets the delimiter whose common prefixes partition the keyspace in {@link ParallelLister#list(ListObjectsV2Request)}.
+         *
+         * <p>The default delimiter is "/".</p>
+         *
+         * @param delimiter New delimiter.
+         * @return This builder for method chaining.
+         */
+        Builder delimiter(String delimiter);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private S3AsyncClient s3Client;
+        private Integer maxConcurrentPartitions;
+        private Boolean ordered;
+        private String delimiter;
+
+        @Override
+        public Builder s3Client(S3AsyncClient s3Client) {
+            this.s3Client = s3Client;
+            return this;
+        }
+
+        public void setS3Client(S3AsyncClient s3Client) {
+            s3Client(s3Client);
+        }
+
+        @Override
+        public Builder maxConcurrentPartitions(Integer maxConcurrentPartitions) {
+            this.maxConcurrentPartitions = maxConcurrentPartitions;
+            return this;
+        }
+
+        public void setMaxConcurrentPartitions(Integer maxConcurrentPartitions) {
+            maxConcurrentPartitions(maxConcurrentPartitions);
+        }
+
+        @Override
+        public Builder ordered(Boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        public void setOrdered(Boolean ordered) {
+            ordered(ordered);
+        }
+
+        @Override
+        public Builder delimiter(String delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public void setDelimiter(String delimiter) {
+            delimiter(delimiter);
+        }
+
+        @Override
+        public ParallelLister build() {
+            return new ParallelLister(this);
+        }
+    }
+}
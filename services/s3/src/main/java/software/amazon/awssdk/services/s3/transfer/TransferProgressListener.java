@@ -0,0 +1,41 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+/**
+ * Listener notified of the progress of a transfer performed by the utilities in this package.
+ *
+ * <p>Progress is reported as each part of a transfer completes, and may be reported from any thread. Implementations should
+ * return quickly to avoid delaying the transfer.</p>
+ */
+@FunctionalInterface
+public interface TransferProgressListener {
+
+    /**
+     * Invoked each time more bytes of the transfer have completed.
+     *
+     * @param transferredBytes The total number of bytes transferred so far.
+     * @param totalBytes The total number of bytes of the transfer, or -1 if it is not known in advance.
+     */
+    void bytesTransferred(long transferredBytes, long totalBytes);
+
+    /**
+     * @return A listener that ignores all progress.
+     */
+    static TransferProgressListener noOp() {
+        return (transferredBytes, totalBytes) -> { };
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import java.nio.ByteBuffer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.async.AsyncRequestProvider;
+
+/**
+ * {@link AsyncRequestProvider} that publishes the remaining content of a {@link ByteBuffer} without copying it. Each
+ * subscription publishes the same content, so a request using this provider can be retried.
+ */
+@SdkInternalApi
+public final class ByteBufferAsyncRequestProvider implements AsyncRequestProvider {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferAsyncRequestProvider(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                if (n <= 0) {
+                    subscriber.onError(new IllegalArgumentException("Demand must be positive, but was " + n));
+                    return;
+                }
+                if (buffer.hasRemaining()) {
+                    subscriber.onNext(buffer.duplicate());
+                }
+                subscriber.onComplete();
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+    }
+}
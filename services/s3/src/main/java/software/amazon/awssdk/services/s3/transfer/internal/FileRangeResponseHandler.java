@@ -0,0 +1,153 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.async.AsyncResponseHandler;
+
+/**
+ * {@link AsyncResponseHandler} that writes the content of a response into a shared file, starting at a given offset, using
+ * positional writes. Several handlers can write different ranges of the same file concurrently.
+ *
+ * @param <ResponseT> Response POJO type. Returned on {@link #complete()}.
+ */
+@SdkInternalApi
+public final class FileRangeResponseHandler<ResponseT> implements AsyncResponseHandler<ResponseT, ResponseT> {
+
+    private final AsynchronousFileChannel fileChannel;
+    private final long offset;
+    private volatile ResponseT response;
+    private volatile CompletableFuture<Long> bytesWritten = CompletableFuture.completedFuture(0L);
+
+    public FileRangeResponseHandler(AsynchronousFileChannel fileChannel, long offset) {
+        this.fileChannel = fileChannel;
+        this.offset = offset;
+    }
+
+    @Override
+    public void responseReceived(ResponseT response) {
+        this.response = response;
+    }
+
+    @Override
+    public void onStream(Publisher<ByteBuffer> publisher) {
+        // onStream may be called multiple times, each stream rewrites the range from its start
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        this.bytesWritten = written;
+        publisher.subscribe(new RangeSubscriber(written));
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable throwable) {
+        bytesWritten.completeExceptionally(throwable);
+    }
+
+    @Override
+    public ResponseT complete() {
+        return response;
+    }
+
+    /**
+     * @return A future completed with the number of bytes written once every chunk of the last stream has been written to the
+     * file. The response handler itself completes as soon as the last chunk has been received, which may be before it has
+     * been written.
+     */
+    public CompletableFuture<Long> bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * {@link Subscriber} implementation that writes chunks one at a time at increasing positions of the file.
+     */
+    private final class RangeSubscriber implements Subscriber<ByteBuffer> {
+
+        private final CompletableFuture<Long> written;
+        private Subscription subscription;
+        private long position;
+        private boolean writeInProgress;
+        private boolean completeOnLastWrite;
+
+        private RangeSubscriber(CompletableFuture<Long> written) {
+            this.written = written;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.subscription = s;
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer byteBuffer) {
+            synchronized (this) {
+                writeInProgress = true;
+            }
+            write(byteBuffer);
+        }
+
+        private void write(ByteBuffer byteBuffer) {
+            fileChannel.write(byteBuffer, offset + position, byteBuffer, new CompletionHandler<Integer, ByteBuffer>() {
+                @Override
+                public void completed(Integer result, ByteBuffer attachment) {
+                    synchronized (RangeSubscriber.this) {
+                        position += result;
+                    }
+                    if (attachment.hasRemaining()) {
+                        write(attachment);
+                        return;
+                    }
+                    boolean complete;
+                    synchronized (RangeSubscriber.this) {
+                        writeInProgress = false;
+                        complete = completeOnLastWrite;
+                    }
+                    if (complete) {
+                        written.complete(position);
+                    } else {
+                        subscription.request(1);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable exc, ByteBuffer attachment) {
+                    subscription.cancel();
+                    written.completeExceptionally(exc);
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            written.completeExceptionally(t);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            if (writeInProgress) {
+                completeOnLastWrite = true;
+            } else {
+                written.complete(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+
+/**
+ * {@link Publisher} of the content of an {@link InputStream}, which is read on the thread calling
+ * {@link #writeFrom(InputStream)}. That thread blocks while the subscriber has no outstanding demand, so a subscriber that
+ * stops requesting content also stops the stream from being read.
+ *
+ * <p>Each published buffer is newly allocated and owned by the subscriber, which may hold on to it after
+ * {@link Subscriber#onNext} returns. The publisher supports a single subscriber.</p>
+ */
+@SdkInternalApi
+public final class InputStreamPublisher implements Publisher<ByteBuffer> {
+
+    private final int chunkSize;
+
+    private Subscriber<? super ByteBuffer> subscriber;
+    private long demand;
+    private boolean stopped;
+
+    /**
+     * @param chunkSize The maximum number of bytes read from the stream and published at once.
+     */
+    public InputStreamPublisher(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> s) {
+        synchronized (this) {
+            if (subscriber != null) {
+                s.onSubscribe(new Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                s.onError(new IllegalStateException("The content of an input stream can only be published once."));
+                return;
+            }
+            subscriber = s;
+            notifyAll();
+        }
+        s.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    stop();
+                    s.onError(new IllegalArgumentException("Demand must be positive, but was " + n));
+                    return;
+                }
+                synchronized (InputStreamPublisher.this) {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    InputStreamPublisher.this.notifyAll();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                stop();
+            }
+        });
+    }
+
+    /**
+     * Stop publishing. {@link #writeFrom(InputStream)} returns without reading the rest of the stream.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    /**
+     * Read the given stream until its end or until publishing is stopped, publishing its content to the subscriber. Errors
+     * reading the stream are signalled to the subscriber. The stream is not closed.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting for the subscriber. The subscriber is not
+     *                              signalled in that case.
+     */
+    public void writeFrom(InputStream in) throws InterruptedException {
+        while (awaitDemand()) {
+            byte[] chunk = new byte[chunkSize];
+            int read;
+            try {
+                read = in.read(chunk);
+            } catch (IOException | RuntimeException e) {
+                stop();
+                subscriber.onError(e);
+                return;
+            }
+            if (read < 0) {
+                stop();
+                subscriber.onComplete();
+                return;
+            }
+            if (read > 0) {
+                subscriber.onNext(ByteBuffer.wrap(chunk, 0, read));
+            } else {
+                returnDemand();
+            }
+        }
+    }
+
+    /**
+     * Wait until the subscriber can receive another buffer and claim that demand.
+     *
+     * @return False if publishing was stopped.
+     */
+    private synchronized boolean awaitDemand() throws InterruptedException {
+        while (!stopped && (subscriber == null || demand == 0)) {
+            wait();
+        }
+        if (stopped) {
+            return false;
+        }
+        demand--;
+        return true;
+    }
+
+    private synchronized void returnDemand() {
+        demand++;
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.transfer.TransferProgressListener;
+import software.amazon.awssdk.utils.Logger;
+
+/**
+ * A single multipart upload. Subscribes to the content to upload, cuts it into parts of a fixed size and uploads the parts
+ * concurrently, only requesting more content while less than the configured number of bytes are buffered. The buffers of
+ * uploaded parts are reused for the following parts, so the memory used is bounded by that number of bytes whatever the
+ * length of the content, which does not need to be known in advance. A chunk of content larger than the free buffer space is
+ * held as published, without copying, and consumed as parts complete. Failed parts are retried individually after a backoff;
+ * if a part cannot be uploaded the multipart upload is aborted.
+ *
+ * <p>The state of the upload is guarded by this object's monitor. Calls to S3 and to the subscription are collected while
+ * holding it and only made once it is released.</p>
+ */
+@SdkInternalApi
+public final class MultipartUploadExecution implements Subscriber<ByteBuffer> {
+
+    /**
+     * The maximum number of parts in a multipart upload.
+     */
+    public static final int MAX_PARTS = 10_000;
+
+    private static final Logger log = Logger.loggerFor(MultipartUploadExecution.class);
+
+    private final S3AsyncClient s3;
+    private final CreateMultipartUploadRequest createRequest;
+    private final int partSize;
+    private final long maxBufferedBytes;
+    private final int maxPartAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+    private final long totalBytes;
+    private final TransferProgressListener progressListener;
+    private final CompletableFuture<CompleteMultipartUploadResponse> result = new CompletableFuture<>();
+
+    private final SortedMap<Integer, CompletedPart> completedParts = new TreeMap<>();
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private final List<Runnable> pendingCalls = new ArrayList<>();
+    private String uploadId;
+    private Subscription subscription;
+    private ByteBuffer pendingChunk;
+    private ByteBuffer currentPart;
+    private int nextPartNumber = 1;
+    private int partsInFlight;
+    private long bufferedBytes;
+    private long transferredBytes;
+    private boolean demandOutstanding;
+    private boolean upstreamComplete;
+    private boolean completing;
+    private boolean failed;
+
+    /**
+     * @param s3 The client to upload with.
+     * @param createRequest The request that starts the multipart upload.
+     * @param partSize The size of each part but the last, in bytes.
+     * @param maxBufferedBytes The number of bytes of content that may be held in memory while parts are being uploaded.
+     * @param maxPartAttempts The number of times a part is attempted before the upload fails.
+     * @param backoffStrategy The delay before a failed part is attempted again.
+     * @param scheduler The executor on which failed parts are attempted again.
+     * @param totalBytes The length of the content, or -1 if it is unknown.
+     * @param progressListener The listener to notify as parts complete.
+     */
+    public MultipartUploadExecution(S3AsyncClient s3,
+                                    CreateMultipartUploadRequest createRequest,
+                                    int partSize,
+                                    long maxBufferedBytes,
+                                    int maxPartAttempts,
+                                    BackoffStrategy backoffStrategy,
+                                    ScheduledExecutorService scheduler,
+                                    long totalBytes,
+                                    TransferProgressListener progressListener) {
+        this.s3 = s3;
+        this.createRequest = createRequest;
+        this.partSize = partSize;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.maxPartAttempts = maxPartAttempts;
+        this.backoffStrategy = backoffStrategy;
+        this.scheduler = scheduler;
+        this.totalBytes = totalBytes;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Start the multipart upload and upload the given content into it.
+     *
+     * @return A future completed when the upload has completed. Cancelling it aborts the upload.
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> start(Publisher<ByteBuffer> content) {
+        result.whenComplete((r, t) -> {
+            if (t instanceof CancellationException) {
+                fail(t);
+            }
+        });
+        s3.createMultipartUpload(createRequest).whenComplete((response, t) -> {
+            if (t != null) {
+                result.completeExceptionally(t);
+                return;
+            }
+            boolean alreadyFailed;
+            synchronized (this) {
+                uploadId = response.uploadId();
+                alreadyFailed = failed;
+            }
+            if (alreadyFailed) {
+                abort(response.uploadId(), new CancellationException("The upload was cancelled."));
+            } else {
+                content.subscribe(this);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        synchronized (this) {
+            if (subscription != null || failed) {
+                callLater(s::cancel);
+            } else {
+                subscription = s;
+                requestMore();
+            }
+        }
+        runPendingCalls();
+    }
+
+    @Override
+    public void onNext(ByteBuffer chunk) {
+        synchronized (this) {
+            demandOutstanding = false;
+            if (!failed) {
+                pendingChunk = chunk;
+                consumePendingChunk();
+                requestMore();
+            }
+        }
+        runPendingCalls();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        fail(t);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            upstreamComplete = true;
+            if (pendingChunk == null) {
+                submitLastPart();
+            }
+        }
+        runPendingCalls();
+    }
+
+    /**
+     * Copy the pending chunk into parts, submitting the parts as they fill up. Stops when there is no buffer space left for a
+     * new part, leaving the rest of the chunk pending until a part completes.
+     */
+    private void consumePendingChunk() {
+        while (!failed && pendingChunk != null && pendingChunk.hasRemaining()) {
+            if (currentPart == null) {
+                if (bufferedBytes + partSize > maxBufferedBytes) {
+                    return;
+                }
+                currentPart = allocate(partSize);
+            }
+            int length = Math.min(pendingChunk.remaining(), currentPart.remaining());
+            ByteBuffer slice = pendingChunk.duplicate();
+            slice.limit(slice.position() + length);
+            currentPart.put(slice);
+            pendingChunk.position(pendingChunk.position() + length);
+            if (!currentPart.hasRemaining()) {
+                submitCurrentPart();
+            }
+        }
+        pendingChunk = null;
+        if (upstreamComplete) {
+            submitLastPart();
+        }
+    }
+
+    private void submitLastPart() {
+        if (failed) {
+            return;
+        }
+        if (currentPart != null && currentPart.position() > 0) {
+            submitCurrentPart();
+        } else if (nextPartNumber == 1) {
+            // Empty content is uploaded as a single empty part
+            currentPart = allocate(0);
+            submitCurrentPart();
+        }
+        completeIfDone();
+    }
+
+    private ByteBuffer allocate(int size) {
+        bufferedBytes += size;
+        if (size == partSize && !freeBuffers.isEmpty()) {
+            ByteBuffer buffer = freeBuffers.pop();
+            buffer.clear();
+            return buffer;
+        }
+        return ByteBuffer.allocate(size);
+    }
+
+    private void release(ByteBuffer buffer) {
+        bufferedBytes -= buffer.capacity();
+        if (buffer.capacity() == partSize && !upstreamComplete) {
+            freeBuffers.push(buffer);
+        }
+    }
+
+    private void requestMore() {
+        if (!failed && !upstreamComplete && !demandOutstanding && pendingChunk == null && subscription != null
+            && bufferedBytes < maxBufferedBytes) {
+            demandOutstanding = true;
+            Subscription s = subscription;
+            callLater(() -> s.request(1));
+        }
+    }
+
+    private void submitCurrentPart() {
+        ByteBuffer part = currentPart;
+        currentPart = null;
+        part.flip();
+        int partNumber = nextPartNumber++;
+        if (partNumber > MAX_PARTS) {
+            markFailed(new IllegalStateException("The content exceeds the maximum of " + MAX_PARTS + " parts of " + partSize
+                                                 + " bytes. Increase the part size to upload it."));
+            return;
+        }
+        partsInFlight++;
+        String id = uploadId;
+        callLater(() -> uploadPart(id, partNumber, part, 1));
+    }
+
+    private void uploadPart(String id, int partNumber, ByteBuffer part, int attempt) {
+        UploadPartRequest request = UploadPartRequest.builder()
+                                                     .bucket(createRequest.bucket())
+                                                     .key(createRequest.key())
+                                                     .uploadId(id)
+                                                     .partNumber(partNumber)
+                                                     .contentLength((long) part.remaining())
+                                                     .sseCustomerAlgorithm(createRequest.sseCustomerAlgorithm())
+                                                     .sseCustomerKey(createRequest.sseCustomerKey())
+                                                     .sseCustomerKeyMD5(createRequest.sseCustomerKeyMD5())
+                                                     .requestPayer(createRequest.requestPayerString())
+                                                     .build();
+        s3.uploadPart(request, new ByteBufferAsyncRequestProvider(part))
+            .whenComplete((response, t) -> partUploaded(id, partNumber, part, attempt, response, t));
+    }
+
+    private void partUploaded(String id, int partNumber, ByteBuffer part, int attempt, UploadPartResponse response,
+                              Throwable t) {
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            if (t != null) {
+                if (attempt < maxPartAttempts) {
+                    retryPart(id, partNumber, part, attempt);
+                } else {
+                    markFailed(t);
+                }
+            } else {
+                completedParts.put(partNumber, CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+                partsInFlight--;
+                transferredBytes += part.remaining();
+                release(part);
+                long transferred = transferredBytes;
+                callLater(() -> progressListener.bytesTransferred(transferred, totalBytes));
+                consumePendingChunk();
+                requestMore();
+                completeIfDone();
+            }
+        }
+        runPendingCalls();
+    }
+
+    /**
+     * Schedule another attempt of a failed part after the backoff delay for the number of attempts made so far.
+     */
+    private void retryPart(String id, int partNumber, ByteBuffer part, int attempt) {
+        Duration delay = backoffStrategy.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                                                                                        .retriesAttempted(attempt - 1)
+                                                                                        .build());
+        log.debug(() -> "Retrying part " + partNumber + " of upload " + id + " in " + delay.toMillis() + " ms after attempt "
+                        + attempt + " failed.");
+        callLater(() -> {
+            try {
+                scheduler.schedule(() -> {
+                    synchronized (this) {
+                        if (failed) {
+                            return;
+                        }
+                    }
+                    uploadPart(id, partNumber, part, attempt + 1);
+                }, delay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        });
+    }
+
+    private void completeIfDone() {
+        if (!upstreamComplete || pendingChunk != null || partsInFlight > 0 || completing || failed) {
+            return;
+        }
+        completing = true;
+        CompleteMultipartUploadRequest request =
+                CompleteMultipartUploadRequest.builder()
+                                              .bucket(createRequest.bucket())
+                                              .key(createRequest.key())
+                                              .uploadId(uploadId)
+                                              .multipartUpload(u -> u.parts(new ArrayList<>(completedParts.values())))
+                                              .requestPayer(createRequest.requestPayerString())
+                                              .build();
+        callLater(() -> s3.completeMultipartUpload(request).whenComplete((response, t) -> {
+            if (t != null) {
+                fail(t);
+            } else {
+                result.complete(response);
+            }
+        }));
+    }
+
+    private void fail(Throwable cause) {
+        synchronized (this) {
+            markFailed(cause);
+        }
+        runPendingCalls();
+    }
+
+    /**
+     * Mark the upload as failed, and collect the calls cancelling the subscription and aborting the multipart upload. Must be
+     * called while holding this object's monitor.
+     */
+    private void markFailed(Throwable cause) {
+        if (failed) {
+            return;
+        }
+        failed = true;
+        pendingChunk = null;
+        currentPart = null;
+        freeBuffers.clear();
+        Subscription s = subscription;
+        if (s != null) {
+            callLater(s::cancel);
+        }
+        String abortUploadId = uploadId;
+        if (abortUploadId == null) {
+            callLater(() -> result.completeExceptionally(cause));
+        } else {
+            callLater(() -> abort(abortUploadId, cause));
+        }
+    }
+
+    private void abort(String abortUploadId, Throwable cause) {
+        AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+                                                                         .bucket(createRequest.bucket())
+                                                                         .key(createRequest.key())
+                                                                         .uploadId(abortUploadId)
+                                                                         .requestPayer(createRequest.requestPayerString())
+                                                                         .build();
+        s3.abortMultipartUpload(request).whenComplete((r, abortError) -> {
+            if (abortError != null) {
+                log.error(() -> "Unable to abort multipart upload " + abortUploadId, abortError);
+                cause.addSuppressed(abortError);
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    /**
+     * Collect a call to make once this object's monitor is released. Must be called while holding it.
+     */
+    private void callLater(Runnable call) {
+        pendingCalls.add(call);
+    }
+
+    /**
+     * Make the calls collected while holding this object's monitor. Must be called without holding it.
+     */
+    private void runPendingCalls() {
+        while (true) {
+            List<Runnable> calls;
+            synchronized (this) {
+                if (pendingCalls.isEmpty()) {
+                    return;
+                }
+                calls = new ArrayList<>(pendingCalls);
+                pendingCalls.clear();
+            }
+            calls.forEach(Runnable::run);
+        }
+    }
+}
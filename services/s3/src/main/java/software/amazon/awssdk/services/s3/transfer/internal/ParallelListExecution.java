@@ -0,0 +1,324 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+/**
+ * A single listing of the objects under a prefix, split into partitions of the keyspace that are listed concurrently. Each
+ * partition is paged through with its own continuation token and only requests its next page while less than a page of its
+ * objects is waiting to be delivered, so the number of objects held in memory is bounded by the number of partitions being
+ * listed whatever the number of keys. Objects are delivered as the subscriber requests them, either in key order, by
+ * delivering the partitions one after the other, or in the order in which pages arrive.
+ *
+ * <p>The partitions are either given as split keys, or discovered by first listing the prefix with a delimiter: every common
+ * prefix becomes a partition, and the keys directly under the prefix are delivered between them.</p>
+ */
+@SdkInternalApi
+public final class ParallelListExecution implements Subscription {
+
+    private final S3AsyncClient s3;
+    private final ListObjectsV2Request request;
+    private final int maxConcurrentPartitions;
+    private final boolean ordered;
+    private final int pageSize;
+    private final Subscriber<? super S3Object> subscriber;
+
+    private final List<Partition> partitions = new ArrayList<>();
+    private final List<Partition> activePartitions = new ArrayList<>();
+    private int nextPartition;
+    private long demand;
+    private boolean partitioned;
+    private boolean draining;
+    private boolean drainAgain;
+    private boolean terminated;
+    private Throwable error;
+
+    public ParallelListExecution(S3AsyncClient s3,
+                                 ListObjectsV2Request request,
+                                 int maxConcurrentPartitions,
+                                 boolean ordered,
+                                 Subscriber<? super S3Object> subscriber) {
+        this.s3 = s3;
+        this.request = request;
+        this.maxConcurrentPartitions = maxConcurrentPartitions;
+        this.ordered = ordered;
+        this.pageSize = request.maxKeys() == null ? 1000 : request.maxKeys();
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Start listing the partitions between the given keys: the first partition ends with the first split key included, and
+     * each following partition starts after the split key ending the previous one.
+     */
+    public void startWithSplitKeys(List<String> splitKeys) {
+        String startAfter = request.startAfter();
+        for (String splitKey : splitKeys) {
+            partitions.add(new Partition(request.prefix(), startAfter, splitKey));
+            startAfter = splitKey;
+        }
+        partitions.add(new Partition(request.prefix(), startAfter, null));
+        partitioned = true;
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+    /**
+     * Start listing the partitions delimited by the common prefixes found under the prefix of the request with the given
+     * delimiter.
+     */
+    public void startWithDelimiter(String delimiter) {
+        subscriber.onSubscribe(this);
+        listTopLevel(delimiter, null, new ArrayList<>());
+    }
+
+    private void listTopLevel(String delimiter, String continuationToken, List<Partition> found) {
+        ListObjectsV2Request pageRequest = request.toBuilder()
+                                                  .delimiter(delimiter)
+                                                  .continuationToken(continuationToken)
+                                                  .build();
+        s3.listObjectsV2(pageRequest).whenComplete((response, t) -> {
+            if (t != null) {
+                fail(t);
+                return;
+            }
+            for (S3Object object : response.contents()) {
+                found.add(new Partition(object));
+            }
+            for (CommonPrefix commonPrefix : response.commonPrefixes()) {
+                found.add(new Partition(commonPrefix.prefix(), request.startAfter(), null));
+            }
+            if (Boolean.TRUE.equals(response.isTruncated())) {
+                listTopLevel(delimiter, response.nextContinuationToken(), found);
+                return;
+            }
+            // Keys under a common prefix sort just where the prefix itself sorts relative to the keys without delimiter
+            found.sort((a, b) -> a.sortKey.compareTo(b.sortKey));
+            synchronized (this) {
+                partitions.addAll(found);
+                partitioned = true;
+            }
+            drain();
+        });
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Demand must be positive, but was " + n));
+            return;
+        }
+        synchronized (this) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+    }
+
+    @Override
+    public synchronized void cancel() {
+        terminated = true;
+        partitions.clear();
+        activePartitions.clear();
+    }
+
+    /**
+     * Deliver buffered objects within the demand of the subscriber, start listing partitions up to the concurrency limit and
+     * request the next page of partitions that have room for it. Only one thread drains at a time; other threads record that
+     * another pass is needed, so objects are delivered serially and without holding the lock.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                drainAgain = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            List<S3Object> toDeliver = new ArrayList<>();
+            Throwable failure;
+            boolean complete;
+            synchronized (this) {
+                drainAgain = false;
+                if (terminated) {
+                    draining = false;
+                    return;
+                }
+                failure = error;
+                if (failure == null && partitioned) {
+                    activatePartitions();
+                    collect(toDeliver);
+                    fetchPages();
+                }
+                complete = failure == null && partitioned && nextPartition == partitions.size() && activePartitions.isEmpty();
+                terminated = failure != null || complete;
+            }
+            toDeliver.forEach(subscriber::onNext);
+            if (failure != null) {
+                subscriber.onError(failure);
+                return;
+            }
+            if (complete) {
+                subscriber.onComplete();
+                return;
+            }
+            synchronized (this) {
+                if (!drainAgain) {
+                    draining = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    private void activatePartitions() {
+        while (activePartitions.size() < maxConcurrentPartitions && nextPartition < partitions.size()) {
+            activePartitions.add(partitions.get(nextPartition++));
+        }
+    }
+
+    private void collect(List<S3Object> toDeliver) {
+        while (demand > 0) {
+            Partition source = null;
+            for (Partition partition : activePartitions) {
+                if (!partition.objects.isEmpty()) {
+                    source = partition;
+                    break;
+                }
+                if (ordered) {
+                    break;
+                }
+            }
+            if (source == null) {
+                break;
+            }
+            toDeliver.add(source.objects.poll());
+            demand--;
+            if (source.isFinished()) {
+                activePartitions.remove(source);
+                activatePartitions();
+            }
+        }
+        for (Iterator<Partition> i = activePartitions.iterator(); i.hasNext(); ) {
+            if (i.next().isFinished()) {
+                i.remove();
+            }
+        }
+        activatePartitions();
+    }
+
+    private void fetchPages() {
+        for (Partition partition : activePartitions) {
+            if (!partition.done && !partition.fetching && partition.objects.size() < pageSize) {
+                partition.fetching = true;
+                fetchPage(partition);
+            }
+        }
+    }
+
+    private void fetchPage(Partition partition) {
+        ListObjectsV2Request pageRequest = request.toBuilder()
+                                                  .prefix(partition.prefix)
+                                                  .startAfter(partition.startAfter)
+                                                  .continuationToken(partition.continuationToken)
+                                                  .build();
+        s3.listObjectsV2(pageRequest).whenComplete((response, t) -> {
+            if (t != null) {
+                fail(t);
+                return;
+            }
+            synchronized (this) {
+                partition.pageReceived(response);
+            }
+            drain();
+        });
+    }
+
+    private void fail(Throwable t) {
+        synchronized (this) {
+            if (terminated || error != null) {
+                return;
+            }
+            error = t;
+        }
+        drain();
+    }
+
+    /**
+     * A range of the keyspace, listed page by page.
+     */
+    private static final class Partition {
+        private final String prefix;
+        private final String startAfter;
+        private final String lastKey;
+        private final String sortKey;
+        private final Deque<S3Object> objects = new ArrayDeque<>();
+        private String continuationToken;
+        private boolean fetching;
+        private boolean done;
+
+        /**
+         * A partition of the keys with the given prefix, after {@code startAfter} and up to {@code lastKey} included.
+         */
+        private Partition(String prefix, String startAfter, String lastKey) {
+            this.prefix = prefix;
+            this.startAfter = startAfter;
+            this.lastKey = lastKey;
+            this.sortKey = prefix == null ? "" : prefix;
+        }
+
+        /**
+         * A partition already holding its single object.
+         */
+        private Partition(S3Object object) {
+            this.prefix = null;
+            this.startAfter = null;
+            this.lastKey = null;
+            this.sortKey = object.key();
+            this.objects.add(object);
+            this.done = true;
+        }
+
+        private void pageReceived(ListObjectsV2Response response) {
+            fetching = false;
+            for (S3Object object : response.contents()) {
+                if (lastKey != null && object.key().compareTo(lastKey) > 0) {
+                    done = true;
+                    return;
+                }
+                objects.add(object);
+            }
+            continuationToken = response.nextContinuationToken();
+            done = !Boolean.TRUE.equals(response.isTruncated());
+        }
+
+        private boolean isFinished() {
+            return done && objects.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer.internal;
+
+import static software.amazon.awssdk.utils.FunctionalUtils.invokeSafely;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.transfer.TransferProgressListener;
+import software.amazon.awssdk.utils.Logger;
+
+/**
+ * A single download of an object into a file. Looks up the size and ETag of the object, then downloads byte ranges of it
+ * concurrently, writing each at its offset in the file. Each range is requested with an {@code If-Match} condition on the
+ * object's ETag, so every range comes from the same version of the object. Failed ranges are retried individually after a
+ * backoff; if a range cannot be downloaded, or the object has changed, the file is deleted.
+ */
+@SdkInternalApi
+public final class RangeDownloadExecution {
+
+    private static final Logger log = Logger.loggerFor(RangeDownloadExecution.class);
+
+    private static final int PRECONDITION_FAILED = 412;
+
+    private final S3AsyncClient s3;
+    private final GetObjectRequest request;
+    private final Path destination;
+    private final long rangeSize;
+    private final int maxConcurrentRanges;
+    private final int maxRangeAttempts;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+    private final TransferProgressListener progressListener;
+    private final CompletableFuture<HeadObjectResponse> result = new CompletableFuture<>();
+
+    private HeadObjectResponse object;
+    private AsynchronousFileChannel fileChannel;
+    private long objectSize;
+    private long nextRangeStart;
+    private int rangesInFlight;
+    private long transferredBytes;
+    private boolean failed;
+
+    public RangeDownloadExecution(S3AsyncClient s3,
+                                  GetObjectRequest request,
+                                  Path destination,
+                                  long rangeSize,
+                                  int maxConcurrentRanges,
+                                  int maxRangeAttempts,
+                                  BackoffStrategy backoffStrategy,
+                                  ScheduledExecutorService scheduler,
+                                  TransferProgressListener progressListener) {
+        this.s3 = s3;
+        this.request = request;
+        this.destination = destination;
+        this.rangeSize = rangeSize;
+        this.maxConcurrentRanges = maxConcurrentRanges;
+        this.maxRangeAttempts = maxRangeAttempts;
+        this.backoffStrategy = backoffStrategy;
+        this.scheduler = scheduler;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Start the download.
+     *
+     * @return A future completed with the metadata of the downloaded object once the whole object has been written to the file.
+     * Cancelling it stops the download and deletes the file.
+     */
+    public CompletableFuture<HeadObjectResponse> start() {
+        result.whenComplete((r, t) -> {
+            if (t instanceof CancellationException) {
+                fail(t);
+            }
+        });
+        s3.headObject(headRequest()).whenComplete((response, t) -> {
+            if (t != null) {
+                result.completeExceptionally(t);
+                return;
+            }
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    fileChannel = AsynchronousFileChannel.open(destination, StandardOpenOption.WRITE,
+                                                               StandardOpenOption.CREATE_NEW);
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    result.completeExceptionally(new SdkClientException("Unable to create " + destination, e));
+                    return;
+                }
+                object = response;
+                objectSize = response.contentLength();
+                startRanges();
+                completeIfDone();
+            }
+        });
+        return result;
+    }
+
+    private HeadObjectRequest headRequest() {
+        return HeadObjectRequest.builder()
+                                .bucket(request.bucket())
+                                .key(request.key())
+                                .versionId(request.versionId())
+                                .ifMatch(request.ifMatch())
+                                .ifNoneMatch(request.ifNoneMatch())
+                                .ifModifiedSince(request.ifModifiedSince())
+                                .ifUnmodifiedSince(request.ifUnmodifiedSince())
+                                .sseCustomerAlgorithm(request.sseCustomerAlgorithm())
+                                .sseCustomerKey(request.sseCustomerKey())
+                                .sseCustomerKeyMD5(request.sseCustomerKeyMD5())
+                                .requestPayer(request.requestPayerString())
+                                .build();
+    }
+
+    private void startRanges() {
+        while (!failed && rangesInFlight < maxConcurrentRanges && nextRangeStart < objectSize) {
+            long start = nextRangeStart;
+            long end = Math.min(start + rangeSize, objectSize) - 1;
+            nextRangeStart = end + 1;
+            rangesInFlight++;
+            downloadRange(start, end, 1);
+        }
+    }
+
+    private void downloadRange(long start, long end, int attempt) {
+        GetObjectRequest rangeRequest = request.toBuilder()
+                                               .range("bytes=" + start + "-" + end)
+                                               .ifMatch(object.eTag())
+                                               .ifNoneMatch(null)
+                                               .ifModifiedSince(null)
+                                               .ifUnmodifiedSince(null)
+                                               .build();
+        FileRangeResponseHandler<GetObjectResponse> handler = new FileRangeResponseHandler<>(fileChannel, start);
+        s3.getObject(rangeRequest, handler)
+            .thenCompose(response -> handler.bytesWritten().thenApply(written -> validate(response, written, start, end)))
+            .whenComplete((written, t) -> rangeDownloaded(start, end, attempt, t));
+    }
+
+    private Long validate(GetObjectResponse response, long written, long start, long end) {
+        if (response.eTag() != null && !response.eTag().equals(object.eTag())) {
+            throw new ObjectModifiedException("The object changed during the download: expected ETag " + object.eTag()
+                                              + " but range " + start + "-" + end + " has ETag " + response.eTag());
+        }
+        if (written != end - start + 1) {
+            throw new SdkClientException("Received " + written + " bytes for range " + start + "-" + end + " but expected "
+                                         + (end - start + 1));
+        }
+        return written;
+    }
+
+    private void rangeDownloaded(long start, long end, int attempt, Throwable t) {
+        if (t != null) {
+            Throwable cause = objectModified(t.getCause() != null ? t.getCause() : t, start, end);
+            if (attempt < maxRangeAttempts && !(cause instanceof ObjectModifiedException)) {
+                retryRange(start, end, attempt, t);
+            } else {
+                fail(cause);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            rangesInFlight--;
+            transferredBytes += end - start + 1;
+            progressListener.bytesTransferred(transferredBytes, objectSize);
+            startRanges();
+            completeIfDone();
+        }
+    }
+
+    /**
+     * Schedule another attempt of a failed range after the backoff delay for the number of attempts made so far.
+     */
+    private void retryRange(long start, long end, int attempt, Throwable t) {
+        Duration delay = backoffStrategy.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                                                                                        .retriesAttempted(attempt - 1)
+                                                                                        .build());
+        log.debug(() -> "Retrying range " + start + "-" + end + " of " + destination + " in " + delay.toMillis()
+                        + " ms after attempt " + attempt + " failed.", t);
+        try {
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (failed) {
+                        return;
+                    }
+                }
+                downloadRange(start, end, attempt + 1);
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * A range rejected because its {@code If-Match} condition failed comes from a newer version of the object, which retrying
+     * cannot fix.
+     */
+    private Throwable objectModified(Throwable cause, long start, long end) {
+        if (cause instanceof SdkServiceException && ((SdkServiceException) cause).statusCode() == PRECONDITION_FAILED) {
+            return new ObjectModifiedException("The object changed during the download: range " + start + "-" + end
+                                               + " no longer matches ETag " + object.eTag(), cause);
+        }
+        return cause;
+    }
+
+    private void completeIfDone() {
+        if (!failed && rangesInFlight == 0 && nextRangeStart >= objectSize) {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            result.complete(object);
+        }
+    }
+
+    private void fail(Throwable cause) {
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            if (fileChannel != null) {
+                invokeSafely(fileChannel::close);
+                invokeSafely(() -> Files.deleteIfExists(destination));
+            }
+        }
+        result.completeExceptionally(cause);
+    }
+
+    /**
+     * Thrown when a range comes from another version of the object than the first one, which is not retried.
+     */
+    private static final class ObjectModifiedException extends SdkClientException {
+        private ObjectModifiedException(String message) {
+            super(message);
+        }
+
+        private ObjectModifiedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
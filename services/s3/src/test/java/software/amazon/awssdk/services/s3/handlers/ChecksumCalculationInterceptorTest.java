@@ -0,0 +1,130 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.client.builder.ClientHttpConfiguration;
+import software.amazon.awssdk.core.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.util.StringInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.testutils.service.http.MockHttpClient;
+import software.amazon.awssdk.utils.IoUtils;
+
+/**
+ * Functional tests for {@link ChecksumCalculationInterceptor}.
+ */
+public class ChecksumCalculationInterceptorTest {
+
+    private static final String CONTENT = "123456789";
+    private static final String CRC32C = "4waSgw==";
+    private static final String CHECKSUM_HEADER =
+            "x-amz-meta-" + ChecksumValidationInterceptor.metadataKey(ChecksumAlgorithm.CRC32C);
+    private static final PutObjectRequest PUT_OBJECT = PutObjectRequest.builder().bucket("some-bucket").key("some-key").build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockHttpClient mockHttpClient;
+    private S3Client s3Client;
+
+    @Before
+    public void setup() {
+        mockHttpClient = new MockHttpClient();
+        s3Client = S3Client.builder()
+                           .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid", "skid")))
+                           .region(Region.US_WEST_2)
+                           .httpConfiguration(ClientHttpConfiguration.builder()
+                                                                     .httpClient(mockHttpClient)
+                                                                     .build())
+                           .overrideConfiguration(ClientOverrideConfiguration.builder()
+                                                                             .addLastExecutionInterceptor(
+                                                                                     new ChecksumCalculationInterceptor())
+                                                                             .build())
+                           .build();
+    }
+
+    @Test
+    public void uploadedObject_IsDownloadedWithItsChecksumValidated() throws Exception {
+        mockHttpClient.stubNextResponse(SdkHttpFullResponse.builder().statusCode(200).build());
+        s3Client.putObject(PUT_OBJECT, RequestBody.of(CONTENT));
+
+        String storedChecksum = mockHttpClient.getLastRequest().firstMatchingHeader(CHECKSUM_HEADER).orElse(null);
+        assertThat(storedChecksum).isEqualTo(CRC32C);
+        assertThat(IoUtils.toString(mockHttpClient.getLastRequest().content().get())).isEqualTo(CONTENT);
+
+        GetObjectRequest getObject = GetObjectRequest.builder().bucket("some-bucket").key("some-key").build();
+        mockHttpClient.stubNextResponse(objectResponse(storedChecksum, CONTENT));
+        byte[] content = s3Client.getObjectBytes(getObject).asByteArray();
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+
+        mockHttpClient.stubNextResponse(objectResponse(storedChecksum, "987654321"));
+        assertThatThrownBy(() -> s3Client.getObjectBytes(getObject)).hasCauseInstanceOf(ChecksumMismatchException.class);
+    }
+
+    @Test
+    public void uploadedFile_IsSentWhole() throws Exception {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        mockHttpClient.stubNextResponse(SdkHttpFullResponse.builder().statusCode(200).build());
+        s3Client.putObject(PUT_OBJECT, RequestBody.of(file));
+
+        assertThat(mockHttpClient.getLastRequest().firstMatchingHeader(CHECKSUM_HEADER)).hasValue(CRC32C);
+        assertThat(IoUtils.toString(mockHttpClient.getLastRequest().content().get())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void uploadWithChecksumMetadata_KeepsIt() throws Exception {
+        mockHttpClient.stubNextResponse(SdkHttpFullResponse.builder().statusCode(200).build());
+        s3Client.putObject(PUT_OBJECT.toBuilder()
+                                     .metadata(Collections.singletonMap(
+                                             ChecksumValidationInterceptor.metadataKey(ChecksumAlgorithm.CRC32C), "AAAAAA=="))
+                                     .build(),
+                           RequestBody.of(CONTENT));
+
+        assertThat(mockHttpClient.getLastRequest().headers().get(CHECKSUM_HEADER)).containsExactly("AAAAAA==");
+    }
+
+    private static SdkHttpFullResponse objectResponse(String checksum, String content) throws UnsupportedEncodingException {
+        return SdkHttpFullResponse.builder()
+                                  .statusCode(200)
+                                  .header("Content-Length", String.valueOf(content.length()))
+                                  .header(CHECKSUM_HEADER, checksum)
+                                  .content(new AbortableInputStream(new StringInputStream(content), () -> { }))
+                                  .build();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.ChecksumAlgorithm;
+import software.amazon.awssdk.core.client.builder.ClientHttpConfiguration;
+import software.amazon.awssdk.core.exception.ChecksumMismatchException;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.util.StringInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpFullResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.testutils.service.http.MockHttpClient;
+
+/**
+ * Functional tests for {@link ChecksumValidationInterceptor}.
+ */
+public class ChecksumValidationInterceptorTest {
+
+    private static final String CONTENT = "123456789";
+    private static final String CRC32C = "4waSgw==";
+    private static final String CHECKSUM_HEADER =
+            "x-amz-meta-" + ChecksumValidationInterceptor.metadataKey(ChecksumAlgorithm.CRC32C);
+    private static final GetObjectRequest GET_OBJECT = GetObjectRequest.builder().bucket("some-bucket").key("some-key").build();
+
+    private MockHttpClient mockHttpClient;
+    private S3Client s3Client;
+
+    @Before
+    public void setup() {
+        mockHttpClient = new MockHttpClient();
+        s3Client = S3Client.builder()
+                           .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid", "skid")))
+                           .region(Region.US_WEST_2)
+                           .httpConfiguration(ClientHttpConfiguration.builder()
+                                                                     .httpClient(mockHttpClient)
+                                                                     .build())
+                           .build();
+    }
+
+    @Test
+    public void objectWithMatchingChecksum_IsReturned() throws Exception {
+        mockHttpClient.stubNextResponse(objectResponse(CRC32C));
+
+        byte[] content = s3Client.getObjectBytes(GET_OBJECT).asByteArray();
+
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void objectWithoutChecksum_IsNotValidated() throws Exception {
+        mockHttpClient.stubNextResponse(objectResponse(null));
+
+        byte[] content = s3Client.getObjectBytes(GET_OBJECT).asByteArray();
+
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void objectWithMismatchingChecksum_FailsDownload() throws Exception {
+        mockHttpClient.stubNextResponse(objectResponse("AAAAAA=="));
+
+        assertThatThrownBy(() -> s3Client.getObjectBytes(GET_OBJECT)).hasCauseInstanceOf(ChecksumMismatchException.class);
+    }
+
+    @Test
+    public void uploadedObject_HasNoChecksumMetadataByDefault() throws Exception {
+        mockHttpClient.stubNextResponse(SdkHttpFullResponse.builder().statusCode(200).build());
+        s3Client.putObject(PutObjectRequest.builder().bucket("some-bucket").key("some-key").build(), RequestBody.of(CONTENT));
+
+        assertThat(mockHttpClient.getLastRequest().firstMatchingHeader(CHECKSUM_HEADER)).isEmpty();
+    }
+
+    private static SdkHttpFullResponse objectResponse(String checksum) throws UnsupportedEncodingException {
+        return objectResponse(checksum, CONTENT);
+    }
+
+    private static SdkHttpFullResponse objectResponse(String checksum, String content) throws UnsupportedEncodingException {
+        SdkHttpFullResponse.Builder response =
+                SdkHttpFullResponse.builder()
+                                   .statusCode(200)
+                                   .header("Content-Length", String.valueOf(content.length()))
+                                   .content(new AbortableInputStream(new StringInputStream(content), () -> { }));
+        if (checksum != null) {
+            response.header(CHECKSUM_HEADER, checksum);
+        }
+        return response.build();
+    }
+}
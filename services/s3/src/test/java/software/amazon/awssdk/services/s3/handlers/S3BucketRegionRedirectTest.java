@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static utils.S3MockUtils.mockListObjectsResponse;
+import static utils.S3MockUtils.mockPermanentRedirectResponse;
+
+import java.net.URI;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.awssdk.core.auth.AwsCredentials;
+import software.amazon.awssdk.core.auth.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.builder.ClientHttpConfiguration;
+import software.amazon.awssdk.core.regions.Region;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.services.s3.S3AdvancedConfiguration;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.testutils.service.http.MockHttpClient;
+
+/**
+ * Functional tests for the redirection of requests to buckets in another region than the client's.
+ */
+public class S3BucketRegionRedirectTest {
+
+    private static final String BUCKET = "some-bucket";
+    private static final ListObjectsRequest LIST_OBJECTS = ListObjectsRequest.builder().bucket(BUCKET).build();
+
+    private MockHttpClient mockHttpClient;
+
+    @Before
+    public void setup() {
+        mockHttpClient = new MockHttpClient();
+    }
+
+    @Test
+    public void requestToBucketInOtherRegion_IsRedirectedAndSignedForBucketRegion() throws Exception {
+        mockHttpClient.stubResponses(mockPermanentRedirectResponse("eu-west-1"), mockListObjectsResponse());
+        S3Client s3Client = clientBuilder().build();
+
+        s3Client.listObjects(LIST_OBJECTS);
+
+        List<SdkHttpFullRequest> requests = mockHttpClient.getRequests();
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).host()).isEqualTo(BUCKET + ".s3.ap-south-1.amazonaws.com");
+        assertThat(requests.get(1).host()).isEqualTo(BUCKET + ".s3-eu-west-1.amazonaws.com");
+        assertThat(requests.get(1).firstMatchingHeader("Authorization")).hasValueSatisfying(
+            a -> assertThat(a).contains("/eu-west-1/s3/aws4_request"));
+    }
+
+    @Test
+    public void laterRequestsToBucket_GoStraightToBucketRegion() throws Exception {
+        mockHttpClient.stubResponses(mockPermanentRedirectResponse("eu-west-1"), mockListObjectsResponse(),
+                                     mockListObjectsResponse());
+        S3Client s3Client = clientBuilder().build();
+
+        s3Client.listObjects(LIST_OBJECTS);
+        s3Client.listObjects(LIST_OBJECTS);
+
+        assertThat(mockHttpClient.getRequests()).hasSize(3);
+        assertThat(mockHttpClient.getLastRequest().host()).isEqualTo(BUCKET + ".s3-eu-west-1.amazonaws.com");
+        assertThat(mockHttpClient.getLastRequest().firstMatchingHeader("Authorization")).hasValueSatisfying(
+            a -> assertThat(a).contains("/eu-west-1/s3/aws4_request"));
+    }
+
+    @Test
+    public void pathStyleRequest_IsRedirectedToRegionalEndpoint() throws Exception {
+        mockHttpClient.stubResponses(mockPermanentRedirectResponse("eu-west-1"), mockListObjectsResponse());
+        S3Client s3Client = clientBuilder().advancedConfiguration(S3AdvancedConfiguration.builder()
+                                                                                         .pathStyleAccessEnabled(true)
+                                                                                         .build())
+                                           .build();
+
+        s3Client.listObjects(LIST_OBJECTS);
+
+        assertThat(mockHttpClient.getLastRequest().host()).isEqualTo("s3-eu-west-1.amazonaws.com");
+        assertThat(mockHttpClient.getLastRequest().encodedPath()).startsWith("/" + BUCKET);
+    }
+
+    @Test
+    public void requestWithCustomEndpoint_IsNotRedirected() throws Exception {
+        mockHttpClient.stubResponses(mockPermanentRedirectResponse("eu-west-1"), mockListObjectsResponse());
+        S3Client s3Client = clientBuilder().endpointOverride(URI.create("https://foobar.amazonaws.com")).build();
+
+        assertThatThrownBy(() -> s3Client.listObjects(LIST_OBJECTS)).isInstanceOf(S3Exception.class);
+        assertThat(mockHttpClient.getRequests()).hasSize(1);
+    }
+
+    /**
+     * @return Client builder instance preconfigured with credentials and region using the {@link #mockHttpClient} for transport.
+     */
+    private S3ClientBuilder clientBuilder() {
+        return S3Client.builder()
+                       .credentialsProvider(StaticCredentialsProvider.create(AwsCredentials.create("akid", "skid")))
+                       .region(Region.AP_SOUTH_1)
+                       .httpConfiguration(ClientHttpConfiguration.builder()
+                                                                 .httpClient(mockHttpClient)
+                                                                 .build());
+    }
+}
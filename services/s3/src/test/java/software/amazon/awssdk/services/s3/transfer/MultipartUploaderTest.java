@@ -0,0 +1,371 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestProvider;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+public class MultipartUploaderTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final CreateMultipartUploadRequest CREATE_REQUEST =
+            CreateMultipartUploadRequest.builder().bucket("bucket").key("key").build();
+
+    private S3AsyncClient s3;
+    private Map<Integer, byte[]> uploadedParts;
+    private Map<Integer, Integer> attempts;
+    private Predicate<UploadPartRequest> failPart;
+    private List<Runnable> heldParts;
+
+    @Before
+    public void setup() {
+        s3 = mock(S3AsyncClient.class);
+        uploadedParts = new ConcurrentHashMap<>();
+        attempts = new ConcurrentHashMap<>();
+        failPart = r -> false;
+        heldParts = null;
+
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId("id").build()));
+        when(s3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().eTag("etag").build()));
+        when(s3.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build()));
+        when(s3.uploadPart(any(UploadPartRequest.class), any(AsyncRequestProvider.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+            attempts.merge(request.partNumber(), 1, Integer::sum);
+            CompletableFuture<UploadPartResponse> response = new CompletableFuture<>();
+            if (failPart.test(request)) {
+                response.completeExceptionally(new RuntimeException("Part failed"));
+            } else {
+                byte[] content = readFully((AsyncRequestProvider) invocation.getArguments()[1]);
+                assertThat(request.contentLength()).isEqualTo(content.length);
+                uploadedParts.put(request.partNumber(), content);
+                UploadPartResponse partResponse = UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+                if (heldParts != null) {
+                    heldParts.add(() -> response.complete(partResponse));
+                } else {
+                    response.complete(partResponse);
+                }
+            }
+            return response;
+        });
+    }
+
+    @Test
+    public void contentIsUploadedInPartsAndCompleted() {
+        byte[] content = randomBytes(2 * PART_SIZE + 1024);
+        AtomicLong progress = new AtomicLong();
+
+        CompleteMultipartUploadResponse response =
+                uploader().upload(CREATE_REQUEST, provider(content), (transferred, total) -> {
+                    assertThat(total).isEqualTo(content.length);
+                    progress.set(transferred);
+                }).join();
+
+        assertThat(response.eTag()).isEqualTo("etag");
+        assertThat(uploadedParts).hasSize(3);
+        assertThat(uploadedParts.get(1)).hasSize(PART_SIZE);
+        assertThat(uploadedParts.get(3)).hasSize(1024);
+        assertThat(concatenate(uploadedParts)).isEqualTo(content);
+        assertThat(progress.get()).isEqualTo(content.length);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(complete.capture());
+        List<CompletedPart> parts = complete.getValue().multipartUpload().parts();
+        assertThat(parts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3);
+        assertThat(parts).extracting(CompletedPart::eTag).containsExactly("etag-1", "etag-2", "etag-3");
+        assertThat(complete.getValue().uploadId()).isEqualTo("id");
+    }
+
+    @Test
+    public void emptyContentIsUploadedAsSinglePart() {
+        uploader().upload(CREATE_REQUEST, provider(new byte[0])).join();
+
+        assertThat(uploadedParts).containsOnlyKeys(1);
+        assertThat(uploadedParts.get(1)).isEmpty();
+    }
+
+    @Test
+    public void failedPartIsRetriedIndividually() {
+        failPart = r -> r.partNumber() == 2 && attempts.get(2) == 1;
+        byte[] content = randomBytes(3 * PART_SIZE);
+
+        uploader().upload(CREATE_REQUEST, provider(content)).join();
+
+        assertThat(attempts).containsEntry(1, 1).containsEntry(2, 2).containsEntry(3, 1);
+        assertThat(concatenate(uploadedParts)).isEqualTo(content);
+    }
+
+    @Test
+    public void failedPartIsRetriedAfterBackoff() {
+        failPart = r -> r.partNumber() == 1 && attempts.get(1) < 3;
+        List<Integer> retriesAttempted = new CopyOnWriteArrayList<>();
+        MultipartUploader uploader = uploaderBuilder().backoffStrategy(c -> {
+            retriesAttempted.add(c.retriesAttempted());
+            return Duration.ofMillis(100);
+        }).build();
+
+        long start = System.nanoTime();
+        uploader.upload(CREATE_REQUEST, provider(randomBytes(PART_SIZE))).join();
+
+        assertThat(attempts).containsEntry(1, 3);
+        assertThat(retriesAttempted).containsExactly(0, 1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    public void largeChunkIsOnlyConsumedWithinMaxInFlightBytes() {
+        heldParts = new ArrayList<>();
+        byte[] content = randomBytes(4 * PART_SIZE + 1);
+
+        CompletableFuture<CompleteMultipartUploadResponse> result =
+                uploader().upload(CREATE_REQUEST, (Publisher<ByteBuffer>) singleChunkProvider(content));
+
+        // Only two parts fit in the buffer, the rest of the chunk waits for them to complete
+        assertThat(attempts).containsOnlyKeys(1, 2);
+        while (!result.isDone()) {
+            assertThat(heldParts.size()).isBetween(1, 2);
+            List<Runnable> parts = new ArrayList<>(heldParts);
+            heldParts.clear();
+            parts.forEach(Runnable::run);
+        }
+
+        assertThat(uploadedParts).hasSize(5);
+        assertThat(concatenate(uploadedParts)).isEqualTo(content);
+    }
+
+    @Test
+    public void uploadIsAbortedWhenPartKeepsFailing() {
+        failPart = r -> r.partNumber() == 2;
+
+        CompletableFuture<CompleteMultipartUploadResponse> result = uploader().upload(CREATE_REQUEST,
+                                                                                      provider(randomBytes(3 * PART_SIZE)));
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasMessageContaining("Part failed");
+        assertThat(attempts).containsEntry(2, 3);
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void contentOfUnknownLengthIsUploadedFromPublisher() {
+        byte[] content = randomBytes(2 * PART_SIZE + 1024);
+        AtomicLong total = new AtomicLong();
+
+        uploader().upload(CREATE_REQUEST, (Publisher<ByteBuffer>) provider(content), (transferred, t) -> total.set(t)).join();
+
+        assertThat(uploadedParts).hasSize(3);
+        assertThat(concatenate(uploadedParts)).isEqualTo(content);
+        assertThat(total.get()).isEqualTo(-1);
+    }
+
+    @Test
+    public void contentIsUploadedFromInputStream() {
+        byte[] content = randomBytes(3 * PART_SIZE + 1);
+
+        uploader().upload(CREATE_REQUEST, new ByteArrayInputStream(content)).join();
+
+        assertThat(uploadedParts).hasSize(4);
+        assertThat(uploadedParts.get(4)).hasSize(1);
+        assertThat(concatenate(uploadedParts)).isEqualTo(content);
+    }
+
+    @Test
+    public void uploadIsAbortedWhenInputStreamFails() {
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(randomBytes(PART_SIZE + 1)), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Read failed");
+            }
+        });
+
+        CompletableFuture<CompleteMultipartUploadResponse> result = uploader().upload(CREATE_REQUEST, failing);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasMessageContaining("Read failed");
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void partSizeBelowMinimumIsRejected() {
+        assertThatThrownBy(() -> MultipartUploader.builder().s3Client(s3).partSizeInBytes(1024).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private MultipartUploader uploader() {
+        return uploaderBuilder().build();
+    }
+
+    private MultipartUploader.Builder uploaderBuilder() {
+        return MultipartUploader.builder()
+                                .s3Client(s3)
+                                .partSizeInBytes(PART_SIZE)
+                                .maxInFlightBytes(2L * PART_SIZE)
+                                .backoffStrategy(c -> Duration.ZERO);
+    }
+
+    /**
+     * A provider publishing the whole content as a single chunk.
+     */
+    private static AsyncRequestProvider singleChunkProvider(byte[] content) {
+        return new AsyncRequestProvider() {
+            @Override
+            public long contentLength() {
+                return content.length;
+            }
+
+            @Override
+            public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+                subscriber.onSubscribe(new Subscription() {
+                    private boolean published;
+
+                    @Override
+                    public void request(long n) {
+                        if (!published) {
+                            published = true;
+                            subscriber.onNext(ByteBuffer.wrap(content));
+                            subscriber.onComplete();
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * A provider publishing the content in small chunks, like a file would.
+     */
+    private static AsyncRequestProvider provider(byte[] content) {
+        return new AsyncRequestProvider() {
+            @Override
+            public long contentLength() {
+                return content.length;
+            }
+
+            @Override
+            public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+                subscriber.onSubscribe(new Subscription() {
+                    private int position;
+                    private boolean completed;
+
+                    @Override
+                    public void request(long n) {
+                        for (long i = 0; i < n && position < content.length; i++) {
+                            int length = Math.min(64 * 1024, content.length - position);
+                            ByteBuffer chunk = ByteBuffer.wrap(content, position, length);
+                            position += length;
+                            subscriber.onNext(chunk);
+                        }
+                        if (position == content.length && !completed) {
+                            completed = true;
+                            subscriber.onComplete();
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+            }
+        };
+    }
+
+    private static byte[] readFully(AsyncRequestProvider provider) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.subscribe(new Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer byteBuffer) {
+                byte[] bytes = new byte[byteBuffer.remaining()];
+                byteBuffer.get(bytes);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private static byte[] concatenate(Map<Integer, byte[]> parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 1; i <= parts.size(); i++) {
+            out.write(parts.get(i), 0, parts.get(i).length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
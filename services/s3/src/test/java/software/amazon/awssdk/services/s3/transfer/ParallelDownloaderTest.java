@@ -0,0 +1,252 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseHandler;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+public class ParallelDownloaderTest {
+
+    private static final int RANGE_SIZE = 1024 * 1024;
+    private static final GetObjectRequest REQUEST = GetObjectRequest.builder().bucket("bucket").key("key").build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private S3AsyncClient s3;
+    private byte[] content;
+    private Map<String, Integer> attempts;
+    private Predicate<GetObjectRequest> failRange;
+    private RuntimeException rangeFailure;
+    private String rangeETag;
+    private Path destination;
+
+    @Before
+    public void setup() throws Exception {
+        s3 = mock(S3AsyncClient.class);
+        attempts = new ConcurrentHashMap<>();
+        failRange = r -> false;
+        rangeFailure = new RuntimeException("Range failed");
+        rangeETag = "etag";
+        destination = temporaryFolder.getRoot().toPath().resolve("object");
+
+        when(s3.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                HeadObjectResponse.builder().contentLength((long) content.length).eTag("etag").build()));
+        when(s3.getObject(any(GetObjectRequest.class), any(AsyncResponseHandler.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+            @SuppressWarnings("unchecked")
+            AsyncResponseHandler<GetObjectResponse, GetObjectResponse> handler =
+                    (AsyncResponseHandler<GetObjectResponse, GetObjectResponse>) invocation.getArguments()[1];
+            attempts.merge(request.range(), 1, Integer::sum);
+            assertThat(request.ifMatch()).isEqualTo("etag");
+            if (failRange.test(request)) {
+                RuntimeException failure = rangeFailure;
+                handler.exceptionOccurred(failure);
+                CompletableFuture<GetObjectResponse> response = new CompletableFuture<>();
+                response.completeExceptionally(failure);
+                return response;
+            }
+            String[] bounds = request.range().substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Integer.parseInt(bounds[1]);
+            handler.responseReceived(GetObjectResponse.builder().eTag(rangeETag).contentLength(end - start + 1L).build());
+            handler.onStream(subscriber -> publish(subscriber, ByteBuffer.wrap(content, start, end - start + 1)));
+            return CompletableFuture.completedFuture(handler.complete());
+        });
+    }
+
+    @Test
+    public void rangesAreReassembledInFile() throws Exception {
+        content = randomBytes(3 * RANGE_SIZE + 1024);
+        AtomicLong progress = new AtomicLong();
+
+        HeadObjectResponse response = downloader().download(REQUEST, destination, (transferred, total) -> {
+            assertThat(total).isEqualTo(content.length);
+            progress.set(transferred);
+        }).join();
+
+        assertThat(response.eTag()).isEqualTo("etag");
+        assertThat(attempts).hasSize(4).containsKey("bytes=3145728-3146751");
+        assertThat(Files.readAllBytes(destination)).isEqualTo(content);
+        assertThat(progress.get()).isEqualTo(content.length);
+    }
+
+    @Test
+    public void emptyObjectIsDownloadedWithoutRanges() throws Exception {
+        content = new byte[0];
+
+        downloader().download(REQUEST, destination).join();
+
+        assertThat(attempts).isEmpty();
+        assertThat(Files.readAllBytes(destination)).isEmpty();
+    }
+
+    @Test
+    public void failedRangeIsRetriedIndividually() throws Exception {
+        content = randomBytes(3 * RANGE_SIZE);
+        String secondRange = "bytes=1048576-2097151";
+        failRange = r -> r.range().equals(secondRange) && attempts.get(secondRange) == 1;
+
+        downloader().download(REQUEST, destination).join();
+
+        assertThat(attempts).containsEntry("bytes=0-1048575", 1).containsEntry(secondRange, 2);
+        assertThat(Files.readAllBytes(destination)).isEqualTo(content);
+    }
+
+    @Test
+    public void failedRangeIsRetriedAfterBackoff() throws Exception {
+        content = randomBytes(2 * RANGE_SIZE);
+        String firstRange = "bytes=0-1048575";
+        failRange = r -> r.range().equals(firstRange) && attempts.get(firstRange) < 3;
+        List<Integer> retriesAttempted = new CopyOnWriteArrayList<>();
+        ParallelDownloader downloader = downloaderBuilder().backoffStrategy(c -> {
+            retriesAttempted.add(c.retriesAttempted());
+            return Duration.ofMillis(100);
+        }).build();
+
+        long start = System.nanoTime();
+        downloader.download(REQUEST, destination).join();
+
+        assertThat(attempts).containsEntry(firstRange, 3);
+        assertThat(retriesAttempted).containsExactly(0, 1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        assertThat(Files.readAllBytes(destination)).isEqualTo(content);
+    }
+
+    @Test
+    public void downloadFailsAndFileIsDeletedWhenRangeKeepsFailing() {
+        content = randomBytes(3 * RANGE_SIZE);
+        failRange = r -> r.range().startsWith("bytes=1048576-");
+
+        CompletableFuture<HeadObjectResponse> result = downloader().download(REQUEST, destination);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasMessageContaining("Range failed");
+        assertThat(attempts).containsEntry("bytes=1048576-2097151", 3);
+        assertThat(destination).doesNotExist();
+    }
+
+    @Test
+    public void modifiedObjectIsNotRetried() {
+        content = randomBytes(2 * RANGE_SIZE);
+        rangeETag = "other-etag";
+
+        CompletableFuture<HeadObjectResponse> result = downloader().download(REQUEST, destination);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasMessageContaining("changed");
+        assertThat(attempts.values()).containsOnly(1);
+        assertThat(destination).doesNotExist();
+    }
+
+    @Test
+    public void failedIfMatchConditionIsNotRetried() {
+        content = randomBytes(2 * RANGE_SIZE);
+        SdkServiceException preconditionFailed = new SdkServiceException("At least one of the pre-conditions you specified did "
+                                                                         + "not hold");
+        preconditionFailed.statusCode(412);
+        rangeFailure = preconditionFailed;
+        failRange = r -> r.range().startsWith("bytes=1048576-");
+
+        CompletableFuture<HeadObjectResponse> result = downloader().download(REQUEST, destination);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasMessageContaining("changed")
+                                        .hasRootCauseInstanceOf(SdkServiceException.class);
+        assertThat(attempts).containsEntry("bytes=1048576-2097151", 1);
+        assertThat(destination).doesNotExist();
+    }
+
+    @Test
+    public void existingFileIsNotOverwritten() throws Exception {
+        content = randomBytes(1024);
+        Files.write(destination, new byte[] {1});
+
+        CompletableFuture<HeadObjectResponse> result = downloader().download(REQUEST, destination);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class);
+        assertThat(Files.readAllBytes(destination)).containsExactly(1);
+    }
+
+    private ParallelDownloader downloader() {
+        return downloaderBuilder().build();
+    }
+
+    private ParallelDownloader.Builder downloaderBuilder() {
+        return ParallelDownloader.builder()
+                                 .s3Client(s3)
+                                 .rangeSizeInBytes((long) RANGE_SIZE)
+                                 .maxConcurrentRanges(2)
+                                 .backoffStrategy(c -> Duration.ZERO);
+    }
+
+    private static void publish(Subscriber<? super ByteBuffer> subscriber, ByteBuffer content) {
+        subscriber.onSubscribe(new Subscription() {
+            private boolean completed;
+
+            @Override
+            public void request(long n) {
+                for (long i = 0; i < n && content.hasRemaining(); i++) {
+                    ByteBuffer chunk = content.slice();
+                    chunk.limit(Math.min(64 * 1024, chunk.remaining()));
+                    content.position(content.position() + chunk.remaining());
+                    subscriber.onNext(chunk);
+                }
+                if (!content.hasRemaining() && !completed) {
+                    completed = true;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.s3.transfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+public class ParallelListerTest {
+
+    private static final ListObjectsV2Request REQUEST = ListObjectsV2Request.builder().bucket("bucket").maxKeys(3).build();
+
+    private S3AsyncClient s3;
+    private NavigableSet<String> keys;
+    private AtomicInteger listRequests;
+    private boolean failListing;
+
+    @Before
+    public void setup() {
+        s3 = mock(S3AsyncClient.class);
+        keys = new TreeSet<>();
+        listRequests = new AtomicInteger();
+        for (String directory : Arrays.asList("a", "b", "c", "d")) {
+            for (int i = 0; i < 10; i++) {
+                keys.add(directory + "/" + i);
+            }
+            keys.add(directory + ".txt");
+        }
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            listRequests.incrementAndGet();
+            CompletableFuture<ListObjectsV2Response> response = new CompletableFuture<>();
+            if (failListing) {
+                response.completeExceptionally(new RuntimeException("Listing failed"));
+            } else {
+                response.complete(listPage((ListObjectsV2Request) invocation.getArguments()[0]));
+            }
+            return response;
+        });
+    }
+
+    @Test
+    public void partitionsByDelimiterArePublishedInKeyOrder() {
+        List<String> listed = collect(lister(true).list(REQUEST));
+
+        assertThat(listed).containsExactlyElementsOf(keys);
+    }
+
+    @Test
+    public void partitionsBySplitKeysArePublishedInKeyOrder() {
+        List<String> listed = collect(lister(true).list(REQUEST, Arrays.asList("a/5", "c/0", "c/9")));
+
+        assertThat(listed).containsExactlyElementsOf(keys);
+    }
+
+    @Test
+    public void unorderedListingPublishesEveryKeyOnce() {
+        List<String> listed = collect(lister(false).list(REQUEST, Arrays.asList("b", "c")));
+
+        assertThat(listed).hasSameSizeAs(keys).containsOnlyElementsOf(keys);
+    }
+
+    @Test
+    public void listingStopsRequestingPagesWithoutDemand() {
+        List<String> listed = new ArrayList<>();
+        lister(true).list(REQUEST).subscribe(new CollectingSubscriber(listed, 1));
+
+        assertThat(listed).containsExactly("a.txt");
+        // The top level listing, then one page for each of the two partitions being listed
+        assertThat(listRequests.get()).isEqualTo(2 + 2);
+    }
+
+    @Test
+    public void listingFailureIsPublished() {
+        failListing = true;
+
+        assertThatThrownBy(() -> collect(lister(true).list(REQUEST))).hasMessageContaining("Listing failed");
+    }
+
+    private ParallelLister lister(boolean ordered) {
+        return ParallelLister.builder().s3Client(s3).maxConcurrentPartitions(2).ordered(ordered).build();
+    }
+
+    /**
+     * A page of the keys matching the request, using the last key of a page as continuation token.
+     */
+    private ListObjectsV2Response listPage(ListObjectsV2Request request) {
+        String prefix = request.prefix() == null ? "" : request.prefix();
+        String after = request.continuationToken() != null ? request.continuationToken() : request.startAfter();
+        List<S3Object> contents = new ArrayList<>();
+        List<CommonPrefix> commonPrefixes = new ArrayList<>();
+        String lastKey = null;
+        for (String key : after == null ? keys : keys.tailSet(after, false)) {
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            if (contents.size() + commonPrefixes.size() == request.maxKeys()) {
+                return ListObjectsV2Response.builder().contents(contents).commonPrefixes(commonPrefixes)
+                                            .isTruncated(true).nextContinuationToken(lastKey).build();
+            }
+            int delimiterIndex = request.delimiter() == null ? -1 : key.indexOf(request.delimiter(), prefix.length());
+            if (delimiterIndex < 0) {
+                contents.add(S3Object.builder().key(key).build());
+                lastKey = key;
+            } else {
+                String commonPrefix = key.substring(0, delimiterIndex + 1);
+                if (commonPrefixes.isEmpty() || !commonPrefixes.get(commonPrefixes.size() - 1).prefix().equals(commonPrefix)) {
+                    commonPrefixes.add(CommonPrefix.builder().prefix(commonPrefix).build());
+                }
+                lastKey = keys.floor(commonPrefix + Character.MAX_VALUE);
+            }
+        }
+        return ListObjectsV2Response.builder().contents(contents).commonPrefixes(commonPrefixes).isTruncated(false).build();
+    }
+
+    private static List<String> collect(Publisher<S3Object> publisher) {
+        List<String> listed = new ArrayList<>();
+        CollectingSubscriber subscriber = new CollectingSubscriber(listed, Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        if (subscriber.error != null) {
+            throw new RuntimeException(subscriber.error);
+        }
+        assertThat(subscriber.completed).isTrue();
+        return listed;
+    }
+
+    private static final class CollectingSubscriber implements Subscriber<S3Object> {
+        private final List<String> listed;
+        private final long demand;
+        private boolean completed;
+        private Throwable error;
+
+        private CollectingSubscriber(List<String> listed, long demand) {
+            this.listed = listed;
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(demand);
+        }
+
+        @Override
+        public void onNext(S3Object object) {
+            listed.add(object.key());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -75,4 +75,21 @@ public final class S3MockUtils {
                                           "</ListAllMyBucketsResult>"), () -> { }))
                                   .build();
     }
+
+    /**
+     * @return A mocked error returned by S3 when a bucket is addressed in another region than its own.
+     */
+    public static SdkHttpFullResponse mockPermanentRedirectResponse(String bucketRegion) throws UnsupportedEncodingException {
+        return SdkHttpFullResponse.builder()
+                                  .statusCode(301)
+                                  .header("x-amz-bucket-region", bucketRegion)
+                                  .content(new AbortableInputStream(new StringInputStream(
+                                          "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                                          "<Error>\n" +
+                                          "  <Code>PermanentRedirect</Code>\n" +
+                                          "  <Message>The bucket you are attempting to access must be addressed using the " +
+                                          "specified endpoint.</Message>\n" +
+                                          "</Error>"), () -> { }))
+                                  .build();
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs;
+
+import static software.amazon.awssdk.core.util.StringUtils.UTF8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Ignore;
+import org.junit.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.core.util.Md5Utils;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+/**
+ * This is a manually run test that compares the time {@link MessageMD5ChecksumInterceptor} takes to verify a full batch of
+ * maximum size messages with the time taken by the approach it replaced, which encoded each body to a new byte array, created
+ * a new digest per message and compared hex strings.
+ */
+public class MessageMd5ChecksumPerformanceTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MESSAGE_SIZE = 256 * 1024;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    @Test
+    @Ignore
+    public void compareWithPerMessageDigests() {
+        ReceiveMessageResponse response = ReceiveMessageResponse.builder().messages(batch()).build();
+        InterceptorContext context = InterceptorContext.builder()
+                                                       .request(ReceiveMessageRequest.builder().build())
+                                                       .response(response)
+                                                       .build();
+        MessageMD5ChecksumInterceptor interceptor = new MessageMD5ChecksumInterceptor();
+
+        Runnable legacy = () -> response.messages().forEach(m -> {
+            if (!BinaryUtils.toHex(Md5Utils.computeMD5Hash(m.body().getBytes(UTF8))).equals(m.md5OfBody())) {
+                throw new IllegalStateException("Mismatch");
+            }
+        });
+        Runnable current = () -> interceptor.afterExecution(context, new ExecutionAttributes());
+
+        time(legacy, WARMUP_ITERATIONS);
+        time(current, WARMUP_ITERATIONS);
+        System.out.printf("per-message digests: %d us/batch%n", time(legacy, MEASURED_ITERATIONS));
+        System.out.printf("interceptor: %d us/batch%n", time(current, MEASURED_ITERATIONS));
+    }
+
+    private static long time(Runnable verification, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            verification.run();
+        }
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / iterations;
+    }
+
+    private static List<Message> batch() {
+        StringBuilder body = new StringBuilder();
+        while (body.length() < MESSAGE_SIZE / 2) {
+            body.append("Message body \u00e9\u20ac ");
+        }
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String messageBody = body.toString() + i;
+            messages.add(Message.builder()
+                                .body(messageBody)
+                                .md5OfBody(BinaryUtils.toHex(Md5Utils.computeMD5Hash(messageBody.getBytes(UTF8))))
+                                .build());
+        }
+        return messages;
+    }
+}
@@ -15,22 +15,24 @@
 
 package software.amazon.awssdk.services.sqs;
 
-import static software.amazon.awssdk.core.util.StringUtils.UTF8;
-
-import java.nio.ByteBuffer;
-import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.Context;
 import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
-import software.amazon.awssdk.core.util.Md5Utils;
+import software.amazon.awssdk.services.sqs.internal.MessageMd5Calculator;
 import software.amazon.awssdk.services.sqs.model.Message;
 import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
@@ -38,23 +40,26 @@ import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
 import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
 import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
 import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
-import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
-import software.amazon.awssdk.utils.BinaryUtils;
 
 /**
  * SQS operations on sending and receiving messages will return the MD5 digest of the message body.
  * This custom request handler will verify that the message is correctly received by SQS, by
  * comparing the returned MD5 with the calculation according to the original request.
+ *
+ * <p>Digests are calculated with a per-thread {@link MessageMd5Calculator}, so that verifying a message does not allocate.
+ * Messages are verified on the thread completing the call, which may be an SDK I/O thread, unless an executor is configured
+ * with {@link SqsAdvancedConfiguration.Builder#md5VerificationExecutor(Executor)}, in which case the messages of large
+ * batches are verified in parallel on it.</p>
  */
 public class MessageMD5ChecksumInterceptor implements ExecutionInterceptor {
 
-    private static final int INTEGER_SIZE_IN_BYTES = 4;
-    private static final byte STRING_TYPE_FIELD_INDEX = 1;
-    private static final byte BINARY_TYPE_FIELD_INDEX = 2;
-    private static final byte STRING_LIST_TYPE_FIELD_INDEX = 3;
-    private static final byte BINARY_LIST_TYPE_FIELD_INDEX = 4;
+    /**
+     * The total number of body characters in a batch above which its messages are verified in parallel, when an executor is
+     * configured. Below this, the cost of dispatching to other threads outweighs the cost of calculating the digests.
+     */
+    private static final int PARALLEL_VERIFICATION_THRESHOLD = 64 * 1024;
 
     /*
      * Constant strings for composing error message.
@@ -82,38 +87,35 @@ public class MessageMD5ChecksumInterceptor implements ExecutionInterceptor {
 
             } else if (originalRequest instanceof ReceiveMessageRequest) {
                 ReceiveMessageResponse receiveMessageResult = (ReceiveMessageResponse) response;
-                receiveMessageResultMd5Check(receiveMessageResult);
+                receiveMessageResultMd5Check(receiveMessageResult, verificationExecutor(executionAttributes));
 
             } else if (originalRequest instanceof SendMessageBatchRequest) {
                 SendMessageBatchRequest sendMessageBatchRequest = (SendMessageBatchRequest) originalRequest;
                 SendMessageBatchResponse sendMessageBatchResult = (SendMessageBatchResponse) response;
-                sendMessageBatchOperationMd5Check(sendMessageBatchRequest, sendMessageBatchResult);
+                sendMessageBatchOperationMd5Check(sendMessageBatchRequest, sendMessageBatchResult,
+                                                  verificationExecutor(executionAttributes));
             }
         }
     }
 
+    private static Optional<Executor> verificationExecutor(ExecutionAttributes executionAttributes) {
+        Object advancedConfiguration = executionAttributes.getAttribute(AwsExecutionAttributes.SERVICE_ADVANCED_CONFIG);
+        if (advancedConfiguration instanceof SqsAdvancedConfiguration) {
+            return ((SqsAdvancedConfiguration) advancedConfiguration).md5VerificationExecutor();
+        }
+        return Optional.empty();
+    }
+
     /**
      * Throw an exception if the MD5 checksums returned in the SendMessageResponse do not match the
      * client-side calculation based on the original message in the SendMessageRequest.
      */
     private static void sendMessageOperationMd5Check(SendMessageRequest sendMessageRequest,
                                                      SendMessageResponse sendMessageResult) {
-        String messageBodySent = sendMessageRequest.messageBody();
-        String bodyMd5Returned = sendMessageResult.md5OfMessageBody();
-        String clientSideBodyMd5 = calculateMessageBodyMd5(messageBodySent);
-        if (!clientSideBodyMd5.equals(bodyMd5Returned)) {
-            throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE, MESSAGE_BODY, clientSideBodyMd5,
-                                                          bodyMd5Returned));
-        }
-
-        Map<String, MessageAttributeValue> messageAttrSent = sendMessageRequest.messageAttributes();
-        if (messageAttrSent != null && !messageAttrSent.isEmpty()) {
-            String clientSideAttrMd5 = calculateMessageAttributesMd5(messageAttrSent);
-            String attrMd5Returned = sendMessageResult.md5OfMessageAttributes();
-            if (!clientSideAttrMd5.equals(attrMd5Returned)) {
-                throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE, MESSAGE_ATTRIBUTES,
-                                                              clientSideAttrMd5, attrMd5Returned));
-            }
+        String error = checkMessage(null, sendMessageRequest.messageBody(), sendMessageResult.md5OfMessageBody(),
+                                    sendMessageRequest.messageAttributes(), sendMessageResult.md5OfMessageAttributes());
+        if (error != null) {
+            throw new SdkClientException(error);
         }
     }
 
@@ -121,27 +123,12 @@ public class MessageMD5ChecksumInterceptor implements ExecutionInterceptor {
      * Throw an exception if the MD5 checksums included in the ReceiveMessageResponse do not match the
      * client-side calculation on the received messages.
      */
-    private static void receiveMessageResultMd5Check(ReceiveMessageResponse receiveMessageResult) {
-        if (receiveMessageResult.messages() != null) {
-            for (Message messageReceived : receiveMessageResult.messages()) {
-                String messageBody = messageReceived.body();
-                String bodyMd5Returned = messageReceived.md5OfBody();
-                String clientSideBodyMd5 = calculateMessageBodyMd5(messageBody);
-                if (!clientSideBodyMd5.equals(bodyMd5Returned)) {
-                    throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE, MESSAGE_BODY,
-                                                                  clientSideBodyMd5, bodyMd5Returned));
-                }
-
-                Map<String, MessageAttributeValue> messageAttr = messageReceived.messageAttributes();
-                if (messageAttr != null && !messageAttr.isEmpty()) {
-                    String attrMd5Returned = messageReceived.md5OfMessageAttributes();
-                    String clientSideAttrMd5 = calculateMessageAttributesMd5(messageAttr);
-                    if (!clientSideAttrMd5.equals(attrMd5Returned)) {
-                        throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE, MESSAGE_ATTRIBUTES,
-                                                                      clientSideAttrMd5, attrMd5Returned));
-                    }
-                }
-            }
+    private static void receiveMessageResultMd5Check(ReceiveMessageResponse receiveMessageResult,
+                                                     Optional<Executor> executor) {
+        List<Message> messages = receiveMessageResult.messages();
+        if (messages != null) {
+            checkAll(messages, Message::body, executor,
+                m -> checkMessage(null, m.body(), m.md5OfBody(), m.messageAttributes(), m.md5OfMessageAttributes()));
         }
     }
 
@@ -150,7 +137,8 @@ public class MessageMD5ChecksumInterceptor implements ExecutionInterceptor {
      * the client-side calculation based on the original messages in the SendMessageBatchRequest.
      */
     private static void sendMessageBatchOperationMd5Check(SendMessageBatchRequest sendMessageBatchRequest,
-                                                          SendMessageBatchResponse sendMessageBatchResult) {
+                                                          SendMessageBatchResponse sendMessageBatchResult,
+                                                          Optional<Executor> executor) {
         Map<String, SendMessageBatchRequestEntry> idToRequestEntryMap = new HashMap<>();
         if (sendMessageBatchRequest.entries() != null) {
             for (SendMessageBatchRequestEntry entry : sendMessageBatchRequest.entries()) {
@@ -159,127 +147,114 @@ public class MessageMD5ChecksumInterceptor implements ExecutionInterceptor {
         }
 
         if (sendMessageBatchResult.successful() != null) {
-            for (SendMessageBatchResultEntry entry : sendMessageBatchResult.successful()) {
-                String messageBody = idToRequestEntryMap.get(entry.id()).messageBody();
-                String bodyMd5Returned = entry.md5OfMessageBody();
-                String clientSideBodyMd5 = calculateMessageBodyMd5(messageBody);
-                if (!clientSideBodyMd5.equals(bodyMd5Returned)) {
-                    throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE_WITH_ID, MESSAGE_BODY,
-                                                                  entry.id(), clientSideBodyMd5, bodyMd5Returned));
-                }
-
-                Map<String, MessageAttributeValue> messageAttr = idToRequestEntryMap.get(entry.id())
-                                                                                    .messageAttributes();
-                if (messageAttr != null && !messageAttr.isEmpty()) {
-                    String attrMd5Returned = entry.md5OfMessageAttributes();
-                    String clientSideAttrMd5 = calculateMessageAttributesMd5(messageAttr);
-                    if (!clientSideAttrMd5.equals(attrMd5Returned)) {
-                        throw new SdkClientException(String.format(MD5_MISMATCH_ERROR_MESSAGE_WITH_ID,
-                                                                      MESSAGE_ATTRIBUTES, entry.id(), clientSideAttrMd5,
-                                                                      attrMd5Returned));
-                    }
-                }
-            }
+            checkAll(sendMessageBatchResult.successful(), e -> idToRequestEntryMap.get(e.id()).messageBody(), executor, e -> {
+                SendMessageBatchRequestEntry requestEntry = idToRequestEntryMap.get(e.id());
+                return checkMessage(e.id(), requestEntry.messageBody(), e.md5OfMessageBody(),
+                                    requestEntry.messageAttributes(), e.md5OfMessageAttributes());
+            });
         }
     }
 
     /**
-     * Returns the hex-encoded MD5 hash String of the given message body.
+     * Verify each of the given messages, in parallel on the executor if there is one and the batch is large enough to benefit
+     * from it, and throw an exception describing the first mismatch found.
      */
-    private static String calculateMessageBodyMd5(String messageBody) {
-        if (log.isDebugEnabled()) {
-            log.debug("Message body: " + messageBody);
+    private static <T> void checkAll(Collection<T> messages, Function<T, String> body, Optional<Executor> executor,
+                                     Function<T, String> check) {
+        if (executor.isPresent() && isWorthParallelizing(messages, body)) {
+            checkAllInParallel(messages, executor.get(), check);
+            return;
         }
-        byte[] expectedMd5;
-        try {
-            expectedMd5 = Md5Utils.computeMD5Hash(messageBody.getBytes(UTF8));
-        } catch (Exception e) {
-            throw new SdkClientException("Unable to calculate the MD5 hash of the message body. " + e.getMessage(),
-                                            e);
-        }
-        String expectedMd5Hex = BinaryUtils.toHex(expectedMd5);
-        if (log.isDebugEnabled()) {
-            log.debug("Expected  MD5 of message body: " + expectedMd5Hex);
+        for (T message : messages) {
+            String error = check.apply(message);
+            if (error != null) {
+                throw new SdkClientException(error);
+            }
         }
-        return expectedMd5Hex;
     }
 
-    /**
-     * Returns the hex-encoded MD5 hash String of the given message attributes.
-     */
-    private static String calculateMessageAttributesMd5(final Map<String, MessageAttributeValue> messageAttributes) {
-        if (log.isDebugEnabled()) {
-            log.debug("Message attributes: " + messageAttributes);
+    private static <T> void checkAllInParallel(Collection<T> messages, Executor executor, Function<T, String> check) {
+        List<CompletableFuture<String>> errors = new ArrayList<>(messages.size());
+        for (T message : messages) {
+            errors.add(CompletableFuture.supplyAsync(() -> check.apply(message), executor));
         }
-        List<String> sortedAttributeNames = new ArrayList<>(messageAttributes.keySet());
-        Collections.sort(sortedAttributeNames);
-
-        MessageDigest md5Digest;
-        try {
-            md5Digest = MessageDigest.getInstance("MD5");
-
-            for (String attrName : sortedAttributeNames) {
-                MessageAttributeValue attrValue = messageAttributes.get(attrName);
-
-                // Encoded Name
-                updateLengthAndBytes(md5Digest, attrName);
-
-                // Encoded Type
-                updateLengthAndBytes(md5Digest, attrValue.dataType());
-
-                // Encoded Value
-                if (attrValue.stringValue() != null) {
-                    md5Digest.update(STRING_TYPE_FIELD_INDEX);
-                    updateLengthAndBytes(md5Digest, attrValue.stringValue());
-                } else if (attrValue.binaryValue() != null) {
-                    md5Digest.update(BINARY_TYPE_FIELD_INDEX);
-                    updateLengthAndBytes(md5Digest, attrValue.binaryValue());
-                } else if (attrValue.stringListValues() != null &&
-                           attrValue.stringListValues().size() > 0) {
-                    md5Digest.update(STRING_LIST_TYPE_FIELD_INDEX);
-                    for (String strListMember : attrValue.stringListValues()) {
-                        updateLengthAndBytes(md5Digest, strListMember);
-                    }
-                } else if (attrValue.binaryListValues() != null &&
-                           attrValue.binaryListValues().size() > 0) {
-                    md5Digest.update(BINARY_LIST_TYPE_FIELD_INDEX);
-                    for (ByteBuffer byteListMember : attrValue.binaryListValues()) {
-                        updateLengthAndBytes(md5Digest, byteListMember);
-                    }
+        // Mismatches are reported as values and thrown here, on the calling thread, rather than from the executor threads.
+        for (CompletableFuture<String> error : errors) {
+            String mismatch;
+            try {
+                mismatch = error.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SdkClientException) {
+                    throw (SdkClientException) e.getCause();
                 }
+                throw new SdkClientException("Unable to verify the MD5 checksums of the messages", e.getCause());
+            }
+            if (mismatch != null) {
+                throw new SdkClientException(mismatch);
             }
-        } catch (Exception e) {
-            throw new SdkClientException("Unable to calculate the MD5 hash of the message attributes. "
-                                            + e.getMessage(), e);
         }
+    }
 
-        String expectedMd5Hex = BinaryUtils.toHex(md5Digest.digest());
-        if (log.isDebugEnabled()) {
-            log.debug("Expected  MD5 of message attributes: " + expectedMd5Hex);
+    private static <T> boolean isWorthParallelizing(Collection<T> messages, Function<T, String> body) {
+        if (messages.size() < 2) {
+            return false;
+        }
+        long totalLength = 0;
+        for (T message : messages) {
+            String messageBody = body.apply(message);
+            totalLength += messageBody == null ? 0 : messageBody.length();
         }
-        return expectedMd5Hex;
+        return totalLength >= PARALLEL_VERIFICATION_THRESHOLD;
     }
 
     /**
-     * Update the digest using a sequence of bytes that consists of the length (in 4 bytes) of the
-     * input String and the actual utf8-encoded byte values.
+     * Verify the body and attributes of a single message.
+     *
+     * @param messageId The ID of the message within its batch, or null if the message was not sent in a batch.
+     * @return A description of the mismatch, or null if the message matches the checksums returned.
      */
-    private static void updateLengthAndBytes(MessageDigest digest, String str) {
-        byte[] utf8Encoded = str.getBytes(UTF8);
-        ByteBuffer lengthBytes = ByteBuffer.allocate(INTEGER_SIZE_IN_BYTES).putInt(utf8Encoded.length);
-        digest.update(lengthBytes.array());
-        digest.update(utf8Encoded);
+    private static String checkMessage(String messageId,
+                                       String messageBody, String bodyMd5Returned,
+                                       Map<String, MessageAttributeValue> messageAttributes, String attrMd5Returned) {
+        if (log.isDebugEnabled()) {
+            log.debug("Message body: " + messageBody);
+        }
+        MessageMd5Calculator calculator = MessageMd5Calculator.current();
+        try {
+            calculator.digestBody(messageBody);
+        } catch (RuntimeException e) {
+            throw new SdkClientException("Unable to calculate the MD5 hash of the message body. " + e.getMessage(), e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Expected  MD5 of message body: " + calculator.hex());
+        }
+        if (!calculator.matches(bodyMd5Returned)) {
+            return mismatchError(messageId, MESSAGE_BODY, calculator.hex(), bodyMd5Returned);
+        }
+
+        if (messageAttributes != null && !messageAttributes.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Message attributes: " + messageAttributes);
+            }
+            try {
+                calculator.digestAttributes(messageAttributes);
+            } catch (RuntimeException e) {
+                throw new SdkClientException("Unable to calculate the MD5 hash of the message attributes. " + e.getMessage(),
+                                             e);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Expected  MD5 of message attributes: " + calculator.hex());
+            }
+            if (!calculator.matches(attrMd5Returned)) {
+                return mismatchError(messageId, MESSAGE_ATTRIBUTES, calculator.hex(), attrMd5Returned);
+            }
+        }
+        return null;
     }
 
-    /**
-     * Update the digest using a sequence of bytes that consists of the length (in 4 bytes) of the
-     * input ByteBuffer and all the bytes it contains.
-     */
-    private static void updateLengthAndBytes(MessageDigest digest, ByteBuffer binaryValue) {
-        ByteBuffer readOnlyBuffer = binaryValue.asReadOnlyBuffer();
-        int size = readOnlyBuffer.remaining();
-        ByteBuffer lengthBytes = ByteBuffer.allocate(INTEGER_SIZE_IN_BYTES).putInt(size);
-        digest.update(lengthBytes.array());
-        digest.update(readOnlyBuffer);
+    private static String mismatchError(String messageId, String field, String clientSideMd5, String md5Returned) {
+        return messageId == null
+               ? String.format(MD5_MISMATCH_ERROR_MESSAGE, field, clientSideMd5, md5Returned)
+               : String.format(MD5_MISMATCH_ERROR_MESSAGE_WITH_ID, messageId, field, clientSideMd5, md5Returned);
     }
 }
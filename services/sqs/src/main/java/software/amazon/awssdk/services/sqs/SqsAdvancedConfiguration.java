@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import software.amazon.awssdk.annotations.Immutable;
+import software.amazon.awssdk.annotations.NotThreadSafe;
+import software.amazon.awssdk.annotations.ThreadSafe;
+import software.amazon.awssdk.core.ServiceAdvancedConfiguration;
+import software.amazon.awssdk.utils.builder.CopyableBuilder;
+import software.amazon.awssdk.utils.builder.ToCopyableBuilder;
+
+/**
+ * Advanced configuration of the SQS clients.
+ */
+@Immutable
+@ThreadSafe
+public final class SqsAdvancedConfiguration implements
+                                            ServiceAdvancedConfiguration,
+                                            ToCopyableBuilder<SqsAdvancedConfiguration.Builder, SqsAdvancedConfiguration> {
+
+    private final Executor md5VerificationExecutor;
+
+    private SqsAdvancedConfiguration(DefaultSqsAdvancedConfigurationBuilder builder) {
+        this.md5VerificationExecutor = builder.md5VerificationExecutor;
+    }
+
+    /**
+     * Create a {@link Builder}, used to create a {@link SqsAdvancedConfiguration}.
+     */
+    public static Builder builder() {
+        return new DefaultSqsAdvancedConfigurationBuilder();
+    }
+
+    /**
+     * <p>
+     * Returns the executor on which the messages of large batches have their MD5 checksums verified in parallel.
+     * </p>
+     * <p>
+     * When it is not set, messages are verified one after the other on the thread completing the call.
+     * </p>
+     *
+     * @return The executor verifying the messages of large batches, if any.
+     */
+    public Optional<Executor> md5VerificationExecutor() {
+        return Optional.ofNullable(md5VerificationExecutor);
+    }
+
+    @Override
+    public Builder toBuilder() {
+        return builder()
+                .md5VerificationExecutor(md5VerificationExecutor);
+    }
+
+    @NotThreadSafe
+    public interface Builder extends CopyableBuilder<Builder, SqsAdvancedConfiguration> {
+        /**
+         * Option to verify the MD5 checksums of the messages of large batches in parallel, on the given executor. Batches
+         * whose message bodies total less than 64K characters are still verified on the thread completing the call, as
+         * dispatching their messages costs more than verifying them.
+         *
+         * <p>
+         * The executor is not shut down by the client. Messages are verified one after the other on the thread completing the
+         * call by default.
+         * </p>
+         *
+         * @see SqsAdvancedConfiguration#md5VerificationExecutor().
+         */
+        Builder md5VerificationExecutor(Executor md5VerificationExecutor);
+    }
+
+    private static final class DefaultSqsAdvancedConfigurationBuilder implements Builder {
+
+        private Executor md5VerificationExecutor;
+
+        public Builder md5VerificationExecutor(Executor md5VerificationExecutor) {
+            this.md5VerificationExecutor = md5VerificationExecutor;
+            return this;
+        }
+
+        public void setMd5VerificationExecutor(Executor md5VerificationExecutor) {
+            md5VerificationExecutor(md5VerificationExecutor);
+        }
+
+        public SqsAdvancedConfiguration build() {
+            return new SqsAdvancedConfiguration(this);
+        }
+    }
+}
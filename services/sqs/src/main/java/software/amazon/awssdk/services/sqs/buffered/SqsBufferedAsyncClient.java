@@ -0,0 +1,396 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.buffered.internal.ChangeMessageVisibilityBatcher;
+import software.amazon.awssdk.services.sqs.buffered.internal.DeleteMessageBatcher;
+import software.amazon.awssdk.services.sqs.buffered.internal.SendMessageBatcher;
+import software.amazon.awssdk.services.sqs.model.AddPermissionRequest;
+import software.amazon.awssdk.services.sqs.model.AddPermissionResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+import software.amazon.awssdk.services.sqs.model.CreateQueueRequest;
+import software.amazon.awssdk.services.sqs.model.CreateQueueResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteQueueRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteQueueResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.ListDeadLetterSourceQueuesRequest;
+import software.amazon.awssdk.services.sqs.model.ListDeadLetterSourceQueuesResponse;
+import software.amazon.awssdk.services.sqs.model.ListQueueTagsRequest;
+import software.amazon.awssdk.services.sqs.model.ListQueueTagsResponse;
+import software.amazon.awssdk.services.sqs.model.ListQueuesRequest;
+import software.amazon.awssdk.services.sqs.model.ListQueuesResponse;
+import software.amazon.awssdk.services.sqs.model.PurgeQueueRequest;
+import software.amazon.awssdk.services.sqs.model.PurgeQueueResponse;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.RemovePermissionRequest;
+import software.amazon.awssdk.services.sqs.model.RemovePermissionResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.SetQueueAttributesResponse;
+import software.amazon.awssdk.services.sqs.model.TagQueueRequest;
+import software.amazon.awssdk.services.sqs.model.TagQueueResponse;
+import software.amazon.awssdk.services.sqs.model.UntagQueueRequest;
+import software.amazon.awssdk.services.sqs.model.UntagQueueResponse;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * An {@link SQSAsyncClient} that coalesces individual {@code SendMessage}, {@code DeleteMessage} and
+ * {@code ChangeMessageVisibility} calls to the same queue into {@code SendMessageBatch}, {@code DeleteMessageBatch} and
+ * {@code ChangeMessageVisibilityBatch} requests, cutting the number of requests by up to 10 times. All other operations are
+ * passed on to the wrapped client as they are.
+ *
+ * <p>A batch is sent when it holds {@link Builder#maxBatchSize(Integer)} entries, when adding a message would make its payload
+ * larger than {@link Builder#maxBatchSizeInBytes(Long)}, or {@link Builder#maxBatchOpenTime(Duration)} after its first entry
+ * was added, whichever comes first. The future returned for each call is completed from the entry of the call in the batch
+ * result: a failed entry fails its future with an {@link software.amazon.awssdk.services.sqs.model.SQSException} carrying the
+ * error code of the entry, while the other entries of the batch succeed.</p>
+ *
+ * <p>Calls carrying their own {@code requestOverrideConfig} cannot share a batch request with other calls, and are passed on
+ * to the wrapped client as they are.</p>
+ *
+ * <pre class="brush: java">
+ * SQSAsyncClient sqs = SqsBufferedAsyncClient.builder()
+ * .client(SQSAsyncClient.create())
+ * .build();
+ * sqs.sendMessage(SendMessageRequest.builder().queueUrl(queueUrl).messageBody("body").build());
+ * </pre>
+ *
+ * <p>The buffered client does not own the wrapped client: closing it sends the open batches, but does not close the wrapped
+ * client, which must stay open until the futures of the buffered calls have completed.</p>
+ */
+public final class SqsBufferedAsyncClient implements SQSAsyncClient {
+
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final long MAX_BATCH_SIZE_IN_BYTES = 256 * 1024;
+    private static final Duration DEFAULT_MAX_BATCH_OPEN_TIME = Duration.ofMillis(200);
+
+    private final SQSAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final SendMessageBatcher sendMessageBatcher;
+    private final DeleteMessageBatcher deleteMessageBatcher;
+    private final ChangeMessageVisibilityBatcher changeMessageVisibilityBatcher;
+
+    private SqsBufferedAsyncClient(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        int maxBatchSize = builder.maxBatchSize == null ? MAX_BATCH_SIZE : builder.maxBatchSize;
+        long maxBatchSizeInBytes = builder.maxBatchSizeInBytes == null ? MAX_BATCH_SIZE_IN_BYTES : builder.maxBatchSizeInBytes;
+        Duration maxBatchOpenTime = builder.maxBatchOpenTime == null ? DEFAULT_MAX_BATCH_OPEN_TIME : builder.maxBatchOpenTime;
+        Validate.isTrue(maxBatchSize > 0 && maxBatchSize <= MAX_BATCH_SIZE, "maxBatchSize must be between 1 and %s, but was %s",
+                        MAX_BATCH_SIZE, maxBatchSize);
+        Validate.isTrue(maxBatchSizeInBytes > 0 && maxBatchSizeInBytes <= MAX_BATCH_SIZE_IN_BYTES,
+                        "maxBatchSizeInBytes must be between 1 and %s, but was %s", MAX_BATCH_SIZE_IN_BYTES, maxBatchSizeInBytes);
+        Validate.isNotNegative(maxBatchOpenTime, "maxBatchOpenTime");
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("sqs-buffered-client").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+        this.sendMessageBatcher = new SendMessageBatcher(client, maxBatchSize, maxBatchSizeInBytes, maxBatchOpenTime, scheduler);
+        this.deleteMessageBatcher = new DeleteMessageBatcher(client, maxBatchSize, maxBatchSizeInBytes, maxBatchOpenTime,
+                                                             scheduler);
+        this.changeMessageVisibilityBatcher = new ChangeMessageVisibilityBatcher(client, maxBatchSize, maxBatchSizeInBytes,
+                                                                                 maxBatchOpenTime, scheduler);
+    }
+
+    /**
+     * @return Builder instance to construct a {@link SqsBufferedAsyncClient}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    @Override
+    public String serviceName() {
+        return client.serviceName();
+    }
+
+    @Override
+    public CompletableFuture<AddPermissionResponse> addPermission(AddPermissionRequest addPermissionRequest) {
+        return client.addPermission(addPermissionRequest);
+    }
+
+    @Override
+    public CompletableFuture<ChangeMessageVisibilityResponse> changeMessageVisibility(
+            ChangeMessageVisibilityRequest changeMessageVisibilityRequest) {
+        if (changeMessageVisibilityRequest.requestOverrideConfig().isPresent()) {
+            return client.changeMessageVisibility(changeMessageVisibilityRequest);
+        }
+        return changeMessageVisibilityBatcher.add(changeMessageVisibilityRequest);
+    }
+
+    @Override
+    public CompletableFuture<ChangeMessageVisibilityBatchResponse> changeMessageVisibilityBatch(
+            ChangeMessageVisibilityBatchRequest changeMessageVisibilityBatchRequest) {
+        return client.changeMessageVisibilityBatch(changeMessageVisibilityBatchRequest);
+    }
+
+    @Override
+    public CompletableFuture<CreateQueueResponse> createQueue(CreateQueueRequest createQueueRequest) {
+        return client.createQueue(createQueueRequest);
+    }
+
+    @Override
+    public CompletableFuture<DeleteMessageResponse> deleteMessage(DeleteMessageRequest deleteMessageRequest) {
+        if (deleteMessageRequest.requestOverrideConfig().isPresent()) {
+            return client.deleteMessage(deleteMessageRequest);
+        }
+        return deleteMessageBatcher.add(deleteMessageRequest);
+    }
+
+    @Override
+    public CompletableFuture<DeleteMessageBatchResponse> deleteMessageBatch(DeleteMessageBatchRequest deleteMessageBatchRequest) {
+        return client.deleteMessageBatch(deleteMessageBatchRequest);
+    }
+
+    @Override
+    public CompletableFuture<DeleteQueueResponse> deleteQueue(DeleteQueueRequest deleteQueueRequest) {
+        return client.deleteQueue(deleteQueueRequest);
+    }
+
+    @Override
+    public CompletableFuture<GetQueueAttributesResponse> getQueueAttributes(GetQueueAttributesRequest getQueueAttributesRequest) {
+        return client.getQueueAttributes(getQueueAttributesRequest);
+    }
+
+    @Override
+    public CompletableFuture<GetQueueUrlResponse> getQueueUrl(GetQueueUrlRequest getQueueUrlRequest) {
+        return client.getQueueUrl(getQueueUrlRequest);
+    }
+
+    @Override
+    public CompletableFuture<ListDeadLetterSourceQueuesResponse> listDeadLetterSourceQueues(
+            ListDeadLetterSourceQueuesRequest listDeadLetterSourceQueuesRequest) {
+        return client.listDeadLetterSourceQueues(listDeadLetterSourceQueuesRequest);
+    }
+
+    @Override
+    public CompletableFuture<ListQueueTagsResponse> listQueueTags(ListQueueTagsRequest listQueueTagsRequest) {
+        return client.listQueueTags(listQueueTagsRequest);
+    }
+
+    @Override
+    public CompletableFuture<ListQueuesResponse> listQueues(ListQueuesRequest listQueuesRequest) {
+        return client.listQueues(listQueuesRequest);
+    }
+
+    @Override
+    public CompletableFuture<PurgeQueueResponse> purgeQueue(PurgeQueueRequest purgeQueueRequest) {
+        return client.purgeQueue(purgeQueueRequest);
+    }
+
+    @Override
+    public CompletableFuture<ReceiveMessageResponse> receiveMessage(ReceiveMessageRequest receiveMessageRequest) {
+        return client.receiveMessage(receiveMessageRequest);
+    }
+
+    @Override
+    public CompletableFuture<RemovePermissionResponse> removePermission(RemovePermissionRequest removePermissionRequest) {
+        return client.removePermission(removePermissionRequest);
+    }
+
+    @Override
+    public CompletableFuture<SendMessageResponse> sendMessage(SendMessageRequest sendMessageRequest) {
+        if (sendMessageRequest.requestOverrideConfig().isPresent()) {
+            return client.sendMessage(sendMessageRequest);
+        }
+        return sendMessageBatcher.add(sendMessageRequest);
+    }
+
+    @Override
+    public CompletableFuture<SendMessageBatchResponse> sendMessageBatch(SendMessageBatchRequest sendMessageBatchRequest) {
+        return client.sendMessageBatch(sendMessageBatchRequest);
+    }
+
+    @Override
+    public CompletableFuture<SetQueueAttributesResponse> setQueueAttributes(SetQueueAttributesRequest setQueueAttributesRequest) {
+        return client.setQueueAttributes(setQueueAttributesRequest);
+    }
+
+    @Override
+    public CompletableFuture<TagQueueResponse> tagQueue(TagQueueRequest tagQueueRequest) {
+        return client.tagQueue(tagQueueRequest);
+    }
+
+    @Override
+    public CompletableFuture<UntagQueueResponse> untagQueue(UntagQueueRequest untagQueueRequest) {
+        return client.untagQueue(untagQueueRequest);
+    }
+
+    /**
+     * Send all open batches without waiting for them to fill up.
+     */
+    public void flush() {
+        sendMessageBatcher.flush();
+        deleteMessageBatcher.flush();
+        changeMessageVisibilityBatcher.flush();
+    }
+
+    /**
+     * Send all open batches and release the resources of this client. The wrapped client is not closed. The futures of calls
+     * made after the client is closed fail with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        sendMessageBatcher.close();
+        deleteMessageBatcher.close();
+        changeMessageVisibilityBatcher.close();
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * A builder for {@link SqsBufferedAsyncClient}.
+     */
+    public interface Builder extends SdkBuilder<Builder, SqsBufferedAsyncClient> {
+
+        /**
+         * Sets the client the batch requests and all other requests are sent with. Required.
+         *
+         * @param client The wrapped client.
+         * @return This builder for method chaining.
+         */
+        Builder client(SQSAsyncClient client);
+
+        /**
+         * Sets the maximum number of entries of a batch, between 1 and 10.
+         *
+         * <p>The default is 10 entries, the maximum allowed by Amazon SQS.</p>
+         *
+         * @param maxBatchSize New maximum number of entries.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchSize(Integer maxBatchSize);
+
+        /**
+         * Sets the maximum total size of the bodies and attributes of the messages of a {@code SendMessageBatch} request. A
+         * message larger than this is sent in a batch of its own.
+         *
+         * <p>The default is 256 KiB, the maximum allowed by Amazon SQS.</p>
+         *
+         * @param maxBatchSizeInBytes New maximum size in bytes.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchSizeInBytes(Long maxBatchSizeInBytes);
+
+        /**
+         * Sets the maximum time a batch waits for more entries after its first entry was added, which is the maximum latency
+         * added to a call by batching.
+         *
+         * <p>The default is 200 milliseconds.</p>
+         *
+         * @param maxBatchOpenTime New maximum time.
+         * @return This builder for method chaining.
+         */
+        Builder maxBatchOpenTime(Duration maxBatchOpenTime);
+
+        /**
+         * Sets the executor used to send batches once their maximum open time has elapsed. It is not shut down when the client
+         * is closed.
+         *
+         * <p>By default, the client uses a single daemon thread of its own, which is stopped when the client is closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private SQSAsyncClient client;
+        private Integer maxBatchSize;
+        private Long maxBatchSizeInBytes;
+        private Duration maxBatchOpenTime;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(SQSAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(SQSAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public void setMaxBatchSize(Integer maxBatchSize) {
+            maxBatchSize(maxBatchSize);
+        }
+
+        @Override
+        public Builder maxBatchSizeInBytes(Long maxBatchSizeInBytes) {
+            this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+            return this;
+        }
+
+        public void setMaxBatchSizeInBytes(Long maxBatchSizeInBytes) {
+            maxBatchSizeInBytes(maxBatchSizeInBytes);
+        }
+
+        @Override
+        public Builder maxBatchOpenTime(Duration maxBatchOpenTime) {
+            this.maxBatchOpenTime = maxBatchOpenTime;
+            return this;
+        }
+
+        public void setMaxBatchOpenTime(Duration maxBatchOpenTime) {
+            maxBatchOpenTime(maxBatchOpenTime);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public SqsBufferedAsyncClient build() {
+            return new SqsBufferedAsyncClient(this);
+        }
+    }
+}
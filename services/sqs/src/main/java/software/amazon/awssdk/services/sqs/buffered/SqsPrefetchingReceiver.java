@@ -0,0 +1,524 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Receives messages from an Amazon SQS queue ahead of their consumption, so that consumers do not wait for a long-poll round
+ * trip between batches of messages.
+ *
+ * <p>The receiver keeps up to {@link Builder#maxConcurrentReceives(Integer)} {@code ReceiveMessage} long-polls outstanding, as
+ * long as there is room for their messages in a local buffer of {@link Builder#maxBufferedMessages(Integer)} messages. The
+ * visibility timeout of buffered messages is extended before it expires, so that a message waiting in the buffer is not
+ * delivered to another consumer in the meantime. Once handed out, a message is no longer extended and must be deleted or have
+ * its visibility changed by the consumer, as with {@code ReceiveMessage}.</p>
+ *
+ * <p>Messages are handed out by {@link #receive()}, or to the subscribers of {@link #messages()}. A failed long-poll is retried
+ * after a second, and the calls waiting for a message keep waiting for the retry. They only fail once
+ * 5 long-polls in a row have failed.</p>
+ *
+ * <pre class="brush: java">
+ * SqsPrefetchingReceiver receiver = SqsPrefetchingReceiver.builder()
+ * .client(sqsAsyncClient)
+ * .receiveRequest(ReceiveMessageRequest.builder().queueUrl(queueUrl).build())
+ * .build();
+ * Message message = receiver.receive().join();
+ * </pre>
+ *
+ * <p>The receiver does not own the client and does not close it. Closing the receiver makes the messages still buffered
+ * visible again in the queue.</p>
+ */
+public final class SqsPrefetchingReceiver implements SdkAutoCloseable {
+
+    private static final Logger log = Logger.loggerFor(SqsPrefetchingReceiver.class);
+
+    private static final int MAX_MESSAGES_PER_RECEIVE = 10;
+    private static final int DEFAULT_MAX_CONCURRENT_RECEIVES = 2;
+    private static final int DEFAULT_MAX_BUFFERED_MESSAGES = 20;
+    private static final int DEFAULT_WAIT_TIME_SECONDS = 20;
+    private static final int DEFAULT_VISIBILITY_TIMEOUT_SECONDS = 30;
+    private static final long RECEIVE_RETRY_DELAY_MILLIS = 1000;
+    private static final int MAX_CONSECUTIVE_RECEIVE_FAILURES = 5;
+
+    private final SQSAsyncClient client;
+    private final ReceiveMessageRequest receiveRequest;
+    private final long visibilityTimeoutNanos;
+    private final int maxConcurrentReceives;
+    private final int maxBufferedMessages;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Deque<BufferedMessage> buffer = new ArrayDeque<>();
+    private final Deque<CompletableFuture<Message>> waiters = new ArrayDeque<>();
+    private int receivesInFlight;
+    private int messagesInFlight;
+    private int consecutiveFailures;
+    private boolean retryScheduled;
+    private ScheduledFuture<?> visibilityExtension;
+    private boolean closed;
+
+    private SqsPrefetchingReceiver(DefaultBuilder builder) {
+        this.client = Validate.paramNotNull(builder.client, "client");
+        ReceiveMessageRequest request = Validate.paramNotNull(builder.receiveRequest, "receiveRequest");
+        Validate.paramNotNull(request.queueUrl(), "receiveRequest.queueUrl");
+        this.receiveRequest = request.toBuilder()
+                                     .waitTimeSeconds(request.waitTimeSeconds() == null ? DEFAULT_WAIT_TIME_SECONDS
+                                                                                        : request.waitTimeSeconds())
+                                     .visibilityTimeout(request.visibilityTimeout() == null
+                                                        ? DEFAULT_VISIBILITY_TIMEOUT_SECONDS : request.visibilityTimeout())
+                                     .build();
+        this.visibilityTimeoutNanos = TimeUnit.SECONDS.toNanos(receiveRequest.visibilityTimeout());
+        this.maxConcurrentReceives = builder.maxConcurrentReceives == null ? DEFAULT_MAX_CONCURRENT_RECEIVES
+                                                                           : builder.maxConcurrentReceives;
+        this.maxBufferedMessages = builder.maxBufferedMessages == null ? DEFAULT_MAX_BUFFERED_MESSAGES
+                                                                       : builder.maxBufferedMessages;
+        Validate.isPositive(receiveRequest.visibilityTimeout(), "receiveRequest.visibilityTimeout");
+        Validate.isPositive(maxConcurrentReceives, "maxConcurrentReceives");
+        Validate.isPositive(maxBufferedMessages, "maxBufferedMessages");
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix("sqs-prefetching-receiver").daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+    }
+
+    /**
+     * Start extending the visibility of buffered messages and receiving messages, once the receiver is fully constructed.
+     */
+    private SqsPrefetchingReceiver start() {
+        long extensionPeriodNanos = visibilityTimeoutNanos / 3;
+        ScheduledFuture<?> extension = scheduler.scheduleAtFixedRate(this::extendVisibility, extensionPeriodNanos,
+                                                                     extensionPeriodNanos, TimeUnit.NANOSECONDS);
+        synchronized (this) {
+            visibilityExtension = extension;
+        }
+        startReceives();
+        return this;
+    }
+
+    /**
+     * @return Builder instance to construct a {@link SqsPrefetchingReceiver}.
+     */
+    public static Builder builder() {
+        return new DefaultBuilder();
+    }
+
+    /**
+     * Take the next message from the buffer, waiting for one to be received if the buffer is empty.
+     *
+     * @return A future completed with the message. It fails if the receiver is closed, or if receiving messages keeps failing
+     * while the future is waiting. Cancelling it leaves the message it would have been completed with in the buffer.
+     */
+    public CompletableFuture<Message> receive() {
+        CompletableFuture<Message> message = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                message.completeExceptionally(new SdkClientException("The receiver is closed."));
+                return message;
+            }
+            waiters.add(message);
+        }
+        deliver();
+        return message;
+    }
+
+    /**
+     * @return A publisher of the messages taken from the buffer. Each subscriber receives different messages, as many as it
+     * requests, until the receiver is closed.
+     */
+    public Publisher<Message> messages() {
+        return MessageSubscription::new;
+    }
+
+    /**
+     * Stop receiving messages and make the messages still buffered visible again in the queue. Futures waiting for a message
+     * fail. The client is not closed.
+     */
+    @Override
+    public void close() {
+        List<BufferedMessage> released;
+        List<CompletableFuture<Message>> waiting;
+        ScheduledFuture<?> extension;
+        synchronized (this) {
+            closed = true;
+            released = new ArrayList<>(buffer);
+            buffer.clear();
+            waiting = new ArrayList<>(waiters);
+            waiters.clear();
+            extension = visibilityExtension;
+        }
+        if (extension != null) {
+            extension.cancel(false);
+        }
+        waiting.forEach(w -> w.completeExceptionally(new SdkClientException("The receiver was closed.")));
+        changeVisibility(released, 0);
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Start long-polls up to the maximum number of concurrent receives, for as many messages as the buffer has room for.
+     */
+    private void startReceives() {
+        List<Integer> counts = new ArrayList<>();
+        synchronized (this) {
+            while (!closed && !retryScheduled && receivesInFlight < maxConcurrentReceives) {
+                int room = maxBufferedMessages - buffer.size() - messagesInFlight;
+                if (room <= 0) {
+                    break;
+                }
+                int count = Math.min(MAX_MESSAGES_PER_RECEIVE, room);
+                receivesInFlight++;
+                messagesInFlight += count;
+                counts.add(count);
+            }
+        }
+        for (int count : counts) {
+            client.receiveMessage(receiveRequest.toBuilder().maxNumberOfMessages(count).build())
+                  .whenComplete((response, t) -> received(count, response, t));
+        }
+    }
+
+    private void received(int count, ReceiveMessageResponse response, Throwable t) {
+        List<CompletableFuture<Message>> failedWaiters = new ArrayList<>();
+        List<BufferedMessage> released = new ArrayList<>();
+        synchronized (this) {
+            receivesInFlight--;
+            messagesInFlight -= count;
+            if (t != null) {
+                log.warn(() -> "Unable to receive messages from " + receiveRequest.queueUrl(), t);
+                // Waiters are served by the retry, unless the queue keeps failing
+                consecutiveFailures++;
+                if (consecutiveFailures >= MAX_CONSECUTIVE_RECEIVE_FAILURES) {
+                    consecutiveFailures = 0;
+                    failedWaiters.addAll(waiters);
+                    waiters.clear();
+                }
+                scheduleRetry();
+            } else {
+                consecutiveFailures = 0;
+                if (response.messages() != null) {
+                    long visibleAt = System.nanoTime() + visibilityTimeoutNanos;
+                    for (Message message : response.messages()) {
+                        (closed ? released : buffer).add(new BufferedMessage(message, visibleAt));
+                    }
+                }
+            }
+        }
+        failedWaiters.forEach(w -> w.completeExceptionally(t));
+        changeVisibility(released, 0);
+        deliver();
+        startReceives();
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled || closed) {
+            return;
+        }
+        retryScheduled = true;
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                retryScheduled = false;
+            }
+            startReceives();
+        }, RECEIVE_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand buffered messages to waiting futures. Futures are completed without holding the lock; a message whose future was
+     * cancelled in the meantime goes back to the front of the buffer.
+     */
+    private void deliver() {
+        while (true) {
+            CompletableFuture<Message> waiter;
+            BufferedMessage message;
+            synchronized (this) {
+                if (waiters.isEmpty() || buffer.isEmpty()) {
+                    return;
+                }
+                waiter = waiters.poll();
+                message = buffer.poll();
+            }
+            if (waiter.complete(message.message)) {
+                startReceives();
+            } else {
+                synchronized (this) {
+                    buffer.addFirst(message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Extend the visibility timeout of the buffered messages that would otherwise become visible within half of it.
+     */
+    private void extendVisibility() {
+        List<BufferedMessage> expiring = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (BufferedMessage message : buffer) {
+                if (message.visibleAt - now < visibilityTimeoutNanos / 2) {
+                    message.visibleAt = now + visibilityTimeoutNanos;
+                    expiring.add(message);
+                }
+            }
+        }
+        changeVisibility(expiring, receiveRequest.visibilityTimeout());
+    }
+
+    private void changeVisibility(List<BufferedMessage> messages, int visibilityTimeout) {
+        for (int start = 0; start < messages.size(); start += MAX_MESSAGES_PER_RECEIVE) {
+            List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>();
+            for (int i = start; i < Math.min(start + MAX_MESSAGES_PER_RECEIVE, messages.size()); i++) {
+                entries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+                                                                    .id(Integer.toString(i - start))
+                                                                    .receiptHandle(messages.get(i).message.receiptHandle())
+                                                                    .visibilityTimeout(visibilityTimeout)
+                                                                    .build());
+            }
+            ChangeMessageVisibilityBatchRequest request = ChangeMessageVisibilityBatchRequest.builder()
+                                                                                             .queueUrl(receiveRequest.queueUrl())
+                                                                                             .entries(entries)
+                                                                                             .build();
+            client.changeMessageVisibilityBatch(request).whenComplete((response, t) -> {
+                if (t != null) {
+                    log.warn(() -> "Unable to change the visibility of buffered messages to " + visibilityTimeout + "s", t);
+                } else if (response.failed() != null && !response.failed().isEmpty()) {
+                    log.warn(() -> "Unable to change the visibility of " + response.failed().size()
+                                   + " buffered messages to " + visibilityTimeout + "s: " + response.failed());
+                }
+            });
+        }
+    }
+
+    private static final class BufferedMessage {
+        private final Message message;
+        private long visibleAt;
+
+        private BufferedMessage(Message message, long visibleAt) {
+            this.message = message;
+            this.visibleAt = visibleAt;
+        }
+    }
+
+    /**
+     * Subscription of a subscriber of {@link #messages()}, which takes one message from the buffer at a time while the
+     * subscriber has outstanding demand.
+     */
+    private final class MessageSubscription implements Subscription {
+        private final Subscriber<? super Message> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean receiving = new AtomicBoolean();
+        private volatile CompletableFuture<Message> pending;
+        private volatile boolean cancelled;
+
+        private MessageSubscription(Subscriber<? super Message> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Demand must be positive, but was " + n));
+                return;
+            }
+            demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            receiveNext();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            CompletableFuture<Message> message = pending;
+            if (message != null) {
+                message.cancel(false);
+            }
+        }
+
+        private void receiveNext() {
+            if (cancelled || demand.get() == 0 || !receiving.compareAndSet(false, true)) {
+                return;
+            }
+            pending = receive();
+            pending.whenComplete((message, t) -> {
+                pending = null;
+                if (cancelled) {
+                    return;
+                }
+                if (t != null) {
+                    cancelled = true;
+                    subscriber.onError(t);
+                    return;
+                }
+                demand.decrementAndGet();
+                subscriber.onNext(message);
+                receiving.set(false);
+                receiveNext();
+            });
+        }
+    }
+
+    /**
+     * A builder for {@link SqsPrefetchingReceiver}.
+     */
+    public interface Builder extends SdkBuilder<Builder, SqsPrefetchingReceiver> {
+
+        /**
+         * Sets the client messages are received with. Required.
+         *
+         * @param client The client to receive with.
+         * @return This builder for method chaining.
+         */
+        Builder client(SQSAsyncClient client);
+
+        /**
+         * Sets the request the long-polls are made with. Required, with the URL of the queue to receive from. Its maximum
+         * number of messages is managed by the receiver.
+         *
+         * <p>When not set in the request, the wait time defaults to 20 seconds and the visibility timeout to 30 seconds.
+         * Buffered messages are kept invisible by extending their visibility timeout by that same timeout.</p>
+         *
+         * @param receiveRequest The request to receive with.
+         * @return This builder for method chaining.
+         */
+        Builder receiveRequest(ReceiveMessageRequest receiveRequest);
+
+        /**
+         * Sets the maximum number of {@code ReceiveMessage} long-polls outstanding at once.
+         *
+         * <p>The default is 2 long-polls.</p>
+         *
+         * @param maxConcurrentReceives New maximum number of long-polls.
+         * @return This builder for method chaining.
+         */
+        Builder maxConcurrentReceives(Integer maxConcurrentReceives);
+
+        /**
+         * Sets the maximum number of messages held in the buffer, counting the messages the outstanding long-polls may
+         * return. Every buffered message is invisible to other consumers of the queue until it is handed out.
+         *
+         * <p>The default is 20 messages.</p>
+         *
+         * @param maxBufferedMessages New maximum number of messages.
+         * @return This builder for method chaining.
+         */
+        Builder maxBufferedMessages(Integer maxBufferedMessages);
+
+        /**
+         * Sets the executor used to extend the visibility of buffered messages and to retry failed receives. It is not shut
+         * down when the receiver is closed.
+         *
+         * <p>By default, the receiver uses a single daemon thread of its own, which is stopped when the receiver is
+         * closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    private static final class DefaultBuilder implements Builder {
+
+        private SQSAsyncClient client;
+        private ReceiveMessageRequest receiveRequest;
+        private Integer maxConcurrentReceives;
+        private Integer maxBufferedMessages;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        public Builder client(SQSAsyncClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public void setClient(SQSAsyncClient client) {
+            client(client);
+        }
+
+        @Override
+        public Builder receiveRequest(ReceiveMessageRequest receiveRequest) {
+            this.receiveRequest = receiveRequest;
+            return this;
+        }
+
+        public void setReceiveRequest(ReceiveMessageRequest receiveRequest) {
+            receiveRequest(receiveRequest);
+        }
+
+        @Override
+        public Builder maxConcurrentReceives(Integer maxConcurrentReceives) {
+            this.maxConcurrentReceives = maxConcurrentReceives;
+            return this;
+        }
+
+        public void setMaxConcurrentReceives(Integer maxConcurrentReceives) {
+            maxConcurrentReceives(maxConcurrentReceives);
+        }
+
+        @Override
+        public Builder maxBufferedMessages(Integer maxBufferedMessages) {
+            this.maxBufferedMessages = maxBufferedMessages;
+            return this;
+        }
+
+        public void setMaxBufferedMessages(Integer maxBufferedMessages) {
+            maxBufferedMessages(maxBufferedMessages);
+        }
+
+        @Override
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+
+        @Override
+        public SqsPrefetchingReceiver build() {
+            return new SqsPrefetchingReceiver(this).start();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered.internal;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+
+/**
+ * Batches {@code ChangeMessageVisibility} requests into {@code ChangeMessageVisibilityBatch} requests.
+ */
+@SdkInternalApi
+public final class ChangeMessageVisibilityBatcher
+        extends RequestBatcher<ChangeMessageVisibilityRequest, ChangeMessageVisibilityResponse,
+                               ChangeMessageVisibilityBatchResponse> {
+
+    private final SQSAsyncClient client;
+
+    public ChangeMessageVisibilityBatcher(SQSAsyncClient client, int maxBatchSize, long maxBatchSizeInBytes,
+                                          Duration maxBatchOpenTime, ScheduledExecutorService scheduler) {
+        super(maxBatchSize, maxBatchSizeInBytes, maxBatchOpenTime, scheduler);
+        this.client = client;
+    }
+
+    @Override
+    protected String queueUrl(ChangeMessageVisibilityRequest request) {
+        return request.queueUrl();
+    }
+
+    @Override
+    protected long sizeInBytes(ChangeMessageVisibilityRequest request) {
+        return 0;
+    }
+
+    @Override
+    protected CompletableFuture<ChangeMessageVisibilityBatchResponse> sendBatch(String queueUrl, List<String> ids,
+                                                                                List<ChangeMessageVisibilityRequest> requests) {
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            entries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+                                                                .id(ids.get(i))
+                                                                .receiptHandle(requests.get(i).receiptHandle())
+                                                                .visibilityTimeout(requests.get(i).visibilityTimeout())
+                                                                .build());
+        }
+        return client.changeMessageVisibilityBatch(ChangeMessageVisibilityBatchRequest.builder()
+                                                                                      .queueUrl(queueUrl)
+                                                                                      .entries(entries)
+                                                                                      .build());
+    }
+
+    @Override
+    protected Map<String, ChangeMessageVisibilityResponse> successfulEntries(ChangeMessageVisibilityBatchResponse response) {
+        Map<String, ChangeMessageVisibilityResponse> responses = new HashMap<>();
+        for (ChangeMessageVisibilityBatchResultEntry entry : nullToEmpty(response.successful())) {
+            responses.put(entry.id(), ChangeMessageVisibilityResponse.builder().build());
+        }
+        return responses;
+    }
+
+    @Override
+    protected List<BatchResultErrorEntry> failedEntries(ChangeMessageVisibilityBatchResponse response) {
+        return nullToEmpty(response.failed());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered.internal;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+
+/**
+ * Batches {@code DeleteMessage} requests into {@code DeleteMessageBatch} requests.
+ */
+@SdkInternalApi
+public final class DeleteMessageBatcher
+        extends RequestBatcher<DeleteMessageRequest, DeleteMessageResponse, DeleteMessageBatchResponse> {
+
+    private final SQSAsyncClient client;
+
+    public DeleteMessageBatcher(SQSAsyncClient client, int maxBatchSize, long maxBatchSizeInBytes, Duration maxBatchOpenTime,
+                                ScheduledExecutorService scheduler) {
+        super(maxBatchSize, maxBatchSizeInBytes, maxBatchOpenTime, scheduler);
+        this.client = client;
+    }
+
+    @Override
+    protected String queueUrl(DeleteMessageRequest request) {
+        return request.queueUrl();
+    }
+
+    @Override
+    protected long sizeInBytes(DeleteMessageRequest request) {
+        return 0;
+    }
+
+    @Override
+    protected CompletableFuture<DeleteMessageBatchResponse> sendBatch(String queueUrl, List<String> ids,
+                                                                      List<DeleteMessageRequest> requests) {
+        List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            entries.add(DeleteMessageBatchRequestEntry.builder()
+                                                      .id(ids.get(i))
+                                                      .receiptHandle(requests.get(i).receiptHandle())
+                                                      .build());
+        }
+        return client.deleteMessageBatch(DeleteMessageBatchRequest.builder().queueUrl(queueUrl).entries(entries).build());
+    }
+
+    @Override
+    protected Map<String, DeleteMessageResponse> successfulEntries(DeleteMessageBatchResponse batchResponse) {
+        Map<String, DeleteMessageResponse> responses = new HashMap<>();
+        for (DeleteMessageBatchResultEntry entry : nullToEmpty(batchResponse.successful())) {
+            responses.put(entry.id(), DeleteMessageResponse.builder().build());
+        }
+        return responses;
+    }
+
+    @Override
+    protected List<BatchResultErrorEntry> failedEntries(DeleteMessageBatchResponse batchResponse) {
+        return nullToEmpty(batchResponse.failed());
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered.internal;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.exception.ErrorType;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SQSException;
+
+/**
+ * Coalesces individual requests to a queue into batch requests. A batch is opened by the first request to a queue and sent
+ * when it holds the maximum number of entries, when the next request would make its payload too large, or when it has been
+ * open for the maximum time, whichever comes first. The future of every request is completed from its entry in the batch
+ * result.
+ *
+ * @param <RequestT> The type of the individual requests.
+ * @param <ResponseT> The type of the individual responses.
+ * @param <BatchResponseT> The type of the batch response.
+ */
+@SdkInternalApi
+public abstract class RequestBatcher<RequestT, ResponseT, BatchResponseT> {
+
+    private final int maxBatchSize;
+    private final long maxBatchSizeInBytes;
+    private final Duration maxBatchOpenTime;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Batch> openBatches = new HashMap<>();
+    private boolean closed;
+
+    protected RequestBatcher(int maxBatchSize, long maxBatchSizeInBytes, Duration maxBatchOpenTime,
+                             ScheduledExecutorService scheduler) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        this.maxBatchOpenTime = maxBatchOpenTime;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add a request to the open batch of its queue.
+     *
+     * @return A future completed with the response for this request once its batch has been sent, or failed right away if
+     * this batcher is closed.
+     */
+    public CompletableFuture<ResponseT> add(RequestT request) {
+        CompletableFuture<ResponseT> response = new CompletableFuture<>();
+        String queueUrl = queueUrl(request);
+        long size = sizeInBytes(request);
+        List<Batch> ready = new ArrayList<>(2);
+        synchronized (this) {
+            if (closed) {
+                response.completeExceptionally(new IllegalStateException("The client is closed, no request can be sent."));
+                return response;
+            }
+            try {
+                addToBatch(queueUrl, request, size, response, ready);
+            } catch (RejectedExecutionException e) {
+                response.completeExceptionally(new SdkClientException("Unable to schedule the sending of the batch.", e));
+            }
+        }
+        ready.forEach(this::send);
+        return response;
+    }
+
+    private void addToBatch(String queueUrl, RequestT request, long size, CompletableFuture<ResponseT> response,
+                            List<Batch> ready) {
+        Batch batch = openBatches.get(queueUrl);
+        if (batch != null && batch.sizeInBytes + size > maxBatchSizeInBytes) {
+            ready.add(close(batch));
+            batch = null;
+        }
+        if (batch == null) {
+            batch = open(queueUrl);
+        }
+        batch.add(request, size, response);
+        if (batch.requests.size() >= maxBatchSize) {
+            ready.add(close(batch));
+        }
+    }
+
+    /**
+     * Send all open batches without waiting for them to fill up.
+     */
+    public void flush() {
+        List<Batch> ready;
+        synchronized (this) {
+            ready = new ArrayList<>(openBatches.values());
+            ready.forEach(this::close);
+        }
+        ready.forEach(this::send);
+    }
+
+    /**
+     * Send all open batches and fail the requests added afterwards.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    private Batch open(String queueUrl) {
+        Batch batch = new Batch(queueUrl);
+        // Scheduled before the batch is registered, so that a rejected timer leaves no batch without one
+        batch.timer = scheduler.schedule(() -> flushIfOpen(batch), maxBatchOpenTime.toNanos(), TimeUnit.NANOSECONDS);
+        openBatches.put(queueUrl, batch);
+        return batch;
+    }
+
+    private Batch close(Batch batch) {
+        openBatches.remove(batch.queueUrl);
+        batch.timer.cancel(false);
+        return batch;
+    }
+
+    private void flushIfOpen(Batch batch) {
+        synchronized (this) {
+            if (openBatches.get(batch.queueUrl) != batch) {
+                return;
+            }
+            close(batch);
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        List<String> ids = new ArrayList<>(batch.requests.size());
+        for (int i = 0; i < batch.requests.size(); i++) {
+            ids.add(Integer.toString(i));
+        }
+        CompletableFuture<BatchResponseT> batchResponse;
+        try {
+            batchResponse = sendBatch(batch.queueUrl, ids, batch.requests);
+        } catch (RuntimeException e) {
+            batch.responses.forEach(r -> r.completeExceptionally(e));
+            return;
+        }
+        batchResponse.whenComplete((result, t) -> {
+            try {
+                if (t != null) {
+                    batch.responses.forEach(r -> r.completeExceptionally(t));
+                } else {
+                    complete(batch, ids, result);
+                }
+            } catch (RuntimeException e) {
+                batch.responses.forEach(r -> r.completeExceptionally(e));
+            }
+        });
+    }
+
+    private void complete(Batch batch, List<String> ids, BatchResponseT result) {
+        Map<String, ResponseT> successful = successfulEntries(result);
+        Map<String, BatchResultErrorEntry> failed = new HashMap<>();
+        failedEntries(result).forEach(e -> failed.put(e.id(), e));
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            CompletableFuture<ResponseT> response = batch.responses.get(i);
+            if (successful.containsKey(id)) {
+                response.complete(successful.get(id));
+            } else if (failed.containsKey(id)) {
+                response.completeExceptionally(toException(failed.get(id)));
+            } else {
+                response.completeExceptionally(new SdkClientException("The batch result has no entry for the request."));
+            }
+        }
+    }
+
+    /**
+     * @return The given list of batch result entries, or an empty list if the response has no such entries.
+     */
+    protected static <T> List<T> nullToEmpty(List<T> entries) {
+        return entries == null ? Collections.emptyList() : entries;
+    }
+
+    private static SQSException toException(BatchResultErrorEntry entry) {
+        SQSException exception = new SQSException(entry.message());
+        exception.errorCode(entry.code());
+        exception.errorType(Boolean.TRUE.equals(entry.senderFault()) ? ErrorType.CLIENT : ErrorType.SERVICE);
+        exception.serviceName("SQS");
+        return exception;
+    }
+
+    /**
+     * @return The URL of the queue the request is sent to.
+     */
+    protected abstract String queueUrl(RequestT request);
+
+    /**
+     * @return The number of bytes the request adds to the payload of a batch, counted against the maximum batch size in bytes.
+     */
+    protected abstract long sizeInBytes(RequestT request);
+
+    /**
+     * Send the given requests to the given queue as a single batch request.
+     *
+     * @param ids The identifiers of the batch entries, in the same order as the requests.
+     */
+    protected abstract CompletableFuture<BatchResponseT> sendBatch(String queueUrl, List<String> ids, List<RequestT> requests);
+
+    /**
+     * @return The responses of the entries of the batch that succeeded, by entry identifier.
+     */
+    protected abstract Map<String, ResponseT> successfulEntries(BatchResponseT batchResponse);
+
+    /**
+     * @return The entries of the batch that failed.
+     */
+    protected abstract List<BatchResultErrorEntry> failedEntries(BatchResponseT batchResponse);
+
+    private final class Batch {
+        private final String queueUrl;
+        private final List<RequestT> requests = new ArrayList<>();
+        private final List<CompletableFuture<ResponseT>> responses = new ArrayList<>();
+        private long sizeInBytes;
+        private ScheduledFuture<?> timer;
+
+        private Batch(String queueUrl) {
+            this.queueUrl = queueUrl;
+        }
+
+        private void add(RequestT request, long size, CompletableFuture<ResponseT> response) {
+            requests.add(request);
+            responses.add(response);
+            sizeInBytes += size;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+/**
+ * Batches {@code SendMessage} requests into {@code SendMessageBatch} requests.
+ */
+@SdkInternalApi
+public final class SendMessageBatcher extends RequestBatcher<SendMessageRequest, SendMessageResponse, SendMessageBatchResponse> {
+
+    private final SQSAsyncClient client;
+
+    public SendMessageBatcher(SQSAsyncClient client, int maxBatchSize, long maxBatchSizeInBytes, Duration maxBatchOpenTime,
+                              ScheduledExecutorService scheduler) {
+        super(maxBatchSize, maxBatchSizeInBytes, maxBatchOpenTime, scheduler);
+        this.client = client;
+    }
+
+    @Override
+    protected String queueUrl(SendMessageRequest request) {
+        return request.queueUrl();
+    }
+
+    @Override
+    protected long sizeInBytes(SendMessageRequest request) {
+        long size = request.messageBody() == null ? 0 : request.messageBody().getBytes(UTF_8).length;
+        if (request.messageAttributes() != null) {
+            for (Map.Entry<String, MessageAttributeValue> attribute : request.messageAttributes().entrySet()) {
+                size += attribute.getKey().getBytes(UTF_8).length + sizeInBytes(attribute.getValue());
+            }
+        }
+        return size;
+    }
+
+    private static long sizeInBytes(MessageAttributeValue value) {
+        long size = value.dataType() == null ? 0 : value.dataType().getBytes(UTF_8).length;
+        if (value.stringValue() != null) {
+            size += value.stringValue().getBytes(UTF_8).length;
+        }
+        if (value.binaryValue() != null) {
+            size += value.binaryValue().remaining();
+        }
+        if (value.stringListValues() != null) {
+            for (String stringValue : value.stringListValues()) {
+                size += stringValue.getBytes(UTF_8).length;
+            }
+        }
+        if (value.binaryListValues() != null) {
+            for (ByteBuffer binaryValue : value.binaryListValues()) {
+                size += binaryValue.remaining();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    protected CompletableFuture<SendMessageBatchResponse> sendBatch(String queueUrl, List<String> ids,
+                                                                    List<SendMessageRequest> requests) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SendMessageRequest request = requests.get(i);
+            entries.add(SendMessageBatchRequestEntry.builder()
+                                                    .id(ids.get(i))
+                                                    .messageBody(request.messageBody())
+                                                    .delaySeconds(request.delaySeconds())
+                                                    .messageAttributes(request.messageAttributes())
+                                                    .messageDeduplicationId(request.messageDeduplicationId())
+                                                    .messageGroupId(request.messageGroupId())
+                                                    .build());
+        }
+        return client.sendMessageBatch(SendMessageBatchRequest.builder().queueUrl(queueUrl).entries(entries).build());
+    }
+
+    @Override
+    protected Map<String, SendMessageResponse> successfulEntries(SendMessageBatchResponse batchResponse) {
+        Map<String, SendMessageResponse> responses = new HashMap<>();
+        for (SendMessageBatchResultEntry entry : nullToEmpty(batchResponse.successful())) {
+            responses.put(entry.id(), SendMessageResponse.builder()
+                                                         .messageId(entry.messageId())
+                                                         .md5OfMessageBody(entry.md5OfMessageBody())
+                                                         .md5OfMessageAttributes(entry.md5OfMessageAttributes())
+                                                         .sequenceNumber(entry.sequenceNumber())
+                                                         .build());
+        }
+        return responses;
+    }
+
+    @Override
+    protected List<BatchResultErrorEntry> failedEntries(SendMessageBatchResponse batchResponse) {
+        return nullToEmpty(batchResponse.failed());
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.internal;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+/**
+ * Calculates the MD5 digests SQS returns for message bodies and message attributes, without allocating per message.
+ *
+ * <p>Each thread has its own calculator, obtained with {@link #current()}, which reuses the same {@link MessageDigest} and
+ * buffers for every digest. Strings are encoded to UTF-8 directly into the buffer fed to the digest, and a digest is compared
+ * to the hex-encoded value returned by SQS without encoding it to hex. A calculator holds the last digest it calculated until
+ * the next one starts.</p>
+ */
+@SdkInternalApi
+public final class MessageMd5Calculator {
+
+    private static final ThreadLocal<MessageMd5Calculator> CALCULATORS = ThreadLocal.withInitial(MessageMd5Calculator::new);
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MD5_LENGTH = 16;
+    private static final byte STRING_TYPE_FIELD_INDEX = 1;
+    private static final byte BINARY_TYPE_FIELD_INDEX = 2;
+    private static final byte STRING_LIST_TYPE_FIELD_INDEX = 3;
+    private static final byte BINARY_LIST_TYPE_FIELD_INDEX = 4;
+    private static final byte REPLACEMENT_BYTE = '?';
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] md5 = new byte[MD5_LENGTH];
+    private int position;
+
+    private MessageMd5Calculator() {
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SdkClientException("Unable to get an MD5 message digest.", e);
+        }
+    }
+
+    /**
+     * @return The calculator of the current thread.
+     */
+    public static MessageMd5Calculator current() {
+        return CALCULATORS.get();
+    }
+
+    /**
+     * Calculate the MD5 digest of the UTF-8 encoding of a message body.
+     *
+     * @return This calculator, holding the digest.
+     */
+    public MessageMd5Calculator digestBody(String body) {
+        start();
+        updateUtf8(body);
+        return finish();
+    }
+
+    /**
+     * Calculate the MD5 digest of message attributes, as specified by SQS: the attributes are sorted by name, and the name,
+     * data type and value of each attribute are digested prefixed by their length.
+     *
+     * @return This calculator, holding the digest.
+     */
+    public MessageMd5Calculator digestAttributes(Map<String, MessageAttributeValue> attributes) {
+        start();
+        String[] names = attributes.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        for (String name : names) {
+            MessageAttributeValue value = attributes.get(name);
+            updateLengthAndUtf8(name);
+            updateLengthAndUtf8(value.dataType());
+            if (value.stringValue() != null) {
+                updateByte(STRING_TYPE_FIELD_INDEX);
+                updateLengthAndUtf8(value.stringValue());
+            } else if (value.binaryValue() != null) {
+                updateByte(BINARY_TYPE_FIELD_INDEX);
+                updateLengthAndBytes(value.binaryValue());
+            } else if (isNotEmpty(value.stringListValues())) {
+                updateByte(STRING_LIST_TYPE_FIELD_INDEX);
+                for (String member : value.stringListValues()) {
+                    updateLengthAndUtf8(member);
+                }
+            } else if (isNotEmpty(value.binaryListValues())) {
+                updateByte(BINARY_LIST_TYPE_FIELD_INDEX);
+                for (ByteBuffer member : value.binaryListValues()) {
+                    updateLengthAndBytes(member);
+                }
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * @return True if the last digest calculated is the given hex-encoded digest, in either case.
+     */
+    public boolean matches(String hexDigest) {
+        if (hexDigest == null || hexDigest.length() != 2 * MD5_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MD5_LENGTH; i++) {
+            int high = Character.digit(hexDigest.charAt(2 * i), 16);
+            int low = Character.digit(hexDigest.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0 || (byte) (high << 4 | low) != md5[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The last digest calculated, hex-encoded.
+     */
+    public String hex() {
+        return BinaryUtils.toHex(md5);
+    }
+
+    private void start() {
+        digest.reset();
+        position = 0;
+    }
+
+    private MessageMd5Calculator finish() {
+        flush();
+        try {
+            digest.digest(md5, 0, MD5_LENGTH);
+        } catch (DigestException e) {
+            throw new SdkClientException("Unable to calculate an MD5 digest.", e);
+        }
+        return this;
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+
+    private void updateByte(byte b) {
+        if (position == BUFFER_SIZE) {
+            flush();
+        }
+        buffer[position++] = b;
+    }
+
+    private void updateInt(int value) {
+        if (position > BUFFER_SIZE - 4) {
+            flush();
+        }
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void updateLengthAndUtf8(String value) {
+        updateInt(utf8Length(value));
+        updateUtf8(value);
+    }
+
+    private void updateLengthAndBytes(ByteBuffer value) {
+        updateInt(value.remaining());
+        flush();
+        digest.update(value.duplicate());
+    }
+
+    /**
+     * Encode the given string to UTF-8 into the buffer, replacing unpaired surrogates like {@link String#getBytes} does.
+     */
+    private void updateUtf8(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (position > BUFFER_SIZE - 4) {
+                flush();
+            }
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                buffer[position++] = REPLACEMENT_BYTE;
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (!Character.isSurrogate(c)) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // Two chars encoded as four bytes
+                    utf8Length += 2;
+                    i++;
+                }
+            } else if (c >= 0x80) {
+                utf8Length++;
+            }
+        }
+        return utf8Length;
+    }
+
+    private static boolean isNotEmpty(List<?> list) {
+        return list != null && !list.isEmpty();
+    }
+}
@@ -15,17 +15,26 @@
 
 package software.amazon.awssdk.services.sqs;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static software.amazon.awssdk.core.util.StringUtils.UTF8;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import software.amazon.awssdk.core.SdkRequest;
 import software.amazon.awssdk.core.SdkResponse;
 import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.AwsExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
 import software.amazon.awssdk.core.interceptor.InterceptorContext;
+import software.amazon.awssdk.core.util.Md5Utils;
 import software.amazon.awssdk.services.sqs.model.Message;
 import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
 import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
@@ -36,6 +45,7 @@ import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
 import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.utils.BinaryUtils;
 
 /**
  * Verifies the functionality of {@link MessageMD5ChecksumInterceptor}.
@@ -225,27 +235,106 @@ public class MessageMD5ChecksumInterceptorTest {
         assertFailure(ReceiveMessageRequest.builder().build(), response);
     }
 
+    @Test
+    public void receiveMessageVerifiesEveryMessageOfLargeBatches() {
+        String largeBody = largeBody();
+        Message message = Message.builder()
+                                 .body(largeBody)
+                                 .md5OfBody(BinaryUtils.toHex(Md5Utils.computeMD5Hash(largeBody.getBytes(UTF8))))
+                                 .build();
+        Message badMessage = message.toBuilder().md5OfBody("bad").build();
+
+        List<Message> messages = new ArrayList<>(Collections.nCopies(10, message));
+        assertSuccess(ReceiveMessageRequest.builder().build(), ReceiveMessageResponse.builder().messages(messages).build());
+
+        messages.set(7, badMessage);
+        assertFailure(ReceiveMessageRequest.builder().build(), ReceiveMessageResponse.builder().messages(messages).build());
+    }
+
+    @Test
+    public void receiveMessageVerifiesLargeBatchesOnTheConfiguredExecutor() {
+        String largeBody = largeBody();
+        Message message = Message.builder()
+                                 .body(largeBody)
+                                 .md5OfBody(BinaryUtils.toHex(Md5Utils.computeMD5Hash(largeBody.getBytes(UTF8))))
+                                 .build();
+        Message badMessage = message.toBuilder().md5OfBody("bad").build();
+
+        AtomicInteger verifications = new AtomicInteger();
+        ExecutionAttributes executionAttributes = new ExecutionAttributes();
+        executionAttributes.putAttribute(AwsExecutionAttributes.SERVICE_ADVANCED_CONFIG,
+                                         SqsAdvancedConfiguration.builder()
+                                                                 .md5VerificationExecutor(r -> {
+                                                                     verifications.incrementAndGet();
+                                                                     ForkJoinPool.commonPool().execute(r);
+                                                                 })
+                                                                 .build());
+
+        List<Message> messages = new ArrayList<>(Collections.nCopies(10, message));
+        callInterceptor(ReceiveMessageRequest.builder().build(), ReceiveMessageResponse.builder().messages(messages).build(),
+                        executionAttributes);
+        assertThat(verifications.get()).isEqualTo(10);
+
+        messages.set(7, badMessage);
+        assertThatThrownBy(() -> callInterceptor(ReceiveMessageRequest.builder().build(),
+                                                 ReceiveMessageResponse.builder().messages(messages).build(),
+                                                 executionAttributes))
+                .isInstanceOf(SdkClientException.class);
+    }
+
+    @Test
+    public void receiveMessageVerifiesSmallBatchesOnTheCallingThread() {
+        Message message = Message.builder()
+                                 .body(messageBody())
+                                 .messageAttributes(messageAttributes())
+                                 .md5OfBody(messageBodyChecksum())
+                                 .md5OfMessageAttributes(messageAttributesChecksum())
+                                 .build();
+
+        AtomicInteger verifications = new AtomicInteger();
+        ExecutionAttributes executionAttributes = new ExecutionAttributes();
+        executionAttributes.putAttribute(AwsExecutionAttributes.SERVICE_ADVANCED_CONFIG,
+                                         SqsAdvancedConfiguration.builder()
+                                                                 .md5VerificationExecutor(r -> {
+                                                                     verifications.incrementAndGet();
+                                                                     r.run();
+                                                                 })
+                                                                 .build());
+
+        callInterceptor(ReceiveMessageRequest.builder().build(), ReceiveMessageResponse.builder().messages(message, message).build(),
+                        executionAttributes);
+        assertThat(verifications.get()).isZero();
+    }
+
     private void assertSuccess(SdkRequest request, SdkResponse response) {
-        callInterceptor(request, response);
+        callInterceptor(request, response, new ExecutionAttributes());
     }
 
     private void assertFailure(SdkRequest request, SdkResponse response) {
-        assertThatThrownBy(() -> callInterceptor(request, response))
+        assertThatThrownBy(() -> callInterceptor(request, response, new ExecutionAttributes()))
                 .isInstanceOf(SdkClientException.class);
     }
 
-    private void callInterceptor(SdkRequest request, SdkResponse response) {
+    private void callInterceptor(SdkRequest request, SdkResponse response, ExecutionAttributes executionAttributes) {
         new MessageMD5ChecksumInterceptor().afterExecution(InterceptorContext.builder()
                                                                              .request(request)
                                                                              .response(response)
                                                                              .build(),
-                                                           new ExecutionAttributes());
+                                                           executionAttributes);
     }
 
     private String messageBody() {
         return "Body";
     }
 
+    private String largeBody() {
+        StringBuilder body = new StringBuilder();
+        while (body.length() < 32 * 1024) {
+            body.append("Body \u00e9\u20ac\ud83d\ude00 ");
+        }
+        return body.toString();
+    }
+
     private String messageBodyChecksum() {
         return "ac101b32dda4448cf13a93fe283dddd8";
     }
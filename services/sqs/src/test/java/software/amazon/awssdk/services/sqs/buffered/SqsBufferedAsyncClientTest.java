@@ -0,0 +1,208 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.AwsRequestOverrideConfig;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.SQSException;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+public class SqsBufferedAsyncClientTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue";
+
+    private SQSAsyncClient sqs;
+    private SqsBufferedAsyncClient bufferedClient;
+
+    @Before
+    public void setup() {
+        sqs = mock(SQSAsyncClient.class);
+        when(sqs.sendMessageBatch(any(SendMessageBatchRequest.class))).thenAnswer(invocation -> {
+            SendMessageBatchRequest request = (SendMessageBatchRequest) invocation.getArguments()[0];
+            List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+            List<BatchResultErrorEntry> failed = new ArrayList<>();
+            request.entries().forEach(e -> {
+                if (e.messageBody().equals("poison")) {
+                    failed.add(BatchResultErrorEntry.builder().id(e.id()).code("InvalidMessageContents").senderFault(true)
+                                                    .message("Invalid message").build());
+                } else {
+                    successful.add(SendMessageBatchResultEntry.builder().id(e.id()).messageId("id-" + e.messageBody()).build());
+                }
+            });
+            return CompletableFuture.completedFuture(SendMessageBatchResponse.builder().successful(successful).failed(failed)
+                                                                             .build());
+        });
+        when(sqs.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenAnswer(invocation -> {
+            DeleteMessageBatchRequest request = (DeleteMessageBatchRequest) invocation.getArguments()[0];
+            List<DeleteMessageBatchResultEntry> successful =
+                    request.entries().stream().map(e -> DeleteMessageBatchResultEntry.builder().id(e.id()).build())
+                           .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(DeleteMessageBatchResponse.builder().successful(successful).build());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (bufferedClient != null) {
+            bufferedClient.close();
+        }
+    }
+
+    @Test
+    public void fullBatchIsSentWithoutWaiting() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+
+        List<CompletableFuture<SendMessageResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            responses.add(bufferedClient.sendMessage(send("message-" + i)));
+        }
+
+        ArgumentCaptor<SendMessageBatchRequest> batch = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(sqs).sendMessageBatch(batch.capture());
+        assertThat(batch.getValue().queueUrl()).isEqualTo(QUEUE_URL);
+        assertThat(batch.getValue().entries()).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(responses.get(i).join().messageId()).isEqualTo("id-message-" + i);
+        }
+        verify(sqs, never()).sendMessage(any(SendMessageRequest.class));
+    }
+
+    @Test
+    public void batchIsSentWhenPayloadWouldBeTooLarge() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 20L);
+
+        bufferedClient.sendMessage(send("0123456789"));
+        bufferedClient.sendMessage(send("0123456789"));
+        verify(sqs, never()).sendMessageBatch(any(SendMessageBatchRequest.class));
+
+        bufferedClient.sendMessage(send("0123456789"));
+        verify(sqs).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    public void partialBatchIsSentAfterMaxOpenTime() {
+        bufferedClient = bufferedClient(Duration.ofMillis(10), 256 * 1024L);
+
+        assertThat(bufferedClient.sendMessage(send("message")).join().messageId()).isEqualTo("id-message");
+    }
+
+    @Test
+    public void failedEntryOnlyFailsItsOwnCall() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+
+        CompletableFuture<SendMessageResponse> good = bufferedClient.sendMessage(send("good"));
+        CompletableFuture<SendMessageResponse> poison = bufferedClient.sendMessage(send("poison"));
+        bufferedClient.flush();
+
+        assertThat(good.join().messageId()).isEqualTo("id-good");
+        assertThatThrownBy(poison::join).isInstanceOf(CompletionException.class)
+                                        .hasCauseInstanceOf(SQSException.class)
+                                        .hasMessageContaining("Invalid message");
+    }
+
+    @Test
+    public void deletesAreBatchedPerQueue() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+
+        List<CompletableFuture<DeleteMessageResponse>> responses = new ArrayList<>();
+        for (String queue : new String[] {"a", "b", "a"}) {
+            responses.add(bufferedClient.deleteMessage(DeleteMessageRequest.builder().queueUrl(queue).receiptHandle("r")
+                                                                           .build()));
+        }
+        bufferedClient.close();
+
+        responses.forEach(CompletableFuture::join);
+        ArgumentCaptor<DeleteMessageBatchRequest> batches = ArgumentCaptor.forClass(DeleteMessageBatchRequest.class);
+        verify(sqs, times(2)).deleteMessageBatch(batches.capture());
+        assertThat(batches.getAllValues()).extracting(r -> r.entries().size()).containsExactlyInAnyOrder(2, 1);
+    }
+
+    @Test
+    public void callsAfterCloseFail() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+        bufferedClient.close();
+
+        assertThatThrownBy(() -> bufferedClient.sendMessage(send("late")).join()).hasCauseInstanceOf(IllegalStateException.class);
+        verify(sqs, never()).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    public void callsWithOverrideConfigAreNotBatched() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+        SendMessageRequest request = send("message").toBuilder()
+                                                    .requestOverrideConfig(AwsRequestOverrideConfig.builder().build())
+                                                    .build();
+        CompletableFuture<SendMessageResponse> response = new CompletableFuture<>();
+        when(sqs.sendMessage(request)).thenReturn(response);
+
+        assertThat(bufferedClient.sendMessage(request)).isSameAs(response);
+        bufferedClient.flush();
+        verify(sqs, never()).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    public void otherOperationsArePassedOn() {
+        bufferedClient = bufferedClient(Duration.ofHours(1), 256 * 1024L);
+        GetQueueUrlRequest request = GetQueueUrlRequest.builder().queueName("queue").build();
+        CompletableFuture<GetQueueUrlResponse> response = new CompletableFuture<>();
+        when(sqs.getQueueUrl(request)).thenReturn(response);
+
+        assertThat(bufferedClient.getQueueUrl(request)).isSameAs(response);
+    }
+
+    private SqsBufferedAsyncClient bufferedClient(Duration maxBatchOpenTime, Long maxBatchSizeInBytes) {
+        return SqsBufferedAsyncClient.builder()
+                                     .client(sqs)
+                                     .maxBatchOpenTime(maxBatchOpenTime)
+                                     .maxBatchSizeInBytes(maxBatchSizeInBytes)
+                                     .build();
+    }
+
+    private static SendMessageRequest send(String body) {
+        return SendMessageRequest.builder().queueUrl(QUEUE_URL).messageBody(body).build();
+    }
+}
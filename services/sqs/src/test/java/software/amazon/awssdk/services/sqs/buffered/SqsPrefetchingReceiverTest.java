@@ -0,0 +1,234 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.buffered;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.sqs.SQSAsyncClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+public class SqsPrefetchingReceiverTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue";
+
+    private SQSAsyncClient sqs;
+    private Queue<CompletableFuture<ReceiveMessageResponse>> receives;
+    private List<ReceiveMessageRequest> receiveRequests;
+    private SqsPrefetchingReceiver receiver;
+    private int nextMessage;
+
+    @Before
+    public void setup() {
+        sqs = mock(SQSAsyncClient.class);
+        receives = new ConcurrentLinkedQueue<>();
+        receiveRequests = new ArrayList<>();
+        when(sqs.receiveMessage(any(ReceiveMessageRequest.class))).thenAnswer(invocation -> {
+            receiveRequests.add((ReceiveMessageRequest) invocation.getArguments()[0]);
+            CompletableFuture<ReceiveMessageResponse> response = new CompletableFuture<>();
+            receives.add(response);
+            return response;
+        });
+        when(sqs.changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(ChangeMessageVisibilityBatchResponse.builder().build()));
+    }
+
+    @After
+    public void tearDown() {
+        if (receiver != null) {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void longPollsAreStartedAheadOfConsumption() {
+        receiver = receiver(30, 3, 25);
+
+        assertThat(receiveRequests).hasSize(3);
+        assertThat(receiveRequests).extracting(ReceiveMessageRequest::maxNumberOfMessages).containsExactly(10, 10, 5);
+        assertThat(receiveRequests).extracting(ReceiveMessageRequest::waitTimeSeconds).containsOnly(20);
+    }
+
+    @Test
+    public void bufferedMessagesAreHandedOutAndBufferIsRefilled() {
+        receiver = receiver(30, 1, 10);
+        respond(3);
+
+        // The next long-poll is only for as many messages as the buffer has room for
+        assertThat(receiveRequests).hasSize(2);
+        assertThat(receiveRequests.get(1).maxNumberOfMessages()).isEqualTo(7);
+
+        assertThat(receiver.receive().join().body()).isEqualTo("message-0");
+        assertThat(receiver.receive().join().body()).isEqualTo("message-1");
+        respond(7);
+
+        assertThat(receiveRequests).hasSize(3);
+        assertThat(receiveRequests.get(2).maxNumberOfMessages()).isEqualTo(2);
+    }
+
+    @Test
+    public void waitingReceiveIsCompletedWhenMessagesArrive() {
+        receiver = receiver(30, 1, 10);
+        CompletableFuture<Message> message = receiver.receive();
+        assertThat(message).isNotDone();
+
+        respond(1);
+
+        assertThat(message.join().body()).isEqualTo("message-0");
+    }
+
+    @Test
+    public void waitingReceiveIsServedByRetryAfterFailure() {
+        receiver = receiver(30, 1, 10);
+        CompletableFuture<Message> message = receiver.receive();
+
+        receives.poll().completeExceptionally(new RuntimeException("Transient failure"));
+
+        assertThat(message).isNotDone();
+        verify(sqs, timeout(3000).times(2)).receiveMessage(any(ReceiveMessageRequest.class));
+        respond(1);
+        assertThat(message.join().body()).isEqualTo("message-0");
+    }
+
+    @Test
+    public void waitingReceiveFailsWhenReceivesKeepFailing() {
+        receiver = receiver(30, 1, 10);
+        CompletableFuture<Message> message = receiver.receive();
+
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            verify(sqs, timeout(3000).times(attempt)).receiveMessage(any(ReceiveMessageRequest.class));
+            assertThat(message).isNotDone();
+            receives.poll().completeExceptionally(new RuntimeException("Failure " + attempt));
+        }
+
+        assertThatThrownBy(message::join).hasMessageContaining("Failure 5");
+    }
+
+    @Test
+    public void publisherDeliversRequestedMessages() {
+        receiver = receiver(30, 1, 10);
+        respond(5);
+        List<String> bodies = new ArrayList<>();
+
+        receiver.messages().subscribe(new Subscriber<Message>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(3);
+            }
+
+            @Override
+            public void onNext(Message message) {
+                bodies.add(message.body());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertThat(bodies).containsExactly("message-0", "message-1", "message-2");
+        assertThat(receiver.receive().join().body()).isEqualTo("message-3");
+    }
+
+    @Test
+    public void visibilityOfBufferedMessagesIsExtended() {
+        receiver = receiver(1, 1, 10);
+        respond(2);
+
+        ArgumentCaptor<ChangeMessageVisibilityBatchRequest> extension =
+                ArgumentCaptor.forClass(ChangeMessageVisibilityBatchRequest.class);
+        verify(sqs, timeout(2000).atLeastOnce()).changeMessageVisibilityBatch(extension.capture());
+        assertThat(extension.getValue().entries()).hasSize(2);
+        assertThat(extension.getValue().entries().get(0).visibilityTimeout()).isEqualTo(1);
+    }
+
+    @Test
+    public void closeReleasesBufferedMessages() {
+        receiver = receiver(30, 1, 10);
+        respond(3);
+        receiver.receive().join();
+
+        receiver.close();
+
+        ArgumentCaptor<ChangeMessageVisibilityBatchRequest> release =
+                ArgumentCaptor.forClass(ChangeMessageVisibilityBatchRequest.class);
+        verify(sqs).changeMessageVisibilityBatch(release.capture());
+        assertThat(release.getValue().entries()).extracting(e -> e.receiptHandle()).containsExactly("handle-1", "handle-2");
+        assertThat(release.getValue().entries()).extracting(e -> e.visibilityTimeout()).containsOnly(0);
+        assertThatThrownBy(receiver.receive()::join).isInstanceOf(CompletionException.class);
+    }
+
+    @Test
+    public void closeFailsWaitingReceives() {
+        receiver = receiver(30, 1, 10);
+        CompletableFuture<Message> waiting = receiver.receive();
+
+        receiver.close();
+
+        assertThat(waiting).isCompletedExceptionally();
+    }
+
+    private SqsPrefetchingReceiver receiver(int visibilityTimeout, int maxConcurrentReceives, int maxBufferedMessages) {
+        return SqsPrefetchingReceiver.builder()
+                                     .client(sqs)
+                                     .receiveRequest(ReceiveMessageRequest.builder()
+                                                                          .queueUrl(QUEUE_URL)
+                                                                          .visibilityTimeout(visibilityTimeout)
+                                                                          .build())
+                                     .maxConcurrentReceives(maxConcurrentReceives)
+                                     .maxBufferedMessages(maxBufferedMessages)
+                                     .build();
+    }
+
+    /**
+     * Complete the oldest outstanding long-poll with the given number of messages.
+     */
+    private void respond(int count) {
+        List<Message> messages = IntStream.range(0, count)
+                                          .mapToObj(i -> nextMessage++)
+                                          .map(i -> Message.builder().body("message-" + i).receiptHandle("handle-" + i).build())
+                                          .collect(Collectors.toList());
+        receives.poll().complete(ReceiveMessageResponse.builder().messages(messages).build());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.services.sqs.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.awssdk.core.util.StringUtils.UTF8;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import software.amazon.awssdk.core.util.Md5Utils;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.utils.BinaryUtils;
+
+/**
+ * Verifies the functionality of {@link MessageMd5Calculator}.
+ */
+public class MessageMd5CalculatorTest {
+
+    @Test
+    public void bodyDigestMatchesDigestOfUtf8Encoding() {
+        String[] bodies = {"", "Body", "caf\u00e9 \u20ac \u0800 \u07ff \u007f",
+                           "emoji \ud83d\ude00 \ud800\udc00 \udbff\udfff",
+                           "unpaired \ud83d end", "unpaired \ude00 start", "trailing \ud83d", repeat("\u00e9\ud83d\ude00x", 5000)};
+        for (String body : bodies) {
+            String expected = BinaryUtils.toHex(Md5Utils.computeMD5Hash(body.getBytes(UTF8)));
+            MessageMd5Calculator calculator = MessageMd5Calculator.current().digestBody(body);
+            assertThat(calculator.hex()).isEqualTo(expected);
+            assertThat(calculator.matches(expected)).isTrue();
+            assertThat(calculator.matches(expected.toUpperCase())).isTrue();
+        }
+    }
+
+    @Test
+    public void matchesRejectsOtherDigests() {
+        MessageMd5Calculator calculator = MessageMd5Calculator.current().digestBody("Body");
+        assertThat(calculator.matches("ac101b32dda4448cf13a93fe283dddd8")).isTrue();
+        assertThat(calculator.matches("ac101b32dda4448cf13a93fe283dddd9")).isFalse();
+        assertThat(calculator.matches("ac101b32dda4448cf13a93fe283dddd")).isFalse();
+        assertThat(calculator.matches("zc101b32dda4448cf13a93fe283dddd8")).isFalse();
+        assertThat(calculator.matches(null)).isFalse();
+    }
+
+    @Test
+    public void attributeDigestIsIndependentOfPreviousDigests() {
+        Map<String, MessageAttributeValue> attributes = new HashMap<>();
+        attributes.put("String", MessageAttributeValue.builder().stringValue("Value").dataType("String").build());
+        attributes.put("Binary", MessageAttributeValue.builder()
+                                                      .binaryValue(ByteBuffer.wrap(new byte[] {5}))
+                                                      .dataType("Binary")
+                                                      .build());
+        attributes.put("StringList", MessageAttributeValue.builder().stringListValues("ListValue").dataType("String").build());
+        attributes.put("ByteList", MessageAttributeValue.builder()
+                                                        .binaryListValues(ByteBuffer.wrap(new byte[] {3}))
+                                                        .dataType("Binary")
+                                                        .build());
+
+        MessageMd5Calculator calculator = MessageMd5Calculator.current();
+        calculator.digestBody(repeat("partial buffer ", 1000));
+        assertThat(calculator.digestAttributes(attributes).hex()).isEqualTo("4b6959cf7735fdade89bc099b85b3234");
+        assertThat(calculator.digestAttributes(attributes).hex()).isEqualTo("4b6959cf7735fdade89bc099b85b3234");
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            result.append(value);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.reactivestreams.Publisher;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+import software.amazon.awssdk.utils.ThreadFactoryBuilder;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Base of the readers of the streams of a service, which read all the shards of a stream with a {@link ShardReader}. A reader
+ * adapts the client of its service and the identifier of the stream to a {@link ShardedStream}; the other options of its
+ * builder and the executor delaying the reads are handled here.
+ *
+ * <p>The reader does not own the client: closing it stops the reads, but does not close the client.</p>
+ *
+ * @param <RecordT> The type of the records of the stream.
+ */
+@SdkPublicApi
+public abstract class AbstractShardReader<RecordT> implements SdkAutoCloseable {
+
+    private final ShardReader<RecordT> shardReader;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    /**
+     * @param builder The options of the reader.
+     * @param stream The stream to read.
+     * @param threadNamePrefix The name prefix of the thread the reader uses when no executor is configured.
+     */
+    protected AbstractShardReader(BuilderImpl<?, ?> builder, ShardedStream<RecordT> stream, String threadNamePrefix) {
+        this.ownsScheduler = builder.scheduledExecutorService == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().threadNamePrefix(threadNamePrefix).daemonThreads(true).build())
+                                       : builder.scheduledExecutorService;
+        this.shardReader = ShardReader.<RecordT>builder()
+                                      .stream(stream)
+                                      .initialPosition(builder.initialPosition)
+                                      .checkpointer(builder.checkpointer)
+                                      .maxBufferedRecordsPerShard(builder.maxBufferedRecordsPerShard)
+                                      .idleTimeBetweenRequests(builder.idleTimeBetweenRequests)
+                                      .scheduledExecutorService(scheduler)
+                                      .build();
+    }
+
+    /**
+     * Read the stream. Each subscription reads the stream independently, starting from the checkpoints of its shards.
+     *
+     * @return A publisher of the records of the stream, which completes once all the shards of the stream are closed and have
+     * been read.
+     */
+    public Publisher<ShardRecord<RecordT>> read() {
+        return shardReader;
+    }
+
+    /**
+     * Release the resources of this reader. The client is not closed.
+     */
+    @Override
+    public void close() {
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * The options common to the builders of the readers.
+     *
+     * @param <B> The type of the builder.
+     * @param <R> The type of the reader.
+     */
+    public interface Builder<B extends Builder<B, R>, R extends AbstractShardReader<?>> extends SdkBuilder<B, R> {
+
+        /**
+         * Sets where the shards without a checkpoint are read from.
+         *
+         * <p>The default is {@link InitialShardPosition#LATEST}.</p>
+         *
+         * @param initialPosition The initial position.
+         * @return This builder for method chaining.
+         */
+        B initialPosition(InitialShardPosition initialPosition);
+
+        /**
+         * Sets the store of the checkpoints the shards are resumed from.
+         *
+         * <p>By default, the checkpoints are kept in memory.</p>
+         *
+         * @param checkpointer The checkpointer.
+         * @return This builder for method chaining.
+         */
+        B checkpointer(ShardCheckpointer checkpointer);
+
+        /**
+         * Sets the number of records of a shard waiting to be delivered above which the shard is not read further.
+         *
+         * <p>The default is 1,000 records.</p>
+         *
+         * @param maxBufferedRecordsPerShard New maximum number of records.
+         * @return This builder for method chaining.
+         */
+        B maxBufferedRecordsPerShard(Integer maxBufferedRecordsPerShard);
+
+        /**
+         * Sets the time to wait before reading a shard again after it returned no records.
+         *
+         * <p>The default is 1 second.</p>
+         *
+         * @param idleTimeBetweenRequests New idle time.
+         * @return This builder for method chaining.
+         */
+        B idleTimeBetweenRequests(Duration idleTimeBetweenRequests);
+
+        /**
+         * Sets the executor used to delay the reads of the shards. It is not shut down when the reader is closed.
+         *
+         * <p>By default, the reader uses a single daemon thread of its own, which is stopped when the reader is closed.</p>
+         *
+         * @param scheduledExecutorService New executor.
+         * @return This builder for method chaining.
+         */
+        B scheduledExecutorService(ScheduledExecutorService scheduledExecutorService);
+    }
+
+    protected abstract static class BuilderImpl<B extends Builder<B, R>, R extends AbstractShardReader<?>>
+            implements Builder<B, R> {
+
+        private InitialShardPosition initialPosition;
+        private ShardCheckpointer checkpointer;
+        private Integer maxBufferedRecordsPerShard;
+        private Duration idleTimeBetweenRequests;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B initialPosition(InitialShardPosition initialPosition) {
+            this.initialPosition = initialPosition;
+            return (B) this;
+        }
+
+        public void setInitialPosition(InitialShardPosition initialPosition) {
+            initialPosition(initialPosition);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B checkpointer(ShardCheckpointer checkpointer) {
+            this.checkpointer = checkpointer;
+            return (B) this;
+        }
+
+        public void setCheckpointer(ShardCheckpointer checkpointer) {
+            checkpointer(checkpointer);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B maxBufferedRecordsPerShard(Integer maxBufferedRecordsPerShard) {
+            this.maxBufferedRecordsPerShard = maxBufferedRecordsPerShard;
+            return (B) this;
+        }
+
+        public void setMaxBufferedRecordsPerShard(Integer maxBufferedRecordsPerShard) {
+            maxBufferedRecordsPerShard(maxBufferedRecordsPerShard);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B idleTimeBetweenRequests(Duration idleTimeBetweenRequests) {
+            this.idleTimeBetweenRequests = idleTimeBetweenRequests;
+            return (B) this;
+        }
+
+        public void setIdleTimeBetweenRequests(Duration idleTimeBetweenRequests) {
+            idleTimeBetweenRequests(idleTimeBetweenRequests);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return (B) this;
+        }
+
+        public void setScheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            scheduledExecutorService(scheduledExecutorService);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import software.amazon.awssdk.annotations.SdkPublicApi;
+
+/**
+ * Where a shard reader starts reading a shard that has no checkpoint.
+ */
+@SdkPublicApi
+public enum InitialShardPosition {
+
+    /**
+     * Start at the oldest record still held by the shard.
+     */
+    TRIM_HORIZON,
+
+    /**
+     * Start after the most recent record of the shard, reading only the records added from then on. The shards found when
+     * the reader starts are all read from there, including the open children of closed shards. The children of a shard
+     * read by the reader are always read from their oldest record, so that no record is skipped after the stream is
+     * resharded.
+     */
+    LATEST
+}
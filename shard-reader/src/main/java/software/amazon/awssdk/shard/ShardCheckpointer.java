@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.shard.internal.InMemoryShardCheckpointer;
+
+/**
+ * Stores how far the shards of a stream have been processed, so that a shard reader resumes reading after the last
+ * checkpointed record of each shard.
+ *
+ * <p>Implementations are typically backed by a database table shared by the readers of a stream. They are called
+ * concurrently for different shards.</p>
+ */
+@SdkPublicApi
+public interface ShardCheckpointer {
+
+    /**
+     * The checkpoint of a closed shard whose records have all been processed. The children of such a shard can be read
+     * without reading it again.
+     */
+    String SHARD_END = "SHARD_END";
+
+    /**
+     * Load the checkpoint of a shard.
+     *
+     * @param shardId The identifier of the shard.
+     * @return A future completed with the last checkpointed sequence number of the shard, {@link #SHARD_END}, or null if the
+     * shard has no checkpoint.
+     */
+    CompletableFuture<String> lastCheckpoint(String shardId);
+
+    /**
+     * Store the checkpoint of a shard.
+     *
+     * @param shardId The identifier of the shard.
+     * @param sequenceNumber The sequence number of the last processed record of the shard, or {@link #SHARD_END}.
+     * @return A future completed once the checkpoint is stored.
+     */
+    CompletableFuture<Void> checkpoint(String shardId, String sequenceNumber);
+
+    /**
+     * @return A checkpointer keeping the checkpoints in memory, so that they only last as long as the reader.
+     */
+    static ShardCheckpointer inMemory() {
+        return new InMemoryShardCheckpointer();
+    }
+}
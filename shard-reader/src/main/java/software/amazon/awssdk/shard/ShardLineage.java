@@ -0,0 +1,48 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+
+/**
+ * A shard of a stream and the shards it was created from when the stream was resharded. A shard created by a split has
+ * a parent, and a shard created by a merge has a parent and an adjacent parent.
+ */
+@SdkProtectedApi
+public final class ShardLineage {
+
+    private final String shardId;
+    private final String parentShardId;
+    private final String adjacentParentShardId;
+
+    public ShardLineage(String shardId, String parentShardId, String adjacentParentShardId) {
+        this.shardId = shardId;
+        this.parentShardId = parentShardId;
+        this.adjacentParentShardId = adjacentParentShardId;
+    }
+
+    public String shardId() {
+        return shardId;
+    }
+
+    public String parentShardId() {
+        return parentShardId;
+    }
+
+    public String adjacentParentShardId() {
+        return adjacentParentShardId;
+    }
+}
@@ -0,0 +1,678 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.utils.Logger;
+import software.amazon.awssdk.utils.Validate;
+import software.amazon.awssdk.utils.builder.SdkBuilder;
+
+/**
+ * Reads all the shards of a stream, publishing their records as the subscriber requests them.
+ *
+ * <p>Each subscription lists the shards of the stream and reads every shard with its own chain of {@code GetRecords} calls.
+ * A shard is read ahead of the subscriber until {@link Builder#maxBufferedRecordsPerShard(Integer)} of its records are waiting
+ * to be delivered, and the records of the shards are delivered in turn. A shard created by resharding is only read once all
+ * the records of its parents have been delivered, so that the records of a partition key are delivered in order, and the
+ * shards are listed again whenever a shard has been read to its end, to find its children. The publisher completes once all
+ * the shards of the stream are closed and have been read.</p>
+ *
+ * <p>Successive calls for a shard are spaced by {@link Builder#minTimeBetweenRequests(Duration)}, or by
+ * {@link Builder#idleTimeBetweenRequests(Duration)} after a call returned no records, to stay within the read limits of the
+ * shard. Throttled calls are made again after a backoff, and a new shard iterator is requested when one expires. Other
+ * failures fail the subscription.</p>
+ *
+ * <p>Shards are resumed after the sequence number loaded from the {@link ShardCheckpointer}, which stores the checkpoints
+ * made with {@link ShardRecord#checkpoint()}. Shards without a checkpoint are read from the
+ * {@link Builder#initialPosition(InitialShardPosition) initial position}, except for the children of the shards being read,
+ * which are read from their oldest record. If the iterator of a shard read from {@link InitialShardPosition#LATEST} expires
+ * before any of its records was read, the shard is read from its oldest record rather than skipping the records added in
+ * between.</p>
+ *
+ * @param <RecordT> The type of the records of the stream.
+ */
+@SdkProtectedApi
+public final class ShardReader<RecordT> implements Publisher<ShardRecord<RecordT>> {
+
+    private static final Logger log = Logger.loggerFor(ShardReader.class);
+
+    private static final InitialShardPosition DEFAULT_INITIAL_POSITION = InitialShardPosition.LATEST;
+    private static final int DEFAULT_MAX_BUFFERED_RECORDS_PER_SHARD = 1000;
+    private static final Duration DEFAULT_MIN_TIME_BETWEEN_REQUESTS = Duration.ofMillis(200);
+    private static final Duration DEFAULT_IDLE_TIME_BETWEEN_REQUESTS = Duration.ofSeconds(1);
+    private static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(200);
+    private static final Duration DEFAULT_MAX_BACKOFF_TIME = Duration.ofSeconds(10);
+
+    private final ShardedStream<RecordT> stream;
+    private final InitialShardPosition initialPosition;
+    private final ShardCheckpointer checkpointer;
+    private final int maxBufferedRecordsPerShard;
+    private final Integer maxRecordsPerRequest;
+    private final long minNanosBetweenRequests;
+    private final long idleNanosBetweenRequests;
+    private final BackoffStrategy backoffStrategy;
+    private final ScheduledExecutorService scheduler;
+
+    private ShardReader(Builder<RecordT> builder) {
+        this.stream = Validate.paramNotNull(builder.stream, "stream");
+        this.scheduler = Validate.paramNotNull(builder.scheduledExecutorService, "scheduledExecutorService");
+        this.initialPosition = builder.initialPosition == null ? DEFAULT_INITIAL_POSITION : builder.initialPosition;
+        this.checkpointer = builder.checkpointer == null ? ShardCheckpointer.inMemory() : builder.checkpointer;
+        this.maxBufferedRecordsPerShard = builder.maxBufferedRecordsPerShard == null ? DEFAULT_MAX_BUFFERED_RECORDS_PER_SHARD
+                                                                                     : builder.maxBufferedRecordsPerShard;
+        this.maxRecordsPerRequest = builder.maxRecordsPerRequest;
+        Duration minTimeBetweenRequests = builder.minTimeBetweenRequests == null ? DEFAULT_MIN_TIME_BETWEEN_REQUESTS
+                                                                                 : builder.minTimeBetweenRequests;
+        Duration idleTimeBetweenRequests = builder.idleTimeBetweenRequests == null ? DEFAULT_IDLE_TIME_BETWEEN_REQUESTS
+                                                                                   : builder.idleTimeBetweenRequests;
+        Validate.isPositive(maxBufferedRecordsPerShard, "maxBufferedRecordsPerShard");
+        if (maxRecordsPerRequest != null) {
+            Validate.isPositive(maxRecordsPerRequest, "maxRecordsPerRequest");
+        }
+        Validate.isNotNegative(minTimeBetweenRequests, "minTimeBetweenRequests");
+        Validate.isNotNegative(idleTimeBetweenRequests, "idleTimeBetweenRequests");
+        this.minNanosBetweenRequests = minTimeBetweenRequests.toNanos();
+        this.idleNanosBetweenRequests = idleTimeBetweenRequests.toNanos();
+        this.backoffStrategy = builder.backoffStrategy != null ? builder.backoffStrategy : defaultBackoffStrategy();
+    }
+
+    private static BackoffStrategy defaultBackoffStrategy() {
+        return FullJitterBackoffStrategy.builder()
+                                        .baseDelay(DEFAULT_BASE_DELAY)
+                                        .maxBackoffTime(DEFAULT_MAX_BACKOFF_TIME)
+                                        .numRetries(Integer.MAX_VALUE)
+                                        .build();
+    }
+
+    /**
+     * @return Builder instance to construct a {@link ShardReader}.
+     */
+    public static <RecordT> Builder<RecordT> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ShardRecord<RecordT>> subscriber) {
+        new Execution(subscriber).start();
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+
+    /**
+     * A single read of the stream, for one subscriber.
+     */
+    private final class Execution implements Subscription {
+        private final Subscriber<? super ShardRecord<RecordT>> subscriber;
+        private final Map<String, Shard> shards = new HashMap<>();
+        private final List<Shard> shardOrder = new ArrayList<>();
+        private int nextShard;
+        private int bufferedRecords;
+        private long demand;
+        private boolean listed;
+        private boolean listing;
+        private boolean listAgain;
+        private int listRetries;
+        private boolean draining;
+        private boolean drainAgain;
+        private boolean terminated;
+        private Throwable error;
+
+        private Execution(Subscriber<? super ShardRecord<RecordT>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void start() {
+            subscriber.onSubscribe(this);
+            synchronized (this) {
+                listing = true;
+            }
+            listShards();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Demand must be positive, but was " + n));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            terminated = true;
+            shardOrder.forEach(s -> s.records.clear());
+        }
+
+        /**
+         * Deliver buffered records within the demand of the subscriber, start the reads of the shards that can be read, and
+         * list the shards again after a shard was read to its end. Only one thread drains at a time; other threads record
+         * that another pass is needed, so records are delivered serially and without holding the lock.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    drainAgain = true;
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                List<ShardRecord<RecordT>> toDeliver = new ArrayList<>();
+                List<Shard> toFetch = new ArrayList<>();
+                List<Shard> shardEnds = new ArrayList<>();
+                boolean startListing = false;
+                Throwable failure;
+                boolean complete;
+                synchronized (this) {
+                    drainAgain = false;
+                    if (terminated) {
+                        draining = false;
+                        return;
+                    }
+                    failure = error;
+                    if (failure == null && listed) {
+                        collect(toDeliver);
+                        if (finishShards(shardEnds)) {
+                            startListing = !listing;
+                            listAgain |= listing;
+                            listing = true;
+                        }
+                        shardsToFetch(toFetch);
+                    }
+                    complete = failure == null && listed && !listing && shardOrder.stream().allMatch(s -> s.finished);
+                    terminated = failure != null || complete;
+                }
+                if (startListing) {
+                    listShards();
+                }
+                shardEnds.forEach(this::checkpointShardEnd);
+                toFetch.forEach(this::fetch);
+                toDeliver.forEach(subscriber::onNext);
+                if (failure != null) {
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (complete) {
+                    subscriber.onComplete();
+                    return;
+                }
+                synchronized (this) {
+                    if (!drainAgain) {
+                        draining = false;
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void collect(List<ShardRecord<RecordT>> toDeliver) {
+            int emptyShards = 0;
+            while (demand > 0 && bufferedRecords > 0 && emptyShards < shardOrder.size()) {
+                Shard shard = shardOrder.get(nextShard);
+                nextShard = (nextShard + 1) % shardOrder.size();
+                if (shard.records.isEmpty()) {
+                    emptyShards++;
+                    continue;
+                }
+                emptyShards = 0;
+                RecordT record = shard.records.poll();
+                String sequenceNumber = stream.sequenceNumber(record);
+                shard.lastDeliveredSequenceNumber = sequenceNumber;
+                Supplier<CompletableFuture<Void>> checkpoint = () -> checkpoint(shard, sequenceNumber);
+                toDeliver.add(new ShardRecord<>(shard.lineage.shardId(), sequenceNumber, record, checkpoint));
+                bufferedRecords--;
+                demand--;
+            }
+        }
+
+        /**
+         * Mark the shards that were read to their end and whose records have all been delivered as finished.
+         *
+         * @return Whether a shard was finished.
+         */
+        private boolean finishShards(List<Shard> shardEnds) {
+            boolean finished = false;
+            for (Shard shard : shardOrder) {
+                if (!shard.finished && shard.ended && shard.records.isEmpty()) {
+                    shard.finished = true;
+                    finished = true;
+                    log.debug(() -> "Finished reading shard " + shard.lineage.shardId());
+                    if (shard.readyForShardEnd()) {
+                        shardEnds.add(shard);
+                    }
+                }
+            }
+            return finished;
+        }
+
+        private void shardsToFetch(List<Shard> toFetch) {
+            long now = System.nanoTime();
+            for (Shard shard : shardOrder) {
+                if (shard.finished || shard.ended || shard.fetching || shard.records.size() >= maxBufferedRecordsPerShard
+                    || !parentsFinished(shard)) {
+                    continue;
+                }
+                long delay = shard.nextFetchNanos - now;
+                if (delay <= 0) {
+                    shard.fetching = true;
+                    toFetch.add(shard);
+                } else if (!shard.wakeUpScheduled) {
+                    shard.wakeUpScheduled = true;
+                    scheduler.schedule(() -> {
+                        synchronized (this) {
+                            shard.wakeUpScheduled = false;
+                        }
+                        drain();
+                    }, delay, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private boolean parentsFinished(Shard shard) {
+            return isFinished(shard.lineage.parentShardId()) && isFinished(shard.lineage.adjacentParentShardId());
+        }
+
+        /**
+         * @return Whether a shard was read to its end, or is not read at all because it is not part of the stream anymore.
+         */
+        private boolean isFinished(String shardId) {
+            Shard shard = shardId == null ? null : shards.get(shardId);
+            return shard == null || shard.finished;
+        }
+
+        private void listShards() {
+            CompletableFuture<List<Shard>> newShards;
+            try {
+                newShards = stream.listShards().thenCompose(this::loadCheckpoints);
+            } catch (RuntimeException e) {
+                newShards = new CompletableFuture<>();
+                newShards.completeExceptionally(e);
+            }
+            newShards.whenComplete((added, t) -> {
+                boolean listNow = false;
+                synchronized (this) {
+                    if (t != null) {
+                        Throwable cause = unwrap(t);
+                        if (!stream.isThrottlingException(cause)) {
+                            listing = false;
+                            error = error == null ? cause : error;
+                        } else {
+                            Duration delay = backoff(listRetries++);
+                            log.debug(() -> "Listing the shards was throttled, retrying in " + delay.toMillis() + " ms.");
+                            scheduler.schedule(this::listShards, delay.toMillis(), TimeUnit.MILLISECONDS);
+                        }
+                    } else {
+                        listRetries = 0;
+                        for (Shard shard : added) {
+                            shards.put(shard.lineage.shardId(), shard);
+                            shardOrder.add(shard);
+                        }
+                        log.debug(() -> "Found " + added.size() + " new shards.");
+                        listed = true;
+                        listNow = listAgain;
+                        listAgain = false;
+                        listing = listNow;
+                    }
+                }
+                if (listNow) {
+                    listShards();
+                }
+                drain();
+            });
+        }
+
+        /**
+         * Create the shards that are not known yet, loading their checkpoints and then choosing where the shards without a
+         * checkpoint are read from.
+         */
+        private CompletableFuture<List<Shard>> loadCheckpoints(List<ShardLineage> lineages) {
+            Map<String, Shard> added = new HashMap<>();
+            List<CompletableFuture<?>> checkpoints = new ArrayList<>();
+            synchronized (this) {
+                for (ShardLineage lineage : lineages) {
+                    if (shards.containsKey(lineage.shardId())) {
+                        continue;
+                    }
+                    Shard shard = new Shard(lineage);
+                    added.put(lineage.shardId(), shard);
+                    checkpoints.add(checkpointer.lastCheckpoint(lineage.shardId()).thenAccept(shard::checkpointLoaded));
+                }
+            }
+            return CompletableFuture.allOf(checkpoints.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<Shard> shardsAdded = new ArrayList<>();
+                synchronized (this) {
+                    for (ShardLineage lineage : lineages) {
+                        Shard shard = added.get(lineage.shardId());
+                        if (shard != null) {
+                            shard.initialPosition = initialPositionOf(shard.lineage, added);
+                            shardsAdded.add(shard);
+                        }
+                    }
+                }
+                return shardsAdded;
+            });
+        }
+
+        /**
+         * A shard is read from its oldest record when one of its parents is read by this execution, so that no record is
+         * skipped after a reshard. Otherwise it is read from the configured initial position, so that a reader started at
+         * {@link InitialShardPosition#LATEST} does not read the children of the closed shards of the first listing from their
+         * oldest record. Must be called holding the lock.
+         */
+        private InitialShardPosition initialPositionOf(ShardLineage lineage, Map<String, Shard> added) {
+            return isRead(lineage.parentShardId(), added) || isRead(lineage.adjacentParentShardId(), added)
+                   ? InitialShardPosition.TRIM_HORIZON : initialPosition;
+        }
+
+        /**
+         * @return Whether a shard is read by this execution: it was found by an earlier listing, it is resumed from a
+         * checkpoint, or it is itself read from its oldest record as the child of such a shard.
+         */
+        private boolean isRead(String shardId, Map<String, Shard> added) {
+            if (shardId == null) {
+                return false;
+            }
+            if (shards.containsKey(shardId)) {
+                return true;
+            }
+            Shard shard = added.get(shardId);
+            return shard != null && (shard.hasCheckpoint()
+                                     || initialPositionOf(shard.lineage, added) == InitialShardPosition.TRIM_HORIZON);
+        }
+
+        private void fetch(Shard shard) {
+            CompletableFuture<ShardRecordsPage<RecordT>> page;
+            try {
+                if (shard.iterator == null) {
+                    String after = shard.lastFetchedSequenceNumber != null ? shard.lastFetchedSequenceNumber : shard.checkpoint;
+                    page = stream.shardIterator(shard.lineage.shardId(), after, shard.initialPosition)
+                                 .thenCompose(i -> stream.getRecords(i, maxRecordsPerRequest));
+                } else {
+                    page = stream.getRecords(shard.iterator, maxRecordsPerRequest);
+                }
+            } catch (RuntimeException e) {
+                page = new CompletableFuture<>();
+                page.completeExceptionally(e);
+            }
+            page.whenComplete((p, t) -> {
+                synchronized (this) {
+                    shard.fetching = false;
+                    if (t == null) {
+                        bufferedRecords += shard.pageReceived(p);
+                    } else {
+                        fetchFailed(shard, unwrap(t));
+                    }
+                }
+                drain();
+            });
+        }
+
+        /**
+         * Handle a failed read of a shard. Must be called holding the lock.
+         */
+        private void fetchFailed(Shard shard, Throwable cause) {
+            String shardId = shard.lineage.shardId();
+            if (stream.isExpiredIteratorException(cause)) {
+                shard.iterator = null;
+                if (shard.initialPosition == InitialShardPosition.LATEST && shard.lastFetchedSequenceNumber == null
+                    && shard.checkpoint == null) {
+                    log.warn(() -> "The iterator of shard " + shardId + " expired before any record was read, reading the "
+                                   + "shard from its oldest record so that no record is skipped.");
+                    shard.initialPosition = InitialShardPosition.TRIM_HORIZON;
+                } else {
+                    log.debug(() -> "The iterator of shard " + shardId + " expired, requesting a new one.");
+                }
+            } else if (stream.isThrottlingException(cause)) {
+                Duration delay = backoff(shard.throttledRetries++);
+                log.debug(() -> "Reading shard " + shardId + " was throttled, retrying in " + delay.toMillis() + " ms.");
+                shard.nextFetchNanos = System.nanoTime() + delay.toNanos();
+            } else if (error == null) {
+                error = cause;
+            }
+        }
+
+        private Duration backoff(int retriesAttempted) {
+            return backoffStrategy.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                                                                                 .retriesAttempted(retriesAttempted)
+                                                                                 .build());
+        }
+
+        private CompletableFuture<Void> checkpoint(Shard shard, String sequenceNumber) {
+            return checkpointer.checkpoint(shard.lineage.shardId(), sequenceNumber).thenCompose(v -> {
+                boolean shardEnd;
+                synchronized (this) {
+                    shard.checkpointedSequenceNumber = sequenceNumber;
+                    shardEnd = shard.readyForShardEnd();
+                }
+                return shardEnd ? checkpointer.checkpoint(shard.lineage.shardId(), ShardCheckpointer.SHARD_END)
+                                : CompletableFuture.completedFuture(null);
+            });
+        }
+
+        private void checkpointShardEnd(Shard shard) {
+            String shardId = shard.lineage.shardId();
+            checkpointer.checkpoint(shardId, ShardCheckpointer.SHARD_END).whenComplete((r, t) -> {
+                if (t != null) {
+                    log.warn(() -> "Unable to checkpoint the end of shard " + shardId, t);
+                }
+            });
+        }
+
+        private void fail(Throwable t) {
+            synchronized (this) {
+                if (terminated || error != null) {
+                    return;
+                }
+                error = t;
+            }
+            drain();
+        }
+    }
+
+    /**
+     * The read state of a shard.
+     */
+    private final class Shard {
+        private final ShardLineage lineage;
+        private InitialShardPosition initialPosition;
+        private final Deque<RecordT> records = new ArrayDeque<>();
+        private String checkpoint;
+        private String iterator;
+        private String lastFetchedSequenceNumber;
+        private String lastDeliveredSequenceNumber;
+        private String checkpointedSequenceNumber;
+        private boolean fetching;
+        private boolean wakeUpScheduled;
+        private long nextFetchNanos = System.nanoTime();
+        private int throttledRetries;
+        private boolean ended;
+        private boolean finished;
+        private boolean shardEndCheckpointed;
+
+        private Shard(ShardLineage lineage) {
+            this.lineage = lineage;
+        }
+
+        private void checkpointLoaded(String sequenceNumber) {
+            if (ShardCheckpointer.SHARD_END.equals(sequenceNumber)) {
+                ended = true;
+                finished = true;
+                shardEndCheckpointed = true;
+            } else {
+                checkpoint = sequenceNumber;
+            }
+        }
+
+        private boolean hasCheckpoint() {
+            return checkpoint != null || shardEndCheckpointed;
+        }
+
+        /**
+         * @return The number of records added to the buffer of this shard.
+         */
+        private int pageReceived(ShardRecordsPage<RecordT> page) {
+            throttledRetries = 0;
+            iterator = page.nextShardIterator();
+            ended = iterator == null;
+            List<RecordT> received = page.records();
+            boolean empty = received == null || received.isEmpty();
+            nextFetchNanos = System.nanoTime() + (empty ? idleNanosBetweenRequests : minNanosBetweenRequests);
+            if (empty) {
+                return 0;
+            }
+            records.addAll(received);
+            lastFetchedSequenceNumber = stream.sequenceNumber(received.get(received.size() - 1));
+            return received.size();
+        }
+
+        /**
+         * Check whether this shard is finished and its last delivered record was checkpointed, in which case the end of the
+         * shard can be checkpointed. Must be called holding the lock of the execution.
+         */
+        private boolean readyForShardEnd() {
+            if (!finished || shardEndCheckpointed || !Objects.equals(checkpointedSequenceNumber, lastDeliveredSequenceNumber)) {
+                return false;
+            }
+            shardEndCheckpointed = true;
+            return true;
+        }
+    }
+
+    /**
+     * A builder for {@link ShardReader}.
+     *
+     * @param <RecordT> The type of the records of the stream.
+     */
+    public static final class Builder<RecordT> implements SdkBuilder<Builder<RecordT>, ShardReader<RecordT>> {
+
+        private ShardedStream<RecordT> stream;
+        private InitialShardPosition initialPosition;
+        private ShardCheckpointer checkpointer;
+        private Integer maxBufferedRecordsPerShard;
+        private Integer maxRecordsPerRequest;
+        private Duration minTimeBetweenRequests;
+        private Duration idleTimeBetweenRequests;
+        private BackoffStrategy backoffStrategy;
+        private ScheduledExecutorService scheduledExecutorService;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the stream to read. Required.
+         */
+        public Builder<RecordT> stream(ShardedStream<RecordT> stream) {
+            this.stream = stream;
+            return this;
+        }
+
+        /**
+         * Sets where shards without a checkpoint are read from. The default is {@link InitialShardPosition#LATEST}.
+         */
+        public Builder<RecordT> initialPosition(InitialShardPosition initialPosition) {
+            this.initialPosition = initialPosition;
+            return this;
+        }
+
+        /**
+         * Sets the checkpointer shards are resumed from. The default keeps the checkpoints in memory.
+         */
+        public Builder<RecordT> checkpointer(ShardCheckpointer checkpointer) {
+            this.checkpointer = checkpointer;
+            return this;
+        }
+
+        /**
+         * Sets the number of records of a shard waiting to be delivered above which the shard is not read further. The default
+         * is 1,000 records.
+         */
+        public Builder<RecordT> maxBufferedRecordsPerShard(Integer maxBufferedRecordsPerShard) {
+            this.maxBufferedRecordsPerShard = maxBufferedRecordsPerShard;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of records returned by a single call. The default is the maximum of the service.
+         */
+        public Builder<RecordT> maxRecordsPerRequest(Integer maxRecordsPerRequest) {
+            this.maxRecordsPerRequest = maxRecordsPerRequest;
+            return this;
+        }
+
+        /**
+         * Sets the minimum time between two calls reading the same shard. The default is 200 milliseconds.
+         */
+        public Builder<RecordT> minTimeBetweenRequests(Duration minTimeBetweenRequests) {
+            this.minTimeBetweenRequests = minTimeBetweenRequests;
+            return this;
+        }
+
+        /**
+         * Sets the time to wait before reading a shard again after a call returned no records. The default is 1 second.
+         */
+        public Builder<RecordT> idleTimeBetweenRequests(Duration idleTimeBetweenRequests) {
+            this.idleTimeBetweenRequests = idleTimeBetweenRequests;
+            return this;
+        }
+
+        /**
+         * Sets the strategy computing the delay before a throttled call is made again. The default is a
+         * {@link FullJitterBackoffStrategy} with a base delay of 200 milliseconds and a maximum delay of 10 seconds.
+         */
+        public Builder<RecordT> backoffStrategy(BackoffStrategy backoffStrategy) {
+            this.backoffStrategy = backoffStrategy;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to delay calls. Required.
+         */
+        public Builder<RecordT> scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            this.scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        @Override
+        public ShardReader<RecordT> build() {
+            return new ShardReader<>(this);
+        }
+    }
+}
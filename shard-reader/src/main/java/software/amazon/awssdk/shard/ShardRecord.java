@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import software.amazon.awssdk.annotations.SdkPublicApi;
+import software.amazon.awssdk.utils.ToString;
+
+/**
+ * A record read from a shard of a stream.
+ *
+ * @param <RecordT> The type of the records of the stream.
+ */
+@SdkPublicApi
+public final class ShardRecord<RecordT> {
+
+    private final String shardId;
+    private final String sequenceNumber;
+    private final RecordT record;
+    private final Supplier<CompletableFuture<Void>> checkpoint;
+
+    ShardRecord(String shardId, String sequenceNumber, RecordT record, Supplier<CompletableFuture<Void>> checkpoint) {
+        this.shardId = shardId;
+        this.sequenceNumber = sequenceNumber;
+        this.record = record;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return The identifier of the shard the record was read from.
+     */
+    public String shardId() {
+        return shardId;
+    }
+
+    /**
+     * @return The sequence number of the record within its shard.
+     */
+    public String sequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * @return The record.
+     */
+    public RecordT record() {
+        return record;
+    }
+
+    /**
+     * Record that this record and all the records read before it from the same shard have been processed, so that a reader
+     * started later resumes after it.
+     *
+     * <p>Once a closed shard has been read to its end and its last record has been checkpointed, the shard itself is
+     * checkpointed as {@link ShardCheckpointer#SHARD_END}.</p>
+     *
+     * @return A future completed once the checkpoint is stored.
+     */
+    public CompletableFuture<Void> checkpoint() {
+        return checkpoint.get();
+    }
+
+    @Override
+    public String toString() {
+        return ToString.builder("ShardRecord").add("ShardId", shardId).add("SequenceNumber", sequenceNumber).build();
+    }
+}
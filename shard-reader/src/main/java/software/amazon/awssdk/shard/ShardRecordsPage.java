@@ -0,0 +1,48 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.util.List;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+
+/**
+ * The records returned by a single {@code GetRecords} call.
+ *
+ * @param <RecordT> The type of the records of the stream.
+ */
+@SdkProtectedApi
+public final class ShardRecordsPage<RecordT> {
+
+    private final List<RecordT> records;
+    private final String nextShardIterator;
+
+    public ShardRecordsPage(List<RecordT> records, String nextShardIterator) {
+        this.records = records;
+        this.nextShardIterator = nextShardIterator;
+    }
+
+    public List<RecordT> records() {
+        return records;
+    }
+
+    /**
+     * @return The iterator to read the next records of the shard with, or null if the shard is closed and all its records
+     * have been read.
+     */
+    public String nextShardIterator() {
+        return nextShardIterator;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.annotations.SdkProtectedApi;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.retry.RetryUtils;
+
+/**
+ * The operations of a service whose streams are split into shards read with shard iterators, such as Kinesis and DynamoDB
+ * Streams, used by a {@link ShardReader} to read one stream.
+ *
+ * @param <RecordT> The type of the records of the stream.
+ */
+@SdkProtectedApi
+public interface ShardedStream<RecordT> {
+
+    /**
+     * @return A future completed with all the shards of the stream, open or closed.
+     */
+    CompletableFuture<List<ShardLineage>> listShards();
+
+    /**
+     * Get an iterator to read a shard from a position.
+     *
+     * @param shardId The identifier of the shard.
+     * @param afterSequenceNumber The sequence number to read after, or null to read from the initial position.
+     * @param initialPosition The position to read from when there is no sequence number.
+     * @return A future completed with the shard iterator.
+     */
+    CompletableFuture<String> shardIterator(String shardId, String afterSequenceNumber, InitialShardPosition initialPosition);
+
+    /**
+     * Read the next records of a shard.
+     *
+     * @param shardIterator The shard iterator returned by {@link #shardIterator} or by the previous page.
+     * @param limit The maximum number of records to return, or null for the default of the service.
+     * @return A future completed with the records.
+     */
+    CompletableFuture<ShardRecordsPage<RecordT>> getRecords(String shardIterator, Integer limit);
+
+    /**
+     * @return The sequence number of a record.
+     */
+    String sequenceNumber(RecordT record);
+
+    /**
+     * @return Whether an exception means that the shard iterator expired, in which case a new iterator is requested.
+     */
+    boolean isExpiredIteratorException(Throwable exception);
+
+    /**
+     * @return Whether an exception means that the request was throttled, in which case it is made again after a backoff.
+     */
+    default boolean isThrottlingException(Throwable exception) {
+        return exception instanceof SdkException && RetryUtils.isThrottlingException((SdkException) exception);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard.internal;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import software.amazon.awssdk.annotations.SdkInternalApi;
+import software.amazon.awssdk.shard.ShardCheckpointer;
+
+/**
+ * A {@link ShardCheckpointer} keeping the checkpoints in a map.
+ */
+@SdkInternalApi
+public final class InMemoryShardCheckpointer implements ShardCheckpointer {
+
+    private final Map<String, String> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<String> lastCheckpoint(String shardId) {
+        return CompletableFuture.completedFuture(checkpoints.get(shardId));
+    }
+
+    @Override
+    public CompletableFuture<Void> checkpoint(String shardId, String sequenceNumber) {
+        checkpoints.put(shardId, sequenceNumber);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package software.amazon.awssdk.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+public class ShardReaderTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final FakeStream stream = new FakeStream();
+    private final ShardCheckpointer checkpointer = ShardCheckpointer.inMemory();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void parentsAreReadBeforeTheirChildren() {
+        stream.closedShard("parent", null, null, 5);
+        stream.closedShard("other", null, null, 3);
+        stream.closedShard("left", "parent", null, 2);
+        stream.closedShard("right", "parent", null, 2);
+        stream.closedShard("merged", "left", "right", 2);
+
+        TestSubscriber subscriber = read(Long.MAX_VALUE);
+
+        List<String> records = subscriber.records();
+        assertThat(records).hasSize(14);
+        assertThat(records.indexOf("left-0")).isGreaterThan(records.indexOf("parent-4"));
+        assertThat(records.indexOf("right-0")).isGreaterThan(records.indexOf("parent-4"));
+        assertThat(records.indexOf("merged-0")).isGreaterThan(records.indexOf("left-1"))
+                                               .isGreaterThan(records.indexOf("right-1"));
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void shardsAreReadAheadUpToTheBufferLimit() {
+        stream.openShard("shard", 100);
+        TestSubscriber subscriber = new TestSubscriber();
+        reader().maxBufferedRecordsPerShard(20).maxRecordsPerRequest(10).build().subscribe(subscriber);
+
+        assertThat(stream.getRecordsCalls).isEqualTo(2);
+
+        subscriber.subscription.request(5);
+
+        assertThat(subscriber.records()).containsExactly("shard-0", "shard-1", "shard-2", "shard-3", "shard-4");
+        assertThat(stream.getRecordsCalls).isEqualTo(3);
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test
+    public void throttledAndExpiredReadsAreRetried() {
+        stream.closedShard("shard", null, null, 6);
+        SdkServiceException throttled = new SdkServiceException("Rate exceeded");
+        throttled.errorCode("ProvisionedThroughputExceededException");
+        stream.pageSize = 2;
+        stream.failures.add(null);
+        stream.failures.add(throttled);
+        stream.failures.add(new ExpiredIteratorException());
+
+        TestSubscriber subscriber = read(Long.MAX_VALUE);
+
+        assertThat(subscriber.records()).containsExactly("shard-0", "shard-1", "shard-2", "shard-3", "shard-4", "shard-5");
+        assertThat(stream.iteratorRequests).containsExactly("shard after null", "shard after shard-1");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void shardsAreResumedFromTheirCheckpoint() {
+        stream.closedShard("done", null, null, 3);
+        stream.closedShard("shard", null, null, 4);
+        checkpointer.checkpoint("done", ShardCheckpointer.SHARD_END);
+        checkpointer.checkpoint("shard", "shard-1");
+
+        TestSubscriber subscriber = read(Long.MAX_VALUE);
+
+        assertThat(subscriber.records()).containsExactly("shard-2", "shard-3");
+        assertThat(stream.iteratorRequests).containsExactly("shard after shard-1");
+        assertThat(checkpointer.lastCheckpoint("shard").join()).isEqualTo("shard-1");
+
+        subscriber.received.get(0).checkpoint().join();
+        assertThat(checkpointer.lastCheckpoint("shard").join()).isEqualTo("shard-2");
+        subscriber.received.get(1).checkpoint().join();
+        assertThat(checkpointer.lastCheckpoint("shard").join()).isEqualTo(ShardCheckpointer.SHARD_END);
+    }
+
+    @Test
+    public void shardsOfTheFirstListingAreReadFromLatestAfterAReshard() {
+        stream.closedShard("parent", null, null, 5);
+        stream.openShard("child", "parent", 3);
+
+        TestSubscriber subscriber = new TestSubscriber();
+        reader().initialPosition(InitialShardPosition.LATEST).idleTimeBetweenRequests(Duration.ofMinutes(1)).build()
+                .subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.records()).isEmpty();
+        assertThat(stream.initialPositions).containsExactly("parent from LATEST", "child from LATEST");
+    }
+
+    @Test
+    public void childrenOfResumedShardsAreReadFromTheirOldestRecord() {
+        stream.closedShard("parent", null, null, 4);
+        stream.closedShard("child", "parent", null, 2);
+        checkpointer.checkpoint("parent", "parent-1");
+
+        TestSubscriber subscriber = read(InitialShardPosition.LATEST);
+
+        assertThat(subscriber.records()).containsExactly("parent-2", "parent-3", "child-0", "child-1");
+        assertThat(stream.initialPositions).containsExactly("child from TRIM_HORIZON");
+    }
+
+    @Test
+    public void childrenFoundAfterTheFirstListingAreReadFromTheirOldestRecord() {
+        stream.closedShard("parent", null, null, 4);
+        stream.closedShardListedLater("left", "parent", 2);
+        stream.closedShardListedLater("grandchild", "left", 2);
+
+        TestSubscriber subscriber = read(InitialShardPosition.LATEST);
+
+        assertThat(subscriber.records()).containsExactly("left-0", "left-1", "grandchild-0", "grandchild-1");
+        assertThat(stream.initialPositions).containsExactly("parent from LATEST", "left from TRIM_HORIZON",
+                                                            "grandchild from TRIM_HORIZON");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void shardsWhoseIteratorExpiresBeforeAnyRecordUnderLatestAreReadFromTheirOldestRecord() {
+        stream.closedShard("shard", null, null, 3);
+        stream.failures.add(new ExpiredIteratorException());
+
+        TestSubscriber subscriber = read(InitialShardPosition.LATEST);
+
+        assertThat(subscriber.records()).containsExactly("shard-0", "shard-1", "shard-2");
+        assertThat(stream.initialPositions).containsExactly("shard from LATEST", "shard from TRIM_HORIZON");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void failedReadsFailTheSubscription() {
+        stream.openShard("shard", 10);
+        stream.failures.add(new IllegalStateException("boom"));
+
+        TestSubscriber subscriber = read(Long.MAX_VALUE);
+
+        assertThat(subscriber.error).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    private ShardReader.Builder<String> reader() {
+        return ShardReader.<String>builder()
+                          .stream(stream)
+                          .checkpointer(checkpointer)
+                          .initialPosition(InitialShardPosition.TRIM_HORIZON)
+                          .minTimeBetweenRequests(Duration.ZERO)
+                          .idleTimeBetweenRequests(Duration.ZERO)
+                          .backoffStrategy(c -> Duration.ZERO)
+                          .scheduledExecutorService(scheduler);
+    }
+
+    private TestSubscriber read(long demand) {
+        TestSubscriber subscriber = new TestSubscriber();
+        reader().build().subscribe(subscriber);
+        subscriber.subscription.request(demand);
+        return subscriber;
+    }
+
+    private TestSubscriber read(InitialShardPosition initialPosition) {
+        TestSubscriber subscriber = new TestSubscriber();
+        reader().initialPosition(initialPosition).build().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        return subscriber;
+    }
+
+    private static final class ExpiredIteratorException extends RuntimeException {
+    }
+
+    /**
+     * A stream whose operations complete immediately, so that a read proceeds on the calling thread.
+     */
+    private static final class FakeStream implements ShardedStream<String> {
+        private final List<ShardLineage> lineages = new ArrayList<>();
+        private final List<ShardLineage> lineagesListedLater = new ArrayList<>();
+        private final Map<String, List<String>> records = new HashMap<>();
+        private final Set<String> openShards = new HashSet<>();
+        private final LinkedList<RuntimeException> failures = new LinkedList<>();
+        private final List<String> iteratorRequests = new ArrayList<>();
+        private final List<String> initialPositions = new ArrayList<>();
+        private int pageSize = 3;
+        private int getRecordsCalls;
+
+        private void closedShard(String shardId, String parentShardId, String adjacentParentShardId, int count) {
+            lineages.add(new ShardLineage(shardId, parentShardId, adjacentParentShardId));
+            records.put(shardId, IntStream.range(0, count).mapToObj(i -> shardId + "-" + i).collect(Collectors.toList()));
+        }
+
+        private void openShard(String shardId, int count) {
+            openShard(shardId, null, count);
+        }
+
+        private void openShard(String shardId, String parentShardId, int count) {
+            closedShard(shardId, parentShardId, null, count);
+            openShards.add(shardId);
+        }
+
+        /**
+         * Add a closed shard that is only listed from the second listing on, as if the stream was resharded after the reader
+         * started.
+         */
+        private void closedShardListedLater(String shardId, String parentShardId, int count) {
+            closedShard(shardId, parentShardId, null, count);
+            lineagesListedLater.add(lineages.remove(lineages.size() - 1));
+        }
+
+        @Override
+        public CompletableFuture<List<ShardLineage>> listShards() {
+            List<ShardLineage> listed = new ArrayList<>(lineages);
+            lineages.addAll(lineagesListedLater);
+            lineagesListedLater.clear();
+            return CompletableFuture.completedFuture(listed);
+        }
+
+        @Override
+        public CompletableFuture<String> shardIterator(String shardId, String afterSequenceNumber,
+                                                       InitialShardPosition initialPosition) {
+            iteratorRequests.add(shardId + " after " + afterSequenceNumber);
+            if (afterSequenceNumber == null) {
+                initialPositions.add(shardId + " from " + initialPosition);
+            }
+            int position = afterSequenceNumber != null ? records.get(shardId).indexOf(afterSequenceNumber) + 1
+                                                       : initialPosition == InitialShardPosition.LATEST
+                                                         ? records.get(shardId).size() : 0;
+            return CompletableFuture.completedFuture(shardId + ":" + position);
+        }
+
+        @Override
+        public CompletableFuture<ShardRecordsPage<String>> getRecords(String shardIterator, Integer limit) {
+            getRecordsCalls++;
+            RuntimeException failure = failures.isEmpty() ? null : failures.poll();
+            if (failure != null) {
+                CompletableFuture<ShardRecordsPage<String>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(failure);
+                return failed;
+            }
+            String shardId = shardIterator.substring(0, shardIterator.indexOf(':'));
+            int position = Integer.parseInt(shardIterator.substring(shardId.length() + 1));
+            List<String> shardRecords = records.get(shardId);
+            int end = Math.min(shardRecords.size(), position + (limit == null ? pageSize : limit));
+            boolean closed = end == shardRecords.size() && !openShards.contains(shardId);
+            return CompletableFuture.completedFuture(new ShardRecordsPage<>(new ArrayList<>(shardRecords.subList(position, end)),
+                                                                            closed ? null : shardId + ":" + end));
+        }
+
+        @Override
+        public String sequenceNumber(String record) {
+            return record;
+        }
+
+        @Override
+        public boolean isExpiredIteratorException(Throwable exception) {
+            return exception instanceof ExpiredIteratorException;
+        }
+    }
+
+    private static final class TestSubscriber implements Subscriber<ShardRecord<String>> {
+        private final List<ShardRecord<String>> received = Collections.synchronizedList(new ArrayList<>());
+        private Subscription subscription;
+        private boolean completed;
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ShardRecord<String> record) {
+            assertThat(record.record()).isEqualTo(record.sequenceNumber()).startsWith(record.shardId());
+            received.add(record);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        private List<String> records() {
+            return received.stream().map(ShardRecord::record).collect(Collectors.toList());
+        }
+    }
+}
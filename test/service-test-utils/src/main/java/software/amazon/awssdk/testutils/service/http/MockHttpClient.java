@@ -16,8 +16,12 @@
 package software.amazon.awssdk.testutils.service.http;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import software.amazon.awssdk.http.AbortableCallable;
 import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.http.SdkHttpConfigurationOption;
@@ -31,6 +35,7 @@ import software.amazon.awssdk.http.SdkRequestContext;
 public final class MockHttpClient implements SdkHttpClient {
 
     private final List<SdkHttpFullRequest> capturedRequests = new ArrayList<>();
+    private final Queue<SdkHttpFullResponse> stubbedResponses = new LinkedList<>();
     private SdkHttpFullResponse nextResponse;
 
     @Override
@@ -40,7 +45,8 @@ public final class MockHttpClient implements SdkHttpClient {
         return new AbortableCallable<SdkHttpFullResponse>() {
             @Override
             public SdkHttpFullResponse call() throws Exception {
-                return nextResponse;
+                SdkHttpFullResponse stubbedResponse = stubbedResponses.poll();
+                return stubbedResponse != null ? stubbedResponse : nextResponse;
             }
 
             @Override
@@ -63,6 +69,7 @@ public final class MockHttpClient implements SdkHttpClient {
      */
     public void reset() {
         this.capturedRequests.clear();
+        this.stubbedResponses.clear();
         this.nextResponse = null;
     }
 
@@ -76,6 +83,23 @@ public final class MockHttpClient implements SdkHttpClient {
         this.nextResponse = nextResponse;
     }
 
+    /**
+     * Sets up a sequence of HTTP responses returned by the mock, one per request, before the response set up with
+     * {@link #stubNextResponse(SdkHttpFullResponse)}.
+     *
+     * @param responses Next {@link SdkHttpFullResponse}s to return, in order.
+     */
+    public void stubResponses(SdkHttpFullResponse... responses) {
+        this.stubbedResponses.addAll(Arrays.asList(responses));
+    }
+
+    /**
+     * @return All requests that went through this mock client, in the order they were executed.
+     */
+    public List<SdkHttpFullRequest> getRequests() {
+        return Collections.unmodifiableList(capturedRequests);
+    }
+
     /**
      * @return The last executed request that went through this mock client.
      * @throws IllegalStateException If no requests have been captured.
@@ -32,12 +32,25 @@ public enum SdkSystemSetting implements SystemSetting {
      * when there are multiple implementations on the classpath or as a performance optimization
      * since implementation discovery requires classpath scanning.
      */
-    ASYNC_HTTP_SERVICE_IMPL("software.amazon.awssdk.http.async.service.impl");
+    ASYNC_HTTP_SERVICE_IMPL("software.amazon.awssdk.http.async.service.impl"),
+
+    /**
+     * Whether execution interceptors should be loaded from execution.interceptors files on the classpath. Interceptors that
+     * services register in their generated client builders are always loaded. Disabling this avoids classpath scanning when
+     * clients are created, which can be a significant part of start-up time for short-lived applications.
+     */
+    CLASSPATH_INTERCEPTORS_ENABLED("software.amazon.awssdk.interceptors.classpath.enabled", "true");
 
     private final String systemProperty;
+    private final String defaultValue;
 
     SdkSystemSetting(String systemProperty) {
+        this(systemProperty, null);
+    }
+
+    SdkSystemSetting(String systemProperty, String defaultValue) {
         this.systemProperty = systemProperty;
+        this.defaultValue = defaultValue;
     }
 
     @Override
@@ -52,6 +65,6 @@ public enum SdkSystemSetting implements SystemSetting {
 
     @Override
     public String defaultValue() {
-        return null;
+        return defaultValue;
     }
 }